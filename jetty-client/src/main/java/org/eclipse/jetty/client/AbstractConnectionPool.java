@@ -23,6 +23,7 @@ import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 import org.eclipse.jetty.client.api.Connection;
@@ -33,8 +34,11 @@ import org.eclipse.jetty.util.Pool;
 import org.eclipse.jetty.util.Promise;
 import org.eclipse.jetty.util.annotation.ManagedAttribute;
 import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
 import org.eclipse.jetty.util.component.ContainerLifeCycle;
 import org.eclipse.jetty.util.component.Dumpable;
+import org.eclipse.jetty.util.thread.AutoLock;
+import org.eclipse.jetty.util.thread.Scheduler;
 import org.eclipse.jetty.util.thread.Sweeper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,8 +54,15 @@ public abstract class AbstractConnectionPool extends ContainerLifeCycle implemen
     private final HttpDestination destination;
     private final Callback requester;
     private final Pool<Connection> pool;
+    private final AutoLock lock = new AutoLock();
+    private final LongAdder replenishedConnections = new LongAdder();
+    private final LongAdder expiredConnections = new LongAdder();
+    private final LongAdder invalidConnections = new LongAdder();
     private boolean maximizeConnections;
     private volatile long maxDurationNanos = 0L;
+    private volatile int minIdleConnectionCount;
+    private volatile long maintenanceInterval = 1000L;
+    private Scheduler.Task maintenanceTask;
 
     protected AbstractConnectionPool(HttpDestination destination, int maxConnections, boolean cache, Callback requester)
     {
@@ -72,9 +83,17 @@ public abstract class AbstractConnectionPool extends ContainerLifeCycle implemen
         addBean(pool);
     }
 
+    @Override
+    protected void doStart() throws Exception
+    {
+        super.doStart();
+        scheduleMaintenance();
+    }
+
     @Override
     protected void doStop() throws Exception
     {
+        cancelMaintenance();
         pool.close();
     }
 
@@ -87,19 +106,196 @@ public abstract class AbstractConnectionPool extends ContainerLifeCycle implemen
         List<CompletableFuture<?>> futures = new ArrayList<>();
         for (int i = 0; i < connectionCount; i++)
         {
-            Pool<Connection>.Entry entry = pool.reserve();
-            if (entry == null)
+            CompletableFuture<?> future = createConnection();
+            if (future == null)
                 break;
-            pending.incrementAndGet();
-            Promise.Completable<Connection> future = new FutureConnection(entry);
             futures.add(future);
-            if (LOG.isDebugEnabled())
-                LOG.debug("Pre-creating connection {}/{} at {}", futures.size(), getMaxConnectionCount(), entry);
-            destination.newConnection(future);
         }
         return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
     }
 
+    private CompletableFuture<?> createConnection()
+    {
+        Pool<Connection>.Entry entry = pool.reserve();
+        if (entry == null)
+            return null;
+        pending.incrementAndGet();
+        Promise.Completable<Connection> future = new FutureConnection(entry);
+        if (LOG.isDebugEnabled())
+            LOG.debug("Pre-creating connection {}/{} at {}", getConnectionCount(), getMaxConnectionCount(), entry);
+        destination.newConnection(future);
+        return future;
+    }
+
+    /**
+     * @return the min number of idle connections that the pool maintains
+     * @see #setMinIdleConnectionCount(int)
+     */
+    @ManagedAttribute(value = "The min number of idle connections that the pool maintains")
+    public int getMinIdleConnectionCount()
+    {
+        return minIdleConnectionCount;
+    }
+
+    /**
+     * <p>Sets the min number of idle connections that the pool maintains.</p>
+     * <p>When this value is greater than zero, the pool periodically performs
+     * {@link #maintain() maintenance}, every {@link #getMaintenanceInterval()} milliseconds,
+     * opening new connections until the number of idle and pending connections is
+     * at least this value, so that requests do not pay the cost of opening connections.</p>
+     * <p>Idle connections are still subject to the {@link HttpClient#getIdleTimeout() idle timeout},
+     * and are replaced at the next maintenance if they are closed.</p>
+     *
+     * @param minIdleConnectionCount the min number of idle connections that the pool maintains
+     */
+    public void setMinIdleConnectionCount(int minIdleConnectionCount)
+    {
+        this.minIdleConnectionCount = minIdleConnectionCount;
+        scheduleMaintenance();
+    }
+
+    /**
+     * @return the interval in milliseconds between maintenances of the pool
+     */
+    @ManagedAttribute(value = "The interval in milliseconds between maintenances of the pool")
+    public long getMaintenanceInterval()
+    {
+        return maintenanceInterval;
+    }
+
+    /**
+     * @param maintenanceIntervalInMs the interval in milliseconds between maintenances of the pool
+     * @see #setMinIdleConnectionCount(int)
+     */
+    public void setMaintenanceInterval(long maintenanceIntervalInMs)
+    {
+        this.maintenanceInterval = maintenanceIntervalInMs;
+        scheduleMaintenance();
+    }
+
+    @ManagedAttribute(value = "The number of connections opened by the maintenance", readonly = true)
+    public long getReplenishedConnectionCount()
+    {
+        return replenishedConnections.sum();
+    }
+
+    @ManagedAttribute(value = "The number of idle connections closed by the maintenance because they exceeded the max duration", readonly = true)
+    public long getExpiredConnectionCount()
+    {
+        return expiredConnections.sum();
+    }
+
+    @ManagedAttribute(value = "The number of idle connections removed by the maintenance because they were closed", readonly = true)
+    public long getInvalidConnectionCount()
+    {
+        return invalidConnections.sum();
+    }
+
+    /**
+     * <p>Maintains the pool, so that the configured {@link #getMinIdleConnectionCount() min idle}
+     * connections are ready to be used.</p>
+     * <p>Idle connections that have been closed, for example by the server, are removed;
+     * idle connections that exceed the {@link #getMaxDuration() max duration} are
+     * removed and closed, so that long-lived idle connections are rotated;
+     * finally new connections are opened if the number of idle and pending connections
+     * is less than the min idle connection count.</p>
+     */
+    @ManagedOperation(value = "Maintains the pool", impact = "ACTION")
+    public void maintain()
+    {
+        if (isClosed())
+            return;
+
+        long maxDurationNanos = this.maxDurationNanos;
+        for (Pool<Connection>.Entry entry : pool.values())
+        {
+            if (!entry.isIdle())
+                continue;
+            Connection connection = entry.getPooled();
+            if (connection == null)
+                continue;
+            EntryHolder holder = (EntryHolder)((Attachable)connection).getAttachment();
+            if (holder == null)
+                continue;
+            boolean invalid = connection.isClosed();
+            boolean expired = !invalid && maxDurationNanos > 0L && holder.isExpired(maxDurationNanos);
+            if (!invalid && !expired)
+                continue;
+            boolean canClose = remove(connection);
+            if (canClose)
+                IO.close(connection);
+            if (invalid)
+                invalidConnections.increment();
+            else
+                expiredConnections.increment();
+            if (LOG.isDebugEnabled())
+                LOG.debug("Maintenance removed{} {} connection {} {}", (canClose ? " and closed" : ""), (invalid ? "invalid" : "expired"), entry, pool);
+        }
+
+        int missing = getMinIdleConnectionCount() - getIdleConnectionCount() - getPendingConnectionCount();
+        for (int i = 0; i < missing; ++i)
+        {
+            if (createConnection() == null)
+                break;
+            replenishedConnections.increment();
+        }
+        if (LOG.isDebugEnabled())
+            LOG.debug("Maintenance opened {} connection(s) {}", Math.max(0, missing), this);
+    }
+
+    private void scheduleMaintenance()
+    {
+        if (!isRunning() || isClosed() || getMinIdleConnectionCount() <= 0)
+            return;
+        long interval = getMaintenanceInterval();
+        if (interval <= 0)
+            return;
+        try (AutoLock l = lock.lock())
+        {
+            if (maintenanceTask != null)
+                return;
+            maintenanceTask = destination.getHttpClient().getScheduler().schedule(this::onMaintenanceTimeout, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void onMaintenanceTimeout()
+    {
+        try (AutoLock l = lock.lock())
+        {
+            if (maintenanceTask == null)
+                return;
+            maintenanceTask = null;
+        }
+        // Do not use the timer thread to open or close connections.
+        destination.getHttpClient().getExecutor().execute(() ->
+        {
+            try
+            {
+                maintain();
+            }
+            catch (Throwable x)
+            {
+                LOG.warn("Could not maintain {}", this, x);
+            }
+            finally
+            {
+                scheduleMaintenance();
+            }
+        });
+    }
+
+    private void cancelMaintenance()
+    {
+        Scheduler.Task task;
+        try (AutoLock l = lock.lock())
+        {
+            task = maintenanceTask;
+            maintenanceTask = null;
+        }
+        if (task != null)
+            task.cancel();
+    }
+
     /**
      * <p>Get the max usage duration in milliseconds of the pool's connections.
      * Values {@code 0} and negative mean that there is no limit.</p>
@@ -108,7 +304,8 @@ public abstract class AbstractConnectionPool extends ContainerLifeCycle implemen
      * If a pool stays completely idle for a duration longer than the value
      * returned by this method, the max duration will not be enforced.
      * It's up to the idle timeout mechanism (see {@link HttpClient#getIdleTimeout()})
-     * to handle closing idle connections.</p>
+     * to handle closing idle connections, unless the pool {@link #maintain() maintenance}
+     * is enabled, in which case expired idle connections are also closed by the maintenance.</p>
      */
     @ManagedAttribute(value = "The maximum duration in milliseconds a connection can be used for before it gets closed")
     public long getMaxDuration()
@@ -312,7 +509,7 @@ public abstract class AbstractConnectionPool extends ContainerLifeCycle implemen
     {
         while (true)
         {
-            Pool<Connection>.Entry entry = pool.acquire();
+            Pool<Connection>.Entry entry = acquire(pool);
             if (entry != null)
             {
                 Connection connection = entry.getPooled();
@@ -341,6 +538,20 @@ public abstract class AbstractConnectionPool extends ContainerLifeCycle implemen
         }
     }
 
+    /**
+     * <p>Acquires an entry from the given pool.</p>
+     * <p>This implementation uses the {@link Pool.StrategyType strategy} of the pool,
+     * while subclasses may override this method to select the entry to acquire
+     * with a different strategy, for example using {@link Pool#acquire(Pool.Entry)}.</p>
+     *
+     * @param pool the pool to acquire the entry from
+     * @return the acquired entry, or {@code null} if no entry is available
+     */
+    protected Pool<Connection>.Entry acquire(Pool<Connection> pool)
+    {
+        return pool.acquire();
+    }
+
     @Override
     public boolean isActive(Connection connection)
     {
@@ -459,6 +670,7 @@ public abstract class AbstractConnectionPool extends ContainerLifeCycle implemen
     @Override
     public void close()
     {
+        cancelMaintenance();
         // Forcibly release and remove entries to do our best effort calling the listeners.
         try
         {
@@ -46,6 +46,7 @@ import org.eclipse.jetty.client.api.ContentResponse;
 import org.eclipse.jetty.client.api.Destination;
 import org.eclipse.jetty.client.api.Request;
 import org.eclipse.jetty.client.api.Response;
+import org.eclipse.jetty.client.cache.HttpCache;
 import org.eclipse.jetty.client.http.HttpClientTransportOverHTTP;
 import org.eclipse.jetty.client.util.FormRequestContent;
 import org.eclipse.jetty.http.HttpCompliance;
@@ -131,6 +132,7 @@ public class HttpClient extends ContainerLifeCycle
     private CookieManager cookieManager;
     private CookieStore cookieStore;
     private SocketAddressResolver resolver;
+    private HttpCache httpCache;
     private HttpField agentField = new HttpField(HttpHeader.USER_AGENT, USER_AGENT);
     private boolean followRedirects = true;
     private int maxConnectionsPerDestination = 64;
@@ -215,6 +217,8 @@ public class HttpClient extends ContainerLifeCycle
         handlers.put(new WWWAuthenticationProtocolHandler(this));
         handlers.put(new ProxyAuthenticationProtocolHandler(this));
         handlers.put(new UpgradeProtocolHandler());
+        if (httpCache != null)
+            handlers.put(httpCache);
 
         decoderFactories.add(new GZIPContentDecoder.Factory(byteBufferPool));
 
@@ -290,6 +294,25 @@ public class HttpClient extends ContainerLifeCycle
         return cookieManager;
     }
 
+    /**
+     * @return the HTTP cache of this instance, or {@code null} if responses are not cached
+     */
+    public HttpCache getHttpCache()
+    {
+        return httpCache;
+    }
+
+    /**
+     * @param httpCache the HTTP cache of this instance, or {@code null} to not cache responses
+     */
+    public void setHttpCache(HttpCache httpCache)
+    {
+        if (isStarted())
+            throw new IllegalStateException();
+        updateBean(this.httpCache, httpCache);
+        this.httpCache = httpCache;
+    }
+
     /**
      * @return the authentication store associated with this instance
      */
@@ -556,6 +579,9 @@ public class HttpClient extends ContainerLifeCycle
 
     protected void send(HttpRequest request, List<Response.ResponseListener> listeners)
     {
+        HttpCache httpCache = this.httpCache;
+        if (httpCache != null && httpCache.send(request, listeners))
+            return;
         HttpDestination destination = (HttpDestination)resolveDestination(request);
         destination.send(request, listeners);
     }
@@ -0,0 +1,239 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.client.api.Connection;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.Pool;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.thread.AutoLock;
+
+/**
+ * <p>A {@link ConnectionPool} that provides the connection that is expected
+ * to serve a request with the least latency.</p>
+ * <p>For each connection, this pool tracks the number of pending requests and the
+ * exponentially weighted moving average (EWMA) of the response times, and computes
+ * the cost of a connection as the product of the two.</p>
+ * <p>Rather than looking for the connection with the least cost among all the connections,
+ * which would require to examine all of them and would direct all the requests towards
+ * the same connection until its cost is updated, this pool selects two connections at random
+ * and provides the one with the least cost (also known as "power of two choices").</p>
+ * <p>The response time of a connection is measured from the moment the connection is
+ * acquired to the moment it is released; for multiplexed connections, where the pool
+ * does not know which of the pending requests completed, the response time is estimated
+ * from the average time at which the pending requests acquired the connection.</p>
+ * <p>The weight of past response times decays over {@link #getDecayTime() decay time},
+ * so that the average follows changes in the response times of the server.</p>
+ * <p>Connections that have no response time samples yet, such as newly opened
+ * connections, have the least cost and are therefore favored.</p>
+ *
+ * @see RandomConnectionPool
+ */
+@ManagedObject
+public class LeastLatencyConnectionPool extends MultiplexConnectionPool
+{
+    private final Map<Connection, Latency> latencies = new ConcurrentHashMap<>();
+    private volatile long decayNanos = TimeUnit.SECONDS.toNanos(10);
+
+    public LeastLatencyConnectionPool(HttpDestination destination, int maxConnections, Callback requester)
+    {
+        this(destination, maxConnections, requester, 1);
+    }
+
+    public LeastLatencyConnectionPool(HttpDestination destination, int maxConnections, Callback requester, int maxMultiplex)
+    {
+        super(destination, Pool.StrategyType.RANDOM, maxConnections, false, requester, maxMultiplex);
+    }
+
+    /**
+     * @return the time in milliseconds over which the weight of past response times decays
+     */
+    @ManagedAttribute(value = "The time in milliseconds over which the weight of past response times decays")
+    public long getDecayTime()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(decayNanos);
+    }
+
+    /**
+     * <p>Sets the time over which the weight of past response times decays.</p>
+     * <p>Smaller values make the pool react faster to changes in the response times,
+     * but also make it more sensitive to the response times of few requests.</p>
+     *
+     * @param decayTimeInMs the time in milliseconds over which the weight of past response times decays
+     */
+    public void setDecayTime(long decayTimeInMs)
+    {
+        if (decayTimeInMs <= 0)
+            throw new IllegalArgumentException("Invalid decay time " + decayTimeInMs);
+        this.decayNanos = TimeUnit.MILLISECONDS.toNanos(decayTimeInMs);
+    }
+
+    /**
+     * @param connection the connection
+     * @return the average response time in nanoseconds of the given connection, or {@code -1} if unknown
+     */
+    public long getResponseTime(Connection connection)
+    {
+        Latency latency = latencies.get(connection);
+        return latency == null ? -1 : latency.getAverage();
+    }
+
+    @Override
+    protected Pool<Connection>.Entry acquire(Pool<Connection> pool)
+    {
+        int size = pool.size();
+        if (size > 1)
+        {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int index1 = random.nextInt(size);
+            int index2 = random.nextInt(size - 1);
+            if (index2 >= index1)
+                ++index2;
+
+            // Index the entries directly, since iterating
+            // over all of them would be O(n) per request.
+            Pool<Connection>.Entry entry1 = pool.get(index1);
+            Pool<Connection>.Entry entry2 = pool.get(index2);
+
+            // Try the candidate with the least cost first.
+            if (cost(entry2) < cost(entry1))
+            {
+                Pool<Connection>.Entry entry = entry1;
+                entry1 = entry2;
+                entry2 = entry;
+            }
+            if (entry1 != null && pool.acquire(entry1))
+                return entry1;
+            if (entry2 != null && pool.acquire(entry2))
+                return entry2;
+        }
+        // Fall back to the pool strategy when the candidates are not available.
+        return super.acquire(pool);
+    }
+
+    private long cost(Pool<Connection>.Entry entry)
+    {
+        if (entry == null)
+            return Long.MAX_VALUE;
+        Connection connection = entry.getPooled();
+        if (connection == null)
+            return Long.MAX_VALUE;
+        Latency latency = latencies.get(connection);
+        if (latency == null)
+            return Long.MAX_VALUE;
+        return latency.getCost();
+    }
+
+    @Override
+    protected void onCreated(Connection connection)
+    {
+        latencies.put(connection, new Latency());
+        super.onCreated(connection);
+    }
+
+    @Override
+    protected void acquired(Connection connection)
+    {
+        super.acquired(connection);
+        Latency latency = latencies.get(connection);
+        if (latency != null)
+            latency.onAcquired(System.nanoTime());
+    }
+
+    @Override
+    protected void released(Connection connection)
+    {
+        Latency latency = latencies.get(connection);
+        if (latency != null)
+            latency.onReleased(System.nanoTime(), decayNanos);
+        super.released(connection);
+    }
+
+    @Override
+    protected void removed(Connection connection)
+    {
+        latencies.remove(connection);
+        super.removed(connection);
+    }
+
+    @Override
+    public void close()
+    {
+        super.close();
+        latencies.clear();
+    }
+
+    private static class Latency
+    {
+        private final AutoLock lock = new AutoLock();
+        private final long origin = System.nanoTime();
+        // The sum of the times, relative to the origin, at which the pending requests started.
+        private long starts;
+        private long lastUpdate;
+        // Written with the lock held, but read without to compute the cost.
+        private volatile int pending;
+        private volatile long average = -1;
+
+        private void onAcquired(long now)
+        {
+            try (AutoLock l = lock.lock())
+            {
+                ++pending;
+                starts += now - origin;
+            }
+        }
+
+        private void onReleased(long now, long decayNanos)
+        {
+            try (AutoLock l = lock.lock())
+            {
+                // Removing an idle connection also releases it.
+                if (pending == 0)
+                    return;
+                long start = starts / pending;
+                starts -= start;
+                --pending;
+                long sample = Math.max(0, now - origin - start);
+                if (average < 0)
+                {
+                    average = sample;
+                }
+                else
+                {
+                    double weight = Math.exp(-(double)(now - lastUpdate) / decayNanos);
+                    average = (long)(average * weight + sample * (1 - weight));
+                }
+                lastUpdate = now;
+            }
+        }
+
+        private long getAverage()
+        {
+            return average;
+        }
+
+        private long getCost()
+        {
+            // Add 1 to both factors so that the pending requests
+            // count also when there are no response time samples.
+            return (Math.max(0, average) + 1) * (pending + 1);
+        }
+    }
+}
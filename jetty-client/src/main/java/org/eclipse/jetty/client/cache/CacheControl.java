@@ -0,0 +1,155 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client.cache;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpHeaderValue;
+
+/**
+ * <p>The directives of the {@code Cache-Control} header that are relevant
+ * to a private cache, as defined by RFC 9111, section 5.2.</p>
+ */
+class CacheControl
+{
+    private boolean noStore;
+    private boolean noCache;
+    private boolean mustRevalidate;
+    private boolean onlyIfCached;
+    private long maxAge = -1;
+    private long maxStale = -1;
+    private long minFresh = -1;
+
+    /**
+     * @param headers the request or response headers
+     * @return the {@code Cache-Control} directives of the given headers
+     */
+    static CacheControl from(HttpFields headers)
+    {
+        CacheControl cacheControl = new CacheControl();
+        List<String> directives = headers.getCSV(HttpHeader.CACHE_CONTROL, false);
+        if (directives.isEmpty())
+        {
+            // RFC 9111, section 5.4: Pragma: no-cache is only honored without Cache-Control.
+            if (headers.contains(HttpHeader.PRAGMA, HttpHeaderValue.NO_CACHE.asString()))
+                cacheControl.noCache = true;
+            return cacheControl;
+        }
+        for (String directive : directives)
+        {
+            String name = directive;
+            String value = null;
+            int equals = directive.indexOf('=');
+            if (equals >= 0)
+            {
+                name = directive.substring(0, equals).trim();
+                value = directive.substring(equals + 1).trim();
+            }
+            switch (name.toLowerCase(Locale.ENGLISH))
+            {
+                case "no-store":
+                    cacheControl.noStore = true;
+                    break;
+                case "no-cache":
+                    // The qualified form (no-cache="field") is treated as unqualified.
+                    cacheControl.noCache = true;
+                    break;
+                case "must-revalidate":
+                case "proxy-revalidate":
+                    cacheControl.mustRevalidate = true;
+                    break;
+                case "only-if-cached":
+                    cacheControl.onlyIfCached = true;
+                    break;
+                case "max-age":
+                    cacheControl.maxAge = parseSeconds(value);
+                    // An invalid max-age makes the response stale, see RFC 9111, section 4.2.1.
+                    if (cacheControl.maxAge < 0)
+                        cacheControl.maxAge = 0;
+                    break;
+                case "max-stale":
+                    cacheControl.maxStale = value == null ? Long.MAX_VALUE : parseSeconds(value);
+                    break;
+                case "min-fresh":
+                    cacheControl.minFresh = parseSeconds(value);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return cacheControl;
+    }
+
+    private static long parseSeconds(String value)
+    {
+        if (value == null)
+            return -1;
+        try
+        {
+            long seconds = Long.parseLong(value);
+            return seconds < 0 ? -1 : seconds;
+        }
+        catch (NumberFormatException x)
+        {
+            return -1;
+        }
+    }
+
+    boolean isNoStore()
+    {
+        return noStore;
+    }
+
+    boolean isNoCache()
+    {
+        return noCache;
+    }
+
+    boolean isMustRevalidate()
+    {
+        return mustRevalidate;
+    }
+
+    boolean isOnlyIfCached()
+    {
+        return onlyIfCached;
+    }
+
+    /**
+     * @return the max-age directive in seconds, or -1 if absent
+     */
+    long getMaxAge()
+    {
+        return maxAge;
+    }
+
+    /**
+     * @return the max-stale directive in seconds, or -1 if absent
+     */
+    long getMaxStale()
+    {
+        return maxStale;
+    }
+
+    /**
+     * @return the min-fresh directive in seconds, or -1 if absent
+     */
+    long getMinFresh()
+    {
+        return minFresh;
+    }
+}
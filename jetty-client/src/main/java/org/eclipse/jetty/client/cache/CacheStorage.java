@@ -0,0 +1,51 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client.cache;
+
+/**
+ * <p>The storage of the responses of a {@link HttpCache}.</p>
+ * <p>Implementations must be thread-safe, and are responsible to bound
+ * the resources they use, typically by evicting stored responses.</p>
+ *
+ * @see MemoryCacheStorage
+ * @see FileCacheStorage
+ * @see TieredCacheStorage
+ */
+public interface CacheStorage
+{
+    /**
+     * @param key the cache key
+     * @return the response stored with the given key, or {@code null} if there is none
+     */
+    public CachedResponse get(String key);
+
+    /**
+     * <p>Stores the given response with its {@link CachedResponse#getKey() key},
+     * replacing the response previously stored with the same key, if any.</p>
+     *
+     * @param response the response to store
+     */
+    public void put(CachedResponse response);
+
+    /**
+     * @param key the cache key
+     * @return whether a response was stored with the given key
+     */
+    public boolean remove(String key);
+
+    /**
+     * <p>Removes all the stored responses.</p>
+     */
+    public void clear();
+}
@@ -0,0 +1,277 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client.cache;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+
+/**
+ * <p>A response stored by a {@link HttpCache}, along with the information
+ * needed to compute its freshness and to match it with requests.</p>
+ * <p>Times are expressed in milliseconds since the epoch, so that they
+ * can be compared with the dates of the response headers, and so that
+ * they survive storing the response in a persistent {@link CacheStorage}.</p>
+ * <p>Instances of this class are immutable.</p>
+ */
+public class CachedResponse
+{
+    // Header fields of a 304 response that must not update the stored response, RFC 9111, section 3.2.
+    private static final EnumSet<HttpHeader> NOT_UPDATED_HEADERS = EnumSet.of(
+        HttpHeader.CONTENT_LENGTH,
+        HttpHeader.CONTENT_ENCODING,
+        HttpHeader.CONTENT_RANGE,
+        HttpHeader.TRANSFER_ENCODING,
+        HttpHeader.CONNECTION,
+        HttpHeader.KEEP_ALIVE,
+        HttpHeader.PROXY_CONNECTION,
+        HttpHeader.TRAILER,
+        HttpHeader.TE,
+        HttpHeader.UPGRADE
+    );
+
+    private final String key;
+    private final int status;
+    private final String reason;
+    private final HttpFields headers;
+    private final HttpFields varyFields;
+    private final byte[] content;
+    private final long requestTime;
+    private final long responseTime;
+
+    /**
+     * @param key the cache key of the response
+     * @param status the response status code
+     * @param reason the response reason, may be {@code null}
+     * @param headers the response headers
+     * @param varyFields the request header fields that are nominated by the {@code Vary} response header
+     * @param content the response content
+     * @param requestTime the time the request was sent
+     * @param responseTime the time the response was received
+     */
+    public CachedResponse(String key, int status, String reason, HttpFields headers, HttpFields varyFields, byte[] content, long requestTime, long responseTime)
+    {
+        this.key = Objects.requireNonNull(key);
+        this.status = status;
+        this.reason = reason;
+        this.headers = headers.asImmutable();
+        this.varyFields = varyFields.asImmutable();
+        this.content = Objects.requireNonNull(content);
+        this.requestTime = requestTime;
+        this.responseTime = responseTime;
+    }
+
+    public String getKey()
+    {
+        return key;
+    }
+
+    public int getStatus()
+    {
+        return status;
+    }
+
+    public String getReason()
+    {
+        return reason;
+    }
+
+    public HttpFields getHeaders()
+    {
+        return headers;
+    }
+
+    /**
+     * @return the request header fields that are nominated by the {@code Vary} response header
+     */
+    public HttpFields getVaryFields()
+    {
+        return varyFields;
+    }
+
+    public byte[] getContent()
+    {
+        return content;
+    }
+
+    public long getRequestTime()
+    {
+        return requestTime;
+    }
+
+    public long getResponseTime()
+    {
+        return responseTime;
+    }
+
+    /**
+     * @return an estimate of the memory occupied by this response, in bytes
+     */
+    public long getSize()
+    {
+        long size = content.length;
+        for (HttpField field : headers)
+        {
+            size += field.getName().length() + field.getValue().length();
+        }
+        for (HttpField field : varyFields)
+        {
+            size += field.getName().length() + field.getValue().length();
+        }
+        return size;
+    }
+
+    /**
+     * @return whether this response has an {@code ETag} or a {@code Last-Modified} header,
+     * so that it can be revalidated with a conditional request
+     */
+    public boolean hasValidators()
+    {
+        return headers.contains(HttpHeader.ETAG) || headers.contains(HttpHeader.LAST_MODIFIED);
+    }
+
+    /**
+     * <p>Returns whether this response can be used for a request with the given headers,
+     * according to the {@code Vary} response header, see RFC 9111, section 4.1.</p>
+     *
+     * @param requestHeaders the request headers
+     * @return whether the request header fields nominated by {@code Vary} match
+     */
+    public boolean matches(HttpFields requestHeaders)
+    {
+        for (String name : headers.getCSV(HttpHeader.VARY, false))
+        {
+            if ("*".equals(name))
+                return false;
+            if (!Objects.equals(join(varyFields.getValuesList(name)), join(requestHeaders.getValuesList(name))))
+                return false;
+        }
+        return true;
+    }
+
+    static String join(List<String> values)
+    {
+        if (values.isEmpty())
+            return null;
+        if (values.size() == 1)
+            return values.get(0).trim();
+        StringBuilder builder = new StringBuilder();
+        for (String value : values)
+        {
+            if (builder.length() > 0)
+                builder.append(", ");
+            builder.append(value.trim());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * <p>Returns the freshness lifetime of this response, see RFC 9111, section 4.2.1.</p>
+     * <p>When the response has no explicit expiration time, the freshness lifetime
+     * is heuristically computed as 10% of the time since the {@code Last-Modified} date.</p>
+     *
+     * @return the freshness lifetime in milliseconds
+     */
+    public long getFreshnessLifetime()
+    {
+        CacheControl cacheControl = CacheControl.from(headers);
+        long maxAge = cacheControl.getMaxAge();
+        if (maxAge >= 0)
+            return Math.multiplyExact(Math.min(maxAge, Long.MAX_VALUE / 1000), 1000);
+
+        long date = getDate();
+        if (headers.contains(HttpHeader.EXPIRES))
+        {
+            // An invalid Expires value, such as 0, means already expired.
+            long expires = headers.getDateField(HttpHeader.EXPIRES.asString());
+            return Math.max(0, expires - date);
+        }
+
+        long lastModified = headers.getDateField(HttpHeader.LAST_MODIFIED.asString());
+        if (lastModified > 0 && lastModified < date)
+            return (date - lastModified) / 10;
+
+        return 0;
+    }
+
+    /**
+     * <p>Returns the current age of this response, see RFC 9111, section 4.2.3.</p>
+     *
+     * @param now the current time
+     * @return the current age in milliseconds
+     */
+    public long getCurrentAge(long now)
+    {
+        long apparentAge = Math.max(0, responseTime - getDate());
+        long responseDelay = responseTime - requestTime;
+        long ageValue = 0;
+        try
+        {
+            ageValue = Math.max(0, headers.getLongField(HttpHeader.AGE));
+        }
+        catch (NumberFormatException x)
+        {
+            // Ignore invalid Age values.
+        }
+        long correctedAgeValue = ageValue * 1000 + responseDelay;
+        long correctedInitialAge = Math.max(apparentAge, correctedAgeValue);
+        long residentTime = now - responseTime;
+        return correctedInitialAge + residentTime;
+    }
+
+    private long getDate()
+    {
+        long date = headers.getDateField(HttpHeader.DATE.asString());
+        return date < 0 ? responseTime : date;
+    }
+
+    /**
+     * <p>Returns a copy of this response, with the headers updated with the headers of
+     * the given {@code 304 Not Modified} response, see RFC 9111, section 4.3.4.</p>
+     *
+     * @param notModifiedHeaders the headers of the 304 response
+     * @param requestTime the time the conditional request was sent
+     * @param responseTime the time the 304 response was received
+     * @return a freshened copy of this response
+     */
+    public CachedResponse revalidated(HttpFields notModifiedHeaders, long requestTime, long responseTime)
+    {
+        HttpFields.Mutable updated = HttpFields.build(headers);
+        for (HttpField field : notModifiedHeaders)
+        {
+            HttpHeader header = field.getHeader();
+            if (header != null && NOT_UPDATED_HEADERS.contains(header))
+                continue;
+            updated.remove(field.getName());
+        }
+        for (HttpField field : notModifiedHeaders)
+        {
+            HttpHeader header = field.getHeader();
+            if (header != null && NOT_UPDATED_HEADERS.contains(header))
+                continue;
+            updated.add(field);
+        }
+        return new CachedResponse(key, status, reason, updated, varyFields, content, requestTime, responseTime);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[%s,%d,%d bytes]", getClass().getSimpleName(), hashCode(), key, status, content.length);
+    }
+}
@@ -0,0 +1,445 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.util.StringUtil;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.thread.AutoLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A {@link CacheStorage} that stores responses in files in a directory,
+ * so that they survive restarts and may exceed the available memory.</p>
+ * <p>Each response is stored in a file whose name is derived from the hash of
+ * its cache key; files are written to a temporary file and then atomically
+ * moved, so that concurrent readers never see partially written responses.</p>
+ * <p>The disk space used by the stored responses is bounded by {@link #getMaxSize()};
+ * when a new response is stored, the least recently used responses are evicted
+ * until the stored responses fit in the max size.
+ * Responses larger than the max size are not stored.</p>
+ * <p>The accesses are tracked by an in-memory index, so that reading a response
+ * does not write to the disk; the index is rebuilt from the directory when the
+ * storage is first used, ordering the files by last modified time, and the
+ * temporary files left behind by a previous process are deleted.</p>
+ * <p>Files that cannot be read, for example because they were written
+ * by an incompatible version of this class, are deleted.</p>
+ */
+@ManagedObject
+public class FileCacheStorage implements CacheStorage
+{
+    private static final Logger LOG = LoggerFactory.getLogger(FileCacheStorage.class);
+    private static final String SUFFIX = ".cache";
+    private static final String TEMP_PREFIX = "response";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int VERSION = 1;
+
+    private final AutoLock lock = new AutoLock();
+    private final Path directory;
+    private final long maxSize;
+    // The sizes of the stored files, in access order.
+    private final Map<Path, Long> index = new LinkedHashMap<>(16, 0.75F, true);
+    private boolean loaded;
+    private long size;
+
+    /**
+     * @param directory the directory where responses are stored
+     * @param maxSize the max disk space in bytes occupied by the stored responses
+     */
+    public FileCacheStorage(Path directory, long maxSize)
+    {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    public Path getDirectory()
+    {
+        return directory;
+    }
+
+    @ManagedAttribute(value = "The max disk space in bytes occupied by the stored responses")
+    public long getMaxSize()
+    {
+        return maxSize;
+    }
+
+    @ManagedAttribute(value = "The disk space in bytes occupied by the stored responses")
+    public long getSize()
+    {
+        try (AutoLock l = lock.lock())
+        {
+            load();
+            return size;
+        }
+    }
+
+    @ManagedAttribute(value = "The number of stored responses")
+    public int getCount()
+    {
+        try (AutoLock l = lock.lock())
+        {
+            load();
+            return index.size();
+        }
+    }
+
+    @Override
+    public CachedResponse get(String key)
+    {
+        Path path = pathOf(key);
+        try
+        {
+            CachedResponse response;
+            try (InputStream input = Files.newInputStream(path))
+            {
+                response = read(new DataInputStream(new BufferedInputStream(input)));
+            }
+            // The file name is a hash, so verify that it is the same key.
+            if (!key.equals(response.getKey()))
+                return null;
+            // Record the access to evict the least recently used files.
+            try (AutoLock l = lock.lock())
+            {
+                load();
+                index.get(path);
+            }
+            return response;
+        }
+        catch (NoSuchFileException x)
+        {
+            return null;
+        }
+        catch (Throwable x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Could not read {}", path, x);
+            try (AutoLock l = lock.lock())
+            {
+                load();
+                remove(path);
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public void put(CachedResponse response)
+    {
+        Path path = pathOf(response.getKey());
+        Path temp = null;
+        try
+        {
+            // Load before creating the temporary file, otherwise it would be deleted.
+            try (AutoLock l = lock.lock())
+            {
+                load();
+            }
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, TEMP_PREFIX, TEMP_SUFFIX);
+            try (OutputStream output = Files.newOutputStream(temp))
+            {
+                DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output));
+                write(data, response);
+                data.flush();
+            }
+            long fileSize = Files.size(temp);
+            if (fileSize > maxSize)
+            {
+                Files.delete(temp);
+                remove(response.getKey());
+                return;
+            }
+
+            try (AutoLock l = lock.lock())
+            {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Long previous = index.put(path, fileSize);
+                size += fileSize - (previous == null ? 0 : previous);
+                evict(path);
+            }
+        }
+        catch (Throwable x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Could not write {}", path, x);
+            if (temp != null)
+                delete(temp);
+        }
+    }
+
+    @Override
+    public boolean remove(String key)
+    {
+        Path path = pathOf(key);
+        try (AutoLock l = lock.lock())
+        {
+            load();
+            return remove(path);
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        try (AutoLock l = lock.lock())
+        {
+            for (Path path : list("*" + SUFFIX))
+            {
+                delete(path);
+            }
+            index.clear();
+            loaded = true;
+            size = 0;
+        }
+    }
+
+    private void load()
+    {
+        assert lock.isHeldByCurrentThread();
+        if (loaded)
+            return;
+        loaded = true;
+        for (Path temp : list(TEMP_PREFIX + "*" + TEMP_SUFFIX))
+        {
+            delete(temp);
+        }
+        // The access order is not known, so use the last modified time as an approximation.
+        List<Path> paths = list("*" + SUFFIX);
+        paths.sort(Comparator.comparing(FileCacheStorage::lastModifiedOf));
+        for (Path path : paths)
+        {
+            long pathSize = sizeOf(path);
+            index.put(path, pathSize);
+            size += pathSize;
+        }
+    }
+
+    private boolean remove(Path path)
+    {
+        assert lock.isHeldByCurrentThread();
+        Long pathSize = index.remove(path);
+        if (pathSize != null)
+            size -= pathSize;
+        return delete(path);
+    }
+
+    private void evict(Path keep)
+    {
+        assert lock.isHeldByCurrentThread();
+        Iterator<Map.Entry<Path, Long>> iterator = index.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext())
+        {
+            Map.Entry<Path, Long> entry = iterator.next();
+            Path path = entry.getKey();
+            if (path.equals(keep))
+                continue;
+            iterator.remove();
+            size -= entry.getValue();
+            delete(path);
+        }
+    }
+
+    private List<Path> list(String glob)
+    {
+        List<Path> paths = new ArrayList<>();
+        if (!Files.isDirectory(directory))
+            return paths;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob))
+        {
+            stream.forEach(paths::add);
+        }
+        catch (IOException x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Could not list {}", directory, x);
+        }
+        return paths;
+    }
+
+    private Path pathOf(String key)
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(StringUtil.toHexString(hash).toLowerCase(Locale.ENGLISH) + SUFFIX);
+        }
+        catch (NoSuchAlgorithmException x)
+        {
+            throw new IllegalStateException(x);
+        }
+    }
+
+    private static long sizeOf(Path path)
+    {
+        try
+        {
+            return Files.size(path);
+        }
+        catch (IOException x)
+        {
+            return 0;
+        }
+    }
+
+    private static FileTime lastModifiedOf(Path path)
+    {
+        try
+        {
+            return Files.getLastModifiedTime(path);
+        }
+        catch (IOException x)
+        {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static boolean delete(Path path)
+    {
+        try
+        {
+            return Files.deleteIfExists(path);
+        }
+        catch (IOException x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Could not delete {}", path, x);
+            return false;
+        }
+    }
+
+    private static void write(DataOutputStream output, CachedResponse response) throws IOException
+    {
+        output.writeInt(VERSION);
+        writeString(output, response.getKey());
+        output.writeInt(response.getStatus());
+        writeString(output, response.getReason());
+        output.writeLong(response.getRequestTime());
+        output.writeLong(response.getResponseTime());
+        writeFields(output, response.getHeaders());
+        writeFields(output, response.getVaryFields());
+        byte[] content = response.getContent();
+        output.writeInt(content.length);
+        output.write(content);
+    }
+
+    private CachedResponse read(DataInputStream input) throws IOException
+    {
+        int version = input.readInt();
+        if (version != VERSION)
+            throw new IOException("Unsupported version " + version);
+        String key = readString(input);
+        int status = input.readInt();
+        String reason = readString(input);
+        long requestTime = input.readLong();
+        long responseTime = input.readLong();
+        HttpFields headers = readFields(input);
+        HttpFields varyFields = readFields(input);
+        byte[] content = new byte[readLength(input)];
+        input.readFully(content);
+        return new CachedResponse(key, status, reason, headers, varyFields, content, requestTime, responseTime);
+    }
+
+    private static void writeFields(DataOutputStream output, HttpFields fields) throws IOException
+    {
+        output.writeInt(fields.size());
+        for (HttpField field : fields)
+        {
+            writeString(output, field.getName());
+            writeString(output, field.getValue());
+        }
+    }
+
+    private HttpFields readFields(DataInputStream input) throws IOException
+    {
+        int count = readLength(input);
+        HttpFields.Mutable fields = HttpFields.build(count);
+        for (int i = 0; i < count; ++i)
+        {
+            fields.add(readString(input), readString(input));
+        }
+        return fields;
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException
+    {
+        if (value == null)
+        {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private String readString(DataInputStream input) throws IOException
+    {
+        int length = input.readInt();
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[checkLength(length)];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int readLength(DataInputStream input) throws IOException
+    {
+        return checkLength(input.readInt());
+    }
+
+    private int checkLength(int length) throws IOException
+    {
+        // Do not trust the lengths read from a corrupted file.
+        if (length < 0 || length > maxSize)
+            throw new IOException("Invalid length " + length);
+        return length;
+    }
+
+    @Override
+    public String toString()
+    {
+        try (AutoLock l = lock.lock())
+        {
+            return String.format("%s@%x[%s,count=%d,size=%d/%d]", getClass().getSimpleName(), hashCode(), directory, index.size(), size, maxSize);
+        }
+    }
+}
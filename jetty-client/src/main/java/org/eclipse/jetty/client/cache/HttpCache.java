@@ -0,0 +1,547 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.client.ContentDecoder;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.HttpContentResponse;
+import org.eclipse.jetty.client.HttpConversation;
+import org.eclipse.jetty.client.HttpExchange;
+import org.eclipse.jetty.client.HttpRequest;
+import org.eclipse.jetty.client.HttpResponse;
+import org.eclipse.jetty.client.ProtocolHandler;
+import org.eclipse.jetty.client.ResponseNotifier;
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.client.api.Response;
+import org.eclipse.jetty.client.api.Result;
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http.MimeTypes;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.component.ContainerLifeCycle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A private HTTP cache for {@link HttpClient}, with the semantic defined by RFC 9111.</p>
+ * <p>The cache is installed with {@link HttpClient#setHttpCache(HttpCache)}, and then:</p>
+ * <ul>
+ * <li>a {@code GET} request for which a fresh response is stored is responded
+ * from the cache, without sending the request to the server;</li>
+ * <li>a {@code GET} request for which a stale response with validators is stored
+ * is sent as a conditional request, with the {@code If-None-Match} and
+ * {@code If-Modified-Since} headers; if the server responds with
+ * {@code 304 Not Modified}, the stored response is freshened and
+ * responded to the application, that never sees the {@code 304} response;</li>
+ * <li>cacheable responses are stored in the {@link CacheStorage},
+ * unless they exceed {@link #getMaxResponseSize()};</li>
+ * <li>successful responses to unsafe requests, such as {@code POST} or
+ * {@code DELETE}, invalidate the response stored for the same URI.</li>
+ * </ul>
+ * <p>The {@code Cache-Control} directives of requests and responses are honored,
+ * as well as the {@code Vary} response header, although only one variant per URI
+ * is stored: a request that does not match the stored variant is a miss.</p>
+ * <p>Only the first request of a conversation is subject to caching, so that
+ * the requests sent by other {@link ProtocolHandler}s, for example to follow
+ * redirects or to authenticate, are always sent to the server, without the
+ * conditional headers added to revalidate the first request.
+ * Only responses with status codes that are not handled by other
+ * {@link ProtocolHandler}s are stored.</p>
+ * <p>Responses from the cache notify the response listeners, but not the
+ * request listeners, since the request is not sent.</p>
+ */
+@ManagedObject
+public class HttpCache extends ContainerLifeCycle implements ProtocolHandler
+{
+    public static final String NAME = "cache";
+    private static final Logger LOG = LoggerFactory.getLogger(HttpCache.class);
+    private static final String ATTRIBUTE = HttpCache.class.getName() + ".revalidation";
+    // Status codes that are heuristically cacheable, see RFC 9110, section 15.1,
+    // minus the redirects that are handled by the RedirectProtocolHandler.
+    private static final Set<Integer> CACHEABLE_STATUSES = Set.of(200, 203, 204, 404, 405, 410, 414, 501);
+    private static final EnumSet<HttpHeader> HOP_BY_HOP_HEADERS = EnumSet.of(
+        HttpHeader.CONNECTION,
+        HttpHeader.KEEP_ALIVE,
+        HttpHeader.PROXY_CONNECTION,
+        HttpHeader.TRANSFER_ENCODING,
+        HttpHeader.TRAILER,
+        HttpHeader.TE,
+        HttpHeader.UPGRADE
+    );
+
+    private final ResponseNotifier notifier = new ResponseNotifier();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final HttpClient client;
+    private final CacheStorage storage;
+    private int maxResponseSize = 1024 * 1024;
+
+    public HttpCache(HttpClient client, CacheStorage storage)
+    {
+        this.client = client;
+        this.storage = Objects.requireNonNull(storage);
+        addBean(storage);
+    }
+
+    public CacheStorage getStorage()
+    {
+        return storage;
+    }
+
+    /**
+     * @return the max size in bytes of the content of the responses that are stored
+     */
+    @ManagedAttribute(value = "The max size in bytes of the content of the responses that are stored")
+    public int getMaxResponseSize()
+    {
+        return maxResponseSize;
+    }
+
+    /**
+     * @param maxResponseSize the max size in bytes of the content of the responses that are stored
+     */
+    public void setMaxResponseSize(int maxResponseSize)
+    {
+        this.maxResponseSize = maxResponseSize;
+    }
+
+    @ManagedAttribute(value = "The number of requests responded from the cache", readonly = true)
+    public long getHitCount()
+    {
+        return hits.sum();
+    }
+
+    @ManagedAttribute(value = "The number of requests sent to the server because no usable response was stored", readonly = true)
+    public long getMissCount()
+    {
+        return misses.sum();
+    }
+
+    @ManagedAttribute(value = "The number of conditional requests sent to the server to revalidate a stale response", readonly = true)
+    public long getRevalidationCount()
+    {
+        return revalidations.sum();
+    }
+
+    @ManagedAttribute(value = "The number of revalidations that were responded with 304 Not Modified", readonly = true)
+    public long getNotModifiedCount()
+    {
+        return notModified.sum();
+    }
+
+    @ManagedOperation(value = "Resets the statistics", impact = "ACTION")
+    public void resetStatistics()
+    {
+        hits.reset();
+        misses.reset();
+        revalidations.reset();
+        notModified.reset();
+    }
+
+    @ManagedOperation(value = "Removes all the stored responses", impact = "ACTION")
+    public void clear()
+    {
+        storage.clear();
+    }
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public boolean accept(Request request, Response response)
+    {
+        return response.getStatus() == HttpStatus.NOT_MODIFIED_304 && request.getAttributes().get(ATTRIBUTE) instanceof Revalidation;
+    }
+
+    @Override
+    public Response.Listener getResponseListener()
+    {
+        return new NotModifiedListener();
+    }
+
+    /**
+     * <p>Processes the given request before it is sent to the server.</p>
+     * <p>If the request can be responded from the cache, the given listeners are
+     * notified of the stored response; otherwise, this method may add conditional
+     * headers to the request, and listeners to the given list, to store the response.</p>
+     *
+     * @param request the request to process
+     * @param listeners the response listeners of the request
+     * @return whether the request has been responded from the cache
+     */
+    public boolean send(HttpRequest request, List<Response.ResponseListener> listeners)
+    {
+        // Only the first request of a conversation is cached.
+        HttpExchange firstExchange = request.getConversation().getExchanges().peekFirst();
+        if (firstExchange != null)
+        {
+            // The other requests are copied from the first, for example to follow
+            // redirects or to authenticate, but their responses are not revalidations,
+            // so they must not carry the conditional headers added to the first.
+            if (firstExchange.getRequest().getAttributes().get(ATTRIBUTE) instanceof Revalidation)
+                request.headers(headers -> headers.remove(EnumSet.of(HttpHeader.IF_NONE_MATCH, HttpHeader.IF_MODIFIED_SINCE)));
+            return false;
+        }
+
+        String method = request.getMethod();
+        if (!HttpMethod.GET.is(method))
+        {
+            if (!isSafe(method))
+                listeners.add(new InvalidationListener(request, keyOf(request)));
+            return false;
+        }
+
+        HttpFields requestHeaders = request.getHeaders();
+        // Requests with application-provided conditions are not cached.
+        if (requestHeaders.contains(HttpHeader.IF_NONE_MATCH) ||
+            requestHeaders.contains(HttpHeader.IF_MODIFIED_SINCE) ||
+            requestHeaders.contains(HttpHeader.IF_MATCH) ||
+            requestHeaders.contains(HttpHeader.IF_UNMODIFIED_SINCE) ||
+            requestHeaders.contains(HttpHeader.IF_RANGE) ||
+            requestHeaders.contains(HttpHeader.RANGE))
+            return false;
+
+        CacheControl cacheControl = CacheControl.from(requestHeaders);
+        if (cacheControl.isNoStore())
+        {
+            misses.increment();
+            return false;
+        }
+
+        String key = keyOf(request);
+        long now = System.currentTimeMillis();
+        CachedResponse cached = storage.get(key);
+        if (cached != null && !cached.matches(requestHeaders))
+            cached = null;
+
+        if (cached != null && isFresh(cached, cacheControl, now))
+        {
+            hits.increment();
+            if (LOG.isDebugEnabled())
+                LOG.debug("Hit {} for {}", cached, request);
+            respond(request, listeners, cached, now);
+            return true;
+        }
+
+        if (cacheControl.isOnlyIfCached())
+        {
+            misses.increment();
+            HttpResponse response = new HttpResponse(request, listeners)
+                .version(request.getVersion())
+                .status(HttpStatus.GATEWAY_TIMEOUT_504);
+            notifier.forwardSuccessComplete(listeners, request, new CachedContentResponse(response, new byte[0], null, null));
+            return true;
+        }
+
+        // Take a snapshot of the request headers before they are modified,
+        // so that the response can be stored with the selecting headers.
+        HttpFields snapshot = HttpFields.build(requestHeaders).asImmutable();
+        if (cached != null && cached.hasValidators())
+        {
+            revalidations.increment();
+            if (LOG.isDebugEnabled())
+                LOG.debug("Revalidating {} for {}", cached, request);
+            request.attribute(ATTRIBUTE, new Revalidation(cached, now));
+            String etag = cached.getHeaders().get(HttpHeader.ETAG);
+            String lastModified = cached.getHeaders().get(HttpHeader.LAST_MODIFIED);
+            request.headers(headers ->
+            {
+                if (etag != null)
+                    headers.put(HttpHeader.IF_NONE_MATCH, etag);
+                if (lastModified != null)
+                    headers.put(HttpHeader.IF_MODIFIED_SINCE, lastModified);
+            });
+        }
+        else
+        {
+            misses.increment();
+        }
+
+        listeners.add(new StoreListener(request, key, snapshot, now));
+        return false;
+    }
+
+    private static boolean isSafe(String method)
+    {
+        return HttpMethod.GET.is(method) ||
+            HttpMethod.HEAD.is(method) ||
+            HttpMethod.OPTIONS.is(method) ||
+            HttpMethod.TRACE.is(method);
+    }
+
+    private static String keyOf(Request request)
+    {
+        return request.getURI().toString();
+    }
+
+    private boolean isFresh(CachedResponse cached, CacheControl requestCacheControl, long now)
+    {
+        if (requestCacheControl.isNoCache())
+            return false;
+        CacheControl responseCacheControl = CacheControl.from(cached.getHeaders());
+        if (responseCacheControl.isNoCache())
+            return false;
+
+        long age = cached.getCurrentAge(now);
+        long maxAge = requestCacheControl.getMaxAge();
+        if (maxAge >= 0 && TimeUnit.MILLISECONDS.toSeconds(age) > maxAge)
+            return false;
+
+        long lifetime = cached.getFreshnessLifetime();
+        long minFresh = requestCacheControl.getMinFresh();
+        if (minFresh > 0)
+            lifetime -= TimeUnit.SECONDS.toMillis(minFresh);
+        if (age < lifetime)
+            return true;
+
+        // The response is stale, but the request may accept it.
+        long maxStale = requestCacheControl.getMaxStale();
+        if (maxStale < 0 || responseCacheControl.isMustRevalidate())
+            return false;
+        return TimeUnit.MILLISECONDS.toSeconds(age - lifetime) <= maxStale;
+    }
+
+    private void respond(HttpRequest request, List<Response.ResponseListener> listeners, CachedResponse cached, long now)
+    {
+        long age = TimeUnit.MILLISECONDS.toSeconds(Math.max(0, cached.getCurrentAge(now)));
+        HttpResponse response = new HttpResponse(request, listeners)
+            .version(request.getVersion())
+            .status(cached.getStatus())
+            .reason(cached.getReason())
+            .headers(headers ->
+            {
+                headers.add(cached.getHeaders());
+                headers.put(HttpHeader.AGE, String.valueOf(age));
+            });
+        String contentType = cached.getHeaders().get(HttpHeader.CONTENT_TYPE);
+        String mediaType = contentType == null ? null : MimeTypes.getContentTypeWithoutCharset(contentType);
+        String encoding = contentType == null ? null : MimeTypes.getCharsetFromContentType(contentType);
+        notifier.forwardSuccessComplete(listeners, request, new CachedContentResponse(response, cached.getContent(), mediaType, encoding));
+    }
+
+    private CachedResponse newCachedResponse(Response response, String key, HttpFields requestHeaders, byte[] content, long requestTime)
+    {
+        if (!CACHEABLE_STATUSES.contains(response.getStatus()))
+            return null;
+        HttpFields responseHeaders = response.getHeaders();
+        if (CacheControl.from(responseHeaders).isNoStore())
+            return null;
+
+        HttpFields.Mutable varyFields = HttpFields.build();
+        for (String name : responseHeaders.getCSV(HttpHeader.VARY, false))
+        {
+            if ("*".equals(name))
+                return null;
+            for (String value : requestHeaders.getValuesList(name))
+            {
+                varyFields.add(name, value);
+            }
+        }
+
+        HttpFields.Mutable headers = HttpFields.build(responseHeaders, HOP_BY_HOP_HEADERS);
+        // The content has been decoded if there is a decoder for its encoding.
+        List<String> contentEncodings = responseHeaders.getCSV(HttpHeader.CONTENT_ENCODING, false);
+        if (!contentEncodings.isEmpty() && isDecoded(contentEncodings))
+            headers.remove(HttpHeader.CONTENT_ENCODING);
+        headers.put(HttpHeader.CONTENT_LENGTH, String.valueOf(content.length));
+
+        CachedResponse cached = new CachedResponse(key, response.getStatus(), response.getReason(), headers, varyFields, content, requestTime, System.currentTimeMillis());
+        // Do not store responses that would never be used.
+        if (cached.getFreshnessLifetime() <= 0 && !cached.hasValidators())
+            return null;
+        return cached;
+    }
+
+    private boolean isDecoded(List<String> contentEncodings)
+    {
+        for (ContentDecoder.Factory factory : client.getContentDecoderFactories())
+        {
+            for (String encoding : contentEncodings)
+            {
+                if (factory.getEncoding().equalsIgnoreCase(encoding))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[hits=%d,misses=%d,revalidations=%d,notModified=%d]",
+            getClass().getSimpleName(), hashCode(), getHitCount(), getMissCount(), getRevalidationCount(), getNotModifiedCount());
+    }
+
+    private static class Revalidation
+    {
+        private final CachedResponse cached;
+        private final long requestTime;
+
+        private Revalidation(CachedResponse cached, long requestTime)
+        {
+            this.cached = cached;
+            this.requestTime = requestTime;
+        }
+    }
+
+    /**
+     * <p>Marks the responses that come from the cache, so that they are not stored again.</p>
+     */
+    private static class CachedContentResponse extends HttpContentResponse
+    {
+        private CachedContentResponse(Response response, byte[] content, String mediaType, String encoding)
+        {
+            super(response, content, mediaType, encoding);
+        }
+    }
+
+    private class StoreListener implements Response.Listener
+    {
+        private final Request request;
+        private final String key;
+        private final HttpFields requestHeaders;
+        private final long requestTime;
+        private ByteArrayOutputStream content;
+
+        private StoreListener(Request request, String key, HttpFields requestHeaders, long requestTime)
+        {
+            this.request = request;
+            this.key = key;
+            this.requestHeaders = requestHeaders;
+            this.requestTime = requestTime;
+        }
+
+        private boolean isStorable(Response response)
+        {
+            // Ignore the responses to other requests of the conversation,
+            // for example redirects, and the responses from the cache.
+            return response.getRequest() == request && !(response instanceof CachedContentResponse);
+        }
+
+        @Override
+        public void onHeaders(Response response)
+        {
+            if (!isStorable(response) || !CACHEABLE_STATUSES.contains(response.getStatus()))
+                return;
+            long length = response.getHeaders().getLongField(HttpHeader.CONTENT_LENGTH);
+            if (length > getMaxResponseSize())
+                return;
+            content = new ByteArrayOutputStream(length > 0 ? (int)length : 1024);
+        }
+
+        @Override
+        public void onContent(Response response, ByteBuffer buffer)
+        {
+            if (content == null || !isStorable(response))
+                return;
+            if (content.size() + buffer.remaining() > getMaxResponseSize())
+            {
+                content = null;
+                return;
+            }
+            try
+            {
+                BufferUtil.writeTo(buffer.slice(), content);
+            }
+            catch (IOException x)
+            {
+                content = null;
+            }
+        }
+
+        @Override
+        public void onSuccess(Response response)
+        {
+            if (content == null || !isStorable(response))
+                return;
+            CachedResponse cached = newCachedResponse(response, key, requestHeaders, content.toByteArray(), requestTime);
+            content = null;
+            if (cached == null)
+                return;
+            if (LOG.isDebugEnabled())
+                LOG.debug("Storing {} for {}", cached, request);
+            storage.put(cached);
+        }
+    }
+
+    private class InvalidationListener implements Response.Listener
+    {
+        private final Request request;
+        private final String key;
+
+        private InvalidationListener(Request request, String key)
+        {
+            this.request = request;
+            this.key = key;
+        }
+
+        @Override
+        public void onSuccess(Response response)
+        {
+            // RFC 9111, section 4.4: only non-error responses invalidate.
+            if (response.getRequest() == request && response.getStatus() < 400)
+            {
+                if (storage.remove(key) && LOG.isDebugEnabled())
+                    LOG.debug("Invalidated {} for {}", key, request);
+            }
+        }
+    }
+
+    private class NotModifiedListener implements Response.Listener
+    {
+        @Override
+        public void onComplete(Result result)
+        {
+            HttpRequest request = (HttpRequest)result.getRequest();
+            Revalidation revalidation = (Revalidation)request.getAttributes().get(ATTRIBUTE);
+            HttpConversation conversation = request.getConversation();
+            conversation.updateResponseListeners(null);
+            List<Response.ResponseListener> listeners = conversation.getResponseListeners();
+            if (result.isFailed())
+            {
+                notifier.forwardFailureComplete(listeners, request, result.getRequestFailure(), result.getResponse(), result.getResponseFailure());
+                return;
+            }
+
+            notModified.increment();
+            long now = System.currentTimeMillis();
+            CachedResponse cached = revalidation.cached.revalidated(result.getResponse().getHeaders(), revalidation.requestTime, now);
+            if (LOG.isDebugEnabled())
+                LOG.debug("Revalidated {} for {}", cached, request);
+            storage.put(cached);
+            respond(request, listeners, cached, now);
+        }
+    }
+}
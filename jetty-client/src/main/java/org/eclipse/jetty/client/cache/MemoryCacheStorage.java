@@ -0,0 +1,133 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.thread.AutoLock;
+
+/**
+ * <p>A {@link CacheStorage} that stores responses in memory.</p>
+ * <p>The memory used by the stored responses is bounded by {@link #getMaxSize()};
+ * when a new response is stored, the least recently used responses are evicted
+ * until the stored responses fit in the max size.
+ * Responses larger than the max size are not stored.</p>
+ */
+@ManagedObject
+public class MemoryCacheStorage implements CacheStorage
+{
+    private final AutoLock lock = new AutoLock();
+    private final Map<String, CachedResponse> responses = new LinkedHashMap<>(16, 0.75F, true);
+    private final long maxSize;
+    private long size;
+
+    /**
+     * @param maxSize the max memory in bytes occupied by the stored responses
+     */
+    public MemoryCacheStorage(long maxSize)
+    {
+        this.maxSize = maxSize;
+    }
+
+    @ManagedAttribute(value = "The max memory in bytes occupied by the stored responses")
+    public long getMaxSize()
+    {
+        return maxSize;
+    }
+
+    @ManagedAttribute(value = "The memory in bytes occupied by the stored responses")
+    public long getSize()
+    {
+        try (AutoLock l = lock.lock())
+        {
+            return size;
+        }
+    }
+
+    @ManagedAttribute(value = "The number of stored responses")
+    public int getCount()
+    {
+        try (AutoLock l = lock.lock())
+        {
+            return responses.size();
+        }
+    }
+
+    @Override
+    public CachedResponse get(String key)
+    {
+        try (AutoLock l = lock.lock())
+        {
+            return responses.get(key);
+        }
+    }
+
+    @Override
+    public void put(CachedResponse response)
+    {
+        long responseSize = response.getSize();
+        try (AutoLock l = lock.lock())
+        {
+            CachedResponse existing = responses.remove(response.getKey());
+            if (existing != null)
+                size -= existing.getSize();
+            if (responseSize > maxSize)
+                return;
+            Iterator<CachedResponse> iterator = responses.values().iterator();
+            while (size + responseSize > maxSize && iterator.hasNext())
+            {
+                size -= iterator.next().getSize();
+                iterator.remove();
+            }
+            responses.put(response.getKey(), response);
+            size += responseSize;
+        }
+    }
+
+    @Override
+    public boolean remove(String key)
+    {
+        try (AutoLock l = lock.lock())
+        {
+            CachedResponse existing = responses.remove(key);
+            if (existing == null)
+                return false;
+            size -= existing.getSize();
+            return true;
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        try (AutoLock l = lock.lock())
+        {
+            responses.clear();
+            size = 0;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        try (AutoLock l = lock.lock())
+        {
+            return String.format("%s@%x[count=%d,size=%d/%d]", getClass().getSimpleName(), hashCode(), responses.size(), size, maxSize);
+        }
+    }
+}
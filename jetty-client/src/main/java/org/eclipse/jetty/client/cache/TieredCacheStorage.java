@@ -0,0 +1,96 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client.cache;
+
+import java.util.List;
+
+/**
+ * <p>A {@link CacheStorage} that combines multiple tiers of storage,
+ * typically a small and fast {@link MemoryCacheStorage} in front of
+ * a larger and slower {@link FileCacheStorage}.</p>
+ * <p>Responses are looked up in the tiers in order, and a response found
+ * in a tier is copied to the previous tiers, so that it is found faster
+ * when it is requested again.
+ * Responses are stored in all the tiers, so that a response evicted
+ * from a tier can still be found in the following tiers.</p>
+ */
+public class TieredCacheStorage implements CacheStorage
+{
+    private final List<CacheStorage> tiers;
+
+    public TieredCacheStorage(CacheStorage... tiers)
+    {
+        if (tiers.length == 0)
+            throw new IllegalArgumentException("No tiers");
+        this.tiers = List.of(tiers);
+    }
+
+    public List<CacheStorage> getTiers()
+    {
+        return tiers;
+    }
+
+    @Override
+    public CachedResponse get(String key)
+    {
+        for (int i = 0; i < tiers.size(); ++i)
+        {
+            CachedResponse response = tiers.get(i).get(key);
+            if (response != null)
+            {
+                for (int j = 0; j < i; ++j)
+                {
+                    tiers.get(j).put(response);
+                }
+                return response;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void put(CachedResponse response)
+    {
+        for (CacheStorage tier : tiers)
+        {
+            tier.put(response);
+        }
+    }
+
+    @Override
+    public boolean remove(String key)
+    {
+        boolean result = false;
+        for (CacheStorage tier : tiers)
+        {
+            result |= tier.remove(key);
+        }
+        return result;
+    }
+
+    @Override
+    public void clear()
+    {
+        for (CacheStorage tier : tiers)
+        {
+            tier.clear();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x%s", getClass().getSimpleName(), hashCode(), tiers);
+    }
+}
@@ -15,7 +15,10 @@ package org.eclipse.jetty.client;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
@@ -53,7 +56,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import static org.awaitility.Awaitility.await;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -71,15 +76,16 @@ public class ConnectionPoolTest
         return pool;
     });
     private static final ConnectionPoolFactory ROUND_ROBIN = new ConnectionPoolFactory("round-robin", destination -> new RoundRobinConnectionPool(destination, destination.getHttpClient().getMaxConnectionsPerDestination(), destination));
+    private static final ConnectionPoolFactory LEAST_LATENCY = new ConnectionPoolFactory("least-latency", destination -> new LeastLatencyConnectionPool(destination, destination.getHttpClient().getMaxConnectionsPerDestination(), destination));
 
     public static Stream<ConnectionPoolFactory> pools()
     {
-        return Stream.of(DUPLEX, MULTIPLEX, RANDOM, DUPLEX_MAX_DURATION, ROUND_ROBIN);
+        return Stream.of(DUPLEX, MULTIPLEX, RANDOM, DUPLEX_MAX_DURATION, ROUND_ROBIN, LEAST_LATENCY);
     }
 
     public static Stream<ConnectionPoolFactory> poolsNoRoundRobin()
     {
-        return Stream.of(DUPLEX, MULTIPLEX, RANDOM, DUPLEX_MAX_DURATION);
+        return Stream.of(DUPLEX, MULTIPLEX, RANDOM, DUPLEX_MAX_DURATION, LEAST_LATENCY);
     }
 
     private Server server;
@@ -647,6 +653,121 @@ public class ConnectionPoolTest
         assertEquals(0, connectionPool.getConnectionCount());
     }
 
+    @ParameterizedTest
+    @MethodSource("pools")
+    public void testMinIdleConnections(ConnectionPoolFactory factory) throws Exception
+    {
+        startServer(new EmptyServerHandler());
+        int minIdle = 3;
+        startClient(destination ->
+        {
+            AbstractConnectionPool connectionPool = (AbstractConnectionPool)factory.factory.newConnectionPool(destination);
+            connectionPool.setMaxDuration(0);
+            connectionPool.setMinIdleConnectionCount(minIdle);
+            connectionPool.setMaintenanceInterval(100);
+            return connectionPool;
+        });
+
+        ContentResponse response = client.newRequest("localhost", connector.getLocalPort()).send();
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+
+        HttpDestination destination = (HttpDestination)client.getDestinations().get(0);
+        AbstractConnectionPool connectionPool = (AbstractConnectionPool)destination.getConnectionPool();
+
+        // The maintenance opens the missing connections.
+        await().atMost(5, TimeUnit.SECONDS).until(connectionPool::getIdleConnectionCount, greaterThanOrEqualTo(minIdle));
+        long replenished = connectionPool.getReplenishedConnectionCount();
+        assertThat(replenished, greaterThanOrEqualTo((long)minIdle - 1));
+
+        // Close the idle connections, the maintenance must replace them.
+        List<Connection> idleConnections = new ArrayList<>(connectionPool.getIdleConnections());
+        assertThat(idleConnections.size(), greaterThanOrEqualTo(minIdle));
+        idleConnections.forEach(Connection::close);
+        await().atMost(5, TimeUnit.SECONDS).until(connectionPool::getReplenishedConnectionCount, greaterThanOrEqualTo(replenished + minIdle));
+        await().atMost(5, TimeUnit.SECONDS).until(connectionPool::getIdleConnectionCount, greaterThanOrEqualTo(minIdle));
+        assertTrue(connectionPool.getIdleConnections().stream().noneMatch(idleConnections::contains));
+    }
+
+    @Test
+    public void testMaintenanceRotatesExpiredIdleConnections() throws Exception
+    {
+        startServer(new EmptyServerHandler());
+        long maxDuration = 500;
+        startClient(destination ->
+        {
+            DuplexConnectionPool connectionPool = new DuplexConnectionPool(destination, destination.getHttpClient().getMaxConnectionsPerDestination(), destination);
+            connectionPool.setMaxDuration(maxDuration);
+            connectionPool.setMinIdleConnectionCount(1);
+            connectionPool.setMaintenanceInterval(100);
+            return connectionPool;
+        });
+
+        ContentResponse response = client.newRequest("localhost", connector.getLocalPort()).send();
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+
+        HttpDestination destination = (HttpDestination)client.getDestinations().get(0);
+        AbstractConnectionPool connectionPool = (AbstractConnectionPool)destination.getConnectionPool();
+
+        // The idle connection expires and is replaced by the maintenance.
+        await().atMost(5, TimeUnit.SECONDS).until(connectionPool::getExpiredConnectionCount, greaterThanOrEqualTo(2L));
+        assertThat(connectionPool.getReplenishedConnectionCount(), greaterThanOrEqualTo(2L));
+        await().atMost(5, TimeUnit.SECONDS).until(connectionPool::getIdleConnectionCount, is(1));
+        assertThat(connectionPool.getConnectionCount(), lessThanOrEqualTo(1));
+    }
+
+    @Test
+    public void testLeastLatencyAvoidsSlowConnection() throws Exception
+    {
+        // The first connection that sends a request to the server is slow.
+        AtomicInteger slowPort = new AtomicInteger();
+        Map<Integer, AtomicInteger> requests = new ConcurrentHashMap<>();
+        startServer(new EmptyServerHandler()
+        {
+            @Override
+            protected void service(String target, org.eclipse.jetty.server.Request jettyRequest, HttpServletRequest request, HttpServletResponse response) throws ServletException
+            {
+                int port = request.getRemotePort();
+                requests.computeIfAbsent(port, key -> new AtomicInteger()).incrementAndGet();
+                slowPort.compareAndSet(0, port);
+                if (port == slowPort.get())
+                {
+                    try
+                    {
+                        Thread.sleep(200);
+                    }
+                    catch (InterruptedException x)
+                    {
+                        throw new ServletException(x);
+                    }
+                }
+            }
+        });
+        startClient(destination -> new LeastLatencyConnectionPool(destination, 2, destination));
+
+        Request request = client.newRequest("localhost", connector.getLocalPort());
+        HttpDestination destination = (HttpDestination)client.resolveDestination(request);
+        LeastLatencyConnectionPool connectionPool = (LeastLatencyConnectionPool)destination.getConnectionPool();
+        connectionPool.preCreateConnections(2).get(5, TimeUnit.SECONDS);
+        assertEquals(2, connectionPool.getIdleConnectionCount());
+
+        int count = 10;
+        for (int i = 0; i < count; ++i)
+        {
+            // Wait for the previous request to release its connection,
+            // so that both connections are always candidates.
+            await().atMost(5, TimeUnit.SECONDS).until(connectionPool::getIdleConnectionCount, is(2));
+            ContentResponse response = client.newRequest("localhost", connector.getLocalPort()).send();
+            assertEquals(HttpStatus.OK_200, response.getStatus());
+        }
+
+        assertEquals(2, requests.size());
+        // Once its response time is known, the slow connection is not selected anymore.
+        assertEquals(1, requests.get(slowPort.get()).get());
+        assertEquals(count, requests.values().stream().mapToInt(AtomicInteger::get).sum());
+        await().atMost(5, TimeUnit.SECONDS).until(() -> connectionPool.getIdleConnections().stream()
+            .allMatch(connection -> connectionPool.getResponseTime(connection) >= 0));
+    }
+
     private static class ConnectionPoolFactory
     {
         private final String name;
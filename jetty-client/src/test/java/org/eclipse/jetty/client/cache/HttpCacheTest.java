@@ -0,0 +1,537 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client.cache;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.client.EmptyServerHandler;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.ContentResponse;
+import org.eclipse.jetty.client.util.BasicAuthentication;
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDir;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDirExtension;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(WorkDirExtension.class)
+public class HttpCacheTest
+{
+    public WorkDir workDir;
+    private Server server;
+    private ServerConnector connector;
+    private HttpClient client;
+    private HttpCache cache;
+
+    public static Stream<Function<Path, CacheStorage>> storages()
+    {
+        return Stream.of(
+            dir -> new MemoryCacheStorage(1024 * 1024),
+            dir -> new FileCacheStorage(dir, 1024 * 1024),
+            dir -> new TieredCacheStorage(new MemoryCacheStorage(1024), new FileCacheStorage(dir, 1024 * 1024))
+        );
+    }
+
+    private void start(Handler handler) throws Exception
+    {
+        start(handler, new MemoryCacheStorage(1024 * 1024));
+    }
+
+    private void start(Handler handler, CacheStorage storage) throws Exception
+    {
+        server = new Server();
+        connector = new ServerConnector(server);
+        server.addConnector(connector);
+        server.setHandler(handler);
+        server.start();
+
+        client = new HttpClient();
+        cache = new HttpCache(client, storage);
+        client.setHttpCache(cache);
+        client.start();
+    }
+
+    @AfterEach
+    public void dispose()
+    {
+        LifeCycle.stop(client);
+        LifeCycle.stop(server);
+    }
+
+    private ContentResponse get(String path, HttpField... fields) throws Exception
+    {
+        return client.newRequest("localhost", connector.getLocalPort())
+            .path(path)
+            .headers(headers ->
+            {
+                for (HttpField field : fields)
+                {
+                    headers.add(field);
+                }
+            })
+            .send();
+    }
+
+    @ParameterizedTest
+    @MethodSource("storages")
+    public void testFreshResponseIsServedFromCache(Function<Path, CacheStorage> storage) throws Exception
+    {
+        AtomicInteger requests = new AtomicInteger();
+        start(new EmptyServerHandler()
+        {
+            @Override
+            protected void service(String target, Request jettyRequest, HttpServletRequest request, HttpServletResponse response) throws IOException
+            {
+                requests.incrementAndGet();
+                response.setHeader(HttpHeader.CACHE_CONTROL.asString(), "max-age=60");
+                response.setContentType("text/plain;charset=UTF-8");
+                response.getOutputStream().print("hello");
+            }
+        }, storage.apply(workDir.getEmptyPathDir()));
+
+        ContentResponse response1 = get("/fresh");
+        assertEquals(HttpStatus.OK_200, response1.getStatus());
+        assertEquals("hello", response1.getContentAsString());
+
+        ContentResponse response2 = get("/fresh");
+        assertEquals(HttpStatus.OK_200, response2.getStatus());
+        assertEquals("hello", response2.getContentAsString());
+        assertEquals("text/plain", response2.getMediaType());
+        assertNotNull(response2.getHeaders().get(HttpHeader.AGE));
+
+        assertEquals(1, requests.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testRevalidationWithETag() throws Exception
+    {
+        AtomicInteger requests = new AtomicInteger();
+        AtomicInteger notModified = new AtomicInteger();
+        start(new EmptyServerHandler()
+        {
+            @Override
+            protected void service(String target, Request jettyRequest, HttpServletRequest request, HttpServletResponse response) throws IOException
+            {
+                requests.incrementAndGet();
+                response.setHeader(HttpHeader.CACHE_CONTROL.asString(), "no-cache");
+                response.setHeader(HttpHeader.ETAG.asString(), "\"v1\"");
+                if ("\"v1\"".equals(request.getHeader(HttpHeader.IF_NONE_MATCH.asString())))
+                {
+                    notModified.incrementAndGet();
+                    response.setStatus(HttpStatus.NOT_MODIFIED_304);
+                    return;
+                }
+                response.getOutputStream().print("hello");
+            }
+        });
+
+        ContentResponse response1 = get("/etag");
+        assertEquals(HttpStatus.OK_200, response1.getStatus());
+        assertEquals("hello", response1.getContentAsString());
+
+        // The stored response must be revalidated, and the server responds 304.
+        ContentResponse response2 = get("/etag");
+        assertEquals(HttpStatus.OK_200, response2.getStatus());
+        assertEquals("hello", response2.getContentAsString());
+        assertEquals("\"v1\"", response2.getHeaders().get(HttpHeader.ETAG));
+
+        assertEquals(2, requests.get());
+        assertEquals(1, notModified.get());
+        assertEquals(1, cache.getRevalidationCount());
+        assertEquals(1, cache.getNotModifiedCount());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void testRevalidationFollowedByAuthenticationChallenge() throws Exception
+    {
+        AtomicInteger conditionalAuthorized = new AtomicInteger();
+        start(new EmptyServerHandler()
+        {
+            @Override
+            protected void service(String target, Request jettyRequest, HttpServletRequest request, HttpServletResponse response) throws IOException
+            {
+                String ifNoneMatch = request.getHeader(HttpHeader.IF_NONE_MATCH.asString());
+                boolean authorized = request.getHeader(HttpHeader.AUTHORIZATION.asString()) != null;
+                // Resources are public, unless they are revalidated.
+                if (ifNoneMatch != null && !authorized)
+                {
+                    response.setStatus(HttpStatus.UNAUTHORIZED_401);
+                    response.setHeader(HttpHeader.WWW_AUTHENTICATE.asString(), "Basic realm=\"test\"");
+                    return;
+                }
+                response.setHeader(HttpHeader.CACHE_CONTROL.asString(), "no-cache");
+                response.setHeader(HttpHeader.ETAG.asString(), "\"v1\"");
+                if (ifNoneMatch != null)
+                {
+                    conditionalAuthorized.incrementAndGet();
+                    response.setStatus(HttpStatus.NOT_MODIFIED_304);
+                    return;
+                }
+                response.getOutputStream().print("hello");
+            }
+        });
+        URI uri = URI.create("http://localhost:" + connector.getLocalPort());
+        client.getAuthenticationStore().addAuthentication(new BasicAuthentication(uri, "test", "user", "password"));
+
+        ContentResponse response1 = get("/auth");
+        assertEquals(HttpStatus.OK_200, response1.getStatus());
+        assertEquals("hello", response1.getContentAsString());
+
+        // The revalidation is challenged, and the authenticated
+        // request must not be sent with the conditional headers.
+        ContentResponse response2 = get("/auth");
+        assertEquals(HttpStatus.OK_200, response2.getStatus());
+        assertEquals("hello", response2.getContentAsString());
+
+        assertEquals(0, conditionalAuthorized.get());
+        assertEquals(1, cache.getRevalidationCount());
+        assertEquals(0, cache.getNotModifiedCount());
+    }
+
+    @Test
+    public void testRevalidationWithLastModifiedReplacesModifiedResponse() throws Exception
+    {
+        AtomicInteger version = new AtomicInteger();
+        start(new EmptyServerHandler()
+        {
+            @Override
+            protected void service(String target, Request jettyRequest, HttpServletRequest request, HttpServletResponse response) throws IOException
+            {
+                // The content changes at every request.
+                int current = version.incrementAndGet();
+                response.setHeader(HttpHeader.CACHE_CONTROL.asString(), "max-age=0");
+                response.setDateHeader(HttpHeader.LAST_MODIFIED.asString(), current * 1000L);
+                response.getOutputStream().print("v" + current);
+            }
+        });
+
+        assertEquals("v1", get("/modified").getContentAsString());
+        assertEquals("v2", get("/modified").getContentAsString());
+        assertEquals("v3", get("/modified").getContentAsString());
+        assertEquals(2, cache.getRevalidationCount());
+        assertEquals(0, cache.getNotModifiedCount());
+    }
+
+    @Test
+    public void testNoStoreResponseIsNotStored() throws Exception
+    {
+        AtomicInteger requests = new AtomicInteger();
+        start(new EmptyServerHandler()
+        {
+            @Override
+            protected void service(String target, Request jettyRequest, HttpServletRequest request, HttpServletResponse response)
+            {
+                requests.incrementAndGet();
+                response.setHeader(HttpHeader.CACHE_CONTROL.asString(), "max-age=60, no-store");
+            }
+        });
+
+        get("/no-store");
+        get("/no-store");
+
+        assertEquals(2, requests.get());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testRequestNoCacheForcesRevalidation() throws Exception
+    {
+        AtomicInteger requests = new AtomicInteger();
+        start(new EmptyServerHandler()
+        {
+            @Override
+            protected void service(String target, Request jettyRequest, HttpServletRequest request, HttpServletResponse response)
+            {
+                requests.incrementAndGet();
+                response.setHeader(HttpHeader.CACHE_CONTROL.asString(), "max-age=60");
+            }
+        });
+
+        get("/no-cache");
+        get("/no-cache", new HttpField(HttpHeader.CACHE_CONTROL, "no-cache"));
+
+        assertEquals(2, requests.get());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void testVary() throws Exception
+    {
+        AtomicInteger requests = new AtomicInteger();
+        start(new EmptyServerHandler()
+        {
+            @Override
+            protected void service(String target, Request jettyRequest, HttpServletRequest request, HttpServletResponse response) throws IOException
+            {
+                requests.incrementAndGet();
+                response.setHeader(HttpHeader.CACHE_CONTROL.asString(), "max-age=60");
+                response.setHeader(HttpHeader.VARY.asString(), HttpHeader.ACCEPT_LANGUAGE.asString());
+                response.getOutputStream().print(request.getHeader(HttpHeader.ACCEPT_LANGUAGE.asString()));
+            }
+        });
+
+        HttpField english = new HttpField(HttpHeader.ACCEPT_LANGUAGE, "en");
+        HttpField italian = new HttpField(HttpHeader.ACCEPT_LANGUAGE, "it");
+        assertEquals("en", get("/vary", english).getContentAsString());
+        assertEquals("en", get("/vary", english).getContentAsString());
+        assertEquals(1, requests.get());
+
+        // A different value of the header nominated by Vary is a miss.
+        assertEquals("it", get("/vary", italian).getContentAsString());
+        assertEquals(2, requests.get());
+        assertEquals("it", get("/vary", italian).getContentAsString());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void testUnsafeMethodInvalidates() throws Exception
+    {
+        AtomicInteger requests = new AtomicInteger();
+        start(new EmptyServerHandler()
+        {
+            @Override
+            protected void service(String target, Request jettyRequest, HttpServletRequest request, HttpServletResponse response)
+            {
+                requests.incrementAndGet();
+                if (HttpMethod.GET.is(request.getMethod()))
+                    response.setHeader(HttpHeader.CACHE_CONTROL.asString(), "max-age=60");
+            }
+        });
+
+        get("/resource");
+        get("/resource");
+        assertEquals(1, requests.get());
+
+        ContentResponse response = client.newRequest("localhost", connector.getLocalPort())
+            .method(HttpMethod.POST)
+            .path("/resource")
+            .send();
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertEquals(2, requests.get());
+
+        get("/resource");
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void testOnlyIfCached() throws Exception
+    {
+        AtomicInteger requests = new AtomicInteger();
+        start(new EmptyServerHandler()
+        {
+            @Override
+            protected void service(String target, Request jettyRequest, HttpServletRequest request, HttpServletResponse response)
+            {
+                requests.incrementAndGet();
+                response.setHeader(HttpHeader.CACHE_CONTROL.asString(), "max-age=60");
+            }
+        });
+
+        HttpField onlyIfCached = new HttpField(HttpHeader.CACHE_CONTROL, "only-if-cached");
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT_504, get("/only", onlyIfCached).getStatus());
+        assertEquals(0, requests.get());
+
+        get("/only");
+        assertEquals(HttpStatus.OK_200, get("/only", onlyIfCached).getStatus());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void testLargeResponseIsNotStored() throws Exception
+    {
+        AtomicInteger requests = new AtomicInteger();
+        byte[] content = new byte[1024];
+        start(new EmptyServerHandler()
+        {
+            @Override
+            protected void service(String target, Request jettyRequest, HttpServletRequest request, HttpServletResponse response) throws IOException
+            {
+                requests.incrementAndGet();
+                response.setHeader(HttpHeader.CACHE_CONTROL.asString(), "max-age=60");
+                response.getOutputStream().write(content);
+            }
+        });
+        cache.setMaxResponseSize(content.length - 1);
+
+        assertArrayEquals(content, get("/large").getContent());
+        assertArrayEquals(content, get("/large").getContent());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void testDecodedResponseIsStoredWithoutContentEncoding() throws Exception
+    {
+        AtomicInteger requests = new AtomicInteger();
+        byte[] content = "hello hello hello hello hello hello hello hello".getBytes(StandardCharsets.UTF_8);
+        GzipHandler gzipHandler = new GzipHandler();
+        gzipHandler.setMinGzipSize(0);
+        gzipHandler.setHandler(new EmptyServerHandler()
+        {
+            @Override
+            protected void service(String target, Request jettyRequest, HttpServletRequest request, HttpServletResponse response) throws IOException
+            {
+                requests.incrementAndGet();
+                response.setHeader(HttpHeader.CACHE_CONTROL.asString(), "max-age=60");
+                response.setContentType("text/plain");
+                response.getOutputStream().write(content);
+            }
+        });
+        start(gzipHandler);
+
+        ContentResponse response1 = get("/gzip");
+        assertEquals("gzip", response1.getHeaders().get(HttpHeader.CONTENT_ENCODING));
+        assertArrayEquals(content, response1.getContent());
+
+        ContentResponse response2 = get("/gzip");
+        assertEquals(1, requests.get());
+        assertNull(response2.getHeaders().get(HttpHeader.CONTENT_ENCODING));
+        assertEquals(content.length, response2.getHeaders().getLongField(HttpHeader.CONTENT_LENGTH));
+        assertArrayEquals(content, response2.getContent());
+    }
+
+    @Test
+    public void testFileCacheStorageSurvivesRestart() throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        FileCacheStorage storage = new FileCacheStorage(dir, 1024 * 1024);
+        CachedResponse response = newCachedResponse("http://localhost/a", 16);
+        storage.put(response);
+
+        CachedResponse stored = new FileCacheStorage(dir, 1024 * 1024).get(response.getKey());
+        assertNotNull(stored);
+        assertEquals(response.getStatus(), stored.getStatus());
+        assertEquals(response.getHeaders(), stored.getHeaders());
+        assertEquals(response.getVaryFields(), stored.getVaryFields());
+        assertArrayEquals(response.getContent(), stored.getContent());
+        assertEquals(response.getResponseTime(), stored.getResponseTime());
+
+        assertTrue(storage.remove(response.getKey()));
+        assertNull(storage.get(response.getKey()));
+        assertFalse(storage.remove(response.getKey()));
+    }
+
+    @Test
+    public void testFileCacheStorageEvictsLeastRecentlyUsed() throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        int contentLength = 1024;
+        FileCacheStorage storage = new FileCacheStorage(dir, 3 * (contentLength + 256));
+        List<String> keys = List.of("http://localhost/a", "http://localhost/b", "http://localhost/c");
+        for (String key : keys)
+        {
+            storage.put(newCachedResponse(key, contentLength));
+        }
+        // Use the first response, so that the second is the least recently used.
+        assertNotNull(storage.get(keys.get(0)));
+
+        storage.put(newCachedResponse("http://localhost/d", contentLength));
+
+        assertThat(storage.getSize(), lessThanOrEqualTo(storage.getMaxSize()));
+        assertNotNull(storage.get(keys.get(0)));
+        assertNull(storage.get(keys.get(1)));
+        assertNotNull(storage.get("http://localhost/d"));
+    }
+
+    @Test
+    public void testFileCacheStorageDeletesTemporaryFilesAtStart() throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        FileCacheStorage storage = new FileCacheStorage(dir, 1024 * 1024);
+        CachedResponse response = newCachedResponse("http://localhost/a", 16);
+        storage.put(response);
+        // Simulate a process that stopped while writing a response.
+        Path temp = Files.createTempFile(dir, "response", ".tmp");
+
+        FileCacheStorage restarted = new FileCacheStorage(dir, 1024 * 1024);
+        assertEquals(1, restarted.getCount());
+        assertEquals(storage.getSize(), restarted.getSize());
+        assertFalse(Files.exists(temp));
+        assertNotNull(restarted.get(response.getKey()));
+    }
+
+    @Test
+    public void testMemoryCacheStorageEvictsLeastRecentlyUsed()
+    {
+        int contentLength = 1024;
+        MemoryCacheStorage storage = new MemoryCacheStorage(3 * contentLength + 512);
+        List<String> keys = List.of("http://localhost/a", "http://localhost/b", "http://localhost/c");
+        for (String key : keys)
+        {
+            storage.put(newCachedResponse(key, contentLength));
+        }
+        assertEquals(3, storage.getCount());
+        // Use the first response, so that the second is the least recently used.
+        assertNotNull(storage.get(keys.get(0)));
+
+        storage.put(newCachedResponse("http://localhost/d", contentLength));
+
+        assertEquals(3, storage.getCount());
+        assertThat(storage.getSize(), lessThanOrEqualTo(storage.getMaxSize()));
+        assertNotNull(storage.get(keys.get(0)));
+        assertNull(storage.get(keys.get(1)));
+
+        // Responses larger than the max size are not stored.
+        storage.put(newCachedResponse("http://localhost/e", 4 * contentLength));
+        assertNull(storage.get("http://localhost/e"));
+        assertThat(storage.getSize(), greaterThan(0L));
+    }
+
+    private static CachedResponse newCachedResponse(String key, int contentLength)
+    {
+        HttpFields headers = HttpFields.build()
+            .put(HttpHeader.CACHE_CONTROL, "max-age=60")
+            .put(HttpHeader.VARY, HttpHeader.ACCEPT_LANGUAGE.asString());
+        HttpFields varyFields = HttpFields.build()
+            .put(HttpHeader.ACCEPT_LANGUAGE, "en");
+        long now = System.currentTimeMillis();
+        return new CachedResponse(key, HttpStatus.OK_200, "OK", headers, varyFields, new byte[contentLength], now, now);
+    }
+}
@@ -0,0 +1,154 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.component.ContainerLifeCycle;
+import org.eclipse.jetty.util.thread.Scheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A shared source of the {@code Date} response header.</p>
+ * <p>The current date is formatted once per second by a task scheduled on a
+ * {@link Scheduler} and published as a {@link PreEncodedHttpField}, so that the
+ * HTTP/1, HTTP/2 and HTTP/3 generators all write the same pre-encoded bytes
+ * without formatting or encoding the date for every response.</p>
+ * <p>If the tick is late, or the ticker is not started or has no scheduler,
+ * {@link #getDateField()} refreshes the field inline, so the returned value is
+ * always for the current second.</p>
+ */
+@ManagedObject("The shared Date header ticker")
+public class DateFieldTicker extends ContainerLifeCycle implements Runnable
+{
+    private static final Logger LOG = LoggerFactory.getLogger(DateFieldTicker.class);
+
+    private Scheduler _scheduler;
+    private final LongSupplier _clock;
+    private volatile Tick _tick;
+    private volatile Scheduler.Task _task;
+
+    public DateFieldTicker()
+    {
+        this(null);
+    }
+
+    /**
+     * @param scheduler the scheduler to tick on, or null to only refresh inline
+     */
+    public DateFieldTicker(Scheduler scheduler)
+    {
+        this(scheduler, System::currentTimeMillis);
+    }
+
+    /**
+     * @param scheduler the scheduler to tick on, or null to only refresh inline
+     * @param clock the source of the current time in milliseconds since the epoch
+     */
+    DateFieldTicker(Scheduler scheduler, LongSupplier clock)
+    {
+        _clock = clock;
+        _scheduler = scheduler;
+        addBean(_scheduler, false);
+        _tick = new Tick(_clock.getAsLong());
+    }
+
+    public Scheduler getScheduler()
+    {
+        return _scheduler;
+    }
+
+    /**
+     * <p>Sets the scheduler to tick on, typically a scheduler shared with
+     * other components, which must be started before this ticker.</p>
+     *
+     * @param scheduler the scheduler to tick on, or null to only refresh inline
+     */
+    public void setScheduler(Scheduler scheduler)
+    {
+        if (isRunning())
+            throw new IllegalStateException(getState());
+        updateBean(_scheduler, scheduler, false);
+        _scheduler = scheduler;
+    }
+
+    /**
+     * @return the {@code Date} field for the current second
+     */
+    public HttpField getDateField()
+    {
+        long now = _clock.getAsLong();
+        Tick tick = _tick;
+        if (tick._seconds == now / 1000)
+            return tick._field;
+
+        // The tick is late, so refresh inline; concurrent refreshes produce equal fields.
+        tick = new Tick(now);
+        _tick = tick;
+        return tick._field;
+    }
+
+    @Override
+    protected void doStart() throws Exception
+    {
+        super.doStart();
+        run();
+    }
+
+    @Override
+    protected void doStop() throws Exception
+    {
+        Scheduler.Task task = _task;
+        if (task != null)
+            task.cancel();
+        _task = null;
+        super.doStop();
+    }
+
+    @Override
+    public void run()
+    {
+        long now = _clock.getAsLong();
+        if (_tick._seconds != now / 1000)
+            _tick = new Tick(now);
+        if (LOG.isDebugEnabled())
+            LOG.debug("tick {}", _tick._field);
+
+        // Schedule the next tick just after the next second boundary.
+        Scheduler scheduler = _scheduler;
+        if (isRunning() && scheduler != null)
+            _task = scheduler.schedule(this, 1000 - now % 1000, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x{%s}", getClass().getSimpleName(), hashCode(), _tick._field.getValue());
+    }
+
+    private static class Tick
+    {
+        private final long _seconds;
+        private final HttpField _field;
+
+        private Tick(long now)
+        {
+            _seconds = now / 1000;
+            _field = new PreEncodedHttpField(HttpHeader.DATE, DateGenerator.formatDate(now));
+        }
+    }
+}
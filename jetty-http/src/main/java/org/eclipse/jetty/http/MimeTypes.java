@@ -19,8 +19,11 @@ import java.io.InputStreamReader;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -43,6 +46,8 @@ public class MimeTypes
     private static final Map<String, String> __dftMimeMap = new HashMap<String, String>();
     private static final Map<String, String> __inferredEncodings = new HashMap<String, String>();
     private static final Map<String, String> __assumedEncodings = new HashMap<String, String>();
+    private static final Index<HttpField> __contentTypeFields;
+    private static final Index<HttpField> __dftMimeIndex;
 
     public enum Type
     {
@@ -280,9 +285,29 @@ public class MimeTypes
             else
                 LOG.warn("Unable to load encoding resource: {} - {}", resourceName, e.toString());
         }
+
+        // Pre-encode the Content-Type fields of the known mime types, with their inferred charsets.
+        Map<String, HttpField> fields = new HashMap<>();
+        for (Type type : Type.values())
+        {
+            fields.put(type.asString(), type.getContentTypeField());
+        }
+        for (String mimeType : __dftMimeMap.values())
+        {
+            fields.computeIfAbsent(mimeType, t -> new PreEncodedHttpField(HttpHeader.CONTENT_TYPE, t));
+            String charset = __inferredEncodings.get(mimeType);
+            if (charset != null)
+                fields.computeIfAbsent(mimeType + ";charset=" + charset, t -> new PreEncodedHttpField(HttpHeader.CONTENT_TYPE, t));
+        }
+        __contentTypeFields = new Index.Builder<HttpField>()
+            .caseSensitive(false)
+            .withAll(() -> fields)
+            .build();
+        __dftMimeIndex = buildExtensionIndex(__dftMimeMap);
     }
 
-    private final Map<String, String> _mimeMap = new HashMap<String, String>();
+    private final MimeMap _mimeMap = new MimeMap();
+    private volatile ExtensionIndex _mimeIndex;
 
     /**
      * Constructor.
@@ -291,6 +316,14 @@ public class MimeTypes
     {
     }
 
+    /**
+     * <p>The returned map may be modified; the extension index used by
+     * {@link #getContentTypeFieldByExtension(String)} is rebuilt after any modification.</p>
+     *
+     * @return the map of file extension to mime-type
+     * @see #setMimeMap(Map)
+     * @see #addMimeMapping(String, String)
+     */
     public Map<String, String> getMimeMap()
     {
         return _mimeMap;
@@ -321,30 +354,8 @@ public class MimeTypes
      */
     public static String getDefaultMimeByExtension(String filename)
     {
-        String type = null;
-
-        if (filename != null)
-        {
-            int i = -1;
-            while (type == null)
-            {
-                i = filename.indexOf(".", i + 1);
-
-                if (i < 0 || i >= filename.length())
-                    break;
-
-                String ext = StringUtil.asciiToLowerCase(filename.substring(i + 1));
-                if (type == null)
-                    type = __dftMimeMap.get(ext);
-            }
-        }
-
-        if (type == null)
-        {
-            type = __dftMimeMap.get("*");
-        }
-
-        return type;
+        HttpField field = getContentTypeField(filename, null);
+        return field == null ? null : field.getValue();
     }
 
     /**
@@ -357,35 +368,102 @@ public class MimeTypes
      */
     public String getMimeByExtension(String filename)
     {
-        String type = null;
+        HttpField field = getContentTypeFieldByExtension(filename);
+        return field == null ? null : field.getValue();
+    }
+
+    /**
+     * <p>Get the {@code Content-Type} field by filename extension.
+     * Lookup the content and static default mime maps.</p>
+     * <p>The extensions are looked up in precomputed case-insensitive indexes,
+     * without allocation, and the returned field is shared and pre-encoded.</p>
+     *
+     * @param filename A file name
+     * @return The Content-Type field for the MIME type matching the longest
+     * dot extension of the file name, or null if there is no match.
+     */
+    public HttpField getContentTypeFieldByExtension(String filename)
+    {
+        ExtensionIndex index = _mimeIndex;
+        int version = _mimeMap._version;
+        if (index == null || index._version != version)
+        {
+            index = new ExtensionIndex(version, buildExtensionIndex(_mimeMap));
+            _mimeIndex = index;
+        }
+        return getContentTypeField(filename, index._index);
+    }
+
+    private static HttpField getContentTypeField(String filename, Index<HttpField> index)
+    {
+        HttpField field = null;
 
         if (filename != null)
         {
+            int length = filename.length();
             int i = -1;
-            while (type == null)
+            while (field == null)
             {
-                i = filename.indexOf(".", i + 1);
+                i = filename.indexOf('.', i + 1);
 
-                if (i < 0 || i >= filename.length())
+                if (i < 0 || i >= length)
                     break;
 
-                String ext = StringUtil.asciiToLowerCase(filename.substring(i + 1));
-                if (_mimeMap != null)
-                    type = _mimeMap.get(ext);
-                if (type == null)
-                    type = __dftMimeMap.get(ext);
+                int offset = i + 1;
+                if (index != null)
+                    field = index.get(filename, offset, length - offset);
+                if (field == null)
+                    field = __dftMimeIndex.get(filename, offset, length - offset);
             }
         }
 
-        if (type == null)
+        if (field == null)
         {
-            if (_mimeMap != null)
-                type = _mimeMap.get("*");
-            if (type == null)
-                type = __dftMimeMap.get("*");
+            if (index != null)
+                field = index.get("*");
+            if (field == null)
+                field = __dftMimeIndex.get("*");
         }
 
-        return type;
+        return field;
+    }
+
+    /**
+     * <p>Get a {@code Content-Type} field for the given value.</p>
+     * <p>The fields of the known mime types, including their variants with
+     * an inferred charset, are shared and pre-encoded.</p>
+     *
+     * @param contentType the Content-Type value
+     * @return the Content-Type field, or null if the value is null
+     */
+    public static HttpField getContentTypeField(String contentType)
+    {
+        if (contentType == null)
+            return null;
+        HttpField field = __contentTypeFields.get(contentType);
+        if (field != null && field.getValue().equals(contentType))
+            return field;
+        return new HttpField(HttpHeader.CONTENT_TYPE, contentType);
+    }
+
+    private static Index<HttpField> buildExtensionIndex(Map<String, String> mimeMap)
+    {
+        if (mimeMap.isEmpty())
+            return Index.empty(false);
+        Map<String, HttpField> fields = new HashMap<>();
+        Map<String, HttpField> extensions = new HashMap<>();
+        for (Entry<String, String> entry : mimeMap.entrySet())
+        {
+            String mimeType = entry.getValue();
+            HttpField field = __contentTypeFields.get(mimeType);
+            if (field == null || !field.getValue().equals(mimeType))
+                field = fields.computeIfAbsent(mimeType, t -> new PreEncodedHttpField(HttpHeader.CONTENT_TYPE, t));
+            extensions.put(entry.getKey(), field);
+        }
+        return new Index.Builder<HttpField>()
+            .caseSensitive(false)
+            .withAll(() -> extensions)
+            .build();
     }
 
     /**
@@ -692,4 +770,118 @@ public class MimeTypes
             return value;
         return builder.toString();
     }
+
+    private static class ExtensionIndex
+    {
+        private final int _version;
+        private final Index<HttpField> _index;
+
+        private ExtensionIndex(int version, Index<HttpField> index)
+        {
+            _version = version;
+            _index = index;
+        }
+    }
+
+    /**
+     * <p>A map of file extension to mime-type that counts its modifications,
+     * including those made through its views, so that the derived
+     * extension index can be rebuilt when it is stale.</p>
+     */
+    private static class MimeMap extends AbstractMap<String, String>
+    {
+        private final Map<String, String> _map = new HashMap<>();
+        private volatile int _version;
+
+        @Override
+        public String get(Object key)
+        {
+            return _map.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key)
+        {
+            return _map.containsKey(key);
+        }
+
+        @Override
+        public int size()
+        {
+            return _map.size();
+        }
+
+        @Override
+        public String put(String key, String value)
+        {
+            String old = _map.put(key, value);
+            _version++;
+            return old;
+        }
+
+        @Override
+        public String remove(Object key)
+        {
+            String old = _map.remove(key);
+            _version++;
+            return old;
+        }
+
+        @Override
+        public void clear()
+        {
+            _map.clear();
+            _version++;
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet()
+        {
+            return new AbstractSet<>()
+            {
+                @Override
+                public Iterator<Entry<String, String>> iterator()
+                {
+                    Iterator<Entry<String, String>> iterator = _map.entrySet().iterator();
+                    return new Iterator<>()
+                    {
+                        @Override
+                        public boolean hasNext()
+                        {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, String> next()
+                        {
+                            Entry<String, String> entry = iterator.next();
+                            return new SimpleEntry<>(entry)
+                            {
+                                @Override
+                                public String setValue(String value)
+                                {
+                                    super.setValue(value);
+                                    _version++;
+                                    return entry.setValue(value);
+                                }
+                            };
+                        }
+
+                        @Override
+                        public void remove()
+                        {
+                            iterator.remove();
+                            _version++;
+                        }
+                    };
+                }
+
+                @Override
+                public int size()
+                {
+                    return _map.size();
+                }
+            };
+        }
+    }
 }
@@ -0,0 +1,170 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http;
+
+/**
+ * <p>The extensible priority of an HTTP response, as defined by
+ * <a href="https://www.rfc-editor.org/rfc/rfc9218">RFC 9218</a>.</p>
+ * <p>The priority is made of an urgency, from {@code 0} (most urgent)
+ * to {@code 7} (least urgent), and of an incremental flag that indicates
+ * whether the response can be processed incrementally, and therefore
+ * whether its bytes may be interleaved with those of other responses
+ * of the same urgency.</p>
+ * <p>The priority is carried by the {@code Priority} header, for example
+ * {@code Priority: u=1, i}, and it is independent of the HTTP version,
+ * so it can be used by both HTTP/2 and HTTP/3 implementations.</p>
+ * <p>Instances are immutable and shared.</p>
+ */
+public final class Priority
+{
+    public static final int MAX_URGENCY = 7;
+    public static final int DEFAULT_URGENCY = 3;
+    private static final Priority[] PRIORITIES = new Priority[2 * (MAX_URGENCY + 1)];
+
+    static
+    {
+        for (int urgency = 0; urgency <= MAX_URGENCY; ++urgency)
+        {
+            PRIORITIES[2 * urgency] = new Priority(urgency, false);
+            PRIORITIES[2 * urgency + 1] = new Priority(urgency, true);
+        }
+    }
+
+    public static final Priority DEFAULT = of(DEFAULT_URGENCY, false);
+
+    /**
+     * @param urgency the urgency, between {@code 0} and {@link #MAX_URGENCY}
+     * @param incremental whether the response is incremental
+     * @return the shared priority instance
+     * @throws IllegalArgumentException if the urgency is out of range
+     */
+    public static Priority of(int urgency, boolean incremental)
+    {
+        if (urgency < 0 || urgency > MAX_URGENCY)
+            throw new IllegalArgumentException("Invalid urgency " + urgency);
+        return PRIORITIES[2 * urgency + (incremental ? 1 : 0)];
+    }
+
+    /**
+     * @param fields the HTTP fields, may be null
+     * @return the priority carried by the {@code Priority} header of the given fields,
+     * or {@link #DEFAULT} if there is no such header
+     */
+    public static Priority from(HttpFields fields)
+    {
+        if (fields == null)
+            return DEFAULT;
+        return from(fields.get(HttpHeader.PRIORITY), DEFAULT);
+    }
+
+    /**
+     * <p>Parses the value of a {@code Priority} header.</p>
+     * <p>Parameters with invalid values are ignored, as are unknown parameters,
+     * so that their default values apply.</p>
+     *
+     * @param value the header value, may be null
+     * @param base the priority that provides the values of missing parameters
+     * @return the priority
+     */
+    public static Priority from(String value, Priority base)
+    {
+        if (value == null)
+            return base;
+
+        int urgency = base.getUrgency();
+        boolean incremental = base.isIncremental();
+        int length = value.length();
+        int start = 0;
+        while (start < length)
+        {
+            int end = value.indexOf(',', start);
+            if (end < 0)
+                end = length;
+
+            int equals = value.indexOf('=', start);
+            int keyEnd = equals < 0 || equals > end ? end : equals;
+            String key = value.substring(start, keyEnd).trim();
+            String param = keyEnd == end ? null : value.substring(keyEnd + 1, end).trim();
+            // Drop the parameters of the parameter, if any.
+            if (param != null)
+            {
+                int semicolon = param.indexOf(';');
+                if (semicolon >= 0)
+                    param = param.substring(0, semicolon).trim();
+            }
+
+            switch (key)
+            {
+                case "u":
+                    if (param != null && param.length() == 1)
+                    {
+                        int u = param.charAt(0) - '0';
+                        if (u >= 0 && u <= MAX_URGENCY)
+                            urgency = u;
+                    }
+                    break;
+                case "i":
+                    if (param == null || "?1".equals(param))
+                        incremental = true;
+                    else if ("?0".equals(param))
+                        incremental = false;
+                    break;
+                default:
+                    break;
+            }
+
+            start = end + 1;
+        }
+        return of(urgency, incremental);
+    }
+
+    private final int urgency;
+    private final boolean incremental;
+
+    private Priority(int urgency, boolean incremental)
+    {
+        this.urgency = urgency;
+        this.incremental = incremental;
+    }
+
+    /**
+     * @return the urgency, from {@code 0} (most urgent) to {@link #MAX_URGENCY} (least urgent)
+     */
+    public int getUrgency()
+    {
+        return urgency;
+    }
+
+    /**
+     * @return whether the response may be interleaved with other responses of the same urgency
+     */
+    public boolean isIncremental()
+    {
+        return incremental;
+    }
+
+    /**
+     * @return the value of the {@code Priority} header for this priority
+     */
+    public String asString()
+    {
+        return incremental ? "u=" + urgency + ", i" : "u=" + urgency;
+    }
+
+    @Override
+    public String toString()
+    {
+        return asString();
+    }
+}
@@ -0,0 +1,280 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+
+/**
+ * <p>A {@link StreamScheduler} that honors the extensible priorities
+ * defined by <a href="https://www.rfc-editor.org/rfc/rfc9218">RFC 9218</a>.</p>
+ * <p>In each pass, only the streams with the most urgent {@link Priority}
+ * among those that have DATA frames to send may send them.
+ * Among those streams, a non-incremental stream is sent exclusively,
+ * lowest stream id first, while incremental streams are sent in
+ * round-robin, one DATA frame each per pass.</p>
+ * <p>Streams that are stalled by flow control are skipped for the rest of
+ * the flush cycle, so that less urgent streams may use the connection.</p>
+ * <p>The number of DATA bytes that a single stream may send in a flush cycle
+ * can be capped with {@code maxStreamBytesPerCycle}, so that a stream cannot
+ * monopolize the connection, at the cost of a less strict ordering of the
+ * urgencies.</p>
+ */
+@ManagedObject
+public class PriorityStreamScheduler<E extends StreamScheduler.Entry> implements StreamScheduler<E>
+{
+    private final AtomicLong cycles = new AtomicLong();
+    private final AtomicLong deferrals = new AtomicLong();
+    private final AtomicLong caps = new AtomicLong();
+    private final AtomicLongArray urgencyBytes = new AtomicLongArray(Priority.MAX_URGENCY + 1);
+    private final int maxStreamBytesPerCycle;
+    // We use ArrayList contains() instead of HashSet or HashMap, because
+    // that is faster for the small number of streams of a flush cycle.
+    private final List<Stream> excluded = new ArrayList<>();
+    private final List<Stream> streams = new ArrayList<>();
+    private final List<Stream> blocked = new ArrayList<>();
+    private int[] streamBytes = new int[8];
+    private int passUrgency;
+    private Stream passStream;
+    private boolean deferred;
+
+    public PriorityStreamScheduler()
+    {
+        this(-1);
+    }
+
+    /**
+     * @param maxStreamBytesPerCycle the max number of DATA bytes a stream
+     * may send in a flush cycle, or a non-positive value for no limit
+     */
+    public PriorityStreamScheduler(int maxStreamBytesPerCycle)
+    {
+        this.maxStreamBytesPerCycle = maxStreamBytesPerCycle;
+    }
+
+    @ManagedAttribute(value = "The max number of DATA bytes a stream may send in a flush cycle", readonly = true)
+    public int getMaxStreamBytesPerCycle()
+    {
+        return maxStreamBytesPerCycle;
+    }
+
+    @ManagedAttribute(value = "The number of flush cycles", readonly = true)
+    public long getCycles()
+    {
+        return cycles.get();
+    }
+
+    @ManagedAttribute(value = "The number of times a DATA frame was deferred in favor of a more urgent stream", readonly = true)
+    public long getDeferrals()
+    {
+        return deferrals.get();
+    }
+
+    @ManagedAttribute(value = "The number of times a stream reached the max bytes per flush cycle", readonly = true)
+    public long getCaps()
+    {
+        return caps.get();
+    }
+
+    /**
+     * @param urgency the urgency
+     * @return the number of DATA bytes sent by streams with the given urgency
+     */
+    public long getBytes(int urgency)
+    {
+        return urgencyBytes.get(urgency);
+    }
+
+    @ManagedAttribute(value = "The number of DATA bytes sent by urgency", readonly = true)
+    public long[] getBytesByUrgency()
+    {
+        long[] result = new long[urgencyBytes.length()];
+        for (int i = 0; i < result.length; ++i)
+        {
+            result[i] = urgencyBytes.get(i);
+        }
+        return result;
+    }
+
+    @ManagedOperation(value = "Resets the statistics", impact = "ACTION")
+    public void reset()
+    {
+        cycles.set(0);
+        deferrals.set(0);
+        caps.set(0);
+        for (int i = 0; i < urgencyBytes.length(); ++i)
+        {
+            urgencyBytes.set(i, 0);
+        }
+    }
+
+    @Override
+    public void onCycle()
+    {
+        cycles.incrementAndGet();
+        excluded.clear();
+        streams.clear();
+    }
+
+    @Override
+    public void onPass(Collection<? extends E> entries)
+    {
+        deferred = false;
+        blocked.clear();
+        passUrgency = Integer.MAX_VALUE;
+        passStream = null;
+        for (E entry : entries)
+        {
+            Stream stream = schedulable(entry);
+            if (stream == null || excluded.contains(stream))
+                continue;
+            Priority priority = stream.getPriority();
+            int urgency = priority.getUrgency();
+            if (urgency < passUrgency)
+            {
+                passUrgency = urgency;
+                passStream = null;
+            }
+            if (urgency == passUrgency && !priority.isIncremental())
+            {
+                if (passStream == null || stream.getStreamId() < passStream.getStreamId())
+                    passStream = stream;
+            }
+        }
+    }
+
+    @Override
+    public boolean canGenerate(E entry)
+    {
+        Stream stream = schedulable(entry);
+        if (stream == null)
+        {
+            // Trailers must not overtake the DATA frames of their stream.
+            stream = entry.getStream();
+            if (stream != null && entry.isHeaders())
+                return !excluded.contains(stream) && !blocked.contains(stream);
+            return true;
+        }
+        if (excluded.contains(stream))
+            return false;
+        boolean result;
+        if (passStream != null)
+            result = stream == passStream;
+        else
+            result = stream.getPriority().getUrgency() == passUrgency;
+        if (!result)
+        {
+            deferred = true;
+            deferrals.incrementAndGet();
+            blocked.add(stream);
+        }
+        return result;
+    }
+
+    @Override
+    public void onGenerated(E entry, int dataBytes)
+    {
+        Stream stream = schedulable(entry);
+        if (stream == null || dataBytes <= 0)
+            return;
+
+        if (entry.getDataBytesRemaining() > 0)
+            blocked.add(stream);
+
+        urgencyBytes.addAndGet(stream.getPriority().getUrgency(), dataBytes);
+
+        if (maxStreamBytesPerCycle <= 0)
+            return;
+
+        int index = streams.indexOf(stream);
+        if (index < 0)
+        {
+            index = streams.size();
+            streams.add(stream);
+            if (index == streamBytes.length)
+                streamBytes = Arrays.copyOf(streamBytes, 2 * index);
+            streamBytes[index] = 0;
+        }
+        streamBytes[index] += dataBytes;
+        if (streamBytes[index] >= maxStreamBytesPerCycle && entry.getDataBytesRemaining() > 0)
+        {
+            caps.incrementAndGet();
+            excluded.add(stream);
+        }
+    }
+
+    @Override
+    public void onStalled(E entry)
+    {
+        Stream stream = schedulable(entry);
+        if (stream != null && !excluded.contains(stream))
+            excluded.add(stream);
+    }
+
+    @Override
+    public boolean hasDeferred()
+    {
+        return deferred;
+    }
+
+    private static Stream schedulable(Entry entry)
+    {
+        if (!entry.isData())
+            return null;
+        return entry.getStream();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[cycles=%d,deferrals=%d,caps=%d]",
+            getClass().getSimpleName(),
+            hashCode(),
+            getCycles(),
+            getDeferrals(),
+            getCaps());
+    }
+
+    /**
+     * <p>A {@link StreamScheduler.Factory} that creates {@link PriorityStreamScheduler} instances.</p>
+     */
+    public static class Factory implements StreamScheduler.Factory
+    {
+        private final int maxStreamBytesPerCycle;
+
+        public Factory()
+        {
+            this(-1);
+        }
+
+        public Factory(int maxStreamBytesPerCycle)
+        {
+            this.maxStreamBytesPerCycle = maxStreamBytesPerCycle;
+        }
+
+        @Override
+        public <E extends Entry> StreamScheduler<E> newStreamScheduler()
+        {
+            return new PriorityStreamScheduler<>(maxStreamBytesPerCycle);
+        }
+    }
+}
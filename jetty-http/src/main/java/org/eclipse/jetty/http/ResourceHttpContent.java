@@ -34,6 +34,7 @@ public class ResourceHttpContent implements HttpContent
 {
     final Resource _resource;
     final String _contentType;
+    final HttpField _contentTypeField;
     final int _maxBuffer;
     Map<CompressedContentFormat, HttpContent> _precompressedContents;
     String _etag;
@@ -49,9 +50,21 @@ public class ResourceHttpContent implements HttpContent
     }
 
     public ResourceHttpContent(final Resource resource, final String contentType, int maxBuffer, Map<CompressedContentFormat, HttpContent> precompressedContents)
+    {
+        this(resource, MimeTypes.getContentTypeField(contentType), maxBuffer, precompressedContents);
+    }
+
+    /**
+     * @param resource the resource
+     * @param contentType the Content-Type field, as returned by {@link MimeTypes#getContentTypeFieldByExtension(String)}, or null
+     * @param maxBuffer the max buffer size, or -1
+     * @param precompressedContents the precompressed contents, or null
+     */
+    public ResourceHttpContent(final Resource resource, final HttpField contentType, int maxBuffer, Map<CompressedContentFormat, HttpContent> precompressedContents)
     {
         _resource = resource;
-        _contentType = contentType;
+        _contentTypeField = contentType;
+        _contentType = contentType == null ? null : contentType.getValue();
         _maxBuffer = maxBuffer;
         if (precompressedContents == null)
         {
@@ -76,7 +89,7 @@ public class ResourceHttpContent implements HttpContent
     @Override
     public HttpField getContentType()
     {
-        return _contentType == null ? null : new HttpField(HttpHeader.CONTENT_TYPE, _contentType);
+        return _contentTypeField;
     }
 
     @Override
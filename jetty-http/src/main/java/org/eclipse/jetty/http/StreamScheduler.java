@@ -0,0 +1,127 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http;
+
+import java.util.Collection;
+
+/**
+ * <p>Decides which streams of a multiplexed connection may send DATA frames,
+ * when the connection has frames of many streams to send.</p>
+ * <p>The connection flushes in cycles: in each cycle, it performs one or more
+ * passes over its pending entries, in queue order, and each entry generates at
+ * most one frame per pass, until the write threshold is reached or no entry can
+ * make progress; then it writes the generated frames.</p>
+ * <p>The scheduler does not reorder the entries, so that the frames of the same
+ * stream are always generated in order; rather, at the beginning of each pass
+ * {@link #onPass(Collection)} is called, and then an entry generates a frame only
+ * if {@link #canGenerate(Entry)} returns true.
+ * Entries that are not DATA entries should always be allowed to generate.</p>
+ * <p>The scheduler is independent of the HTTP version: the connection exposes
+ * its pending frames as {@link Entry} instances, and their streams as
+ * {@link Stream} instances, which carry the {@link Priority} of the stream.</p>
+ * <p>Implementations are called by the connection only, one cycle at a time,
+ * and so need not be thread-safe, except for the methods that report statistics.</p>
+ *
+ * @param <E> the type of the entries
+ * @see PriorityStreamScheduler
+ */
+public interface StreamScheduler<E extends StreamScheduler.Entry>
+{
+    /**
+     * <p>Callback method invoked at the beginning of a flush cycle.</p>
+     */
+    public void onCycle();
+
+    /**
+     * <p>Callback method invoked at the beginning of each pass over the pending entries.</p>
+     *
+     * @param entries the pending entries, in queue order
+     */
+    public void onPass(Collection<? extends E> entries);
+
+    /**
+     * @param entry the entry to process
+     * @return whether the given entry may generate a frame in the current pass
+     */
+    public boolean canGenerate(E entry);
+
+    /**
+     * <p>Callback method invoked when the given entry has generated a frame.</p>
+     *
+     * @param entry the entry that generated a frame
+     * @param dataBytes the number of DATA bytes generated, or 0 for non-DATA frames
+     */
+    public void onGenerated(E entry, int dataBytes);
+
+    /**
+     * <p>Callback method invoked when the given entry could not generate a frame,
+     * typically because it is stalled by flow control.</p>
+     *
+     * @param entry the entry that did not generate a frame
+     */
+    public void onStalled(E entry);
+
+    /**
+     * @return whether entries have been denied by {@link #canGenerate(Entry)}
+     * in the current pass, so that another pass may make progress even if this one did not
+     */
+    public boolean hasDeferred();
+
+    /**
+     * <p>A stream, as seen by the scheduler.</p>
+     */
+    public interface Stream
+    {
+        /**
+         * @return the stream id, which orders the non-incremental streams of the same urgency
+         */
+        public long getStreamId();
+
+        /**
+         * @return the priority of the stream
+         */
+        public Priority getPriority();
+    }
+
+    /**
+     * <p>A pending frame to generate, as seen by the scheduler.</p>
+     */
+    public interface Entry
+    {
+        /**
+         * @return the stream of the frame, or null if the frame does not belong to a stream
+         */
+        public Stream getStream();
+
+        /**
+         * @return whether the frame is a DATA frame
+         */
+        public boolean isData();
+
+        /**
+         * @return whether the frame is a HEADERS frame
+         */
+        public boolean isHeaders();
+
+        /**
+         * @return the number of DATA bytes that remain to be generated
+         */
+        public int getDataBytesRemaining();
+    }
+
+    public interface Factory
+    {
+        public <E extends Entry> StreamScheduler<E> newStreamScheduler();
+    }
+}
@@ -11,8 +11,11 @@
 // ========================================================================
 //
 
-package org.eclipse.jetty.http3.qpack.internal.util;
+package org.eclipse.jetty.http.compression;
 
+/**
+ * <p>Thrown when compressed HTTP header data cannot be decoded.</p>
+ */
 public class EncodingException extends Exception
 {
     public EncodingException(String message)
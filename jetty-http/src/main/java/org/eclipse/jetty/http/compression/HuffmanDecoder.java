@@ -0,0 +1,249 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http.compression;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.eclipse.jetty.util.Utf8StringBuilder;
+
+/**
+ * <p>A decoder of string literals compressed with the static {@link Huffman} code.</p>
+ * <p>The decoder is a finite state machine driven by a table, and it consumes
+ * a whole input byte per lookup. The states are the internal nodes of the
+ * Huffman tree, and the table is indexed by state and input byte to yield
+ * the next state and the zero, one or two symbols that the byte completes,
+ * since the shortest code is 5 bits long.</p>
+ * <p>The symbols are written into a {@code byte[]} that is reused across
+ * strings, and that grows with the bytes actually decoded rather than with
+ * the declared length, which is controlled by the remote peer.</p>
+ * <p>Instances are not thread safe, but may decode a string incrementally,
+ * as its bytes arrive: see {@link #setLength(int)} and {@link #decode(ByteBuffer)}.</p>
+ */
+public class HuffmanDecoder
+{
+    private static final int STATES = 256;
+    private static final int SYMBOL_SHIFT = 8;
+    private static final int COUNT_SHIFT = 24;
+    private static final int FAILURE = 1 << 26;
+    // The states that are valid at the end of a string.
+    private static final byte ACCEPT = 0;
+    private static final byte INCORRECT_PADDING = 1;
+    private static final byte BAD_TERMINATION = 2;
+    private static final int[] TABLE = new int[STATES * 256];
+    private static final byte[] TERMINATIONS = new byte[STATES];
+
+    static
+    {
+        // Build the Huffman tree: internal nodes are numbered
+        // in creation order, and leaves are encoded as -(symbol + 1).
+        int[][] children = new int[STATES][2];
+        int[] depths = new int[STATES];
+        boolean[] ones = new boolean[STATES];
+        ones[0] = true;
+        int nodes = 1;
+        for (int symbol = 0; symbol < Huffman.CODES.length; symbol++)
+        {
+            int code = Huffman.CODES[symbol][0];
+            int length = Huffman.CODES[symbol][1];
+            int node = 0;
+            for (int i = length - 1; i > 0; i--)
+            {
+                int bit = (code >>> i) & 1;
+                int child = children[node][bit];
+                if (child == 0)
+                {
+                    child = nodes++;
+                    children[node][bit] = child;
+                    depths[child] = depths[node] + 1;
+                    ones[child] = ones[node] && bit == 1;
+                }
+                node = child;
+            }
+            children[node][code & 1] = -(symbol + 1);
+        }
+        if (nodes != STATES)
+            throw new IllegalStateException();
+
+        for (int state = 0; state < STATES; state++)
+        {
+            // Padding is the most significant bits of EOS, at most 7 bits.
+            if (depths[state] > 7)
+                TERMINATIONS[state] = BAD_TERMINATION;
+            else if (!ones[state])
+                TERMINATIONS[state] = INCORRECT_PADDING;
+
+            for (int input = 0; input < 256; input++)
+            {
+                int node = state;
+                int count = 0;
+                int symbols = 0;
+                boolean failure = false;
+                for (int i = 7; i >= 0; i--)
+                {
+                    node = children[node][(input >>> i) & 1];
+                    if (node < 0)
+                    {
+                        int symbol = -node - 1;
+                        if (symbol == Huffman.EOS)
+                            failure = true;
+                        else
+                            symbols |= symbol << (8 * count++);
+                        node = 0;
+                    }
+                }
+                TABLE[(state << 8) | input] = failure ? FAILURE : (count << COUNT_SHIFT) | (symbols << SYMBOL_SHIFT) | node;
+            }
+        }
+    }
+
+    private byte[] _bytes = new byte[64];
+    private int _size;
+    private int _length;
+    private int _count;
+    private int _state;
+    private int _high;
+
+    /**
+     * <p>Decodes a whole string literal from the given buffer.</p>
+     *
+     * @param buffer the buffer to decode from
+     * @param length the number of encoded bytes to decode
+     * @return the decoded string
+     * @throws EncodingException if the bytes are not a valid Huffman encoding
+     * @throws BufferUnderflowException if the buffer has fewer than {@code length} bytes
+     */
+    public static String decode(ByteBuffer buffer, int length) throws EncodingException
+    {
+        if (length > buffer.remaining())
+            throw new BufferUnderflowException();
+        HuffmanDecoder decoder = new HuffmanDecoder();
+        decoder.setLength(length);
+        String result = decoder.decode(buffer);
+        if (result == null)
+            throw new BufferUnderflowException();
+        return result;
+    }
+
+    /**
+     * <p>Sets the number of encoded bytes of the string to decode.</p>
+     * <p>No memory is allocated for the given length, which callers
+     * should nevertheless validate against their own limits.</p>
+     *
+     * @param length the number of encoded bytes of the string to decode
+     */
+    public void setLength(int length)
+    {
+        if (_count != 0)
+            throw new IllegalStateException();
+        if (length < 0)
+            throw new IllegalArgumentException("Invalid length " + length);
+        _length = length;
+    }
+
+    /**
+     * <p>Decodes the string whose length has been set with {@link #setLength(int)}.</p>
+     *
+     * @param buffer the buffer to decode from
+     * @return the decoded string, or null if more bytes are needed
+     * @throws EncodingException if the bytes are not a valid Huffman encoding
+     */
+    public String decode(ByteBuffer buffer) throws EncodingException
+    {
+        int[] table = TABLE;
+        int size = _size;
+        int state = _state;
+        int high = _high;
+        int remaining = Math.min(buffer.remaining(), _length - _count);
+        // Each input byte completes at most 2 symbols.
+        int capacity = size + 2 * remaining;
+        if (_bytes.length < capacity)
+            _bytes = Arrays.copyOf(_bytes, Math.max(capacity, 2 * _bytes.length));
+        byte[] bytes = _bytes;
+        int position = buffer.position();
+        boolean array = buffer.hasArray();
+        byte[] input = array ? buffer.array() : null;
+        int offset = array ? buffer.arrayOffset() + position : 0;
+        for (int i = 0; i < remaining; i++)
+        {
+            int b = array ? input[offset + i] : buffer.get(position + i);
+            int entry = table[(state << 8) | (b & 0xFF)];
+            if ((entry & FAILURE) != 0)
+            {
+                reset();
+                throw new EncodingException("EOS in content");
+            }
+            switch (entry >>> COUNT_SHIFT)
+            {
+                case 2:
+                    bytes[size++] = (byte)(entry >>> SYMBOL_SHIFT);
+                    bytes[size++] = (byte)(entry >>> (SYMBOL_SHIFT + 8));
+                    high |= entry >>> SYMBOL_SHIFT;
+                    break;
+                case 1:
+                    bytes[size++] = (byte)(entry >>> SYMBOL_SHIFT);
+                    high |= entry >>> SYMBOL_SHIFT;
+                    break;
+                default:
+                    break;
+            }
+            state = entry & 0xFF;
+        }
+        buffer.position(position + remaining);
+        _count += remaining;
+        _size = size;
+        _state = state;
+        _high = high;
+
+        if (_count < _length)
+            return null;
+
+        switch (TERMINATIONS[state])
+        {
+            case INCORRECT_PADDING:
+                reset();
+                throw new EncodingException("Incorrect padding");
+            case BAD_TERMINATION:
+                reset();
+                throw new EncodingException("Bad termination");
+            default:
+                break;
+        }
+
+        String result;
+        // Symbols 128-255 have the 0x80 bit set, in either byte.
+        if ((high & 0x8080) == 0)
+        {
+            result = new String(bytes, 0, size, StandardCharsets.ISO_8859_1);
+        }
+        else
+        {
+            Utf8StringBuilder utf8 = new Utf8StringBuilder(size);
+            utf8.append(bytes, 0, size);
+            result = utf8.toString();
+        }
+        reset();
+        return result;
+    }
+
+    public void reset()
+    {
+        _size = 0;
+        _count = 0;
+        _state = 0;
+        _high = 0;
+    }
+}
@@ -0,0 +1,176 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.Scheduler;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DateFieldTickerTest
+{
+    // A time in the middle of a second.
+    private final AtomicLong _clock = new AtomicLong(1_600_000_000_250L);
+    private final ManualScheduler _scheduler = new ManualScheduler();
+
+    @Test
+    public void testNotStartedRefreshesInline()
+    {
+        DateFieldTicker ticker = new DateFieldTicker(_scheduler, _clock::get);
+        HttpField field = ticker.getDateField();
+        assertThat(field, instanceOf(PreEncodedHttpField.class));
+        assertThat(field.getHeader(), is(HttpHeader.DATE));
+        assertThat(field.getValue(), is(DateGenerator.formatDate(_clock.get())));
+        assertThat(ticker.getDateField(), sameInstance(field));
+
+        _clock.addAndGet(1000);
+        HttpField next = ticker.getDateField();
+        assertThat(next, not(sameInstance(field)));
+        assertThat(next.getValue(), is(DateGenerator.formatDate(_clock.get())));
+        assertThat(_scheduler._task, nullValue());
+    }
+
+    @Test
+    public void testTicksOncePerSecond() throws Exception
+    {
+        DateFieldTicker ticker = new DateFieldTicker(_scheduler, _clock::get);
+        ticker.start();
+        try
+        {
+            HttpField first = ticker.getDateField();
+            assertThat(ticker.getDateField(), sameInstance(first));
+            // The next tick is scheduled just after the next second boundary.
+            assertThat(_scheduler._delay, is(750L));
+
+            _clock.addAndGet(_scheduler._delay);
+            _scheduler.tick();
+            // toString() does not refresh inline, so it shows the scheduled tick.
+            String expected = DateGenerator.formatDate(_clock.get());
+            assertThat(ticker.toString(), not(containsString(first.getValue())));
+            HttpField second = ticker.getDateField();
+            assertThat(second, not(sameInstance(first)));
+            assertThat(second.getValue(), is(expected));
+            assertThat(ticker.toString(), containsString(expected));
+            assertThat(_scheduler._delay, is(1000L));
+        }
+        finally
+        {
+            ticker.stop();
+        }
+        assertThat(_scheduler._task, nullValue());
+    }
+
+    @Test
+    public void testLateTickRefreshesInline() throws Exception
+    {
+        DateFieldTicker ticker = new DateFieldTicker(_scheduler, _clock::get);
+        ticker.start();
+        try
+        {
+            HttpField first = ticker.getDateField();
+            assertThat(_scheduler._task, notNullValue());
+
+            // The scheduled tick has not run yet.
+            _clock.addAndGet(2000);
+            HttpField late = ticker.getDateField();
+            assertThat(late, not(sameInstance(first)));
+            assertThat(late.getValue(), is(DateGenerator.formatDate(_clock.get())));
+
+            // The tick in the same second keeps the refreshed field.
+            _scheduler.tick();
+            assertThat(ticker.getDateField(), sameInstance(late));
+        }
+        finally
+        {
+            ticker.stop();
+        }
+    }
+
+    @Test
+    public void testWithoutSchedulerRefreshesInline() throws Exception
+    {
+        DateFieldTicker ticker = new DateFieldTicker(null, _clock::get);
+        ticker.start();
+        try
+        {
+            HttpField first = ticker.getDateField();
+            _clock.addAndGet(1000);
+            HttpField next = ticker.getDateField();
+            assertThat(next, not(sameInstance(first)));
+            assertThat(next.getValue(), is(DateGenerator.formatDate(_clock.get())));
+        }
+        finally
+        {
+            ticker.stop();
+        }
+    }
+
+    @Test
+    public void testSetScheduler() throws Exception
+    {
+        DateFieldTicker ticker = new DateFieldTicker(null, _clock::get);
+        ticker.setScheduler(_scheduler);
+        assertThat(ticker.getScheduler(), sameInstance(_scheduler));
+        ticker.start();
+        try
+        {
+            assertThat(_scheduler._task, notNullValue());
+            assertThrows(IllegalStateException.class, () -> ticker.setScheduler(null));
+        }
+        finally
+        {
+            ticker.stop();
+        }
+        assertThat(_scheduler._task, nullValue());
+    }
+
+    private static class ManualScheduler extends AbstractLifeCycle implements Scheduler
+    {
+        private Runnable _task;
+        private long _delay = -1;
+
+        @Override
+        public Task schedule(Runnable task, long delay, TimeUnit units)
+        {
+            _task = task;
+            _delay = units.toMillis(delay);
+            return () ->
+            {
+                boolean cancelled = _task == task;
+                if (cancelled)
+                    _task = null;
+                return cancelled;
+            };
+        }
+
+        private void tick()
+        {
+            Runnable task = _task;
+            _task = null;
+            task.run();
+        }
+    }
+}
@@ -13,6 +13,7 @@
 
 package org.eclipse.jetty.http;
 
+import java.util.Map;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
@@ -21,7 +22,9 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 public class MimeTypesTest
@@ -65,6 +68,58 @@ public class MimeTypesTest
         assertNull(contentType);
     }
 
+    @Test
+    public void testContentTypeFieldByExtension()
+    {
+        MimeTypes mimetypes = new MimeTypes();
+        HttpField field = mimetypes.getContentTypeFieldByExtension("Logo.PNG");
+        assertThat(field, instanceOf(PreEncodedHttpField.class));
+        assertThat(field.getHeader(), is(HttpHeader.CONTENT_TYPE));
+        assertThat(field.getValue(), is("image/png"));
+        assertThat(mimetypes.getContentTypeFieldByExtension("other.png"), sameInstance(field));
+        assertThat(MimeTypes.getContentTypeField("image/png"), sameInstance(field));
+        assertNull(mimetypes.getContentTypeFieldByExtension("README"));
+
+        mimetypes.addMimeMapping("png", "image/x-png");
+        assertThat(mimetypes.getMimeByExtension("Logo.png"), is("image/x-png"));
+        assertThat(mimetypes.getContentTypeFieldByExtension("Logo.png"), instanceOf(PreEncodedHttpField.class));
+        assertThat(mimetypes.getMimeByExtension("Logo.gif"), is("image/gif"));
+
+        mimetypes.setMimeMap(null);
+        assertThat(mimetypes.getContentTypeFieldByExtension("Logo.png"), sameInstance(field));
+    }
+
+    @Test
+    public void testModifyMimeMap()
+    {
+        MimeTypes mimetypes = new MimeTypes();
+        mimetypes.addMimeMapping("foo", "application/x-foo");
+        assertThat(mimetypes.getMimeByExtension("a.foo"), is("application/x-foo"));
+
+        Map<String, String> mimeMap = mimetypes.getMimeMap();
+        mimeMap.put("bar", "application/x-bar");
+        assertThat(mimetypes.getMimeByExtension("a.bar"), is("application/x-bar"));
+
+        mimeMap.entrySet().iterator().next().setValue("application/x-other");
+        assertThat(mimetypes.getMimeByExtension("a." + mimeMap.keySet().iterator().next()), is("application/x-other"));
+
+        mimeMap.keySet().removeIf("foo"::equals);
+        assertNull(mimetypes.getMimeByExtension("a.foo"));
+
+        mimeMap.clear();
+        assertNull(mimetypes.getMimeByExtension("a.bar"));
+    }
+
+    @Test
+    public void testContentTypeField()
+    {
+        assertThat(MimeTypes.getContentTypeField("text/html;charset=utf-8"), sameInstance(MimeTypes.Type.TEXT_HTML_UTF_8.getContentTypeField()));
+        assertThat(MimeTypes.getContentTypeField("application/xhtml+xml;charset=utf-8"), instanceOf(PreEncodedHttpField.class));
+        HttpField field = MimeTypes.getContentTypeField("application/x-unknown");
+        assertThat(field.getValue(), is("application/x-unknown"));
+        assertNull(MimeTypes.getContentTypeField(null));
+    }
+
     public static Stream<Arguments> charsetFromContentTypeCases()
     {
         return Stream.of(
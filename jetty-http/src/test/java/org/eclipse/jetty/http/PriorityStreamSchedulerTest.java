@@ -0,0 +1,171 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PriorityStreamSchedulerTest
+{
+    @Test
+    public void testMostUrgentStreamGeneratesFirst()
+    {
+        PriorityStreamScheduler<TestEntry> scheduler = new PriorityStreamScheduler<>();
+        TestEntry urgent = new TestEntry(new TestStream(3, Priority.of(1, false)), true, 1024);
+        TestEntry lazy = new TestEntry(new TestStream(1, Priority.of(5, false)), true, 1024);
+        TestEntry control = new TestEntry(null, false, 0);
+
+        scheduler.onCycle();
+        scheduler.onPass(List.of(lazy, control, urgent));
+        assertFalse(scheduler.canGenerate(lazy));
+        assertTrue(scheduler.canGenerate(control));
+        assertTrue(scheduler.canGenerate(urgent));
+        assertTrue(scheduler.hasDeferred());
+
+        // Once the urgent stream is stalled, the other stream may generate.
+        scheduler.onStalled(urgent);
+        scheduler.onPass(List.of(lazy, urgent));
+        assertTrue(scheduler.canGenerate(lazy));
+        assertFalse(scheduler.canGenerate(urgent));
+    }
+
+    @Test
+    public void testNonIncrementalLowestStreamIdGeneratesFirst()
+    {
+        PriorityStreamScheduler<TestEntry> scheduler = new PriorityStreamScheduler<>();
+        TestEntry first = new TestEntry(new TestStream(1, Priority.DEFAULT), true, 1024);
+        TestEntry second = new TestEntry(new TestStream(3, Priority.DEFAULT), true, 1024);
+
+        scheduler.onCycle();
+        scheduler.onPass(List.of(second, first));
+        assertFalse(scheduler.canGenerate(second));
+        assertTrue(scheduler.canGenerate(first));
+    }
+
+    @Test
+    public void testIncrementalStreamsGenerateInRoundRobin()
+    {
+        PriorityStreamScheduler<TestEntry> scheduler = new PriorityStreamScheduler<>();
+        TestEntry first = new TestEntry(new TestStream(1, Priority.of(3, true)), true, 1024);
+        TestEntry second = new TestEntry(new TestStream(3, Priority.of(3, true)), true, 1024);
+
+        scheduler.onCycle();
+        scheduler.onPass(List.of(first, second));
+        assertTrue(scheduler.canGenerate(first));
+        assertTrue(scheduler.canGenerate(second));
+        assertFalse(scheduler.hasDeferred());
+    }
+
+    @Test
+    public void testTrailersDoNotOvertakeData()
+    {
+        PriorityStreamScheduler<TestEntry> scheduler = new PriorityStreamScheduler<>();
+        TestStream lazyStream = new TestStream(1, Priority.of(5, false));
+        TestEntry urgent = new TestEntry(new TestStream(3, Priority.of(1, false)), true, 1024);
+        TestEntry lazy = new TestEntry(lazyStream, true, 1024);
+        TestEntry trailers = new TestEntry(lazyStream, false, 0);
+
+        scheduler.onCycle();
+        scheduler.onPass(List.of(urgent, lazy, trailers));
+        assertTrue(scheduler.canGenerate(urgent));
+        assertFalse(scheduler.canGenerate(lazy));
+        assertFalse(scheduler.canGenerate(trailers));
+    }
+
+    @Test
+    public void testMaxStreamBytesPerCycle()
+    {
+        PriorityStreamScheduler<TestEntry> scheduler = new PriorityStreamScheduler<>(1024);
+        TestEntry urgent = new TestEntry(new TestStream(1, Priority.of(1, false)), true, 4096);
+        TestEntry lazy = new TestEntry(new TestStream(3, Priority.of(5, false)), true, 4096);
+
+        scheduler.onCycle();
+        scheduler.onPass(List.of(urgent, lazy));
+        assertTrue(scheduler.canGenerate(urgent));
+        urgent.dataBytesRemaining -= 1024;
+        scheduler.onGenerated(urgent, 1024);
+
+        // The urgent stream reached the cap, so the other stream may generate.
+        scheduler.onPass(List.of(urgent, lazy));
+        assertFalse(scheduler.canGenerate(urgent));
+        assertTrue(scheduler.canGenerate(lazy));
+        assertTrue(scheduler.getCaps() > 0);
+    }
+
+    private static class TestStream implements StreamScheduler.Stream
+    {
+        private final long id;
+        private final Priority priority;
+
+        private TestStream(long id, Priority priority)
+        {
+            this.id = id;
+            this.priority = priority;
+        }
+
+        @Override
+        public long getStreamId()
+        {
+            return id;
+        }
+
+        @Override
+        public Priority getPriority()
+        {
+            return priority;
+        }
+    }
+
+    private static class TestEntry implements StreamScheduler.Entry
+    {
+        private final TestStream stream;
+        private final boolean data;
+        private int dataBytesRemaining;
+
+        private TestEntry(TestStream stream, boolean data, int dataBytesRemaining)
+        {
+            this.stream = stream;
+            this.data = data;
+            this.dataBytesRemaining = dataBytesRemaining;
+        }
+
+        @Override
+        public TestStream getStream()
+        {
+            return stream;
+        }
+
+        @Override
+        public boolean isData()
+        {
+            return data;
+        }
+
+        @Override
+        public boolean isHeaders()
+        {
+            return stream != null && !data;
+        }
+
+        @Override
+        public int getDataBytesRemaining()
+        {
+            return dataBytesRemaining;
+        }
+    }
+}
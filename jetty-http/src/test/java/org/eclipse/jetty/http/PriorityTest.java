@@ -0,0 +1,90 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PriorityTest
+{
+    public static Stream<Arguments> values()
+    {
+        return Stream.of(
+            Arguments.of(null, 3, false),
+            Arguments.of("", 3, false),
+            Arguments.of("u=1", 1, false),
+            Arguments.of("i", 3, true),
+            Arguments.of("u=0, i", 0, true),
+            Arguments.of(" i , u=7 ", 7, true),
+            Arguments.of("u=2, i=?1", 2, true),
+            Arguments.of("u=2, i=?0", 2, false),
+            Arguments.of("u=5;foo=bar, i", 5, true),
+            Arguments.of("u=8", 3, false),
+            Arguments.of("u=-1, i=maybe", 3, false),
+            Arguments.of("u=12", 3, false),
+            Arguments.of("x=1, u=6", 6, false)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("values")
+    public void testParse(String value, int urgency, boolean incremental)
+    {
+        Priority priority = Priority.from(value, Priority.DEFAULT);
+        assertThat(priority.getUrgency(), is(urgency));
+        assertThat(priority.isIncremental(), is(incremental));
+    }
+
+    @Test
+    public void testFromFields()
+    {
+        assertThat(Priority.from((HttpFields)null), sameInstance(Priority.DEFAULT));
+        assertThat(Priority.from(HttpFields.EMPTY), sameInstance(Priority.DEFAULT));
+        HttpFields fields = HttpFields.build().put(HttpHeader.PRIORITY, "u=1, i");
+        assertThat(Priority.from(fields), sameInstance(Priority.of(1, true)));
+    }
+
+    @Test
+    public void testBase()
+    {
+        Priority base = Priority.of(1, true);
+        assertThat(Priority.from("u=4", base), sameInstance(Priority.of(4, true)));
+        assertThat(Priority.from("i=?0", base), sameInstance(Priority.of(1, false)));
+    }
+
+    @Test
+    public void testAsString()
+    {
+        assertThat(Priority.DEFAULT.asString(), is("u=3"));
+        assertThat(Priority.of(0, true).asString(), is("u=0, i"));
+        Priority priority = Priority.of(6, true);
+        assertThat(Priority.from(priority.asString(), Priority.DEFAULT), sameInstance(priority));
+    }
+
+    @Test
+    public void testInvalidUrgency()
+    {
+        assertThrows(IllegalArgumentException.class, () -> Priority.of(8, false));
+        assertThrows(IllegalArgumentException.class, () -> Priority.of(-1, false));
+    }
+}
@@ -0,0 +1,162 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.eclipse.jetty.util.TypeUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class HuffmanDecoderTest
+{
+    public static Stream<Arguments> data()
+    {
+        return Stream.of(
+            new String[][]{
+                {"D.4.1", "f1e3c2e5f23a6ba0ab90f4ff", "www.example.com"},
+                {"D.4.2", "a8eb10649cbf", "no-cache"},
+                {"D.6.1k", "6402", "302"},
+                {"D.6.1v", "aec3771a4b", "private"},
+                {"D.6.1d", "d07abe941054d444a8200595040b8166e082a62d1bff", "Mon, 21 Oct 2013 20:13:21 GMT"},
+                {"D.6.1l", "9d29ad171863c78f0b97c8e9ae82ae43d3", "https://www.example.com"},
+                {"D.6.2te", "640cff", "303"},
+                }).map(Arguments::of);
+    }
+
+    @ParameterizedTest(name = "[{index}] spec={0}")
+    @MethodSource("data")
+    public void testDecode(String specSection, String hex, String expected) throws Exception
+    {
+        byte[] encoded = TypeUtil.fromHexString(hex);
+        assertEquals(expected, HuffmanDecoder.decode(ByteBuffer.wrap(encoded), encoded.length), specSection);
+
+        // Decode one byte at a time, from a direct buffer.
+        HuffmanDecoder decoder = new HuffmanDecoder();
+        decoder.setLength(encoded.length);
+        String decoded = null;
+        for (int i = 0; i < encoded.length; i++)
+        {
+            assertNull(decoded);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1).put(encoded[i]).flip();
+            decoded = decoder.decode(buffer);
+            assertFalse(buffer.hasRemaining());
+        }
+        assertEquals(expected, decoded, specSection);
+    }
+
+    @Test
+    public void testDecodeAllSymbols() throws Exception
+    {
+        Random random = new Random();
+        HuffmanDecoder decoder = new HuffmanDecoder();
+        for (int i = 0; i < 100; i++)
+        {
+            byte[] bytes = new byte[random.nextInt(512)];
+            for (int j = 0; j < bytes.length; j++)
+            {
+                bytes[j] = (byte)random.nextInt(128);
+            }
+            String expected = new String(bytes, StandardCharsets.ISO_8859_1);
+            byte[] encoded = encode(bytes);
+            // The decoder only consumes the encoded bytes.
+            ByteBuffer buffer = ByteBuffer.allocate(encoded.length + 1).put(encoded).put((byte)0).flip();
+            decoder.setLength(encoded.length);
+            assertEquals(expected, decoder.decode(buffer));
+            assertEquals(1, buffer.remaining());
+        }
+    }
+
+    @Test
+    public void testDecodeUtf8() throws Exception
+    {
+        String expected = "café €";
+        byte[] encoded = encode(expected.getBytes(StandardCharsets.UTF_8));
+        assertEquals(expected, HuffmanDecoder.decode(ByteBuffer.wrap(encoded), encoded.length));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        // EOS in content.
+        "fffffffc",
+        // Padding with zeros.
+        "495090",
+        // Padding of 8 bits.
+        "6402ff"
+    })
+    public void testInvalid(String hex) throws Exception
+    {
+        byte[] encoded = TypeUtil.fromHexString(hex);
+        HuffmanDecoder decoder = new HuffmanDecoder();
+        decoder.setLength(encoded.length);
+        assertThrows(EncodingException.class, () -> decoder.decode(ByteBuffer.wrap(encoded)));
+
+        // The decoder can be reused after a failure.
+        byte[] valid = TypeUtil.fromHexString("a8eb10649cbf");
+        decoder.setLength(valid.length);
+        assertEquals("no-cache", decoder.decode(ByteBuffer.wrap(valid)));
+    }
+
+    @Test
+    public void testHugeDeclaredLength() throws Exception
+    {
+        byte[] encoded = TypeUtil.fromHexString("a8eb10649cbf");
+        // The declared length is controlled by the remote peer,
+        // so it must not cause an allocation proportional to it.
+        HuffmanDecoder decoder = new HuffmanDecoder();
+        decoder.setLength(Integer.MAX_VALUE);
+        assertNull(decoder.decode(ByteBuffer.wrap(encoded)));
+        decoder.reset();
+
+        assertThrows(BufferUnderflowException.class, () -> HuffmanDecoder.decode(ByteBuffer.wrap(encoded), Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> decoder.setLength(-1));
+
+        decoder.setLength(encoded.length);
+        assertEquals("no-cache", decoder.decode(ByteBuffer.wrap(encoded)));
+    }
+
+    private static byte[] encode(byte[] bytes)
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long current = 0;
+        int n = 0;
+        for (byte b : bytes)
+        {
+            int[] code = Huffman.CODES[b & 0xFF];
+            current = (current << code[1]) | code[0];
+            n += code[1];
+            while (n >= 8)
+            {
+                n -= 8;
+                output.write((int)(current >>> n));
+            }
+        }
+        if (n > 0)
+            output.write((int)((current << (8 - n)) | (0xFF >>> n)));
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,245 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http2.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http2.AdaptiveFlowControlStrategy;
+import org.eclipse.jetty.http2.BufferingFlowControlStrategy;
+import org.eclipse.jetty.http2.FlowControlStrategy;
+import org.eclipse.jetty.http2.HTTP2Session;
+import org.eclipse.jetty.http2.api.Session;
+import org.eclipse.jetty.http2.api.Stream;
+import org.eclipse.jetty.http2.api.server.ServerSessionListener;
+import org.eclipse.jetty.http2.frames.DataFrame;
+import org.eclipse.jetty.http2.frames.HeadersFrame;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.FuturePromise;
+import org.eclipse.jetty.util.IO;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveFlowControlStrategyTest extends FlowControlStrategyTest
+{
+    private boolean adaptive = true;
+
+    @Override
+    protected FlowControlStrategy newFlowControlStrategy()
+    {
+        return adaptive ? new AdaptiveFlowControlStrategy() : new BufferingFlowControlStrategy(0.5F);
+    }
+
+    @Test
+    public void testWindowsGrowOnHighLatencyLink() throws Exception
+    {
+        int contentLength = 1024 * 1024;
+        long oneWayDelay = 20;
+
+        adaptive = false;
+        long staticElapsed = download(contentLength, oneWayDelay);
+        client.stop();
+        server.stop();
+
+        adaptive = true;
+        long adaptiveElapsed = download(contentLength, oneWayDelay);
+
+        assertThat(adaptiveElapsed, lessThan(staticElapsed));
+    }
+
+    private long download(int contentLength, long oneWayDelay) throws Exception
+    {
+        start(new ServerSessionListener.Adapter()
+        {
+            @Override
+            public Stream.Listener onNewStream(Stream stream, HeadersFrame frame)
+            {
+                MetaData.Response response = new MetaData.Response(HttpVersion.HTTP_2, 200, HttpFields.EMPTY);
+                stream.headers(new HeadersFrame(stream.getId(), response, null, false), Callback.from(() ->
+                    stream.data(new DataFrame(stream.getId(), ByteBuffer.allocate(contentLength), true), Callback.NOOP)));
+                return null;
+            }
+        });
+
+        try (LatencyProxy proxy = new LatencyProxy(connector.getLocalPort(), oneWayDelay))
+        {
+            FuturePromise<Session> sessionPromise = new FuturePromise<>();
+            client.connect(new InetSocketAddress("localhost", proxy.getPort()), new Session.Listener.Adapter(), sessionPromise);
+            Session session = sessionPromise.get(5, TimeUnit.SECONDS);
+
+            long begin = System.nanoTime();
+            CountDownLatch latch = new CountDownLatch(1);
+            session.newStream(new HeadersFrame(newRequest("GET", HttpFields.EMPTY), null, true), new FuturePromise<>(), new Stream.Listener.Adapter()
+            {
+                @Override
+                public void onData(Stream stream, DataFrame frame, Callback callback)
+                {
+                    callback.succeeded();
+                    if (frame.isEndStream())
+                        latch.countDown();
+                }
+            });
+            assertTrue(latch.await(30, TimeUnit.SECONDS));
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+
+            FlowControlStrategy flowControl = ((HTTP2Session)session).getFlowControlStrategy();
+            if (flowControl instanceof AdaptiveFlowControlStrategy)
+            {
+                AdaptiveFlowControlStrategy strategy = (AdaptiveFlowControlStrategy)flowControl;
+                assertThat(strategy.getProbes(), greaterThan(0L));
+                assertThat(strategy.getSessionRecvWindowTarget(), greaterThan(FlowControlStrategy.DEFAULT_WINDOW_SIZE));
+                assertThat(strategy.getStreamRecvWindowTarget(), greaterThan(FlowControlStrategy.DEFAULT_WINDOW_SIZE));
+            }
+            return elapsed;
+        }
+    }
+
+    /**
+     * <p>A TCP proxy that delays the bytes it forwards, in both directions,
+     * to simulate the latency of a long distance link.</p>
+     */
+    private static class LatencyProxy implements AutoCloseable
+    {
+        private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+        private final ServerSocket serverSocket;
+        private final int targetPort;
+        private final long delay;
+
+        private LatencyProxy(int targetPort, long delay) throws IOException
+        {
+            this.serverSocket = new ServerSocket(0);
+            this.targetPort = targetPort;
+            this.delay = delay;
+            new Thread(this::accept, "latency-proxy").start();
+        }
+
+        private int getPort()
+        {
+            return serverSocket.getLocalPort();
+        }
+
+        private void accept()
+        {
+            try
+            {
+                while (true)
+                {
+                    Socket client = serverSocket.accept();
+                    Socket server = new Socket("localhost", targetPort);
+                    sockets.add(client);
+                    sockets.add(server);
+                    forward(client, server);
+                    forward(server, client);
+                }
+            }
+            catch (IOException x)
+            {
+                // Closed.
+            }
+        }
+
+        private void forward(Socket from, Socket to) throws IOException
+        {
+            InputStream input = from.getInputStream();
+            OutputStream output = to.getOutputStream();
+            DelayQueue<Chunk> chunks = new DelayQueue<>();
+            new Thread(() ->
+            {
+                try
+                {
+                    byte[] buffer = new byte[64 * 1024];
+                    while (true)
+                    {
+                        int read = input.read(buffer);
+                        chunks.offer(new Chunk(read < 0 ? null : Arrays.copyOf(buffer, read), System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay)));
+                        if (read < 0)
+                            break;
+                    }
+                }
+                catch (IOException x)
+                {
+                    chunks.offer(new Chunk(null, 0));
+                }
+            }, "latency-proxy-read").start();
+            new Thread(() ->
+            {
+                try
+                {
+                    while (true)
+                    {
+                        Chunk chunk = chunks.take();
+                        if (chunk.bytes == null)
+                            break;
+                        output.write(chunk.bytes);
+                    }
+                }
+                catch (Exception x)
+                {
+                    // Closed.
+                }
+                IO.close(to);
+            }, "latency-proxy-write").start();
+        }
+
+        @Override
+        public void close()
+        {
+            IO.close(serverSocket);
+            sockets.forEach(IO::close);
+        }
+    }
+
+    private static class Chunk implements Delayed
+    {
+        private final byte[] bytes;
+        private final long time;
+
+        private Chunk(byte[] bytes, long time)
+        {
+            this.bytes = bytes;
+            this.time = time;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit)
+        {
+            return unit.convert(time - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other)
+        {
+            return Long.compare(time, ((Chunk)other).time);
+        }
+    }
+}
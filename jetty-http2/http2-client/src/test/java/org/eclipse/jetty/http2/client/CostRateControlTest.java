@@ -0,0 +1,99 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http2.client;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http2.ErrorCode;
+import org.eclipse.jetty.http2.api.Session;
+import org.eclipse.jetty.http2.api.Stream;
+import org.eclipse.jetty.http2.api.server.ServerSessionListener;
+import org.eclipse.jetty.http2.frames.GoAwayFrame;
+import org.eclipse.jetty.http2.frames.HeadersFrame;
+import org.eclipse.jetty.http2.frames.ResetFrame;
+import org.eclipse.jetty.http2.frames.SettingsFrame;
+import org.eclipse.jetty.http2.parser.CostRateControl;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.Promise;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CostRateControlTest extends AbstractTest
+{
+    @Test
+    public void testRapidResetClosesConnection() throws Exception
+    {
+        start(new ServerSessionListener.Adapter(), factory -> factory.setRateControlFactory(new CostRateControl.Factory(50)));
+
+        CountDownLatch goAwayLatch = new CountDownLatch(1);
+        Session session = newClient(new Session.Listener.Adapter()
+        {
+            @Override
+            public void onGoAway(Session session, GoAwayFrame frame)
+            {
+                if (frame.getError() == ErrorCode.ENHANCE_YOUR_CALM_ERROR.code)
+                    goAwayLatch.countDown();
+            }
+        });
+
+        for (int i = 0; i < 100 && !session.isClosed(); ++i)
+        {
+            HeadersFrame frame = new HeadersFrame(newRequest("GET", HttpFields.EMPTY), null, true);
+            session.newStream(frame, new Promise.Adapter<>()
+            {
+                @Override
+                public void succeeded(Stream stream)
+                {
+                    stream.reset(new ResetFrame(stream.getId(), ErrorCode.CANCEL_STREAM_ERROR.code), Callback.NOOP);
+                }
+            }, new Stream.Listener.Adapter());
+        }
+
+        assertTrue(goAwayLatch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testMaxConcurrentStreamsReducedUnderLoad() throws Exception
+    {
+        int maxConcurrentStreams = 128;
+        start(new ServerSessionListener.Adapter(), factory ->
+        {
+            factory.setMaxConcurrentStreams(maxConcurrentStreams);
+            factory.setRateControlFactory(new CostRateControl.Factory(20));
+        });
+
+        CountDownLatch settingsLatch = new CountDownLatch(1);
+        Session session = newClient(new Session.Listener.Adapter()
+        {
+            @Override
+            public void onSettings(Session session, SettingsFrame frame)
+            {
+                Integer value = frame.getSettings().get(SettingsFrame.MAX_CONCURRENT_STREAMS);
+                if (value != null && value < maxConcurrentStreams)
+                    settingsLatch.countDown();
+            }
+        });
+
+        for (int i = 0; i < 12; ++i)
+        {
+            HeadersFrame frame = new HeadersFrame(newRequest("GET", HttpFields.EMPTY), null, true);
+            session.newStream(frame, new Promise.Adapter<>(), new Stream.Listener.Adapter());
+        }
+
+        assertTrue(settingsLatch.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,156 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http2.client;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http.PriorityStreamScheduler;
+import org.eclipse.jetty.http2.HTTP2Session;
+import org.eclipse.jetty.http2.api.Session;
+import org.eclipse.jetty.http2.api.Stream;
+import org.eclipse.jetty.http2.api.server.ServerSessionListener;
+import org.eclipse.jetty.http2.frames.DataFrame;
+import org.eclipse.jetty.http2.frames.HeadersFrame;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.FuturePromise;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StreamSchedulerTest extends AbstractTest
+{
+    private static final int CONTENT_LENGTH = 32 * 1024;
+
+    @Test
+    public void testMoreUrgentStreamIsSentFirst() throws Exception
+    {
+        List<Integer> streamIds = new ArrayList<>();
+        List<Stream> serverStreams = sendContents(streamIds, "u=5", "u=0");
+
+        int lowStreamId = serverStreams.get(0).getId();
+        int highStreamId = serverStreams.get(1).getId();
+        int firstLow = streamIds.indexOf(lowStreamId);
+        int lastHigh = streamIds.lastIndexOf(highStreamId);
+        assertThat(firstLow, greaterThan(lastHigh));
+
+        HTTP2Session serverSession = (HTTP2Session)serverStreams.get(0).getSession();
+        assertThat(serverSession.getStreamScheduler(), instanceOf(PriorityStreamScheduler.class));
+        PriorityStreamScheduler<?> scheduler = (PriorityStreamScheduler<?>)serverSession.getStreamScheduler();
+        assertThat(scheduler.getBytes(0), is((long)CONTENT_LENGTH));
+        assertThat(scheduler.getBytes(5), is((long)CONTENT_LENGTH));
+        assertThat(scheduler.getDeferrals(), greaterThan(0L));
+    }
+
+    @Test
+    public void testIncrementalStreamsAreInterleaved() throws Exception
+    {
+        List<Integer> streamIds = new ArrayList<>();
+        List<Stream> serverStreams = sendContents(streamIds, "u=3, i", "u=3, i");
+
+        int firstStreamId = serverStreams.get(0).getId();
+        int secondStreamId = serverStreams.get(1).getId();
+        assertTrue(streamIds.indexOf(secondStreamId) < streamIds.lastIndexOf(firstStreamId));
+        assertTrue(streamIds.indexOf(firstStreamId) < streamIds.lastIndexOf(secondStreamId));
+    }
+
+    private List<Stream> sendContents(List<Integer> streamIds, String priority1, String priority2) throws Exception
+    {
+        CountDownLatch serverStreamsLatch = new CountDownLatch(2);
+        List<Stream> serverStreams = new ArrayList<>();
+        start(new ServerSessionListener.Adapter()
+        {
+            @Override
+            public Stream.Listener onNewStream(Stream stream, HeadersFrame frame)
+            {
+                serverStreams.add(stream);
+                serverStreamsLatch.countDown();
+                return null;
+            }
+        }, factory ->
+        {
+            factory.setStreamSchedulerFactory(new PriorityStreamScheduler.Factory());
+            // Large frames, so that the client receives whole frames.
+            factory.getHttpConfiguration().setOutputBufferSize(2 * CONTENT_LENGTH);
+        });
+
+        Session session = newClient(new Session.Listener.Adapter());
+
+        BlockingQueue<DataFrame> dataFrames = new LinkedBlockingQueue<>();
+        Stream.Listener streamListener = new Stream.Listener.Adapter()
+        {
+            @Override
+            public void onData(Stream stream, DataFrame frame, Callback callback)
+            {
+                dataFrames.offer(frame);
+                callback.succeeded();
+            }
+        };
+
+        for (String priority : List.of(priority1, priority2))
+        {
+            HttpFields fields = HttpFields.build().put(HttpHeader.PRIORITY, priority);
+            HeadersFrame headersFrame = new HeadersFrame(newRequest("GET", fields), null, true);
+            FuturePromise<Stream> streamPromise = new FuturePromise<>();
+            session.newStream(headersFrame, streamPromise, streamListener);
+            streamPromise.get(5, TimeUnit.SECONDS);
+        }
+
+        assertTrue(serverStreamsLatch.await(5, TimeUnit.SECONDS));
+
+        Stream serverStream1 = serverStreams.get(0);
+        Stream serverStream2 = serverStreams.get(1);
+        MetaData.Response response1 = new MetaData.Response(HttpVersion.HTTP_2, HttpStatus.OK_200, HttpFields.EMPTY);
+        serverStream1.headers(new HeadersFrame(serverStream1.getId(), response1, null, false), Callback.NOOP);
+        MetaData.Response response2 = new MetaData.Response(HttpVersion.HTTP_2, HttpStatus.OK_200, HttpFields.EMPTY);
+        serverStream2.headers(new HeadersFrame(serverStream2.getId(), response2, null, false), new Callback()
+        {
+            @Override
+            public void succeeded()
+            {
+                // Write data for both streams from within the callback so that they get queued together.
+                serverStream1.data(new DataFrame(serverStream1.getId(), ByteBuffer.allocate(CONTENT_LENGTH), true), NOOP);
+                serverStream2.data(new DataFrame(serverStream2.getId(), ByteBuffer.allocate(CONTENT_LENGTH), true), NOOP);
+            }
+        });
+
+        int finished = 0;
+        while (finished < 2)
+        {
+            DataFrame dataFrame = dataFrames.poll(5, TimeUnit.SECONDS);
+            assertNotNull(dataFrame);
+            if (dataFrame.remaining() > 0)
+                streamIds.add(dataFrame.getStreamId());
+            if (dataFrame.isEndStream())
+                ++finished;
+        }
+
+        return serverStreams;
+    }
+}
@@ -0,0 +1,421 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http2;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jetty.http2.frames.PingFrame;
+import org.eclipse.jetty.http2.frames.WindowUpdateFrame;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.thread.AutoLock;
+
+/**
+ * <p>A flow control strategy that sizes the receive windows after the
+ * bandwidth-delay product (BDP) of the connection.</p>
+ * <p>Static receive windows limit the throughput of a connection to
+ * {@code window / round-trip time}: a window that is large enough for a
+ * high latency link wastes memory on a local network, while a window that
+ * is small enough for a local network throttles a high latency link.</p>
+ * <p>This strategy estimates the BDP by sending a PING frame when DATA frames
+ * are received, and by counting the bytes received until the PING reply
+ * arrives, that is, the bytes received in a round-trip time.
+ * When the bytes received are close to the current window, the window is the
+ * bottleneck, so the target windows of the session and of the streams are
+ * grown to twice the bytes received, up to the configured maximum values.</p>
+ * <p>The windows are grown by returning to the sender more bytes than those
+ * consumed, and are shrunk by returning fewer bytes than those consumed:
+ * when the connection has not received DATA frames for the idle timeout,
+ * the target windows go back to their initial values, and so do those of
+ * streams that have been idle for the idle timeout, until the next estimate.</p>
+ * <p>At most one PING frame is outstanding, and PING frames are sent at most
+ * once every probe interval, and only while the windows may still grow,
+ * so that the PING rate control of the other peer is not triggered.</p>
+ * <p>Like {@link BufferingFlowControlStrategy}, window updates are emitted when
+ * the bytes to return exceed the {@code bufferRatio} of the target window.</p>
+ */
+@ManagedObject
+public class AdaptiveFlowControlStrategy extends AbstractFlowControlStrategy
+{
+    private final AutoLock lock = new AutoLock();
+    private final Map<IStream, Window> streamWindows = new ConcurrentHashMap<>();
+    private final Window sessionWindow = new Window(0);
+    private final AtomicLong probes = new AtomicLong();
+    private final long pingPayload = ThreadLocalRandom.current().nextLong();
+    private final int maxSessionRecvWindow;
+    private final int maxStreamRecvWindow;
+    private float bufferRatio = 0.5F;
+    private long idleTimeout = TimeUnit.SECONDS.toMillis(5);
+    private long probeInterval = 100;
+    private int minSessionRecvWindow;
+    private volatile int sessionTarget;
+    private volatile int streamTarget;
+    private volatile long roundTripTime;
+    private volatile int bandwidthDelayProduct;
+    // Probe state, only accessed by the thread that parses the frames.
+    private long lastDataNanos;
+    private long pingNanos;
+    private long probeNanos;
+    private long sampleBytes;
+
+    public AdaptiveFlowControlStrategy()
+    {
+        this(16 * 1024 * 1024, 8 * 1024 * 1024);
+    }
+
+    /**
+     * @param maxSessionRecvWindow the max size of the session receive window
+     * @param maxStreamRecvWindow the max size of the stream receive window
+     */
+    public AdaptiveFlowControlStrategy(int maxSessionRecvWindow, int maxStreamRecvWindow)
+    {
+        super(DEFAULT_WINDOW_SIZE);
+        this.maxSessionRecvWindow = maxSessionRecvWindow;
+        this.maxStreamRecvWindow = maxStreamRecvWindow;
+    }
+
+    @ManagedAttribute(value = "The max size of the session receive window", readonly = true)
+    public int getMaxSessionRecvWindow()
+    {
+        return maxSessionRecvWindow;
+    }
+
+    @ManagedAttribute(value = "The max size of the stream receive window", readonly = true)
+    public int getMaxStreamRecvWindow()
+    {
+        return maxStreamRecvWindow;
+    }
+
+    @ManagedAttribute("The ratio between the receive window and the bytes to return")
+    public float getBufferRatio()
+    {
+        return bufferRatio;
+    }
+
+    public void setBufferRatio(float bufferRatio)
+    {
+        this.bufferRatio = bufferRatio;
+    }
+
+    @ManagedAttribute("The idle timeout, in milliseconds, after which the windows are shrunk")
+    public long getIdleTimeout()
+    {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(long idleTimeout)
+    {
+        this.idleTimeout = idleTimeout;
+    }
+
+    @ManagedAttribute("The min interval, in milliseconds, between BDP probes")
+    public long getProbeInterval()
+    {
+        return probeInterval;
+    }
+
+    public void setProbeInterval(long probeInterval)
+    {
+        this.probeInterval = probeInterval;
+    }
+
+    @ManagedAttribute(value = "The target size of the session receive window", readonly = true)
+    public int getSessionRecvWindowTarget()
+    {
+        return sessionTarget;
+    }
+
+    @ManagedAttribute(value = "The target size of the stream receive window", readonly = true)
+    public int getStreamRecvWindowTarget()
+    {
+        return Math.max(streamTarget, getInitialStreamRecvWindow());
+    }
+
+    @ManagedAttribute(value = "The last round-trip time, in microseconds", readonly = true)
+    public long getRoundTripTime()
+    {
+        return TimeUnit.NANOSECONDS.toMicros(roundTripTime);
+    }
+
+    @ManagedAttribute(value = "The last bandwidth-delay product estimate, in bytes", readonly = true)
+    public int getBandwidthDelayProduct()
+    {
+        return bandwidthDelayProduct;
+    }
+
+    @ManagedAttribute(value = "The number of BDP probes", readonly = true)
+    public long getProbes()
+    {
+        return probes.get();
+    }
+
+    @Override
+    public void onStreamCreated(IStream stream)
+    {
+        super.onStreamCreated(stream);
+        streamWindows.put(stream, new Window(getInitialStreamRecvWindow()));
+    }
+
+    @Override
+    public void onStreamDestroyed(IStream stream)
+    {
+        streamWindows.remove(stream);
+        super.onStreamDestroyed(stream);
+    }
+
+    @Override
+    public void updateInitialStreamWindow(ISession session, int initialStreamWindow, boolean local)
+    {
+        int delta = initialStreamWindow - getInitialStreamRecvWindow();
+        super.updateInitialStreamWindow(session, initialStreamWindow, local);
+        if (local && delta != 0)
+        {
+            try (AutoLock l = lock.lock())
+            {
+                streamWindows.values().forEach(window -> window.size += delta);
+            }
+        }
+    }
+
+    @Override
+    public void onDataReceived(ISession session, IStream stream, int length)
+    {
+        super.onDataReceived(session, stream, length);
+
+        long now = System.nanoTime();
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(getIdleTimeout());
+        try (AutoLock l = lock.lock())
+        {
+            if (sessionWindow.size == 0)
+            {
+                // No data has been consumed yet, so the session
+                // window size is the recv window before this data.
+                sessionWindow.size = session.updateRecvWindow(0) + length;
+                minSessionRecvWindow = sessionWindow.size;
+                sessionTarget = sessionWindow.size;
+            }
+        }
+
+        if (lastDataNanos != 0 && now - lastDataNanos > idleNanos)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Shrinking windows of idle {}", session);
+            sessionTarget = minSessionRecvWindow;
+            streamTarget = 0;
+            pingNanos = 0;
+        }
+        lastDataNanos = now;
+
+        if (stream != null)
+        {
+            Window window = streamWindows.get(stream);
+            if (window != null)
+            {
+                if (window.lastDataNanos != 0 && now - window.lastDataNanos > idleNanos)
+                {
+                    if (LOG.isDebugEnabled())
+                        LOG.debug("Shrinking window of idle {}", stream);
+                    window.idle = true;
+                }
+                window.lastDataNanos = now;
+            }
+        }
+
+        // Do not probe if the peer exceeded the windows, as the session is going to fail.
+        if (session.updateRecvWindow(0) < 0 || stream != null && stream.updateRecvWindow(0) < 0)
+            return;
+
+        sampleBytes += length;
+        if (pingNanos == 0 && canGrow() && now - probeNanos >= TimeUnit.MILLISECONDS.toNanos(getProbeInterval()))
+        {
+            pingNanos = now;
+            sampleBytes = length;
+            if (LOG.isDebugEnabled())
+                LOG.debug("Probing BDP for {}", session);
+            session.frames(null, List.of(new PingFrame(pingPayload, false)), Callback.NOOP);
+        }
+    }
+
+    private boolean canGrow()
+    {
+        return sessionTarget < getMaxSessionRecvWindow() || getStreamRecvWindowTarget() < getMaxStreamRecvWindow();
+    }
+
+    @Override
+    public boolean onPingReply(ISession session, PingFrame frame)
+    {
+        if (pingNanos == 0 || frame.getPayloadAsLong() != pingPayload)
+            return false;
+
+        long now = System.nanoTime();
+        roundTripTime = now - pingNanos;
+        pingNanos = 0;
+        probeNanos = now;
+        long bdp = sampleBytes;
+        bandwidthDelayProduct = (int)Math.min(bdp, Integer.MAX_VALUE);
+        probes.incrementAndGet();
+        streamWindows.values().forEach(window -> window.idle = false);
+
+        // If the bytes received in a round-trip are close to the window,
+        // then the window limits the throughput: grow it, but only if the
+        // application keeps up with the data, otherwise the larger window
+        // would just buffer more data.
+        int sessionDelta = 0;
+        float ratio = getBufferRatio();
+        try (AutoLock l = lock.lock())
+        {
+            int streamWindow = getStreamRecvWindowTarget();
+            if (3 * bdp >= 2L * streamWindow && streamWindows.entrySet().stream()
+                .noneMatch(entry -> isBuffering(entry.getValue(), entry.getKey().updateRecvWindow(0), ratio)))
+                streamTarget = (int)Math.min(2 * bdp, getMaxStreamRecvWindow());
+
+            if (3 * bdp >= 2L * sessionTarget && !isBuffering(sessionWindow, session.updateRecvWindow(0), ratio))
+            {
+                sessionTarget = (int)Math.max(sessionTarget, Math.min(2 * bdp, getMaxSessionRecvWindow()));
+                // Grow the session window immediately, as all the streams are limited by it.
+                sessionDelta = credit(sessionWindow, sessionTarget, 0, 0);
+            }
+        }
+
+        if (LOG.isDebugEnabled())
+            LOG.debug("Probed BDP {} bytes in {} us, target windows session={}/stream={} for {}",
+                bdp, TimeUnit.NANOSECONDS.toMicros(roundTripTime), sessionTarget, getStreamRecvWindowTarget(), session);
+
+        if (sessionDelta > 0)
+        {
+            session.updateRecvWindow(sessionDelta);
+            sendWindowUpdate(null, session, new WindowUpdateFrame(0, sessionDelta));
+        }
+        return true;
+    }
+
+    @Override
+    public void onDataConsumed(ISession session, IStream stream, int length)
+    {
+        if (length <= 0)
+            return;
+
+        float ratio = getBufferRatio();
+        int sessionDelta;
+        int streamDelta = 0;
+        try (AutoLock l = lock.lock())
+        {
+            int target = sessionTarget;
+            sessionDelta = credit(sessionWindow, target, length, (int)(target * ratio));
+
+            if (stream != null && !stream.isRemotelyClosed())
+            {
+                Window window = streamWindows.get(stream);
+                if (window != null)
+                {
+                    target = window.idle ? getInitialStreamRecvWindow() : getStreamRecvWindowTarget();
+                    streamDelta = credit(window, target, length, (int)(target * ratio));
+                }
+            }
+        }
+
+        if (sessionDelta > 0)
+        {
+            session.updateRecvWindow(sessionDelta);
+            if (LOG.isDebugEnabled())
+                LOG.debug("Data consumed, {} bytes, updated session recv window by {} for {}", length, sessionDelta, session);
+            sendWindowUpdate(null, session, new WindowUpdateFrame(0, sessionDelta));
+        }
+
+        if (streamDelta > 0)
+        {
+            stream.updateRecvWindow(streamDelta);
+            if (LOG.isDebugEnabled())
+                LOG.debug("Data consumed, {} bytes, updated stream recv window by {} for {}", length, streamDelta, stream);
+            sendWindowUpdate(stream, session, new WindowUpdateFrame(stream.getId(), streamDelta));
+        }
+    }
+
+    /**
+     * <p>Computes the bytes to return to the sender.</p>
+     * <p>The window size is the sum of the recv window, of the bytes
+     * received but not consumed yet, and of the bytes consumed but
+     * not returned yet (the level).
+     * Returning the level plus the difference between the target and
+     * the size makes the window size equal to the target.</p>
+     *
+     * @param window the window
+     * @param target the target size of the window
+     * @param length the bytes consumed
+     * @param threshold the min number of bytes to return
+     * @return the number of bytes to return, or 0 to wait for more bytes to be consumed
+     */
+    private int credit(Window window, int target, int length, int threshold)
+    {
+        window.level += length;
+        int delta = window.level + target - window.size;
+        if (delta <= 0)
+        {
+            // Shrinking, withhold all the bytes consumed.
+            window.size -= window.level;
+            window.level = 0;
+            return 0;
+        }
+        if (delta <= threshold)
+            return 0;
+        window.size = target;
+        window.level = 0;
+        return delta;
+    }
+
+    private boolean isBuffering(Window window, int recvWindow, float ratio)
+    {
+        // The bytes received but not consumed yet.
+        int buffered = window.size - recvWindow - window.level;
+        return buffered > window.size * ratio;
+    }
+
+    protected void sendWindowUpdate(IStream stream, ISession session, WindowUpdateFrame frame)
+    {
+        session.frames(stream, List.of(frame), Callback.NOOP);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[session=%d,stream=%d,bdp=%d,rtt=%dus,sessionStallTime=%dms,streamsStallTime=%dms]",
+            getClass().getSimpleName(),
+            hashCode(),
+            getSessionRecvWindowTarget(),
+            getStreamRecvWindowTarget(),
+            getBandwidthDelayProduct(),
+            getRoundTripTime(),
+            getSessionStallTime(),
+            getStreamsStallTime());
+    }
+
+    private static class Window
+    {
+        private int size;
+        private int level;
+        private volatile long lastDataNanos;
+        private volatile boolean idle;
+
+        private Window(int size)
+        {
+            this.size = size;
+        }
+    }
+}
@@ -18,13 +18,15 @@ import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.eclipse.jetty.http.StreamScheduler;
 import org.eclipse.jetty.http2.frames.Frame;
 import org.eclipse.jetty.http2.frames.FrameType;
 import org.eclipse.jetty.http2.frames.WindowUpdateFrame;
@@ -34,25 +36,31 @@ import org.eclipse.jetty.io.EofException;
 import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.IteratingCallback;
 import org.eclipse.jetty.util.component.Dumpable;
-import org.eclipse.jetty.util.thread.AutoLock;
 import org.eclipse.jetty.util.thread.Invocable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * <p>Generates and writes the frames of a {@link HTTP2Session}.</p>
+ * <p>Frames may be submitted concurrently by many threads, and are queued
+ * without locking into multi-producer queues that have a single consumer:
+ * the thread that is iterating over this callback, which moves the queued
+ * frames to its own, non-concurrent, list of pending frames.</p>
+ */
 public class HTTP2Flusher extends IteratingCallback implements Dumpable
 {
     private static final Logger LOG = LoggerFactory.getLogger(HTTP2Flusher.class);
     private static final ByteBuffer[] EMPTY_BYTE_BUFFERS = new ByteBuffer[0];
 
-    private final AutoLock lock = new AutoLock();
-    private final Queue<WindowEntry> windows = new ArrayDeque<>();
-    private final Deque<Entry> entries = new ArrayDeque<>();
+    private final AtomicReference<Throwable> terminated = new AtomicReference<>();
+    private final Queue<WindowEntry> windows = new ConcurrentLinkedQueue<>();
+    private final Queue<Entry> priorityEntries = new ConcurrentLinkedQueue<>();
+    private final Queue<Entry> entries = new ConcurrentLinkedQueue<>();
     private final Queue<Entry> pendingEntries = new ArrayDeque<>();
     private final Collection<Entry> processedEntries = new ArrayList<>();
     private final HTTP2Session session;
     private final ByteBufferPool.Lease lease;
     private InvocationType invocationType = InvocationType.NON_BLOCKING;
-    private Throwable terminated;
     private Entry stalledEntry;
 
     public HTTP2Flusher(HTTP2Session session)
@@ -69,89 +77,68 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
 
     public void window(IStream stream, WindowUpdateFrame frame)
     {
-        Throwable closed;
-        try (AutoLock l = lock.lock())
-        {
-            closed = terminated;
-            if (closed == null)
-                windows.offer(new WindowEntry(stream, frame));
-        }
+        // Window updates of a terminated flusher are just discarded.
+        if (terminated.get() != null)
+            return;
+        windows.offer(new WindowEntry(stream, frame));
         // Flush stalled data.
-        if (closed == null)
-            iterate();
+        iterate();
     }
 
     public boolean prepend(Entry entry)
     {
-        Throwable closed;
-        try (AutoLock l = lock.lock())
-        {
-            closed = terminated;
-            if (closed == null)
-            {
-                entries.offerFirst(entry);
-                if (LOG.isDebugEnabled())
-                    LOG.debug("Prepended {}, entries={}", entry, entries.size());
-            }
-        }
-        if (closed == null)
-            return true;
-        closed(entry, closed);
-        return false;
+        // Entries with high priority are moved to the
+        // pending entries before the other entries.
+        boolean result = offer(priorityEntries, entry);
+        if (result && LOG.isDebugEnabled())
+            LOG.debug("Prepended {}, entries={}", entry, getFrameQueueSize());
+        return result;
     }
 
     public boolean append(Entry entry)
     {
-        Throwable closed;
-        try (AutoLock l = lock.lock())
-        {
-            closed = terminated;
-            if (closed == null)
-            {
-                entries.offer(entry);
-                if (LOG.isDebugEnabled())
-                    LOG.debug("Appended {}, entries={}", entry, entries.size());
-            }
-        }
-        if (closed == null)
-            return true;
-        closed(entry, closed);
-        return false;
+        boolean result = offer(entries, entry);
+        if (result && LOG.isDebugEnabled())
+            LOG.debug("Appended {}, entries={}", entry, getFrameQueueSize());
+        return result;
     }
 
     public boolean append(List<Entry> list)
     {
-        Throwable closed;
-        try (AutoLock l = lock.lock())
+        boolean result = true;
+        for (Entry entry : list)
         {
-            closed = terminated;
-            if (closed == null)
-            {
-                list.forEach(entries::offer);
-                if (LOG.isDebugEnabled())
-                    LOG.debug("Appended {}, entries={}", list, entries.size());
-            }
+            result &= offer(entries, entry);
         }
+        if (result && LOG.isDebugEnabled())
+            LOG.debug("Appended {}, entries={}", list, getFrameQueueSize());
+        return result;
+    }
+
+    private boolean offer(Queue<Entry> queue, Entry entry)
+    {
+        queue.offer(entry);
+        // The terminated field is set before the queues are drained
+        // by onCompleteFailure(), so either this thread sees that
+        // the flusher is terminated, or the entry gets drained.
+        Throwable closed = terminated.get();
         if (closed == null)
             return true;
-        list.forEach(entry -> closed(entry, closed));
+        // Only one between this thread and the draining
+        // thread can remove the entry and fail it.
+        if (queue.remove(entry))
+            closed(entry, closed);
         return false;
     }
 
     private int getWindowQueueSize()
     {
-        try (AutoLock l = lock.lock())
-        {
-            return windows.size();
-        }
+        return windows.size();
     }
 
     public int getFrameQueueSize()
     {
-        try (AutoLock l = lock.lock())
-        {
-            return entries.size();
-        }
+        return priorityEntries.size() + entries.size();
     }
 
     @Override
@@ -160,24 +147,19 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
         if (LOG.isDebugEnabled())
             LOG.debug("Flushing {}", session);
 
-        try (AutoLock l = lock.lock())
-        {
-            if (terminated != null)
-                throw terminated;
+        Throwable closed = terminated.get();
+        if (closed != null)
+            throw closed;
 
-            WindowEntry windowEntry;
-            while ((windowEntry = windows.poll()) != null)
-            {
-                windowEntry.perform();
-            }
-
-            Entry entry;
-            while ((entry = entries.poll()) != null)
-            {
-                pendingEntries.offer(entry);
-            }
+        WindowEntry windowEntry;
+        while ((windowEntry = windows.poll()) != null)
+        {
+            windowEntry.perform();
         }
 
+        drain(priorityEntries, pendingEntries);
+        drain(entries, pendingEntries);
+
         if (pendingEntries.isEmpty())
         {
             if (LOG.isDebugEnabled())
@@ -185,6 +167,10 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
             return Action.IDLE;
         }
 
+        StreamScheduler<Entry> scheduler = session.getStreamScheduler();
+        if (scheduler != null)
+            scheduler.onCycle();
+
         while (true)
         {
             boolean progress = false;
@@ -192,6 +178,9 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
             if (pendingEntries.isEmpty())
                 break;
 
+            if (scheduler != null)
+                scheduler.onPass(pendingEntries);
+
             Iterator<Entry> pending = pendingEntries.iterator();
             while (pending.hasNext())
             {
@@ -210,8 +199,16 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
                     continue;
                 }
 
+                if (scheduler != null && !scheduler.canGenerate(entry))
+                {
+                    if (LOG.isDebugEnabled())
+                        LOG.debug("Deferred {}", entry);
+                    continue;
+                }
+
                 try
                 {
+                    int dataBytesRemaining = entry.getDataBytesRemaining();
                     if (entry.generate(lease))
                     {
                         if (LOG.isDebugEnabled())
@@ -219,6 +216,9 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
 
                         progress = true;
 
+                        if (scheduler != null)
+                            scheduler.onGenerated(entry, dataBytesRemaining - entry.getDataBytesRemaining());
+
                         // We use ArrayList contains() + add() instead of HashSet add()
                         // because that is faster for collections of size up to 250 entries.
                         if (!processedEntries.contains(entry))
@@ -232,6 +232,9 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
                     }
                     else
                     {
+                        if (scheduler != null)
+                            scheduler.onStalled(entry);
+
                         if (session.getSendWindow() <= 0 && stalledEntry == null)
                         {
                             stalledEntry = entry;
@@ -258,12 +261,18 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
                 }
             }
 
-            if (!progress)
-                break;
-
             if (stalledEntry != null)
                 break;
 
+            if (!progress)
+            {
+                // Entries deferred by the scheduler may make
+                // progress in the next pass, if they are allowed to.
+                if (scheduler == null || !scheduler.hasDeferred())
+                    break;
+                continue;
+            }
+
             int writeThreshold = session.getWriteThreshold();
             if (lease.getTotalLength() >= writeThreshold)
             {
@@ -350,22 +359,18 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
     {
         lease.recycle();
 
-        Throwable closed;
-        Set<Entry> allEntries;
-        try (AutoLock l = lock.lock())
-        {
-            closed = terminated;
-            terminated = x;
-            if (LOG.isDebugEnabled())
-                LOG.debug(String.format("%s, entries processed/pending/queued=%d/%d/%d",
-                    closed != null ? "Closing" : "Failing",
-                    processedEntries.size(),
-                    pendingEntries.size(),
-                    entries.size()), x);
-            allEntries = new HashSet<>(entries);
-            entries.clear();
-        }
+        Throwable closed = terminated.getAndSet(x);
+        if (LOG.isDebugEnabled())
+            LOG.debug(String.format("%s, entries processed/pending/queued=%d/%d/%d",
+                closed != null ? "Closing" : "Failing",
+                processedEntries.size(),
+                pendingEntries.size(),
+                getFrameQueueSize()), x);
 
+        Set<Entry> allEntries = new HashSet<>();
+        drain(priorityEntries, allEntries);
+        drain(entries, allEntries);
+        windows.clear();
         allEntries.addAll(processedEntries);
         processedEntries.clear();
         allEntries.addAll(pendingEntries);
@@ -378,16 +383,20 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
             session.onWriteFailure(x);
     }
 
-    void terminate(Throwable cause)
+    private static void drain(Queue<Entry> queue, Collection<Entry> collection)
     {
-        Throwable closed;
-        try (AutoLock l = lock.lock())
+        Entry entry;
+        while ((entry = queue.poll()) != null)
         {
-            closed = terminated;
-            terminated = cause;
-            if (LOG.isDebugEnabled())
-                LOG.debug("{} {}", closed != null ? "Terminated" : "Terminating", this);
+            collection.add(entry);
         }
+    }
+
+    void terminate(Throwable cause)
+    {
+        Throwable closed = terminated.getAndSet(cause);
+        if (LOG.isDebugEnabled())
+            LOG.debug("{} {}", closed != null ? "Terminated" : "Terminating", this);
         if (closed == null)
             iterate();
     }
@@ -420,7 +429,7 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
             pendingEntries.size());
     }
 
-    public abstract static class Entry extends Callback.Nested
+    public abstract static class Entry extends Callback.Nested implements StreamScheduler.Entry
     {
         protected final Frame frame;
         protected final IStream stream;
@@ -432,8 +441,32 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
             this.stream = stream;
         }
 
+        public Frame getFrame()
+        {
+            return frame;
+        }
+
+        @Override
+        public IStream getStream()
+        {
+            return stream;
+        }
+
+        @Override
+        public boolean isData()
+        {
+            return frame.getType() == FrameType.DATA;
+        }
+
+        @Override
+        public boolean isHeaders()
+        {
+            return frame.getType() == FrameType.HEADERS;
+        }
+
         public abstract int getFrameBytesGenerated();
 
+        @Override
         public int getDataBytesRemaining()
         {
             return 0;
@@ -38,6 +38,7 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http.StreamScheduler;
 import org.eclipse.jetty.http2.api.Session;
 import org.eclipse.jetty.http2.api.Stream;
 import org.eclipse.jetty.http2.frames.DataFrame;
@@ -104,6 +105,7 @@ public abstract class HTTP2Session extends ContainerLifeCycle implements ISessio
     private long streamIdleTimeout;
     private int initialSessionRecvWindow;
     private int writeThreshold;
+    private StreamScheduler<HTTP2Flusher.Entry> streamScheduler;
     private boolean pushEnabled;
     private boolean connectProtocolEnabled;
 
@@ -207,6 +209,24 @@ public abstract class HTTP2Session extends ContainerLifeCycle implements ISessio
         this.writeThreshold = writeThreshold;
     }
 
+    @ManagedAttribute(value = "The scheduler of streams sending DATA frames", readonly = true)
+    public StreamScheduler<HTTP2Flusher.Entry> getStreamScheduler()
+    {
+        return streamScheduler;
+    }
+
+    /**
+     * <p>Sets the {@link StreamScheduler} that decides which streams may send DATA frames
+     * when many streams have DATA frames to send, or null to send them in queue order.</p>
+     *
+     * @param streamScheduler the stream scheduler, or null
+     */
+    public void setStreamScheduler(StreamScheduler<HTTP2Flusher.Entry> streamScheduler)
+    {
+        updateBean(this.streamScheduler, streamScheduler);
+        this.streamScheduler = streamScheduler;
+    }
+
     public EndPoint getEndPoint()
     {
         return endPoint;
@@ -431,7 +451,9 @@ public abstract class HTTP2Session extends ContainerLifeCycle implements ISessio
 
         if (frame.isReply())
         {
-            notifyPing(this, frame);
+            // Replies to PINGs sent by the flow control strategy are not notified.
+            if (!flowControl.onPingReply(this, frame))
+                notifyPing(this, frame);
         }
         else
         {
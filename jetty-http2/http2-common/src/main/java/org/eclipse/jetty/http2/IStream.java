@@ -19,6 +19,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
+import org.eclipse.jetty.http.Priority;
+import org.eclipse.jetty.http.StreamScheduler;
 import org.eclipse.jetty.http2.api.Stream;
 import org.eclipse.jetty.http2.frames.DataFrame;
 import org.eclipse.jetty.http2.frames.Frame;
@@ -32,7 +34,7 @@ import org.eclipse.jetty.util.Callback;
  * <p>This class extends {@link Stream} by adding the methods required to
  * implement the HTTP/2 stream functionalities.</p>
  */
-public interface IStream extends Stream, Attachable, Closeable
+public interface IStream extends Stream, StreamScheduler.Stream, Attachable, Closeable
 {
     /**
      * @return whether this stream is local or remote
@@ -142,6 +144,30 @@ public interface IStream extends Stream, Attachable, Closeable
      */
     boolean isCommitted();
 
+    @Override
+    public default long getStreamId()
+    {
+        return getId();
+    }
+
+    /**
+     * @return the priority of the response carried by this stream
+     * @see #setPriority(Priority)
+     */
+    @Override
+    public default Priority getPriority()
+    {
+        return Priority.DEFAULT;
+    }
+
+    /**
+     * @param priority the priority of the response carried by this stream
+     * @see #getPriority()
+     */
+    public default void setPriority(Priority priority)
+    {
+    }
+
     /**
      * <p>An ordered list of frames belonging to the same stream.</p>
      */
@@ -69,7 +69,10 @@ public class DataGenerator
         if (last)
             flags |= Flags.END_STREAM;
 
-        ByteBuffer header = headerGenerator.generate(lease, FrameType.DATA, Frame.HEADER_LENGTH + length, length, flags, streamId);
+        // The header buffer only needs to hold the header: the data is not
+        // copied, but written as a slice of the application buffer, which
+        // is retained until the write completes and the callback is notified.
+        ByteBuffer header = headerGenerator.generate(lease, FrameType.DATA, Frame.HEADER_LENGTH, length, flags, streamId);
         BufferUtil.flipToFlush(header, 0);
         lease.append(header, true);
         // Skip empty data buffers.
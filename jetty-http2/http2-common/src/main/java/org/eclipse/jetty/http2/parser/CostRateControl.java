@@ -0,0 +1,198 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http2.parser;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.http2.frames.DataFrame;
+import org.eclipse.jetty.http2.frames.HeadersFrame;
+import org.eclipse.jetty.http2.frames.PingFrame;
+import org.eclipse.jetty.http2.frames.ResetFrame;
+import org.eclipse.jetty.http2.frames.SettingsFrame;
+import org.eclipse.jetty.io.EndPoint;
+import org.eclipse.jetty.util.thread.AutoLock;
+
+/**
+ * <p>An implementation of {@link RateControl} that charges a cost for each
+ * event, depending on how expensive the event is for the server and on how
+ * likely it is part of an abuse, rather than counting all events the same.</p>
+ * <p>The costs accumulate in a bucket that drains at {@code maxCostRate}
+ * per second, and {@link #onEvent(Object)} returns {@code false} when the
+ * bucket overflows its capacity, which is also {@code maxCostRate}.</p>
+ * <p>Resets are charged more than stream creations, so that clients that
+ * create and immediately reset streams (the "rapid reset" attack) are
+ * detected well before clients that make many requests.</p>
+ * <p>{@link #getLoad()} may be used to react before the bucket overflows,
+ * for example by reducing the max number of concurrent streams.</p>
+ */
+public class CostRateControl implements RateControl
+{
+    public static final int DEFAULT_STREAM_COST = 1;
+    public static final int DEFAULT_RESET_COST = 10;
+    public static final int DEFAULT_CONTROL_COST = 5;
+    public static final int DEFAULT_EMPTY_FRAME_COST = 2;
+
+    private final AutoLock lock = new AutoLock();
+    private final int maxCostRate;
+    private int streamCost = DEFAULT_STREAM_COST;
+    private int resetCost = DEFAULT_RESET_COST;
+    private int controlCost = DEFAULT_CONTROL_COST;
+    private int emptyFrameCost = DEFAULT_EMPTY_FRAME_COST;
+    private long cost;
+    private long nanoTime = System.nanoTime();
+
+    /**
+     * @param maxCostRate the max cost per second
+     */
+    public CostRateControl(int maxCostRate)
+    {
+        if (maxCostRate <= 0)
+            throw new IllegalArgumentException("Invalid max cost rate " + maxCostRate);
+        this.maxCostRate = maxCostRate;
+    }
+
+    public int getMaxCostRate()
+    {
+        return maxCostRate;
+    }
+
+    /**
+     * @return the cost of a HEADERS frame, which typically creates a stream
+     */
+    public int getStreamCost()
+    {
+        return streamCost;
+    }
+
+    public void setStreamCost(int streamCost)
+    {
+        this.streamCost = streamCost;
+    }
+
+    /**
+     * @return the cost of a RST_STREAM frame
+     */
+    public int getResetCost()
+    {
+        return resetCost;
+    }
+
+    public void setResetCost(int resetCost)
+    {
+        this.resetCost = resetCost;
+    }
+
+    /**
+     * @return the cost of a SETTINGS or PING frame
+     */
+    public int getControlCost()
+    {
+        return controlCost;
+    }
+
+    public void setControlCost(int controlCost)
+    {
+        this.controlCost = controlCost;
+    }
+
+    /**
+     * @return the cost of empty DATA frames, CONTINUATION frames,
+     * PRIORITY frames, unknown frames and of other events
+     */
+    public int getEmptyFrameCost()
+    {
+        return emptyFrameCost;
+    }
+
+    public void setEmptyFrameCost(int emptyFrameCost)
+    {
+        this.emptyFrameCost = emptyFrameCost;
+    }
+
+    /**
+     * @return the current cost as a fraction of the capacity, from {@code 0.0}
+     * to {@code 1.0}, and greater than {@code 1.0} if the capacity is exceeded
+     */
+    public double getLoad()
+    {
+        try (AutoLock l = lock.lock())
+        {
+            drain(System.nanoTime());
+            return (double)cost / maxCostRate;
+        }
+    }
+
+    @Override
+    public boolean onEvent(Object event)
+    {
+        int eventCost = getCost(event);
+        try (AutoLock l = lock.lock())
+        {
+            drain(System.nanoTime());
+            cost += eventCost;
+            return cost <= maxCostRate;
+        }
+    }
+
+    private void drain(long now)
+    {
+        long elapsed = now - nanoTime;
+        long drained = elapsed * maxCostRate / TimeUnit.SECONDS.toNanos(1);
+        if (drained > 0)
+        {
+            cost = Math.max(0, cost - drained);
+            // Only advance by the time that was drained, to not lose precision.
+            nanoTime += drained * TimeUnit.SECONDS.toNanos(1) / maxCostRate;
+        }
+    }
+
+    /**
+     * @param event the event subject to rate control
+     * @return the cost of the given event
+     */
+    protected int getCost(Object event)
+    {
+        if (event instanceof HeadersFrame)
+            return getStreamCost();
+        if (event instanceof ResetFrame)
+            return getResetCost();
+        if (event instanceof SettingsFrame || event instanceof PingFrame)
+            return getControlCost();
+        if (event instanceof DataFrame && ((DataFrame)event).remaining() > 0)
+            return 0;
+        return getEmptyFrameCost();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[load=%.2f]", getClass().getSimpleName(), hashCode(), getLoad());
+    }
+
+    public static class Factory implements RateControl.Factory
+    {
+        private final int maxCostRate;
+
+        public Factory(int maxCostRate)
+        {
+            this.maxCostRate = maxCostRate;
+        }
+
+        @Override
+        public RateControl newRateControl(EndPoint endPoint)
+        {
+            return new CostRateControl(maxCostRate);
+        }
+    }
+}
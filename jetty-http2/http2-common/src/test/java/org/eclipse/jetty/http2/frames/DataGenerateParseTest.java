@@ -28,6 +28,7 @@ import org.eclipse.jetty.util.BufferUtil;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class DataGenerateParseTest
@@ -83,6 +84,32 @@ public class DataGenerateParseTest
         assertEquals(content, aggregate);
     }
 
+    @Test
+    public void testGenerateLargeContentDoesNotCopyData()
+    {
+        DataGenerator generator = new DataGenerator(new HeaderGenerator());
+
+        ByteBufferPool.Lease lease = new ByteBufferPool.Lease(byteBufferPool);
+        ByteBuffer data = ByteBuffer.wrap(largeContent);
+        int generated = 0;
+        while (generated < largeContent.length)
+        {
+            generated += generator.generateData(lease, 13, data, true, data.remaining()) - Frame.HEADER_LENGTH;
+        }
+
+        List<ByteBuffer> buffers = lease.getByteBuffers();
+        assertEquals(16, buffers.size());
+        for (int i = 0; i < buffers.size(); i += 2)
+        {
+            ByteBuffer header = buffers.get(i);
+            assertEquals(Frame.HEADER_LENGTH, header.remaining());
+            assertTrue(header.capacity() < Frame.DEFAULT_MAX_LENGTH);
+            ByteBuffer payload = buffers.get(i + 1);
+            assertSame(largeContent, payload.array());
+            assertEquals(Frame.DEFAULT_MAX_LENGTH, payload.remaining());
+        }
+    }
+
     private List<DataFrame> testGenerateParse(ByteBuffer data)
     {
         DataGenerator generator = new DataGenerator(new HeaderGenerator());
@@ -22,14 +22,18 @@ import org.eclipse.jetty.http.HttpVersion;
 import org.eclipse.jetty.http.MetaData;
 import org.eclipse.jetty.http2.Flags;
 import org.eclipse.jetty.http2.hpack.HpackEncoder;
+import org.eclipse.jetty.http2.parser.CostRateControl;
 import org.eclipse.jetty.http2.parser.Parser;
+import org.eclipse.jetty.http2.parser.RateControl;
 import org.eclipse.jetty.http2.parser.WindowRateControl;
 import org.eclipse.jetty.io.ByteBufferPool;
 import org.eclipse.jetty.io.MappedByteBufferPool;
 import org.junit.jupiter.api.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class FrameFloodTest
 {
@@ -120,7 +124,44 @@ public class FrameFloodTest
         testFrameFlood(null, frameFrom(payload.length, 64, 0, 0, payload));
     }
 
+    @Test
+    public void testResetFrameFlood()
+    {
+        byte[] payload = {0, 0, 0, 0};
+        testFrameFlood(null, frameFrom(payload.length, FrameType.RST_STREAM.getType(), 0, 13, payload));
+    }
+
+    @Test
+    public void testResetFrameFloodWithCostRateControl()
+    {
+        byte[] payload = {0, 0, 0, 0};
+        CostRateControl rateControl = new CostRateControl(100);
+        int count = testFrameFlood(null, frameFrom(payload.length, FrameType.RST_STREAM.getType(), 0, 13, payload), rateControl);
+        // Resets are expensive, so few are allowed.
+        assertThat(count, lessThan(100 / CostRateControl.DEFAULT_RESET_COST + 2));
+    }
+
+    @Test
+    public void testCostRateControlLoad()
+    {
+        CostRateControl rateControl = new CostRateControl(100);
+        assertThat(rateControl.getLoad(), lessThan(0.01));
+        for (int i = 0; i < 5; ++i)
+        {
+            assertTrue(rateControl.onEvent(new ResetFrame(13, 0)));
+        }
+        assertThat(rateControl.getLoad(), greaterThan(0.4));
+        // Non-empty DATA frames are free.
+        assertTrue(rateControl.onEvent(new DataFrame(13, ByteBuffer.allocate(1), false)));
+        assertThat(rateControl.getLoad(), lessThan(0.51));
+    }
+
     private void testFrameFlood(byte[] preamble, byte[] bytes)
+    {
+        testFrameFlood(preamble, bytes, new WindowRateControl(8, Duration.ofSeconds(1)));
+    }
+
+    private int testFrameFlood(byte[] preamble, byte[] bytes, RateControl rateControl)
     {
         AtomicBoolean failed = new AtomicBoolean();
         Parser parser = new Parser(byteBufferPool, new Parser.Listener.Adapter()
@@ -130,7 +171,7 @@ public class FrameFloodTest
             {
                 failed.set(true);
             }
-        }, 4096, 8192, new WindowRateControl(8, Duration.ofSeconds(1)));
+        }, 4096, 8192, rateControl);
         parser.init(UnaryOperator.identity());
 
         if (preamble != null)
@@ -152,5 +193,6 @@ public class FrameFloodTest
             }
             assertThat("too many frames allowed", ++count, lessThan(1024));
         }
+        return count;
     }
 }
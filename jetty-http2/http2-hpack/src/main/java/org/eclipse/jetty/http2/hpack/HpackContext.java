@@ -25,7 +25,6 @@ import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpScheme;
 import org.eclipse.jetty.util.Index;
-import org.eclipse.jetty.util.StringUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -184,8 +183,6 @@ public class HpackContext
     private int _maxDynamicTableSizeInBytes;
     private int _dynamicTableSizeInBytes;
     private final DynamicTable _dynamicTable;
-    private final Map<HttpField, Entry> _fieldMap = new HashMap<>();
-    private final Map<String, Entry> _nameMap = new HashMap<>();
 
     HpackContext(int maxDynamicTableSize)
     {
@@ -206,7 +203,7 @@ public class HpackContext
 
     public Entry get(HttpField field)
     {
-        Entry entry = _fieldMap.get(field);
+        Entry entry = _dynamicTable.get(field);
         if (entry == null)
             entry = __staticFieldMap.get(field);
         return entry;
@@ -217,7 +214,7 @@ public class HpackContext
         Entry entry = __staticNameMap.get(name);
         if (entry != null)
             return entry;
-        return _nameMap.get(StringUtil.asciiToLowerCase(name));
+        return _dynamicTable.get(name);
     }
 
     public Entry get(int index)
@@ -254,8 +251,6 @@ public class HpackContext
         }
         _dynamicTableSizeInBytes += size;
         _dynamicTable.add(entry);
-        _fieldMap.put(field, entry);
-        _nameMap.put(field.getLowerCaseName(), entry);
 
         if (LOG.isDebugEnabled())
             LOG.debug(String.format("HdrTbl[%x] added %s", hashCode(), entry));
@@ -313,17 +308,28 @@ public class HpackContext
         return String.format("HpackContext@%x{entries=%d,size=%d,max=%d}", hashCode(), _dynamicTable.size(), _dynamicTableSizeInBytes, _maxDynamicTableSizeInBytes);
     }
 
+    /**
+     * <p>The dynamic table, stored in a ring of entries.</p>
+     * <p>Entries are looked up by field and by name with two open addressing
+     * hash indexes, that hold the ring slot (plus one) of the most recent
+     * entry with a given field or name, so that no allocation is necessary
+     * to add, find or evict entries.</p>
+     */
     private class DynamicTable
     {
         Entry[] _entries;
         int _size;
         int _offset;
         int _growby;
+        int[] _fieldIndex;
+        int[] _nameIndex;
 
         private DynamicTable(int initCapacity)
         {
             _entries = new Entry[initCapacity];
             _growby = initCapacity;
+            _fieldIndex = new int[indexCapacity(initCapacity)];
+            _nameIndex = new int[_fieldIndex.length];
         }
 
         public void add(Entry entry)
@@ -339,10 +345,44 @@ public class HpackContext
                 }
                 _entries = entries;
                 _offset = 0;
+                reindex();
             }
             int slot = (_size++ + _offset) % _entries.length;
             _entries[slot] = entry;
             entry._slot = slot;
+            HttpField field = entry.getHttpField();
+            entry._fieldHash = field.hashCode();
+            entry._nameHash = nameHash(field.getName());
+            put(_fieldIndex, entry, true);
+            put(_nameIndex, entry, false);
+        }
+
+        public Entry get(HttpField field)
+        {
+            int hash = field.hashCode();
+            int[] index = _fieldIndex;
+            int mask = index.length - 1;
+            for (int i = mix(hash) & mask; index[i] != 0; i = (i + 1) & mask)
+            {
+                Entry entry = _entries[index[i] - 1];
+                if (entry._fieldHash == hash && field.equals(entry.getHttpField()))
+                    return entry;
+            }
+            return null;
+        }
+
+        public Entry get(String name)
+        {
+            int hash = nameHash(name);
+            int[] index = _nameIndex;
+            int mask = index.length - 1;
+            for (int i = mix(hash) & mask; index[i] != 0; i = (i + 1) & mask)
+            {
+                Entry entry = _entries[index[i] - 1];
+                if (entry._nameHash == hash && entry.getHttpField().getName().equalsIgnoreCase(name))
+                    return entry;
+            }
+            return null;
         }
 
         public int index(Entry entry)
@@ -369,6 +409,8 @@ public class HpackContext
             while (_dynamicTableSizeInBytes > _maxDynamicTableSizeInBytes)
             {
                 Entry entry = _entries[_offset];
+                remove(_fieldIndex, entry, true);
+                remove(_nameIndex, entry, false);
                 _entries[_offset] = null;
                 _offset = (_offset + 1) % _entries.length;
                 _size--;
@@ -376,10 +418,6 @@ public class HpackContext
                     LOG.debug(String.format("HdrTbl[%x] evict %s", HpackContext.this.hashCode(), entry));
                 _dynamicTableSizeInBytes -= entry.getSize();
                 entry._slot = -1;
-                _fieldMap.remove(entry.getHttpField());
-                String lc = entry.getHttpField().getLowerCaseName();
-                if (entry == _nameMap.get(lc))
-                    _nameMap.remove(lc);
             }
             if (LOG.isDebugEnabled())
                 LOG.debug(String.format("HdrTbl[%x] entries=%d, size=%d, max=%d", HpackContext.this.hashCode(), _dynamicTable.size(), _dynamicTableSizeInBytes, _maxDynamicTableSizeInBytes));
@@ -391,20 +429,114 @@ public class HpackContext
                 LOG.debug(String.format("HdrTbl[%x] evictAll", HpackContext.this.hashCode()));
             if (size() > 0)
             {
-                _fieldMap.clear();
-                _nameMap.clear();
                 _offset = 0;
                 _size = 0;
                 _dynamicTableSizeInBytes = 0;
                 Arrays.fill(_entries, null);
+                Arrays.fill(_fieldIndex, 0);
+                Arrays.fill(_nameIndex, 0);
+            }
+        }
+
+        private void reindex()
+        {
+            _fieldIndex = new int[indexCapacity(_entries.length)];
+            _nameIndex = new int[_fieldIndex.length];
+            // From the oldest to the newest, so the newest entries win.
+            for (int i = 0; i < _size; i++)
+            {
+                Entry entry = _entries[(_offset + i) % _entries.length];
+                put(_fieldIndex, entry, true);
+                put(_nameIndex, entry, false);
+            }
+        }
+
+        /**
+         * <p>Indexes the given entry, replacing any previous entry with the same field or name.</p>
+         */
+        private void put(int[] index, Entry entry, boolean byField)
+        {
+            int hash = byField ? entry._fieldHash : entry._nameHash;
+            int mask = index.length - 1;
+            int i = mix(hash) & mask;
+            while (index[i] != 0)
+            {
+                Entry other = _entries[index[i] - 1];
+                if (byField
+                    ? other._fieldHash == hash && entry.getHttpField().equals(other.getHttpField())
+                    : other._nameHash == hash && entry.getHttpField().getName().equalsIgnoreCase(other.getHttpField().getName()))
+                    break;
+                i = (i + 1) & mask;
             }
+            index[i] = entry._slot + 1;
+        }
+
+        /**
+         * <p>Removes the given entry from the index, if it has not been replaced by a more recent entry.</p>
+         * <p>Uses backward shift deletion, so that no tombstones are needed.</p>
+         */
+        private void remove(int[] index, Entry entry, boolean byField)
+        {
+            int hash = byField ? entry._fieldHash : entry._nameHash;
+            int mask = index.length - 1;
+            int value = entry._slot + 1;
+            int i = mix(hash) & mask;
+            while (index[i] != value)
+            {
+                if (index[i] == 0)
+                    return;
+                i = (i + 1) & mask;
+            }
+            int j = i;
+            while (true)
+            {
+                j = (j + 1) & mask;
+                if (index[j] == 0)
+                    break;
+                Entry other = _entries[index[j] - 1];
+                int home = mix(byField ? other._fieldHash : other._nameHash) & mask;
+                // Move the entry at j into the hole at i,
+                // unless its home lies cyclically in (i, j].
+                if (i <= j ? (i < home && home <= j) : (i < home || home <= j))
+                    continue;
+                index[i] = index[j];
+                i = j;
+            }
+            index[i] = 0;
+        }
+    }
+
+    private static int indexCapacity(int entries)
+    {
+        // A load factor of at most 0.5 keeps the probe sequences short.
+        return Integer.highestOneBit(Math.max(8, entries) * 2 - 1) << 1;
+    }
+
+    private static int mix(int hash)
+    {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int nameHash(String name)
+    {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++)
+        {
+            char c = name.charAt(i);
+            if (c >= 'A' && c <= 'Z')
+                c += 'a' - 'A';
+            hash = 31 * hash + c;
         }
+        return hash;
     }
 
     public static class Entry
     {
         final HttpField _field;
         int _slot; // The index within it's array
+        int _fieldHash;
+        int _nameHash;
 
         Entry()
         {
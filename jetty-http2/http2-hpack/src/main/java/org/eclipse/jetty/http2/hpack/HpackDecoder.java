@@ -13,12 +13,15 @@
 
 package org.eclipse.jetty.http2.hpack;
 
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpTokens;
 import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http.compression.EncodingException;
+import org.eclipse.jetty.http.compression.HuffmanDecoder;
 import org.eclipse.jetty.http2.hpack.HpackContext.Entry;
 import org.eclipse.jetty.util.BufferUtil;
 import org.slf4j.Logger;
@@ -36,6 +39,7 @@ public class HpackDecoder
 
     private final HpackContext _context;
     private final MetaDataBuilder _builder;
+    private final HuffmanDecoder _huffmanDecoder = new HuffmanDecoder();
     private int _localMaxDynamicTableSize;
 
     /**
@@ -163,7 +167,7 @@ public class HpackDecoder
                     int length = NBitInteger.decode(buffer, 7);
                     _builder.checkSize(length, huffmanName);
                     if (huffmanName)
-                        name = Huffman.decode(buffer, length);
+                        name = huffmanDecode(buffer, length);
                     else
                         name = toASCIIString(buffer, length);
                     check:
@@ -204,7 +208,7 @@ public class HpackDecoder
                 int length = NBitInteger.decode(buffer, 7);
                 _builder.checkSize(length, huffmanValue);
                 if (huffmanValue)
-                    value = Huffman.decode(buffer, length);
+                    value = huffmanDecode(buffer, length);
                 else
                     value = toASCIIString(buffer, length);
 
@@ -267,6 +271,27 @@ public class HpackDecoder
         return _builder.build();
     }
 
+    private String huffmanDecode(ByteBuffer buffer, int length) throws HpackException.CompressionException
+    {
+        try
+        {
+            _huffmanDecoder.setLength(length);
+            String result = _huffmanDecoder.decode(buffer);
+            if (result == null)
+            {
+                _huffmanDecoder.reset();
+                throw new BufferUnderflowException();
+            }
+            return result;
+        }
+        catch (EncodingException x)
+        {
+            HpackException.CompressionException failure = new HpackException.CompressionException("%s", x.getMessage());
+            failure.initCause(x);
+            throw failure;
+        }
+    }
+
     public static String toASCIIString(ByteBuffer buffer, int length)
     {
         StringBuilder builder = new StringBuilder(length);
@@ -91,6 +91,8 @@ public class HpackEncoder
     }
 
     private final HpackContext _context;
+    private final HuffmanCache _nameCache = new HuffmanCache(true);
+    private final HuffmanCache _valueCache = new HuffmanCache(false);
     private final boolean _debug;
     private int _remoteMaxDynamicTableSize;
     private int _localMaxDynamicTableSize;
@@ -350,7 +352,7 @@ public class HpackEncoder
                     // custom field.  Unless the name is once only, this is worthwhile
                     indexed = true;
                     encodeName(buffer, (byte)0x40, 6, field.getName(), null);
-                    encodeValue(buffer, true, field.getValue());
+                    encodeCachedValue(buffer, true, field.getValue());
                     if (_debug)
                         encoding = "LitHuffNHuffVIdx";
                 }
@@ -360,7 +362,7 @@ public class HpackEncoder
                     // This is probably a custom field with changing value, so don't index.
                     indexed = false;
                     encodeName(buffer, (byte)0x00, 4, field.getName(), null);
-                    encodeValue(buffer, true, field.getValue());
+                    encodeCachedValue(buffer, true, field.getValue());
                     if (_debug)
                         encoding = "LitHuffNHuffV!Idx";
                 }
@@ -387,7 +389,7 @@ public class HpackEncoder
                     boolean neverIndex = NEVER_INDEX.contains(header);
                     boolean huffman = !DO_NOT_HUFFMAN.contains(header);
                     encodeName(buffer, neverIndex ? (byte)0x10 : (byte)0x00, 4, header.asString(), name);
-                    encodeValue(buffer, huffman, field.getValue());
+                    encodeCachedValue(buffer, huffman, field.getValue());
 
                     if (_debug)
                         encoding = "Lit" +
@@ -400,7 +402,7 @@ public class HpackEncoder
                     // The field is too large or a non zero content length, so do not index.
                     indexed = false;
                     encodeName(buffer, (byte)0x00, 4, header.asString(), name);
-                    encodeValue(buffer, true, field.getValue());
+                    encodeCachedValue(buffer, true, field.getValue());
                     if (_debug)
                         encoding = "Lit" +
                             ((name == null) ? "HuffN" : "IdxNS" + (1 + NBitInteger.octectsNeeded(4, _context.index(name)))) +
@@ -412,7 +414,7 @@ public class HpackEncoder
                     indexed = true;
                     boolean huffman = !DO_NOT_HUFFMAN.contains(header);
                     encodeName(buffer, (byte)0x40, 6, header.asString(), name);
-                    encodeValue(buffer, huffman, field.getValue());
+                    encodeCachedValue(buffer, huffman, field.getValue());
                     if (_debug)
                         encoding = ((name == null) ? "LitHuffN" : ("LitIdxN" + (name.isStatic() ? "S" : "") + (1 + NBitInteger.octectsNeeded(6, _context.index(name))))) +
                             (huffman ? "HuffVIdx" : "LitVIdx");
@@ -438,9 +440,17 @@ public class HpackEncoder
         {
             // leave name index bits as 0
             // Encode the name always with lowercase huffman
-            buffer.put((byte)0x80);
-            NBitInteger.encode(buffer, 7, Huffman.octetsNeededLC(name));
-            Huffman.encodeLC(buffer, name);
+            byte[] encoded = _nameCache.get(name);
+            if (encoded != null)
+            {
+                buffer.put(encoded);
+            }
+            else
+            {
+                buffer.put((byte)0x80);
+                NBitInteger.encode(buffer, 7, Huffman.octetsNeededLC(name));
+                Huffman.encodeLC(buffer, name);
+            }
         }
         else
         {
@@ -448,6 +458,15 @@ public class HpackEncoder
         }
     }
 
+    private void encodeCachedValue(ByteBuffer buffer, boolean huffman, String value)
+    {
+        byte[] encoded = huffman ? _valueCache.get(value) : null;
+        if (encoded != null)
+            buffer.put(encoded);
+        else
+            encodeValue(buffer, huffman, value);
+    }
+
     static void encodeValue(ByteBuffer buffer, boolean huffman, String value)
     {
         if (huffman)
@@ -490,4 +509,62 @@ public class HpackEncoder
             }
         }
     }
+
+    /**
+     * <p>A small, direct mapped, cache of Huffman encoded string literals,
+     * including their length prefix, so that the strings that are sent
+     * frequently on a connection are only encoded once.</p>
+     * <p>A string is cached only the second time it is seen, so that
+     * strings that are sent once do not evict frequent strings, nor
+     * cause the allocation of their encoded bytes.</p>
+     */
+    private static class HuffmanCache
+    {
+        private static final int SIZE = 64;
+        private static final int MAX_LENGTH = 256;
+
+        private final String[] _strings = new String[SIZE];
+        private final byte[][] _encoded = new byte[SIZE][];
+        private final int[] _candidates = new int[SIZE];
+        private final boolean _lowerCase;
+
+        private HuffmanCache(boolean lowerCase)
+        {
+            _lowerCase = lowerCase;
+        }
+
+        /**
+         * @param string the string to encode
+         * @return the cached encoded string, or null if the string is not cached
+         */
+        private byte[] get(String string)
+        {
+            int length = string.length();
+            if (length == 0 || length > MAX_LENGTH)
+                return null;
+            int hash = string.hashCode();
+            int slot = (hash ^ (hash >>> 16)) & (SIZE - 1);
+            if (string.equals(_strings[slot]))
+                return _encoded[slot];
+            if (_candidates[slot] != hash)
+            {
+                _candidates[slot] = hash;
+                return null;
+            }
+            int huffmanLength = _lowerCase ? Huffman.octetsNeededLC(string) : Huffman.octetsNeeded(string);
+            if (huffmanLength < 0)
+                return null;
+            byte[] encoded = new byte[1 + NBitInteger.octectsNeeded(7, huffmanLength) + huffmanLength];
+            ByteBuffer buffer = ByteBuffer.wrap(encoded);
+            buffer.put((byte)0x80);
+            NBitInteger.encode(buffer, 7, huffmanLength);
+            if (_lowerCase)
+                Huffman.encodeLC(buffer, string);
+            else
+                Huffman.encode(buffer, string);
+            _strings[slot] = string;
+            _encoded[slot] = encoded;
+            return encoded;
+        }
+    }
 }
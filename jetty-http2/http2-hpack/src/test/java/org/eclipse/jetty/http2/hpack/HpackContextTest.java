@@ -14,6 +14,10 @@
 package org.eclipse.jetty.http2.hpack;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
 
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http2.hpack.HpackContext.Entry;
@@ -445,4 +449,46 @@ public class HpackContextTest
         assertEquals("Wibble", ctx.get("wibble").getHttpField().getName());
         assertEquals("Wibble", ctx.get("Wibble").getHttpField().getName());
     }
+
+    @Test
+    public void testDynamicLookupsAfterEvictions()
+    {
+        HpackContext ctx = new HpackContext(4096);
+        Random random = new Random(1234);
+        List<HttpField> added = new ArrayList<>();
+        for (int i = 0; i < 5000; i++)
+        {
+            // Few names and values, so there are duplicates.
+            HttpField field = new HttpField("name-" + random.nextInt(20), "value-" + random.nextInt(10));
+            if (ctx.get(field) == null || random.nextInt(4) == 0)
+            {
+                ctx.add(field);
+                added.add(field);
+            }
+            if (i % 1000 == 999)
+                ctx.resize(1024 + random.nextInt(4096));
+
+            // The most recent entries are found by field and by name.
+            for (int index = 62; index < 62 + ctx.size(); index++)
+            {
+                HttpField expected = ctx.get(index).getHttpField();
+                Entry byField = ctx.get(expected);
+                assertNotNull(byField);
+                assertEquals(expected, byField.getHttpField());
+                Entry byName = ctx.get(expected.getName().toUpperCase(Locale.ENGLISH));
+                assertNotNull(byName);
+                assertEquals(expected.getName(), byName.getHttpField().getName());
+                assertThat(ctx.index(byName), Matchers.lessThanOrEqualTo(index));
+            }
+        }
+
+        // Evicted fields are not found.
+        ctx.resize(0);
+        for (HttpField field : added)
+        {
+            assertNull(ctx.get(field));
+            assertNull(ctx.get(field.getName()));
+        }
+    }
 }
+
@@ -167,6 +167,37 @@ public class HpackEncoderTest
         assertThat(ctx.getDynamicTableSize(), Matchers.is(dynamicTableSize));
     }
 
+    @Test
+    public void testRepeatedLiteralsEncodeTheSame() throws Exception
+    {
+        // The fields are not indexed, so they are always sent as literals.
+        HpackEncoder encoder = new HpackEncoder(0, 0);
+        HttpFields fields = HttpFields.build()
+            .add(HttpHeader.IF_NONE_MATCH, "\"abcdef0123456789\"")
+            .add(HttpHeader.CONTENT_LENGTH, "12345")
+            .add("X-Custom", "some custom value");
+        MetaData metaData = new MetaData(HttpVersion.HTTP_2, fields);
+
+        ByteBuffer first = null;
+        for (int i = 0; i < 3; i++)
+        {
+            ByteBuffer buffer = BufferUtil.allocate(1024);
+            int pos = BufferUtil.flipToFill(buffer);
+            encoder.encode(buffer, metaData);
+            BufferUtil.flipToFlush(buffer, pos);
+            if (first == null)
+                first = buffer;
+            else
+                assertEquals(first, buffer);
+
+            MetaData decoded = new HpackDecoder(4096, 8192).decode(buffer.slice());
+            for (HttpField field : fields)
+            {
+                assertEquals(field.getValue(), decoded.getFields().get(field.getName()));
+            }
+        }
+    }
+
     @Test
     public void testIndexContentLength()
     {
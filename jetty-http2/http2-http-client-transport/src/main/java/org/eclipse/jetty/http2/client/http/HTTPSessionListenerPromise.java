@@ -15,7 +15,10 @@ package org.eclipse.jetty.http2.client.http;
 
 import java.nio.channels.ClosedChannelException;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicMarkableReference;
 
 import org.eclipse.jetty.client.HttpClientTransport;
@@ -30,6 +33,10 @@ import org.eclipse.jetty.util.Promise;
 class HTTPSessionListenerPromise extends Session.Listener.Adapter implements Promise<Session>
 {
     private final AtomicMarkableReference<HttpConnectionOverHTTP2> connection = new AtomicMarkableReference<>(null, false);
+    // The connections to other destinations that share the session.
+    private final Set<HttpConnectionOverHTTP2> coalesced = ConcurrentHashMap.newKeySet();
+    // The number of connections that use the session, which is closed when the last is closed.
+    private final AtomicInteger users = new AtomicInteger(1);
     private final Map<String, Object> context;
 
     HTTPSessionListenerPromise(Map<String, Object> context)
@@ -72,10 +79,85 @@ class HTTPSessionListenerPromise extends Session.Listener.Adapter implements Pro
     private void onServerPreface(Session session)
     {
         HttpConnectionOverHTTP2 connection = newHttpConnection(destination(), session);
+        connection.setSessionListener(this, false);
         if (this.connection.compareAndSet(null, connection, false, true))
             httpConnectionPromise().succeeded(connection);
     }
 
+    HttpConnectionOverHTTP2 getHttpConnection()
+    {
+        return connection.getReference();
+    }
+
+    boolean isConnectedTo(HttpDestination destination)
+    {
+        HttpConnectionOverHTTP2 connection = getHttpConnection();
+        if (connection != null && connection.getHttpDestination() == destination)
+            return true;
+        return coalesced.stream().anyMatch(c -> c.getHttpDestination() == destination);
+    }
+
+    /**
+     * <p>Creates a connection to the given destination that shares the session
+     * of the connection created by this listener.</p>
+     *
+     * @param destination the destination of the new connection
+     * @return a new connection, or null if the session is being closed
+     */
+    HttpConnectionOverHTTP2 coalesce(HttpDestination destination)
+    {
+        HttpConnectionOverHTTP2 connection = getHttpConnection();
+        if (connection == null)
+            return null;
+        while (true)
+        {
+            int count = users.get();
+            if (count == 0)
+                return null;
+            if (users.compareAndSet(count, count + 1))
+                break;
+        }
+        HttpConnectionOverHTTP2 result = newHttpConnection(destination, connection.getSession());
+        result.setSessionListener(this, true);
+        coalesced.add(result);
+        return result;
+    }
+
+    /**
+     * @param connection the connection that is closing
+     * @return whether the connection was the last one using the session
+     */
+    boolean release(HttpConnectionOverHTTP2 connection)
+    {
+        coalesced.remove(connection);
+        return users.decrementAndGet() == 0;
+    }
+
+    /**
+     * @param connection a connection using the session
+     * @param maxMultiplex the max number of streams of the session
+     * @return the max number of streams of the session that are left to the given connection
+     */
+    int getMaxMultiplex(HttpConnectionOverHTTP2 connection, int maxMultiplex)
+    {
+        if (coalesced.isEmpty())
+            return maxMultiplex;
+        int others = 0;
+        HttpConnectionOverHTTP2 primary = getHttpConnection();
+        if (primary != connection && primary != null && !primary.isClosed())
+            others += primary.getActiveChannelCount();
+        for (HttpConnectionOverHTTP2 other : coalesced)
+        {
+            if (other != connection)
+                others += other.getActiveChannelCount();
+        }
+        return Math.max(1, maxMultiplex - others);
+    }
+
+    void onCoalescedRequest()
+    {
+    }
+
     protected HttpConnectionOverHTTP2 newHttpConnection(HttpDestination destination, Session session)
     {
         return new HttpConnectionOverHTTP2(destination, session);
@@ -89,6 +171,10 @@ class HTTPSessionListenerPromise extends Session.Listener.Adapter implements Pro
         HttpConnectionOverHTTP2 connection = this.connection.getReference();
         if (connection != null)
             onClose(connection, frame);
+        for (HttpConnectionOverHTTP2 other : coalesced)
+        {
+            onClose(other, frame);
+        }
     }
 
     void onClose(HttpConnectionOverHTTP2 connection, GoAwayFrame frame)
@@ -104,9 +190,16 @@ class HTTPSessionListenerPromise extends Session.Listener.Adapter implements Pro
         if (failConnectionPromise(failure))
             return true;
         HttpConnectionOverHTTP2 connection = this.connection.getReference();
-        if (connection != null)
-            return connection.onIdleTimeout(idleTimeout, failure);
-        return true;
+        if (connection == null)
+            return true;
+        // Each connection closes itself if it is idle, and
+        // the last one closes the session.
+        boolean result = connection.onIdleTimeout(idleTimeout, failure);
+        for (HttpConnectionOverHTTP2 other : coalesced)
+        {
+            other.onIdleTimeout(idleTimeout, failure);
+        }
+        return result;
     }
 
     @Override
@@ -117,6 +210,10 @@ class HTTPSessionListenerPromise extends Session.Listener.Adapter implements Pro
         HttpConnectionOverHTTP2 connection = this.connection.getReference();
         if (connection != null)
             connection.close(failure);
+        for (HttpConnectionOverHTTP2 other : coalesced)
+        {
+            other.close(failure);
+        }
     }
 
     private boolean failConnectionPromise(Throwable failure)
@@ -16,8 +16,14 @@ package org.eclipse.jetty.http2.client.http;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.net.ssl.SSLPeerUnverifiedException;
 
 import org.eclipse.jetty.alpn.client.ALPNClientConnectionFactory;
 import org.eclipse.jetty.client.AbstractHttpClientTransport;
@@ -28,23 +34,47 @@ import org.eclipse.jetty.client.MultiplexConnectionPool;
 import org.eclipse.jetty.client.MultiplexHttpDestination;
 import org.eclipse.jetty.client.Origin;
 import org.eclipse.jetty.client.ProxyConfiguration;
+import org.eclipse.jetty.client.api.Connection;
 import org.eclipse.jetty.http.HttpScheme;
+import org.eclipse.jetty.http2.HTTP2Session;
 import org.eclipse.jetty.http2.api.Session;
 import org.eclipse.jetty.http2.client.HTTP2Client;
 import org.eclipse.jetty.http2.client.HTTP2ClientConnectionFactory;
 import org.eclipse.jetty.http2.frames.GoAwayFrame;
 import org.eclipse.jetty.io.ClientConnectionFactory;
 import org.eclipse.jetty.io.EndPoint;
+import org.eclipse.jetty.io.ssl.SslConnection;
 import org.eclipse.jetty.util.Promise;
 import org.eclipse.jetty.util.annotation.ManagedAttribute;
 import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.ssl.X509;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * <p>A {@link org.eclipse.jetty.client.HttpClientTransport} that sends requests over HTTP/2.</p>
+ * <p>When {@link #setConnectionCoalescing(boolean) connection coalescing} is enabled,
+ * a connection to an {@code https} origin may reuse the HTTP/2 session established
+ * for another origin, as described in
+ * <a href="https://datatracker.ietf.org/doc/html/rfc7540#section-9.1.1">RFC 7540, section 9.1.1</a>,
+ * if the origin host resolves to the remote address of the session, and
+ * {@link #canCoalesce(HttpDestination, Session)} allows it; by default,
+ * the certificate presented by the server must cover the origin host.</p>
+ * <p>Connection coalescing is not performed for destinations that use a proxy.</p>
+ */
 @ManagedObject("The HTTP/2 client transport")
 public class HttpClientTransportOverHTTP2 extends AbstractHttpClientTransport
 {
+    private static final Logger LOG = LoggerFactory.getLogger(HttpClientTransportOverHTTP2.class);
+
     private final ClientConnectionFactory connectionFactory = new HTTP2ClientConnectionFactory();
+    private final Set<SessionListenerPromise> coalescibles = ConcurrentHashMap.newKeySet();
+    private final LongAdder coalescedConnections = new LongAdder();
+    private final LongAdder coalescedRequests = new LongAdder();
     private final HTTP2Client client;
     private boolean useALPN = true;
+    private boolean connectionCoalescing;
 
     public HttpClientTransportOverHTTP2(HTTP2Client client)
     {
@@ -79,6 +109,39 @@ public class HttpClientTransportOverHTTP2 extends AbstractHttpClientTransport
         this.useALPN = useALPN;
     }
 
+    @ManagedAttribute(value = "Whether connections to different origins may share the same HTTP/2 session")
+    public boolean isConnectionCoalescing()
+    {
+        return connectionCoalescing;
+    }
+
+    /**
+     * @param connectionCoalescing whether connections to different origins may share the same HTTP/2 session
+     */
+    public void setConnectionCoalescing(boolean connectionCoalescing)
+    {
+        this.connectionCoalescing = connectionCoalescing;
+    }
+
+    @ManagedAttribute(value = "The number of connections that reused the session of another origin", readonly = true)
+    public long getCoalescedConnections()
+    {
+        return coalescedConnections.sum();
+    }
+
+    @ManagedAttribute(value = "The number of requests sent over connections that reused the session of another origin", readonly = true)
+    public long getCoalescedRequests()
+    {
+        return coalescedRequests.sum();
+    }
+
+    @ManagedOperation(value = "Resets the statistics", impact = "ACTION")
+    public void resetStats()
+    {
+        coalescedConnections.reset();
+        coalescedRequests.reset();
+    }
+
     @Override
     protected void doStart() throws Exception
     {
@@ -105,6 +168,7 @@ public class HttpClientTransportOverHTTP2 extends AbstractHttpClientTransport
     {
         super.doStop();
         removeBean(client);
+        coalescibles.clear();
     }
 
     @Override
@@ -129,12 +193,69 @@ public class HttpClientTransportOverHTTP2 extends AbstractHttpClientTransport
         client.setConnectBlocking(httpClient.isConnectBlocking());
         client.setBindAddress(httpClient.getBindAddress());
 
+        HttpDestination destination = (HttpDestination)context.get(HTTP_DESTINATION_CONTEXT_KEY);
+        boolean coalescible = isConnectionCoalescing() && destination.isSecure() && destination.getProxy() == null;
+        if (coalescible && coalesce(address, destination, context))
+            return;
+
         SessionListenerPromise listenerPromise = new SessionListenerPromise(context);
+        if (coalescible)
+            coalescibles.add(listenerPromise);
 
-        HttpDestination destination = (HttpDestination)context.get(HTTP_DESTINATION_CONTEXT_KEY);
         connect(address, destination.getClientConnectionFactory(), listenerPromise, listenerPromise, context);
     }
 
+    private boolean coalesce(SocketAddress address, HttpDestination destination, Map<String, Object> context)
+    {
+        for (SessionListenerPromise coalescible : coalescibles)
+        {
+            HttpConnectionOverHTTP2 connection = coalescible.coalesce(address, destination);
+            if (connection != null)
+            {
+                coalescedConnections.increment();
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Coalesced {} for {}", connection, destination);
+                @SuppressWarnings("unchecked")
+                Promise<Connection> promise = (Promise<Connection>)context.get(HTTP_CONNECTION_PROMISE_CONTEXT_KEY);
+                promise.succeeded(connection);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <p>Returns whether a connection to the given destination may reuse the given
+     * session, that was established for another origin and that is connected to an
+     * address that the destination host resolves to.</p>
+     * <p>This implementation returns whether the certificate presented by the server
+     * in the TLS handshake of the session covers the destination host.</p>
+     *
+     * @param destination the destination that needs a new connection
+     * @param session the session established for another origin
+     * @return whether the destination may reuse the session
+     */
+    protected boolean canCoalesce(HttpDestination destination, Session session)
+    {
+        EndPoint endPoint = ((HTTP2Session)session).getEndPoint();
+        if (!(endPoint instanceof SslConnection.DecryptedEndPoint))
+            return false;
+        SslConnection sslConnection = ((SslConnection.DecryptedEndPoint)endPoint).getSslConnection();
+        try
+        {
+            Certificate[] certificates = sslConnection.getSSLEngine().getSession().getPeerCertificates();
+            if (certificates.length == 0 || !(certificates[0] instanceof X509Certificate))
+                return false;
+            return new X509(null, (X509Certificate)certificates[0]).matches(destination.getHost());
+        }
+        catch (SSLPeerUnverifiedException | IllegalArgumentException x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Could not verify the certificate of {}", session, x);
+            return false;
+        }
+    }
+
     @Override
     public void connect(InetSocketAddress address, Map<String, Object> context)
     {
@@ -193,5 +314,54 @@ public class HttpClientTransportOverHTTP2 extends AbstractHttpClientTransport
         {
             HttpClientTransportOverHTTP2.this.onClose(connection, frame);
         }
+
+        @Override
+        void onCoalescedRequest()
+        {
+            coalescedRequests.increment();
+        }
+
+        @Override
+        public void failed(Throwable failure)
+        {
+            coalescibles.remove(this);
+            super.failed(failure);
+        }
+
+        @Override
+        public void onClose(Session session, GoAwayFrame frame)
+        {
+            coalescibles.remove(this);
+            super.onClose(session, frame);
+        }
+
+        @Override
+        public void onFailure(Session session, Throwable failure)
+        {
+            coalescibles.remove(this);
+            super.onFailure(session, failure);
+        }
+
+        private HttpConnectionOverHTTP2 coalesce(SocketAddress address, HttpDestination destination)
+        {
+            HttpConnectionOverHTTP2 connection = getHttpConnection();
+            // The session is not yet established.
+            if (connection == null)
+                return null;
+            HTTP2Session session = (HTTP2Session)connection.getSession();
+            if (session.isClosed())
+            {
+                coalescibles.remove(this);
+                return null;
+            }
+            if (!address.equals(session.getEndPoint().getRemoteSocketAddress()))
+                return null;
+            // The destination needs another connection, not the same session.
+            if (isConnectedTo(destination))
+                return null;
+            if (!canCoalesce(destination, session))
+                return null;
+            return coalesce(destination);
+        }
     }
 }
@@ -56,6 +56,8 @@ public class HttpConnectionOverHTTP2 extends HttpConnection implements Sweeper.S
     private final AtomicInteger sweeps = new AtomicInteger();
     private final Session session;
     private boolean recycleHttpChannels = true;
+    private HTTPSessionListenerPromise sessionListener;
+    private boolean coalesced;
 
     public HttpConnectionOverHTTP2(HttpDestination destination, Session session)
     {
@@ -68,6 +70,20 @@ public class HttpConnectionOverHTTP2 extends HttpConnection implements Sweeper.S
         return session;
     }
 
+    void setSessionListener(HTTPSessionListenerPromise sessionListener, boolean coalesced)
+    {
+        this.sessionListener = sessionListener;
+        this.coalesced = coalesced;
+    }
+
+    /**
+     * @return whether this connection reuses the session established for another origin
+     */
+    public boolean isCoalesced()
+    {
+        return coalesced;
+    }
+
     public boolean isRecycleHttpChannels()
     {
         return recycleHttpChannels;
@@ -81,7 +97,15 @@ public class HttpConnectionOverHTTP2 extends HttpConnection implements Sweeper.S
     @Override
     public int getMaxMultiplex()
     {
-        return ((HTTP2Session)session).getMaxLocalStreams();
+        int maxMultiplex = ((HTTP2Session)session).getMaxLocalStreams();
+        if (sessionListener == null || maxMultiplex < 0)
+            return maxMultiplex;
+        return sessionListener.getMaxMultiplex(this, maxMultiplex);
+    }
+
+    int getActiveChannelCount()
+    {
+        return activeChannels.size();
     }
 
     @Override
@@ -97,6 +121,9 @@ public class HttpConnectionOverHTTP2 extends HttpConnection implements Sweeper.S
         request.version(HttpVersion.HTTP_2);
         normalizeRequest(request);
 
+        if (coalesced)
+            sessionListener.onCoalescedRequest();
+
         // One connection maps to N channels, so one channel for each exchange.
         HttpChannelOverHTTP2 channel = acquireHttpChannel();
         activeChannels.add(channel);
@@ -208,7 +235,9 @@ public class HttpConnectionOverHTTP2 extends HttpConnection implements Sweeper.S
 
             abort(failure);
 
-            session.close(ErrorCode.NO_ERROR.code, failure.getMessage(), Callback.NOOP);
+            // The session may be shared with connections to other origins.
+            if (sessionListener == null || sessionListener.release(this))
+                session.close(ErrorCode.NO_ERROR.code, failure.getMessage(), Callback.NOOP);
 
             HttpChannel channel = idleChannels.poll();
             while (channel != null)
@@ -253,10 +282,11 @@ public class HttpConnectionOverHTTP2 extends HttpConnection implements Sweeper.S
     @Override
     public String toString()
     {
-        return String.format("%s@%x(closed=%b)[%s]",
+        return String.format("%s@%x(closed=%b,coalesced=%b)[%s]",
             getClass().getSimpleName(),
             hashCode(),
             isClosed(),
+            isCoalesced(),
             session);
     }
 }
@@ -0,0 +1,202 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http2.client.http;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.HttpDestination;
+import org.eclipse.jetty.client.api.ContentResponse;
+import org.eclipse.jetty.http.HttpScheme;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http2.HTTP2Cipher;
+import org.eclipse.jetty.http2.api.Session;
+import org.eclipse.jetty.http2.client.HTTP2Client;
+import org.eclipse.jetty.http2.server.HTTP2ServerConnectionFactory;
+import org.eclipse.jetty.io.ClientConnector;
+import org.eclipse.jetty.server.ConnectionFactory;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.SecureRequestCustomizer;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.SslConnectionFactory;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConnectionCoalescingTest
+{
+    private final List<HttpConnectionOverHTTP2> connections = new CopyOnWriteArrayList<>();
+    private Server server;
+    private ServerConnector connector;
+    private HttpClientTransportOverHTTP2 transport;
+    private HttpClient client;
+
+    private void start(boolean coalescing) throws Exception
+    {
+        QueuedThreadPool serverThreads = new QueuedThreadPool();
+        serverThreads.setName("server");
+        server = new Server(serverThreads);
+        HttpConfiguration httpsConfig = new HttpConfiguration();
+        httpsConfig.addCustomizer(new SecureRequestCustomizer(false));
+        ConnectionFactory h2 = new HTTP2ServerConnectionFactory(httpsConfig);
+        SslContextFactory.Server serverSslContextFactory = new SslContextFactory.Server();
+        configureSslContextFactory(serverSslContextFactory);
+        ConnectionFactory ssl = new SslConnectionFactory(serverSslContextFactory, h2.getProtocol());
+        connector = new ServerConnector(server, 1, 1, ssl, h2);
+        server.addConnector(connector);
+        server.setHandler(new AbstractHandler()
+        {
+            @Override
+            public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response)
+            {
+                baseRequest.setHandled(true);
+            }
+        });
+        server.start();
+
+        ClientConnector clientConnector = new ClientConnector();
+        QueuedThreadPool clientThreads = new QueuedThreadPool();
+        clientThreads.setName("client");
+        clientConnector.setExecutor(clientThreads);
+        SslContextFactory.Client clientSslContextFactory = new SslContextFactory.Client();
+        configureSslContextFactory(clientSslContextFactory);
+        clientSslContextFactory.setEndpointIdentificationAlgorithm(null);
+        clientConnector.setSslContextFactory(clientSslContextFactory);
+        transport = new HttpClientTransportOverHTTP2(new HTTP2Client(clientConnector))
+        {
+            @Override
+            protected HttpConnectionOverHTTP2 newHttpConnection(HttpDestination destination, Session session)
+            {
+                HttpConnectionOverHTTP2 connection = super.newHttpConnection(destination, session);
+                connections.add(connection);
+                return connection;
+            }
+        };
+        transport.setUseALPN(false);
+        transport.setConnectionCoalescing(coalescing);
+        client = new HttpClient(transport);
+        // All hosts resolve to the same address.
+        client.setSocketAddressResolver((host, port, promise) ->
+            promise.succeeded(List.of(new InetSocketAddress("127.0.0.1", port))));
+        client.start();
+    }
+
+    private void configureSslContextFactory(SslContextFactory sslContextFactory)
+    {
+        sslContextFactory.setKeyStorePath("src/test/resources/keystore.p12");
+        sslContextFactory.setKeyStorePassword("storepwd");
+        sslContextFactory.setUseCipherSuitesOrder(true);
+        sslContextFactory.setCipherComparator(HTTP2Cipher.COMPARATOR);
+    }
+
+    @AfterEach
+    public void dispose() throws Exception
+    {
+        if (client != null)
+            client.stop();
+        if (server != null)
+            server.stop();
+    }
+
+    private ContentResponse send(String host, Object tag) throws Exception
+    {
+        return client.newRequest(host, connector.getLocalPort())
+            .scheme(HttpScheme.HTTPS.asString())
+            .tag(tag)
+            .timeout(5, TimeUnit.SECONDS)
+            .send();
+    }
+
+    @Test
+    public void testOriginsCoveredByCertificateShareConnection() throws Exception
+    {
+        start(true);
+
+        // The tag makes the two requests use different destinations.
+        assertEquals(HttpStatus.OK_200, send("localhost", "a").getStatus());
+        assertEquals(HttpStatus.OK_200, send("localhost", "b").getStatus());
+        assertEquals(HttpStatus.OK_200, send("localhost", "b").getStatus());
+
+        assertEquals(2, client.getDestinations().size());
+        assertEquals(1, connector.getConnectedEndPoints().size());
+        assertEquals(2, connections.size());
+        assertFalse(connections.get(0).isCoalesced());
+        assertTrue(connections.get(1).isCoalesced());
+        assertSame(connections.get(0).getSession(), connections.get(1).getSession());
+        assertEquals(1, transport.getCoalescedConnections());
+        assertEquals(2, transport.getCoalescedRequests());
+    }
+
+    @Test
+    public void testCoalescingDisabled() throws Exception
+    {
+        start(false);
+
+        assertEquals(HttpStatus.OK_200, send("localhost", "a").getStatus());
+        assertEquals(HttpStatus.OK_200, send("localhost", "b").getStatus());
+
+        assertEquals(2, connector.getConnectedEndPoints().size());
+        assertEquals(0, transport.getCoalescedConnections());
+    }
+
+    @Test
+    public void testOriginNotCoveredByCertificateDoesNotShareConnection() throws Exception
+    {
+        start(true);
+
+        // The certificate only covers "localhost".
+        assertEquals(HttpStatus.OK_200, send("localhost", null).getStatus());
+        assertEquals(HttpStatus.OK_200, send("127.0.0.1", null).getStatus());
+
+        assertEquals(2, connector.getConnectedEndPoints().size());
+        assertEquals(0, transport.getCoalescedConnections());
+    }
+
+    @Test
+    public void testSessionClosedWhenLastConnectionClosed() throws Exception
+    {
+        start(true);
+
+        assertEquals(HttpStatus.OK_200, send("localhost", "a").getStatus());
+        assertEquals(HttpStatus.OK_200, send("localhost", "b").getStatus());
+        assertEquals(2, connections.size());
+        HttpConnectionOverHTTP2 connection = connections.get(0);
+        HttpConnectionOverHTTP2 coalesced = connections.get(1);
+
+        // Closing the connection that established the session
+        // does not close the session used by the other connection.
+        connection.close();
+        assertTrue(connection.isClosed());
+        assertFalse(coalesced.getSession().isClosed());
+        assertEquals(HttpStatus.OK_200, send("localhost", "b").getStatus());
+        assertEquals(1, connector.getConnectedEndPoints().size());
+
+        coalesced.close();
+        assertTrue(coalesced.getSession().isClosed());
+    }
+}
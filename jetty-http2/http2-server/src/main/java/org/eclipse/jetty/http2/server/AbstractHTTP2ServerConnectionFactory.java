@@ -23,6 +23,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.eclipse.jetty.http.StreamScheduler;
 import org.eclipse.jetty.http2.BufferingFlowControlStrategy;
 import org.eclipse.jetty.http2.FlowControlStrategy;
 import org.eclipse.jetty.http2.HTTP2Connection;
@@ -32,6 +33,7 @@ import org.eclipse.jetty.http2.api.server.ServerSessionListener;
 import org.eclipse.jetty.http2.frames.Frame;
 import org.eclipse.jetty.http2.frames.SettingsFrame;
 import org.eclipse.jetty.http2.generator.Generator;
+import org.eclipse.jetty.http2.parser.CostRateControl;
 import org.eclipse.jetty.http2.parser.RateControl;
 import org.eclipse.jetty.http2.parser.ServerParser;
 import org.eclipse.jetty.http2.parser.WindowRateControl;
@@ -63,6 +65,7 @@ public abstract class AbstractHTTP2ServerConnectionFactory extends AbstractConne
     private boolean connectProtocolEnabled = true;
     private RateControl.Factory rateControlFactory = new WindowRateControl.Factory(50);
     private FlowControlStrategy.Factory flowControlStrategyFactory = () -> new BufferingFlowControlStrategy(0.5F);
+    private StreamScheduler.Factory streamSchedulerFactory;
     private long streamIdleTimeout;
     private boolean useInputDirectByteBuffers;
     private boolean useOutputDirectByteBuffers;
@@ -153,6 +156,23 @@ public abstract class AbstractHTTP2ServerConnectionFactory extends AbstractConne
         this.flowControlStrategyFactory = flowControlStrategyFactory;
     }
 
+    public StreamScheduler.Factory getStreamSchedulerFactory()
+    {
+        return streamSchedulerFactory;
+    }
+
+    /**
+     * <p>Sets the factory of the {@link StreamScheduler} of each connection,
+     * for example a {@link org.eclipse.jetty.http.PriorityStreamScheduler.Factory},
+     * or null to send the frames of the streams in the order they are queued.</p>
+     *
+     * @param streamSchedulerFactory the stream scheduler factory, or null
+     */
+    public void setStreamSchedulerFactory(StreamScheduler.Factory streamSchedulerFactory)
+    {
+        this.streamSchedulerFactory = streamSchedulerFactory;
+    }
+
     @ManagedAttribute("The stream idle timeout in milliseconds")
     public long getStreamIdleTimeout()
     {
@@ -207,6 +227,9 @@ public abstract class AbstractHTTP2ServerConnectionFactory extends AbstractConne
 
     /**
      * <p>Sets the factory that creates a per-connection RateControl object.</p>
+     * <p>When the RateControl is a {@link CostRateControl}, it is also used to
+     * charge the creation of streams and to adapt the max number of concurrent
+     * streams to the load of the connection.</p>
      *
      * @param rateControlFactory the factory that creates RateControl objects
      */
@@ -275,8 +298,15 @@ public abstract class AbstractHTTP2ServerConnectionFactory extends AbstractConne
         session.setInitialSessionRecvWindow(getInitialSessionRecvWindow());
         session.setWriteThreshold(getHttpConfiguration().getOutputBufferSize());
         session.setConnectProtocolEnabled(isConnectProtocolEnabled());
+        StreamScheduler.Factory streamSchedulerFactory = getStreamSchedulerFactory();
+        if (streamSchedulerFactory != null)
+            session.setStreamScheduler(streamSchedulerFactory.newStreamScheduler());
+
+        RateControl rateControl = getRateControlFactory().newRateControl(endPoint);
+        if (rateControl instanceof CostRateControl)
+            session.setCostRateControl((CostRateControl)rateControl);
 
-        ServerParser parser = newServerParser(connector, session, getRateControlFactory().newRateControl(endPoint));
+        ServerParser parser = newServerParser(connector, session, rateControl);
         parser.setMaxFrameLength(getMaxFrameLength());
         parser.setMaxSettingsKeys(getMaxSettingsKeys());
 
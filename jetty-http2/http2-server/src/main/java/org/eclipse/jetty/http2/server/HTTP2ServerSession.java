@@ -16,6 +16,7 @@ package org.eclipse.jetty.http2.server;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jetty.http.MetaData;
 import org.eclipse.jetty.http2.CloseState;
@@ -33,6 +34,7 @@ import org.eclipse.jetty.http2.frames.ResetFrame;
 import org.eclipse.jetty.http2.frames.SettingsFrame;
 import org.eclipse.jetty.http2.frames.WindowUpdateFrame;
 import org.eclipse.jetty.http2.generator.Generator;
+import org.eclipse.jetty.http2.parser.CostRateControl;
 import org.eclipse.jetty.http2.parser.ServerParser;
 import org.eclipse.jetty.io.EndPoint;
 import org.eclipse.jetty.util.Callback;
@@ -45,6 +47,9 @@ public class HTTP2ServerSession extends HTTP2Session implements ServerParser.Lis
     private static final Logger LOG = LoggerFactory.getLogger(HTTP2ServerSession.class);
 
     private final ServerSessionListener listener;
+    private CostRateControl costRateControl;
+    private int configuredMaxRemoteStreams;
+    private long maxRemoteStreamsNanoTime;
 
     public HTTP2ServerSession(Scheduler scheduler, EndPoint endPoint, Generator generator, ServerSessionListener listener, FlowControlStrategy flowControl)
     {
@@ -52,6 +57,25 @@ public class HTTP2ServerSession extends HTTP2Session implements ServerParser.Lis
         this.listener = listener;
     }
 
+    public CostRateControl getCostRateControl()
+    {
+        return costRateControl;
+    }
+
+    /**
+     * <p>Sets the {@link CostRateControl} shared with the parser of this session.</p>
+     * <p>The creation of remote streams is charged to the given rate control,
+     * and the max number of concurrent remote streams is reduced when the rate
+     * control load is high, and restored when the load is low again, notifying
+     * the client with a SETTINGS frame.</p>
+     *
+     * @param costRateControl the rate control shared with the parser, or null
+     */
+    public void setCostRateControl(CostRateControl costRateControl)
+    {
+        this.costRateControl = costRateControl;
+    }
+
     @Override
     public void onPreface()
     {
@@ -95,6 +119,16 @@ public class HTTP2ServerSession extends HTTP2Session implements ServerParser.Lis
                 }
                 else
                 {
+                    if (costRateControl != null)
+                    {
+                        if (!costRateControl.onEvent(frame))
+                        {
+                            onConnectionFailure(ErrorCode.ENHANCE_YOUR_CALM_ERROR.code, "invalid_stream_creation_rate");
+                            return;
+                        }
+                        updateMaxRemoteStreams(costRateControl.getLoad());
+                    }
+
                     stream = createRemoteStream(streamId, (MetaData.Request)metaData);
                     if (stream != null)
                     {
@@ -145,6 +179,34 @@ public class HTTP2ServerSession extends HTTP2Session implements ServerParser.Lis
         }
     }
 
+    private void updateMaxRemoteStreams(double load)
+    {
+        int maxRemoteStreams = getMaxRemoteStreams();
+        if (maxRemoteStreams < 0)
+            return;
+        if (configuredMaxRemoteStreams == 0)
+            configuredMaxRemoteStreams = maxRemoteStreams;
+
+        int newMaxRemoteStreams = maxRemoteStreams;
+        if (load >= 0.5)
+            newMaxRemoteStreams = Math.max(1, maxRemoteStreams / 2);
+        else if (load < 0.25)
+            newMaxRemoteStreams = Math.min(configuredMaxRemoteStreams, 2 * maxRemoteStreams);
+        if (newMaxRemoteStreams == maxRemoteStreams)
+            return;
+
+        // Do not flood the client with SETTINGS frames.
+        long now = System.nanoTime();
+        if (maxRemoteStreamsNanoTime != 0 && now - maxRemoteStreamsNanoTime < TimeUnit.SECONDS.toNanos(1))
+            return;
+        maxRemoteStreamsNanoTime = now;
+
+        if (LOG.isDebugEnabled())
+            LOG.debug("Updating max remote streams {}->{} for load {} on {}", maxRemoteStreams, newMaxRemoteStreams, load, this);
+        setMaxRemoteStreams(newMaxRemoteStreams);
+        settings(new SettingsFrame(Map.of(SettingsFrame.MAX_CONCURRENT_STREAMS, newMaxRemoteStreams), false), Callback.NOOP);
+    }
+
     @Override
     public void onPushPromise(PushPromiseFrame frame)
     {
@@ -20,10 +20,12 @@ import java.util.function.Supplier;
 
 import org.eclipse.jetty.http.BadMessageException;
 import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.http.HttpVersion;
 import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http.Priority;
 import org.eclipse.jetty.http2.ErrorCode;
 import org.eclipse.jetty.http2.IStream;
 import org.eclipse.jetty.http2.api.Stream;
@@ -112,6 +114,13 @@ public class HttpTransportOverHTTP2 implements HttpTransport
         {
             if (commit.compareAndSet(false, true))
             {
+                // SPEC: RFC 9218, section 8, the server may override
+                // the request priority with the response Priority header.
+                HttpFields fields = response.getFields();
+                String priority = fields == null ? null : fields.get(HttpHeader.PRIORITY);
+                if (priority != null)
+                    stream.setPriority(Priority.from(priority, stream.getPriority()));
+
                 if (lastContent)
                 {
                     long realContentLength = BufferUtil.length(content);
@@ -30,6 +30,7 @@ import org.eclipse.jetty.quic.client.ClientQuicSession;
 import org.eclipse.jetty.quic.client.QuicClientConnectorConfigurator;
 import org.eclipse.jetty.quic.common.QuicConfiguration;
 import org.eclipse.jetty.quic.common.QuicConnection;
+import org.eclipse.jetty.quic.common.QuicSession;
 import org.eclipse.jetty.quic.common.QuicSessionContainer;
 import org.eclipse.jetty.util.Promise;
 import org.eclipse.jetty.util.component.ContainerLifeCycle;
@@ -204,7 +205,7 @@ public class HTTP3Client extends ContainerLifeCycle
         if (connection instanceof QuicConnection)
         {
             QuicConnection quicConnection = (QuicConnection)connection;
-            quicConnection.addEventListener(container);
+            getBeans(QuicSession.Listener.class).forEach(quicConnection::addEventListener);
             quicConnection.setInputBufferSize(getHTTP3Configuration().getInputBufferSize());
             quicConnection.setOutputBufferSize(getHTTP3Configuration().getOutputBufferSize());
             quicConnection.setUseInputDirectByteBuffers(getHTTP3Configuration().isUseInputDirectByteBuffers());
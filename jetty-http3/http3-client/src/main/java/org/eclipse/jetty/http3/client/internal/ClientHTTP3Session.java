@@ -13,6 +13,7 @@
 
 package org.eclipse.jetty.http3.client.internal;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -44,6 +45,7 @@ public class ClientHTTP3Session extends ClientProtocolSession
 {
     private static final Logger LOG = LoggerFactory.getLogger(ClientHTTP3Session.class);
 
+    private final HTTP3Configuration configuration;
     private final HTTP3SessionClient session;
     private final QpackEncoder encoder;
     private final QpackDecoder decoder;
@@ -53,6 +55,7 @@ public class ClientHTTP3Session extends ClientProtocolSession
     public ClientHTTP3Session(HTTP3Configuration configuration, ClientQuicSession quicSession, Session.Client.Listener listener, Promise<Session.Client> promise)
     {
         super(quicSession);
+        this.configuration = configuration;
         this.session = new HTTP3SessionClient(this, listener, promise);
         addBean(session);
         session.setStreamIdleTimeout(configuration.getStreamIdleTimeout());
@@ -64,6 +67,7 @@ public class ClientHTTP3Session extends ClientProtocolSession
         QuicStreamEndPoint encoderEndPoint = openInstructionEndPoint(encoderStreamId);
         InstructionFlusher encoderInstructionFlusher = new InstructionFlusher(quicSession, encoderEndPoint, EncoderStreamConnection.STREAM_TYPE);
         this.encoder = new QpackEncoder(new InstructionHandler(encoderInstructionFlusher), configuration.getMaxBlockedStreams());
+        encoder.setInsertThreshold(configuration.getInsertThreshold());
         addBean(encoder);
         if (LOG.isDebugEnabled())
             LOG.debug("created encoder stream #{} on {}", encoderStreamId, encoderEndPoint);
@@ -106,10 +110,18 @@ public class ClientHTTP3Session extends ClientProtocolSession
     protected void onStart()
     {
         // Queue the mandatory SETTINGS frame.
-        Map<Long, Long> settings = session.onPreface();
-        if (settings == null)
-            settings = Map.of();
-        // TODO: add default settings.
+        Map<Long, Long> settings = new HashMap<>();
+        int maxTableCapacity = configuration.getMaxTableCapacity();
+        if (maxTableCapacity > 0)
+            settings.put(SettingsFrame.MAX_TABLE_CAPACITY, (long)maxTableCapacity);
+        int maxBlockedStreams = configuration.getMaxBlockedStreams();
+        if (maxBlockedStreams > 0)
+            settings.put(SettingsFrame.MAX_BLOCKED_STREAMS, (long)maxBlockedStreams);
+        Map<Long, Long> preface = session.onPreface();
+        if (preface != null)
+            settings.putAll(preface);
+        // The decoder must accept the number of blocked streams that was advertised.
+        decoder.setMaxBlockedStreams(settings.getOrDefault(SettingsFrame.MAX_BLOCKED_STREAMS, 0L).intValue());
         SettingsFrame frame = new SettingsFrame(settings);
         if (controlFlusher.offer(frame, Callback.from(Invocable.InvocationType.NON_BLOCKING, session::onOpen, this::failControlStream)))
             controlFlusher.iterate();
@@ -162,8 +162,7 @@ public class HTTP3SessionClient extends HTTP3Session implements Session.Client
     @Override
     protected void onSettingMaxBlockedStreams(long value)
     {
-        ClientHTTP3Session session = getProtocolSession();
-        session.getQpackDecoder().setMaxBlockedStreams((int)value);
-        session.getQpackEncoder().setMaxBlockedStreams((int)value);
+        // The decoder uses the value of the local SETTINGS.
+        getProtocolSession().getQpackEncoder().setMaxBlockedStreams((int)value);
     }
 }
@@ -28,6 +28,8 @@ public class HTTP3Configuration
     private boolean useInputDirectByteBuffers = true;
     private boolean useOutputDirectByteBuffers = true;
     private int maxBlockedStreams = 0;
+    private int maxTableCapacity = 0;
+    private int insertThreshold = 2;
     private int maxRequestHeadersSize = 8192;
     private int maxResponseHeadersSize = 8192;
 
@@ -97,6 +99,28 @@ public class HTTP3Configuration
         this.maxBlockedStreams = maxBlockedStreams;
     }
 
+    @ManagedAttribute("The max capacity of the QPACK dynamic table")
+    public int getMaxTableCapacity()
+    {
+        return maxTableCapacity;
+    }
+
+    public void setMaxTableCapacity(int maxTableCapacity)
+    {
+        this.maxTableCapacity = maxTableCapacity;
+    }
+
+    @ManagedAttribute("The number of times a field must be encoded before it is inserted into the QPACK dynamic table")
+    public int getInsertThreshold()
+    {
+        return insertThreshold;
+    }
+
+    public void setInsertThreshold(int insertThreshold)
+    {
+        this.insertThreshold = insertThreshold;
+    }
+
     @ManagedAttribute("The max size of the request headers")
     public int getMaxRequestHeadersSize()
     {
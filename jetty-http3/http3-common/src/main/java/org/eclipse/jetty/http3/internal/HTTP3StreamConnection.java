@@ -49,6 +49,7 @@ public abstract class HTTP3StreamConnection extends AbstractConnection
     private boolean parserDataMode;
     private boolean dataDemand;
     private boolean dataStalled;
+    private boolean notifying;
     private DataFrame dataFrame;
     private boolean dataLast;
     private boolean noData;
@@ -213,9 +214,14 @@ public abstract class HTTP3StreamConnection extends AbstractConnection
                         buffer.retain();
                         // Store in a local variable so that the lambda captures the right buffer.
                         RetainableByteBuffer current = buffer;
-                        // Release the network buffer here (if empty), since the application may
-                        // not be reading more bytes, to avoid to keep around a consumed buffer.
-                        tryReleaseBuffer(false);
+                        // Release the network buffer here (if consumed), since the application
+                        // may not be reading more bytes, to avoid to keep around a consumed buffer.
+                        // While notifying onDataAvailable(), the application reads again or demands,
+                        // so a buffer that still has space is kept to be filled with the next bytes,
+                        // and it is released by processDataDemand() if the application stops reading.
+                        ByteBuffer byteBuffer = buffer.getBuffer();
+                        if (!notifying || byteBuffer.limit() == byteBuffer.capacity())
+                            tryReleaseBuffer(false);
                         return new Stream.Data(frame, () -> completeReadData(current));
                     }
                     else
@@ -339,6 +345,10 @@ public abstract class HTTP3StreamConnection extends AbstractConnection
                 }
                 else
                 {
+                    // The application does not read anymore, so release the
+                    // consumed network buffer that was kept by readData().
+                    // This is done before stalling, since demand() may process.
+                    tryReleaseBuffer(false);
                     dataStalled = true;
                     process = false;
                 }
@@ -347,7 +357,15 @@ public abstract class HTTP3StreamConnection extends AbstractConnection
             if (!process)
                 return;
 
-            onDataAvailable(getEndPoint().getStreamId());
+            notifying = true;
+            try
+            {
+                onDataAvailable(getEndPoint().getStreamId());
+            }
+            finally
+            {
+                notifying = false;
+            }
         }
     }
 
@@ -400,17 +418,31 @@ public abstract class HTTP3StreamConnection extends AbstractConnection
                 if (result == MessageParser.Result.FRAME || result == MessageParser.Result.MODE_SWITCH)
                     return result;
 
+                int filled;
                 if (buffer.isRetained())
                 {
-                    buffer.release();
-                    RetainableByteBuffer newBuffer = buffers.acquire(getInputBufferSize(), isUseInputDirectByteBuffers());
-                    if (LOG.isDebugEnabled())
-                        LOG.debug("reacquired {} for retained {}", newBuffer, buffer);
-                    buffer = newBuffer;
-                    byteBuffer = buffer.getBuffer();
+                    // The application holds slices of the buffer, so the bytes
+                    // already filled cannot be compacted or overwritten, but
+                    // the space after them can still be filled without copies.
+                    if (!byteBuffer.hasRemaining() && byteBuffer.limit() < byteBuffer.capacity())
+                    {
+                        filled = fillTail(byteBuffer);
+                    }
+                    else
+                    {
+                        buffer.release();
+                        RetainableByteBuffer newBuffer = buffers.acquire(getInputBufferSize(), isUseInputDirectByteBuffers());
+                        if (LOG.isDebugEnabled())
+                            LOG.debug("reacquired {} for retained {}", newBuffer, buffer);
+                        buffer = newBuffer;
+                        byteBuffer = buffer.getBuffer();
+                        filled = fill(byteBuffer);
+                    }
+                }
+                else
+                {
+                    filled = fill(byteBuffer);
                 }
-
-                int filled = fill(byteBuffer);
                 if (LOG.isDebugEnabled())
                     LOG.debug("filled {} on {} with buffer {}", filled, this, buffer);
 
@@ -446,6 +478,21 @@ public abstract class HTTP3StreamConnection extends AbstractConnection
         }
     }
 
+    private int fillTail(ByteBuffer byteBuffer)
+    {
+        // Fill the space between limit and capacity,
+        // leaving the retained bytes untouched.
+        int limit = byteBuffer.limit();
+        ByteBuffer tail = byteBuffer.duplicate();
+        tail.position(limit);
+        tail = tail.slice();
+        tail.limit(0);
+        int filled = fill(tail);
+        if (filled > 0)
+            byteBuffer.limit(limit + filled);
+        return filled;
+    }
+
     private int fill(ByteBuffer byteBuffer)
     {
         try
@@ -28,8 +28,10 @@ import org.eclipse.jetty.http3.qpack.internal.QpackContext;
 import org.eclipse.jetty.http3.qpack.internal.instruction.InsertCountIncrementInstruction;
 import org.eclipse.jetty.http3.qpack.internal.instruction.SectionAcknowledgmentInstruction;
 import org.eclipse.jetty.http3.qpack.internal.instruction.StreamCancellationInstruction;
+import org.eclipse.jetty.http3.qpack.internal.metadata.MetaDataBuilder;
 import org.eclipse.jetty.http3.qpack.internal.parser.DecoderInstructionParser;
 import org.eclipse.jetty.http3.qpack.internal.parser.EncodedFieldSection;
+import org.eclipse.jetty.http3.qpack.internal.parser.FieldSectionParser;
 import org.eclipse.jetty.http3.qpack.internal.table.DynamicTable;
 import org.eclipse.jetty.http3.qpack.internal.table.Entry;
 import org.eclipse.jetty.http3.qpack.internal.table.StaticTable;
@@ -53,10 +55,12 @@ public class QpackDecoder implements Dumpable
     private final DecoderInstructionParser _parser;
     private final List<EncodedFieldSection> _encodedFieldSections = new ArrayList<>();
     private final NBitIntegerParser _integerDecoder = new NBitIntegerParser();
+    private final FieldSectionParser _fieldSectionParser = new FieldSectionParser();
     private final InstructionHandler _instructionHandler = new InstructionHandler();
     private final Map<Long, AtomicInteger> _blockedStreams = new HashMap<>();
     private int _maxHeaderSize;
     private int _maxBlockedStreams;
+    private MetaDataBuilder _metaDataBuilder;
 
     private static class MetaDataNotification
     {
@@ -85,7 +89,7 @@ public class QpackDecoder implements Dumpable
         _context = new QpackContext();
         _handler = handler;
         _parser = new DecoderInstructionParser(_instructionHandler);
-        _maxHeaderSize = maxHeaderSize;
+        setMaxHeaderSize(maxHeaderSize);
     }
 
     QpackContext getQpackContext()
@@ -101,6 +105,8 @@ public class QpackDecoder implements Dumpable
     public void setMaxHeaderSize(int maxHeaderSize)
     {
         _maxHeaderSize = maxHeaderSize;
+        // An inserted field larger than a header block could never be referenced.
+        _parser.setMaxStringLength(maxHeaderSize);
     }
 
     public int getMaxBlockedStreams()
@@ -159,14 +165,15 @@ public class QpackDecoder implements Dumpable
 
         try
         {
-            // Parse the buffer into an Encoded Field Section.
             int base = signBit ? requiredInsertCount - deltaBase - 1 : requiredInsertCount + deltaBase;
-            EncodedFieldSection encodedFieldSection = new EncodedFieldSection(streamId, handler, requiredInsertCount, base, buffer);
 
-            // Decode it straight away if we can, otherwise add it to the list of EncodedFieldSections.
+            // Decode it straight away if we can, otherwise save an Encoded Field Section.
             if (requiredInsertCount <= insertCount)
             {
-                MetaData metaData = encodedFieldSection.decode(_context, maxHeaderSize);
+                MetaDataBuilder builder = getMetaDataBuilder();
+                builder.reset();
+                _fieldSectionParser.parse(_context, base, buffer, builder);
+                MetaData metaData = builder.build();
                 if (LOG.isDebugEnabled())
                     LOG.debug("Decoded: streamId={}, metadata={}", streamId, metaData);
                 _metaDataNotifications.add(new MetaDataNotification(streamId, metaData, handler));
@@ -175,6 +182,7 @@ public class QpackDecoder implements Dumpable
             }
             else
             {
+                EncodedFieldSection encodedFieldSection = new EncodedFieldSection(streamId, handler, requiredInsertCount, base, buffer);
                 if (LOG.isDebugEnabled())
                     LOG.debug("Deferred Decoding: streamId={}, encodedFieldSection={}", streamId, encodedFieldSection);
                 AtomicInteger blockedFields = _blockedStreams.computeIfAbsent(streamId, id -> new AtomicInteger(0));
@@ -253,7 +261,7 @@ public class QpackDecoder implements Dumpable
             {
                 iterator.remove();
                 long streamId = encodedFieldSection.getStreamId();
-                MetaData metaData = encodedFieldSection.decode(_context, _maxHeaderSize);
+                MetaData metaData = encodedFieldSection.decode(_context, _fieldSectionParser, getMetaDataBuilder());
                 if (_blockedStreams.get(streamId).decrementAndGet() <= 0)
                     _blockedStreams.remove(streamId);
                 if (LOG.isDebugEnabled())
@@ -266,6 +274,15 @@ public class QpackDecoder implements Dumpable
         }
     }
 
+    private MetaDataBuilder getMetaDataBuilder()
+    {
+        // The builder is reused across field sections, unless the max header size changed.
+        int maxHeaderSize = getMaxHeaderSize();
+        if (_metaDataBuilder == null || _metaDataBuilder.getMaxSize() != maxHeaderSize)
+            _metaDataBuilder = new MetaDataBuilder(maxHeaderSize);
+        return _metaDataBuilder;
+    }
+
     private static int decodeInsertCount(int encInsertCount, int totalNumInserts, int maxTableCapacity) throws QpackException
     {
         if (encInsertCount == 0)
@@ -39,6 +39,9 @@ import org.eclipse.jetty.http3.qpack.internal.table.DynamicTable;
 import org.eclipse.jetty.http3.qpack.internal.table.Entry;
 import org.eclipse.jetty.http3.qpack.internal.util.NBitIntegerEncoder;
 import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.StringUtil;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
 import org.eclipse.jetty.util.component.Dumpable;
 import org.eclipse.jetty.util.thread.AutoLock;
 import org.slf4j.Logger;
@@ -48,6 +51,17 @@ import static org.eclipse.jetty.http3.qpack.QpackException.H3_GENERAL_PROTOCOL_E
 import static org.eclipse.jetty.http3.qpack.QpackException.QPACK_DECODER_STREAM_ERROR;
 import static org.eclipse.jetty.http3.qpack.QpackException.QPACK_ENCODER_STREAM_ERROR;
 
+/**
+ * <p>A QPACK encoder, that encodes {@link MetaData} into field sections,
+ * possibly inserting fields into the dynamic table shared with the remote decoder.</p>
+ * <p>A field is inserted into the dynamic table only after it has been encoded
+ * {@link #getInsertThreshold() insertThreshold} times, so that fields whose
+ * values change frequently do not evict fields that are referenced often.
+ * Dynamic table entries are duplicated only when they are about to be evicted;
+ * entries that have not been acknowledged yet by the remote decoder are not
+ * duplicated, as they can be referenced as soon as they are acknowledged.</p>
+ */
+@ManagedObject
 public class QpackEncoder implements Dumpable
 {
     private static final Logger LOG = LoggerFactory.getLogger(QpackEncoder.class);
@@ -87,6 +101,8 @@ public class QpackEncoder implements Dumpable
             HttpHeader.SET_COOKIE,
             HttpHeader.SET_COOKIE2);
 
+    private static final int MAX_COUNTED_FIELDS = 1024;
+
     private final AutoLock lock = new AutoLock();
     private final List<Instruction> _instructions = new ArrayList<>();
     private final Instruction.Handler _handler;
@@ -95,8 +111,16 @@ public class QpackEncoder implements Dumpable
     private final Map<Long, StreamInfo> _streamInfoMap = new HashMap<>();
     private final EncoderInstructionParser _parser;
     private final InstructionHandler _instructionHandler = new InstructionHandler();
+    private final Map<HttpField, Integer> _fieldCounts = new HashMap<>();
     private int _knownInsertCount = 0;
     private int _blockedStreams = 0;
+    private int _insertThreshold = 1;
+    private long _encodedSections;
+    private long _fieldBytes;
+    private long _encodedBytes;
+    private long _insertions;
+    private long _duplications;
+    private long _blockedStreamsTotal;
 
     public QpackEncoder(Instruction.Handler handler, int maxBlockedStreams)
     {
@@ -111,6 +135,7 @@ public class QpackEncoder implements Dumpable
         return _streamInfoMap;
     }
 
+    @ManagedAttribute("The max number of streams that may be blocked by references to unacknowledged entries")
     public int getMaxBlockedStreams()
     {
         return _maxBlockedStreams;
@@ -121,11 +146,108 @@ public class QpackEncoder implements Dumpable
         _maxBlockedStreams = maxBlockedStreams;
     }
 
+    @ManagedAttribute("The capacity of the dynamic table")
     public int getCapacity()
     {
         return _context.getDynamicTable().getCapacity();
     }
 
+    /**
+     * @return the number of times a field must be encoded before it is inserted into the dynamic table
+     */
+    @ManagedAttribute("The number of times a field must be encoded before it is inserted into the dynamic table")
+    public int getInsertThreshold()
+    {
+        return _insertThreshold;
+    }
+
+    /**
+     * @param insertThreshold the number of times a field must be encoded before it is inserted into the dynamic table
+     */
+    public void setInsertThreshold(int insertThreshold)
+    {
+        if (insertThreshold < 1)
+            throw new IllegalArgumentException("Invalid insert threshold " + insertThreshold);
+        _insertThreshold = insertThreshold;
+    }
+
+    @ManagedAttribute("The number of field sections encoded")
+    public long getEncodedSections()
+    {
+        try (AutoLock l = lock.lock())
+        {
+            return _encodedSections;
+        }
+    }
+
+    @ManagedAttribute("The total length of the names and values of the fields encoded")
+    public long getFieldBytes()
+    {
+        try (AutoLock l = lock.lock())
+        {
+            return _fieldBytes;
+        }
+    }
+
+    @ManagedAttribute("The number of bytes of the field sections encoded")
+    public long getEncodedBytes()
+    {
+        try (AutoLock l = lock.lock())
+        {
+            return _encodedBytes;
+        }
+    }
+
+    /**
+     * @return the ratio between the encoded bytes and the field bytes, or 1 if no field has been encoded
+     */
+    @ManagedAttribute("The ratio between the encoded bytes and the field bytes")
+    public double getCompressionRatio()
+    {
+        try (AutoLock l = lock.lock())
+        {
+            if (_fieldBytes == 0)
+                return 1.0;
+            return (double)_encodedBytes / _fieldBytes;
+        }
+    }
+
+    @ManagedAttribute("The number of entries inserted into the dynamic table")
+    public long getInsertions()
+    {
+        try (AutoLock l = lock.lock())
+        {
+            return _insertions;
+        }
+    }
+
+    @ManagedAttribute("The number of entries duplicated in the dynamic table")
+    public long getDuplications()
+    {
+        try (AutoLock l = lock.lock())
+        {
+            return _duplications;
+        }
+    }
+
+    @ManagedAttribute("The number of streams currently blocked by references to unacknowledged entries")
+    public int getBlockedStreams()
+    {
+        try (AutoLock l = lock.lock())
+        {
+            return _blockedStreams;
+        }
+    }
+
+    @ManagedAttribute("The total number of streams that were blocked by references to unacknowledged entries")
+    public long getBlockedStreamsTotal()
+    {
+        try (AutoLock l = lock.lock())
+        {
+            return _blockedStreamsTotal;
+        }
+    }
+
     /**
      * Set the capacity of the DynamicTable and send a instruction to set the capacity on the remote Decoder.
      *
@@ -186,9 +308,11 @@ public class QpackEncoder implements Dumpable
 
             try
             {
+                int position = buffer.position();
                 int requiredInsertCount = 0;
                 for (HttpField field : new Http3Fields(metadata))
                 {
+                    _fieldBytes += StringUtil.getLength(field.getName()) + StringUtil.getLength(field.getValue());
                     EncodableEntry entry = encode(streamInfo, field);
                     encodableEntries.add(entry);
 
@@ -223,6 +347,9 @@ public class QpackEncoder implements Dumpable
                     entry.encode(buffer, base);
                 }
 
+                ++_encodedSections;
+                _encodedBytes += buffer.position() - position;
+
                 notifyInstructionHandler();
             }
             catch (BufferOverflowException e)
@@ -295,6 +422,7 @@ public class QpackEncoder implements Dumpable
             int index = _context.indexOf(entry);
             dynamicTable.add(new Entry(field));
             _instructions.add(new DuplicateInstruction(index));
+            ++_duplications;
             notifyInstructionHandler();
             return true;
         }
@@ -307,6 +435,7 @@ public class QpackEncoder implements Dumpable
             int index = _context.indexOf(nameEntry);
             dynamicTable.add(new Entry(field));
             _instructions.add(new IndexedNameEntryInstruction(!nameEntry.isStatic(), index, huffman, field.getValue()));
+            ++_insertions;
             notifyInstructionHandler();
             return true;
         }
@@ -314,6 +443,7 @@ public class QpackEncoder implements Dumpable
         // Add the entry without referencing an existing entry.
         dynamicTable.add(new Entry(field));
         _instructions.add(new LiteralNameEntryInstruction(field, huffman));
+        ++_insertions;
         notifyInstructionHandler();
         return true;
     }
@@ -351,22 +481,21 @@ public class QpackEncoder implements Dumpable
         if (field instanceof PreEncodedHttpField)
             return EncodableEntry.getPreEncodedEntry((PreEncodedHttpField)field);
 
-        boolean canCreateEntry = shouldIndex(field) && dynamicTable.canInsert(field);
-
         Entry entry = _context.get(field);
         if (referenceEntry(entry, streamInfo))
-        {
             return EncodableEntry.getReferencedEntry(entry);
-        }
-        else
+
+        if (entry != null)
         {
-            // Should we duplicate this entry.
-            if (entry != null && canCreateEntry)
+            // Only duplicate entries that are about to be evicted, as an entry
+            // that is not acknowledged yet will be referenceable when it is.
+            if (!dynamicTable.canReference(entry) && shouldIndex(field) && dynamicTable.canInsert(field))
             {
                 int index = _context.indexOf(entry);
                 Entry newEntry = new Entry(field);
                 dynamicTable.add(newEntry);
                 _instructions.add(new DuplicateInstruction(index));
+                ++_duplications;
 
                 // Should we reference this entry and risk blocking.
                 if (referenceEntry(newEntry, streamInfo))
@@ -374,6 +503,9 @@ public class QpackEncoder implements Dumpable
             }
         }
 
+        // Only count the fields that could be inserted, e.g. not when the table has no capacity.
+        boolean canCreateEntry = entry == null && dynamicTable.canInsert(field) && shouldInsert(field);
+
         boolean huffman = shouldHuffmanEncode(field);
         Entry nameEntry = _context.get(field.getName());
         if (referenceEntry(nameEntry, streamInfo))
@@ -385,6 +517,7 @@ public class QpackEncoder implements Dumpable
                 Entry newEntry = new Entry(field);
                 dynamicTable.add(newEntry);
                 _instructions.add(new IndexedNameEntryInstruction(!nameEntry.isStatic(), index, huffman, field.getValue()));
+                ++_insertions;
 
                 // Should we reference this entry and risk blocking.
                 if (referenceEntry(newEntry, streamInfo))
@@ -400,6 +533,7 @@ public class QpackEncoder implements Dumpable
                 Entry newEntry = new Entry(field);
                 dynamicTable.add(newEntry);
                 _instructions.add(new LiteralNameEntryInstruction(field, huffman));
+                ++_insertions;
 
                 // Should we reference this entry and risk blocking.
                 if (referenceEntry(newEntry, streamInfo))
@@ -410,6 +544,27 @@ public class QpackEncoder implements Dumpable
         }
     }
 
+    private boolean shouldInsert(HttpField field)
+    {
+        if (!shouldIndex(field))
+            return false;
+        if (_insertThreshold <= 1)
+            return true;
+
+        int count = _fieldCounts.merge(field, 1, Integer::sum);
+        if (count >= _insertThreshold)
+        {
+            _fieldCounts.remove(field);
+            return true;
+        }
+
+        // Bound the memory used to count the fields, forgetting
+        // the counts of the fields that were not seen often enough.
+        if (_fieldCounts.size() > MAX_COUNTED_FIELDS)
+            _fieldCounts.clear();
+        return false;
+    }
+
     private boolean referenceEntry(Entry entry, StreamInfo streamInfo)
     {
         if (entry == null)
@@ -442,6 +597,7 @@ public class QpackEncoder implements Dumpable
         if (_blockedStreams < getMaxBlockedStreams())
         {
             _blockedStreams++;
+            _blockedStreamsTotal++;
             sectionInfo.block();
             sectionInfo.reference(entry);
             return true;
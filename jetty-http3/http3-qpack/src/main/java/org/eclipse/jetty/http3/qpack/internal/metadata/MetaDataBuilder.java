@@ -222,18 +222,18 @@ public class MetaDataBuilder
 
     public MetaData build() throws QpackException.StreamException
     {
-        if (_streamException != null)
-        {
-            _streamException.addSuppressed(new Throwable());
-            throw _streamException;
-        }
-
-        if (_request && _response)
-            throw new QpackException.StreamException(H3_GENERAL_PROTOCOL_ERROR, "Request and Response headers");
-
         HttpFields.Mutable fields = _fields;
         try
         {
+            if (_streamException != null)
+            {
+                _streamException.addSuppressed(new Throwable());
+                throw _streamException;
+            }
+
+            if (_request && _response)
+                throw new QpackException.StreamException(H3_GENERAL_PROTOCOL_ERROR, "Request and Response headers");
+
             if (_request)
             {
                 if (_method == null)
@@ -269,17 +269,26 @@ public class MetaDataBuilder
         }
         finally
         {
-            _fields.clear();
-            _request = false;
-            _response = false;
-            _status = null;
-            _method = null;
-            _scheme = null;
-            _authority = null;
-            _path = null;
-            _protocol = null;
-            _size = 0;
-            _contentLength = Long.MIN_VALUE;
+            reset();
         }
     }
+
+    /**
+     * <p>Clears the state of this builder, so that it can be reused to build another {@link MetaData}.</p>
+     */
+    public void reset()
+    {
+        _fields.clear();
+        _request = false;
+        _response = false;
+        _status = null;
+        _method = null;
+        _scheme = null;
+        _authority = null;
+        _path = null;
+        _protocol = null;
+        _size = 0;
+        _contentLength = Long.MIN_VALUE;
+        _streamException = null;
+    }
 }
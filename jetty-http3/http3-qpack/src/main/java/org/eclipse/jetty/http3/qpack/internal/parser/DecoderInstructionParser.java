@@ -15,8 +15,8 @@ package org.eclipse.jetty.http3.qpack.internal.parser;
 
 import java.nio.ByteBuffer;
 
+import org.eclipse.jetty.http.compression.EncodingException;
 import org.eclipse.jetty.http3.qpack.QpackException;
-import org.eclipse.jetty.http3.qpack.internal.util.EncodingException;
 import org.eclipse.jetty.http3.qpack.internal.util.NBitIntegerParser;
 import org.eclipse.jetty.http3.qpack.internal.util.NBitStringParser;
 
@@ -70,6 +70,14 @@ public class DecoderInstructionParser
         _integerParser = new NBitIntegerParser();
     }
 
+    /**
+     * @param maxStringLength the max encoded length of the names and values of the instructions
+     */
+    public void setMaxStringLength(int maxStringLength)
+    {
+        _stringParser.setMaxLength(maxStringLength);
+    }
+
     public void parse(ByteBuffer buffer) throws QpackException, EncodingException
     {
         if (buffer == null || !buffer.hasRemaining())
@@ -0,0 +1,219 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http3.qpack.internal.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.compression.EncodingException;
+import org.eclipse.jetty.http.compression.HuffmanDecoder;
+import org.eclipse.jetty.http3.qpack.QpackException;
+import org.eclipse.jetty.http3.qpack.internal.QpackContext;
+import org.eclipse.jetty.http3.qpack.internal.metadata.MetaDataBuilder;
+import org.eclipse.jetty.http3.qpack.internal.util.NBitIntegerParser;
+import org.eclipse.jetty.util.BufferUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.eclipse.jetty.http3.qpack.QpackException.QPACK_DECOMPRESSION_FAILED;
+
+/**
+ * <p>Parses the field lines of an encoded field section and emits the decoded
+ * fields directly into a {@link MetaDataBuilder}.</p>
+ * <p>The field section must be complete and the dynamic table must already
+ * contain all the entries it references. Static and dynamic table fields are
+ * emitted without copying them, and the names of literal fields that are
+ * well known headers are shared rather than decoded into new strings.</p>
+ * <p>Instances are not thread-safe and are meant to be reused by a single decoder.</p>
+ */
+public class FieldSectionParser
+{
+    private static final Logger LOG = LoggerFactory.getLogger(FieldSectionParser.class);
+
+    private final NBitIntegerParser _integerParser = new NBitIntegerParser();
+    private final HuffmanDecoder _huffmanDecoder = new HuffmanDecoder();
+
+    /**
+     * <p>Parses the given buffer, which is fully consumed, emitting the decoded fields into the given builder.</p>
+     *
+     * @param context the QPACK context holding the tables
+     * @param base the base of the field section
+     * @param buffer the field lines of the field section
+     * @param builder the builder to emit the decoded fields into
+     * @throws QpackException if the field section cannot be decoded
+     */
+    public void parse(QpackContext context, int base, ByteBuffer buffer, MetaDataBuilder builder) throws QpackException
+    {
+        try
+        {
+            while (buffer.hasRemaining())
+            {
+                HttpField field;
+                byte firstByte = buffer.get(buffer.position());
+                if ((firstByte & 0x80) != 0)
+                    field = parseIndexedField(context, base, buffer);
+                else if ((firstByte & 0x40) != 0)
+                    field = parseNameReference(context, base, buffer);
+                else if ((firstByte & 0x20) != 0)
+                    field = parseLiteralField(buffer);
+                else if ((firstByte & 0x10) != 0)
+                    field = parseIndexedFieldPostBase(context, base, buffer);
+                else
+                    field = parseNameReferencePostBase(context, base, buffer);
+                builder.emit(field);
+            }
+        }
+        catch (EncodingException e)
+        {
+            throw new QpackException.SessionException(QPACK_DECOMPRESSION_FAILED, e.getMessage(), e);
+        }
+        finally
+        {
+            _integerParser.reset();
+            _huffmanDecoder.reset();
+        }
+    }
+
+    private HttpField parseIndexedField(QpackContext context, int base, ByteBuffer buffer) throws EncodingException
+    {
+        byte firstByte = buffer.get(buffer.position());
+        boolean dynamicTable = (firstByte & 0x40) == 0;
+        _integerParser.setPrefix(6);
+        int index = _integerParser.decodeInt(buffer);
+        if (index < 0)
+            throw new EncodingException("invalid_index");
+
+        if (dynamicTable)
+            return context.getDynamicTable().getAbsolute(base - (index + 1)).getHttpField();
+        return QpackContext.getStaticTable().get(index).getHttpField();
+    }
+
+    private HttpField parseIndexedFieldPostBase(QpackContext context, int base, ByteBuffer buffer) throws EncodingException
+    {
+        _integerParser.setPrefix(4);
+        int index = _integerParser.decodeInt(buffer);
+        if (index < 0)
+            throw new EncodingException("Invalid Index");
+
+        return context.getDynamicTable().getAbsolute(base + index).getHttpField();
+    }
+
+    private HttpField parseNameReference(QpackContext context, int base, ByteBuffer buffer) throws EncodingException
+    {
+        if (LOG.isDebugEnabled())
+            LOG.debug("parseLiteralFieldLineWithNameReference: " + BufferUtil.toDetailString(buffer));
+
+        byte firstByte = buffer.get(buffer.position());
+        boolean dynamicTable = (firstByte & 0x10) == 0;
+
+        _integerParser.setPrefix(4);
+        int nameIndex = _integerParser.decodeInt(buffer);
+        if (nameIndex < 0)
+            throw new EncodingException("invalid_name_index");
+
+        HttpField field;
+        if (dynamicTable)
+            field = context.getDynamicTable().getAbsolute(base - (nameIndex + 1)).getHttpField();
+        else
+            field = QpackContext.getStaticTable().get(nameIndex).getHttpField();
+
+        return new HttpField(field.getHeader(), field.getName(), parseValue(buffer));
+    }
+
+    private HttpField parseNameReferencePostBase(QpackContext context, int base, ByteBuffer buffer) throws EncodingException
+    {
+        _integerParser.setPrefix(3);
+        int nameIndex = _integerParser.decodeInt(buffer);
+        if (nameIndex < 0)
+            throw new EncodingException("invalid_index");
+
+        HttpField field = context.getDynamicTable().getAbsolute(base + nameIndex).getHttpField();
+        return new HttpField(field.getHeader(), field.getName(), parseValue(buffer));
+    }
+
+    private HttpField parseLiteralField(ByteBuffer buffer) throws EncodingException
+    {
+        byte firstByte = buffer.get(buffer.position());
+        boolean huffman = (firstByte & 0x08) != 0;
+
+        _integerParser.setPrefix(3);
+        int length = _integerParser.decodeInt(buffer);
+        if (length < 0 || length > buffer.remaining())
+            throw new EncodingException("invalid_name");
+
+        HttpHeader header = huffman ? null : lookupHeader(buffer, length);
+        if (header != null)
+        {
+            // The name is a well known header, skip its bytes and share its name.
+            buffer.position(buffer.position() + length);
+            return new HttpField(header, header.lowerCaseName(), parseValue(buffer));
+        }
+
+        String name = parseString(buffer, huffman, length);
+        if (name == null)
+            throw new EncodingException("invalid_name");
+        return new HttpField(name, parseValue(buffer));
+    }
+
+    private String parseValue(ByteBuffer buffer) throws EncodingException
+    {
+        byte firstByte = buffer.get(buffer.position());
+        boolean huffman = (firstByte & 0x80) != 0;
+
+        _integerParser.setPrefix(7);
+        int length = _integerParser.decodeInt(buffer);
+        // The field section is complete, so the value must be in the buffer.
+        if (length < 0 || length > buffer.remaining())
+            throw new EncodingException("invalid_value");
+
+        String value = parseString(buffer, huffman, length);
+        if (value == null)
+            throw new EncodingException("invalid_value");
+        return value;
+    }
+
+    private String parseString(ByteBuffer buffer, boolean huffman, int length) throws EncodingException
+    {
+        if (huffman)
+        {
+            _huffmanDecoder.setLength(length);
+            String result = _huffmanDecoder.decode(buffer);
+            _huffmanDecoder.reset();
+            return result;
+        }
+        String result = BufferUtil.toString(buffer, buffer.position(), length, StandardCharsets.US_ASCII);
+        buffer.position(buffer.position() + length);
+        return result;
+    }
+
+    private static HttpHeader lookupHeader(ByteBuffer buffer, int length)
+    {
+        HttpHeader header = HttpHeader.CACHE.getBest(buffer, 0, length);
+        if (header == null)
+            return null;
+        // The lookup is case-insensitive and matches prefixes, so verify the exact name.
+        String name = header.lowerCaseName();
+        if (name.length() != length)
+            return null;
+        int position = buffer.position();
+        for (int i = 0; i < length; ++i)
+        {
+            if (buffer.get(position + i) != name.charAt(i))
+                return null;
+        }
+        return header;
+    }
+}
@@ -15,6 +15,9 @@ package org.eclipse.jetty.http3.qpack.internal.util;
 
 import java.nio.ByteBuffer;
 
+import org.eclipse.jetty.http.compression.EncodingException;
+import org.eclipse.jetty.http.compression.HuffmanDecoder;
+
 public class NBitStringParser
 {
     private final NBitIntegerParser _integerParser;
@@ -24,6 +27,7 @@ public class NBitStringParser
     private int _count;
     private int _length;
     private int _prefix;
+    private int _maxLength = Integer.MAX_VALUE;
 
     private State _state = State.PARSING;
 
@@ -41,6 +45,15 @@ public class NBitStringParser
         _stringBuilder = new StringBuilder();
     }
 
+    /**
+     * @param maxLength the max encoded length of the strings to decode,
+     * as strings with a longer declared length are rejected before being decoded
+     */
+    public void setMaxLength(int maxLength)
+    {
+        _maxLength = maxLength;
+    }
+
     public void setPrefix(int prefix)
     {
         if (_state != State.PARSING)
@@ -65,8 +78,11 @@ public class NBitStringParser
                     _length = _integerParser.decodeInt(buffer);
                     if (_length < 0)
                         return null;
+                    if (_length > _maxLength)
+                        throw new EncodingException("invalid_length");
                     _state = State.VALUE;
-                    _huffmanBuilder.setLength(_length);
+                    if (_huffman)
+                        _huffmanBuilder.setLength(_length);
                     continue;
 
                 case VALUE:
@@ -15,6 +15,7 @@ package org.eclipse.jetty.http3.qpack;
 
 import java.nio.ByteBuffer;
 
+import org.eclipse.jetty.http.compression.EncodingException;
 import org.eclipse.jetty.http3.qpack.internal.parser.DecoderInstructionParser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,6 +23,7 @@ import org.junit.jupiter.api.Test;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class DecoderInstructionParserTest
@@ -94,4 +96,20 @@ public class DecoderInstructionParserTest
         // There are no other instructions received.
         assertTrue(_handler.isEmpty());
     }
+
+    @Test
+    public void testInsertWithHugeDeclaredLength() throws Exception
+    {
+        // Insert With Name Reference to Static Table, Index=0, with a Huffman value of 190_840_958 bytes.
+        String hex = "c0ff ffff ff5a";
+
+        // The declared length must not cause an allocation proportional to it.
+        _instructionParser.parse(QpackTestUtil.hexToBuffer(hex));
+        assertTrue(_handler.isEmpty());
+
+        DecoderInstructionParser parser = new DecoderInstructionParser(_handler);
+        parser.setMaxStringLength(1024);
+        assertThrows(EncodingException.class, () -> parser.parse(QpackTestUtil.hexToBuffer(hex)));
+        assertTrue(_handler.isEmpty());
+    }
 }
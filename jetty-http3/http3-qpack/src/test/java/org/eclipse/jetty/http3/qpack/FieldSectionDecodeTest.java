@@ -0,0 +1,106 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http3.qpack;
+
+import java.nio.ByteBuffer;
+
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.MetaData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FieldSectionDecodeTest
+{
+    private static final int MAX_HEADER_SIZE = 1024;
+
+    private QpackEncoder _encoder;
+    private QpackDecoder _decoder;
+    private TestDecoderHandler _decoderHandler;
+
+    @BeforeEach
+    public void before()
+    {
+        _encoder = new QpackEncoder(new TestEncoderHandler(), 0)
+        {
+            @Override
+            protected boolean shouldHuffmanEncode(HttpField httpField)
+            {
+                return false;
+            }
+        };
+        _decoderHandler = new TestDecoderHandler();
+        _decoder = new QpackDecoder(_decoderHandler, MAX_HEADER_SIZE);
+    }
+
+    @Test
+    public void testStaticTableFieldIsShared() throws Exception
+    {
+        HttpField accept = new HttpField(HttpHeader.ACCEPT, "*/*");
+        MetaData metaData1 = encodeAndDecode(0, QpackTestUtil.toMetaData("GET", "/one", "https", accept));
+        MetaData metaData2 = encodeAndDecode(4, QpackTestUtil.toMetaData("GET", "/two", "https", accept));
+
+        assertSame(metaData1.getFields().getField(HttpHeader.ACCEPT), metaData2.getFields().getField(HttpHeader.ACCEPT));
+    }
+
+    @Test
+    public void testLiteralNameOfKnownHeaderIsShared() throws Exception
+    {
+        HttpField field = new HttpField("content-language", "en");
+        MetaData metaData = encodeAndDecode(0, QpackTestUtil.toMetaData("GET", "/", "https", field));
+
+        HttpField decoded = metaData.getFields().getField(HttpHeader.CONTENT_LANGUAGE);
+        assertNotNull(decoded);
+        assertSame(HttpHeader.CONTENT_LANGUAGE.lowerCaseName(), decoded.getName());
+        assertThat(decoded.getValue(), is("en"));
+    }
+
+    @Test
+    public void testBuilderIsResetBetweenFieldSections() throws Exception
+    {
+        MetaData metaData1 = encodeAndDecode(0, QpackTestUtil.toMetaData("GET", "/one", "https", new HttpField("x-one", "1")));
+        MetaData metaData2 = encodeAndDecode(4, QpackTestUtil.toMetaData("GET", "/two", "https", new HttpField("x-two", "2")));
+
+        assertThat(metaData1.getFields().size(), is(1));
+        assertThat(metaData1.getFields().get("x-one"), is("1"));
+        assertThat(metaData2.getFields().size(), is(1));
+        assertThat(metaData2.getFields().get("x-two"), is("2"));
+    }
+
+    @Test
+    public void testValueLengthLargerThanFieldSection()
+    {
+        // Required Insert Count=0, Base=0, Literal With Name Reference to Static Table,
+        // Index=1 (:path), with a Huffman value of 190_840_958 bytes.
+        ByteBuffer buffer = QpackTestUtil.hexToBuffer("0000 51ff ffff ff5a");
+        assertThrows(QpackException.SessionException.class, () -> _decoder.decode(0, buffer, _decoderHandler));
+        assertNull(_decoderHandler.getMetaData());
+    }
+
+    private MetaData encodeAndDecode(long streamId, MetaData metaData) throws QpackException
+    {
+        ByteBuffer buffer = QpackTestUtil.encode(_encoder, streamId, metaData);
+        _decoder.decode(streamId, buffer, _decoderHandler);
+        MetaData result = _decoderHandler.getMetaData();
+        assertNotNull(result);
+        return result;
+    }
+}
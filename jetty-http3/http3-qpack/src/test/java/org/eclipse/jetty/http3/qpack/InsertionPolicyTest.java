@@ -0,0 +1,136 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http3.qpack;
+
+import java.nio.ByteBuffer;
+
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http3.qpack.internal.instruction.LiteralNameEntryInstruction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InsertionPolicyTest
+{
+    private static final int MAX_HEADER_SIZE = 1024;
+
+    private final TestDecoderHandler _decoderHandler = new TestDecoderHandler();
+    private final TestEncoderHandler _encoderHandler = new TestEncoderHandler();
+    private final MetaData _metaData = new MetaData(HttpVersion.HTTP_3, HttpFields.build().add(new HttpField("X-Custom", "custom-value")));
+    private QpackEncoder _encoder;
+    private QpackDecoder _decoder;
+
+    @BeforeEach
+    public void before()
+    {
+        _decoder = new QpackDecoder(_decoderHandler, MAX_HEADER_SIZE);
+    }
+
+    private void start(int maxBlockedStreams) throws Exception
+    {
+        _encoder = new QpackEncoder(_encoderHandler, maxBlockedStreams);
+        _decoder.setMaxBlockedStreams(maxBlockedStreams);
+        _encoder.setCapacity(1024);
+        _decoder.parseInstructions(_encoderHandler.getInstructionBuffer());
+    }
+
+    @Test
+    public void testFieldIsInsertedAfterThreshold() throws Exception
+    {
+        start(0);
+        _encoder.setInsertThreshold(2);
+
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_HEADER_SIZE);
+        _encoder.encode(buffer, 0, _metaData);
+        assertNull(_encoderHandler.getInstruction());
+        assertEquals(0, _encoder.getInsertions());
+
+        // The second time the field is seen, it is inserted, but
+        // it cannot be referenced until it is acknowledged.
+        int literalLength = encodeAndDecode(4);
+        assertEquals(1, _encoder.getInsertions());
+
+        // Now the field is acknowledged and can be referenced.
+        int referenceLength = encodeAndDecode(8);
+        assertThat(referenceLength, lessThan(literalLength));
+        assertEquals(1, _encoder.getInsertions());
+        assertEquals(3, _encoder.getEncodedSections());
+        assertThat(_encoder.getCompressionRatio(), lessThan(1.0));
+    }
+
+    @Test
+    public void testUnacknowledgedEntryIsNotDuplicated() throws Exception
+    {
+        start(0);
+
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_HEADER_SIZE);
+        _encoder.encode(buffer, 0, _metaData);
+        assertThat(_encoderHandler.getInstruction(), instanceOf(LiteralNameEntryInstruction.class));
+
+        // The entry is not acknowledged, but it must not be duplicated.
+        buffer.clear();
+        _encoder.encode(buffer, 4, _metaData);
+        assertNull(_encoderHandler.getInstruction());
+        assertEquals(1, _encoder.getInsertions());
+        assertEquals(0, _encoder.getDuplications());
+    }
+
+    @Test
+    public void testBlockedStreams() throws Exception
+    {
+        start(1);
+
+        // The field is inserted and referenced, blocking the stream.
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_HEADER_SIZE);
+        _encoder.encode(buffer, 0, _metaData);
+        assertEquals(1, _encoder.getBlockedStreams());
+
+        // Another stream cannot be blocked, so it uses a literal.
+        ByteBuffer buffer2 = ByteBuffer.allocate(MAX_HEADER_SIZE);
+        _encoder.encode(buffer2, 4, _metaData);
+        assertEquals(1, _encoder.getBlockedStreams());
+        assertEquals(1, _encoder.getBlockedStreamsTotal());
+
+        _decoder.parseInstructions(_encoderHandler.getInstructionBuffer());
+        buffer.flip();
+        _decoder.decode(0, buffer, _decoderHandler);
+        _encoder.parseInstructions(_decoderHandler.getInstructionBuffer());
+        assertTrue(_decoderHandler.getMetaData().getFields().isEqualTo(_metaData.getFields()));
+
+        assertEquals(0, _encoder.getBlockedStreams());
+        assertEquals(1, _encoder.getBlockedStreamsTotal());
+    }
+
+    private int encodeAndDecode(long streamId) throws Exception
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_HEADER_SIZE);
+        _encoder.encode(buffer, streamId, _metaData);
+        _decoder.parseInstructions(_encoderHandler.getInstructionBuffer());
+        buffer.flip();
+        int length = buffer.remaining();
+        _decoder.decode(streamId, buffer, _decoderHandler);
+        _encoder.parseInstructions(_decoderHandler.getInstructionBuffer());
+        assertTrue(_decoderHandler.getMetaData().getFields().isEqualTo(_metaData.getFields()));
+        return length;
+    }
+}
@@ -39,6 +39,18 @@ etc/jetty-http3.xml
 ## Specifies the stream receive window (client to server) in bytes.
 # jetty.quic.bidirectionalStreamRecvWindow=2097152
 
+## The congestion control algorithm, either RENO or CUBIC.
+# jetty.quic.congestionControl=CUBIC
+
+## Whether HyStart++ is used to exit the congestion control slow start.
+# jetty.quic.hystart=true
+
+## The max time, in milliseconds, by which the acknowledgment of received packets is delayed.
+# jetty.quic.maxAckDelay=25
+
+## Whether packets are sent no earlier than the release time computed by the pacer (Linux only).
+# jetty.quic.usePacing=false
+
 ## Specifies the stream idle timeout, in milliseconds.
 # jetty.http3.streamIdleTimeout=30000
 # end::documentation[]
@@ -46,7 +46,12 @@ public class HTTP3ServerConnector extends QuicServerConnector
 
     public HTTP3ServerConnector(Server server, Executor executor, Scheduler scheduler, ByteBufferPool bufferPool, SslContextFactory.Server sslContextFactory, ConnectionFactory... factories)
     {
-        super(server, executor, scheduler, bufferPool, sslContextFactory, factories);
+        this(server, executor, scheduler, bufferPool, 1, sslContextFactory, factories);
+    }
+
+    public HTTP3ServerConnector(Server server, Executor executor, Scheduler scheduler, ByteBufferPool bufferPool, int selectors, SslContextFactory.Server sslContextFactory, ConnectionFactory... factories)
+    {
+        super(server, executor, scheduler, bufferPool, selectors, sslContextFactory, factories);
         // Max concurrent streams that a client can open.
         getQuicConfiguration().setMaxBidirectionalRemoteStreams(128);
         // HTTP/3 requires a few mandatory unidirectional streams.
@@ -110,9 +110,8 @@ public class HTTP3SessionServer extends HTTP3Session implements Session.Server
     @Override
     protected void onSettingMaxBlockedStreams(long value)
     {
-        ServerHTTP3Session session = getProtocolSession();
-        session.getQpackDecoder().setMaxBlockedStreams((int)value);
-        session.getQpackEncoder().setMaxBlockedStreams((int)value);
+        // The decoder uses the value of the local SETTINGS.
+        getProtocolSession().getQpackEncoder().setMaxBlockedStreams((int)value);
     }
 
     private void notifyAccept()
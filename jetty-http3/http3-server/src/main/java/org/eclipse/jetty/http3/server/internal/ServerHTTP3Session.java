@@ -13,6 +13,7 @@
 
 package org.eclipse.jetty.http3.server.internal;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -43,6 +44,7 @@ public class ServerHTTP3Session extends ServerProtocolSession
 {
     private static final Logger LOG = LoggerFactory.getLogger(ServerHTTP3Session.class);
 
+    private final HTTP3Configuration configuration;
     private final HTTP3SessionServer session;
     private final QpackEncoder encoder;
     private final QpackDecoder decoder;
@@ -52,6 +54,7 @@ public class ServerHTTP3Session extends ServerProtocolSession
     public ServerHTTP3Session(HTTP3Configuration configuration, ServerQuicSession quicSession, Session.Server.Listener listener)
     {
         super(quicSession);
+        this.configuration = configuration;
         this.session = new HTTP3SessionServer(this, listener);
         addBean(session);
         session.setStreamIdleTimeout(configuration.getStreamIdleTimeout());
@@ -63,6 +66,7 @@ public class ServerHTTP3Session extends ServerProtocolSession
         QuicStreamEndPoint encoderEndPoint = openInstructionEndPoint(encoderStreamId);
         InstructionFlusher encoderInstructionFlusher = new InstructionFlusher(quicSession, encoderEndPoint, EncoderStreamConnection.STREAM_TYPE);
         this.encoder = new QpackEncoder(new InstructionHandler(encoderInstructionFlusher), configuration.getMaxBlockedStreams());
+        encoder.setInsertThreshold(configuration.getInsertThreshold());
         addBean(encoder);
         if (LOG.isDebugEnabled())
             LOG.debug("created encoder stream #{} on {}", encoderStreamId, encoderEndPoint);
@@ -105,10 +109,18 @@ public class ServerHTTP3Session extends ServerProtocolSession
     protected void onStart()
     {
         // Queue the mandatory SETTINGS frame.
-        Map<Long, Long> settings = session.onPreface();
-        if (settings == null)
-            settings = Map.of();
-        // TODO: add default settings.
+        Map<Long, Long> settings = new HashMap<>();
+        int maxTableCapacity = configuration.getMaxTableCapacity();
+        if (maxTableCapacity > 0)
+            settings.put(SettingsFrame.MAX_TABLE_CAPACITY, (long)maxTableCapacity);
+        int maxBlockedStreams = configuration.getMaxBlockedStreams();
+        if (maxBlockedStreams > 0)
+            settings.put(SettingsFrame.MAX_BLOCKED_STREAMS, (long)maxBlockedStreams);
+        Map<Long, Long> preface = session.onPreface();
+        if (preface != null)
+            settings.putAll(preface);
+        // The decoder must accept the number of blocked streams that was advertised.
+        decoder.setMaxBlockedStreams(settings.getOrDefault(SettingsFrame.MAX_BLOCKED_STREAMS, 0L).intValue());
         SettingsFrame frame = new SettingsFrame(settings);
         if (controlFlusher.offer(frame, Callback.from(Invocable.InvocationType.NON_BLOCKING, session::onOpen, this::failControlStream)))
             controlFlusher.iterate();
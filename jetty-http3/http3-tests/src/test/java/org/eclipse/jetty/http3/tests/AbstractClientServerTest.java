@@ -51,6 +51,7 @@ public class AbstractClientServerTest
     protected HTTP3ServerConnector connector;
     protected HTTP3Client http3Client;
     protected HttpClient httpClient;
+    protected int serverSelectors = 1;
 
     protected void start(Handler handler) throws Exception
     {
@@ -72,7 +73,7 @@ public class AbstractClientServerTest
         server.start();
     }
 
-    private void prepareServer(ConnectionFactory serverConnectionFactory)
+    protected void prepareServer(ConnectionFactory serverConnectionFactory)
     {
         SslContextFactory.Server sslContextFactory = new SslContextFactory.Server();
         sslContextFactory.setKeyStorePath("src/test/resources/keystore.p12");
@@ -80,7 +81,7 @@ public class AbstractClientServerTest
         QueuedThreadPool serverThreads = new QueuedThreadPool();
         serverThreads.setName("server");
         server = new Server(serverThreads);
-        connector = new HTTP3ServerConnector(server, sslContextFactory, serverConnectionFactory);
+        connector = new HTTP3ServerConnector(server, null, null, null, serverSelectors, sslContextFactory, serverConnectionFactory);
         server.addConnector(connector);
         MBeanContainer mbeanContainer = new MBeanContainer(ManagementFactory.getPlatformMBeanServer());
         server.addBean(mbeanContainer);
@@ -34,14 +34,25 @@ import org.eclipse.jetty.http3.frames.HeadersFrame;
 import org.eclipse.jetty.http3.frames.SettingsFrame;
 import org.eclipse.jetty.http3.internal.HTTP3ErrorCode;
 import org.eclipse.jetty.http3.internal.HTTP3Session;
+import org.eclipse.jetty.http3.qpack.QpackEncoder;
 import org.eclipse.jetty.http3.server.AbstractHTTP3ServerConnectionFactory;
+import org.eclipse.jetty.http3.server.RawHTTP3ServerConnectionFactory;
 import org.eclipse.jetty.http3.server.internal.HTTP3SessionServer;
 import org.eclipse.jetty.quic.client.ClientQuicSession;
+import org.eclipse.jetty.quic.common.QuicConfiguration;
 import org.eclipse.jetty.quic.common.QuicSession;
+import org.eclipse.jetty.quic.common.QuicSessionStatistics;
+import org.eclipse.jetty.quic.quiche.QuicheConfig;
+import org.eclipse.jetty.quic.quiche.QuicheConnection;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -146,6 +157,52 @@ public class ClientServerTest extends AbstractClientServerTest
         assertEquals(maxHeaderSize.getValue(), clientSession.getProtocolSession().getQpackDecoder().getMaxHeaderSize());
     }
 
+    @Test
+    public void testResponseHeadersUseDynamicTable() throws Exception
+    {
+        AtomicReference<HTTP3SessionServer> serverSessionRef = new AtomicReference<>();
+        start(new Session.Server.Listener()
+        {
+            @Override
+            public Stream.Server.Listener onRequest(Stream.Server stream, HeadersFrame frame)
+            {
+                serverSessionRef.set((HTTP3SessionServer)stream.getSession());
+                HttpFields fields = HttpFields.build().put("x-custom", "custom-value");
+                stream.respond(new HeadersFrame(new MetaData.Response(HttpVersion.HTTP_3, HttpStatus.OK_200, fields), true));
+                return null;
+            }
+        });
+        AbstractHTTP3ServerConnectionFactory h3 = connector.getConnectionFactory(AbstractHTTP3ServerConnectionFactory.class);
+        assertNotNull(h3);
+        h3.getHTTP3Configuration().setMaxTableCapacity(4096);
+        http3Client.getHTTP3Configuration().setMaxTableCapacity(4096);
+
+        Session.Client clientSession = newSession(new Session.Client.Listener() {});
+
+        for (int i = 0; i < 4; ++i)
+        {
+            CountDownLatch responseLatch = new CountDownLatch(1);
+            clientSession.newRequest(new HeadersFrame(newRequest("/" + i), true), new Stream.Client.Listener()
+            {
+                @Override
+                public void onResponse(Stream.Client stream, HeadersFrame frame)
+                {
+                    MetaData.Response response = (MetaData.Response)frame.getMetaData();
+                    assertEquals("custom-value", response.getFields().get("x-custom"));
+                    responseLatch.countDown();
+                }
+            });
+            assertTrue(responseLatch.await(5, TimeUnit.SECONDS));
+        }
+
+        QpackEncoder encoder = serverSessionRef.get().getProtocolSession().getQpackEncoder();
+        assertEquals(4096, encoder.getCapacity());
+        // The field is inserted the second time it is encoded.
+        assertEquals(1, encoder.getInsertions());
+        assertEquals(4, encoder.getEncodedSections());
+        assertTrue(encoder.getEncodedBytes() < encoder.getFieldBytes());
+    }
+
     @Test
     public void testGETThenResponseWithoutContent() throws Exception
     {
@@ -196,6 +253,123 @@ public class ClientServerTest extends AbstractClientServerTest
             .noneMatch(endPoint -> endPoint.getStreamId() == stream.getId()));
     }
 
+    @Test
+    public void testQuicSessionStatistics() throws Exception
+    {
+        prepareServer(new RawHTTP3ServerConnectionFactory(new Session.Server.Listener()
+        {
+            @Override
+            public Stream.Server.Listener onRequest(Stream.Server stream, HeadersFrame frame)
+            {
+                stream.respond(new HeadersFrame(new MetaData.Response(HttpVersion.HTTP_3, HttpStatus.OK_200, HttpFields.EMPTY), true));
+                return null;
+            }
+        }));
+        QuicSessionStatistics serverStats = new QuicSessionStatistics();
+        connector.addBean(serverStats);
+        server.start();
+        startClient();
+        // The client is already started, so the statistics must be started explicitly.
+        QuicSessionStatistics clientStats = new QuicSessionStatistics();
+        clientStats.start();
+        http3Client.addBean(clientStats);
+
+        HTTP3SessionClient clientSession = (HTTP3SessionClient)newSession(new Session.Client.Listener() {});
+        await().atMost(5, TimeUnit.SECONDS).until(clientStats::getSessions, is(1L));
+        await().atMost(5, TimeUnit.SECONDS).until(serverStats::getSessions, is(1L));
+
+        CountDownLatch clientResponseLatch = new CountDownLatch(1);
+        clientSession.newRequest(new HeadersFrame(newRequest("/"), true), new Stream.Client.Listener()
+            {
+                @Override
+                public void onResponse(Stream.Client stream, HeadersFrame frame)
+                {
+                    clientResponseLatch.countDown();
+                }
+            })
+            .get(5, TimeUnit.SECONDS);
+        assertTrue(clientResponseLatch.await(5, TimeUnit.SECONDS));
+
+        QuicheConnection.Stats stats = clientSession.getProtocolSession().getQuicSession().getStats();
+        assertNotNull(stats);
+        assertThat(stats.sent(), greaterThan(0L));
+        assertThat(stats.recv(), greaterThan(0L));
+        assertThat(stats.sentBytes(), greaterThan(0L));
+        assertThat(stats.cwnd(), greaterThan(0L));
+
+        clientSession.goAway(false);
+
+        await().atMost(5, TimeUnit.SECONDS).until(clientStats::getSessions, is(0L));
+        await().atMost(5, TimeUnit.SECONDS).until(serverStats::getSessions, is(0L));
+        assertEquals(1, clientStats.getSessionsTotal());
+        assertEquals(1, serverStats.getSessionsTotal());
+        assertThat(clientStats.getSentPackets(), greaterThanOrEqualTo(stats.sent()));
+        assertThat(clientStats.getSentBytes(), greaterThanOrEqualTo(stats.sentBytes()));
+        assertThat(serverStats.getReceivedPackets(), greaterThan(0L));
+        assertThat(serverStats.getRttMax(), greaterThan(0L));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"RENO", "CUBIC"})
+    public void testCongestionControlWithPacing(String congestionControl) throws Exception
+    {
+        byte[] content = new byte[512 * 1024];
+        new Random().nextBytes(content);
+        prepareServer(new RawHTTP3ServerConnectionFactory(new Session.Server.Listener()
+        {
+            @Override
+            public Stream.Server.Listener onRequest(Stream.Server stream, HeadersFrame frame)
+            {
+                stream.respond(new HeadersFrame(new MetaData.Response(HttpVersion.HTTP_3, HttpStatus.OK_200, HttpFields.EMPTY), false))
+                    .thenAccept(s -> s.data(new DataFrame(ByteBuffer.wrap(content), true)));
+                return null;
+            }
+        }));
+        QuicConfiguration serverQuicConfig = connector.getQuicConfiguration();
+        serverQuicConfig.setCongestionControl(QuicheConfig.CongestionControl.valueOf(congestionControl));
+        serverQuicConfig.setMaxAckDelay(10);
+        serverQuicConfig.setUsePacing(true);
+        server.start();
+        startClient();
+        QuicConfiguration clientQuicConfig = http3Client.getQuicConfiguration();
+        clientQuicConfig.setCongestionControl(QuicheConfig.CongestionControl.valueOf(congestionControl));
+        clientQuicConfig.setHystart(false);
+        clientQuicConfig.setUsePacing(true);
+
+        Session.Client clientSession = newSession(new Session.Client.Listener() {});
+
+        ByteBuffer received = ByteBuffer.allocate(content.length);
+        CountDownLatch clientDataLatch = new CountDownLatch(1);
+        clientSession.newRequest(new HeadersFrame(newRequest("/"), true), new Stream.Client.Listener()
+        {
+            @Override
+            public void onResponse(Stream.Client stream, HeadersFrame frame)
+            {
+                stream.demand();
+            }
+
+            @Override
+            public void onDataAvailable(Stream.Client stream)
+            {
+                Stream.Data data = stream.readData();
+                if (data != null)
+                {
+                    received.put(data.getByteBuffer());
+                    data.complete();
+                    if (data.isLast())
+                    {
+                        clientDataLatch.countDown();
+                        return;
+                    }
+                }
+                stream.demand();
+            }
+        });
+
+        assertTrue(clientDataLatch.await(15, TimeUnit.SECONDS));
+        assertArrayEquals(content, received.array());
+    }
+
     @Test
     public void testDiscardRequestContent() throws Exception
     {
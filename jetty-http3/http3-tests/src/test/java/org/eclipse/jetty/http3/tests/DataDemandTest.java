@@ -390,6 +390,108 @@ public class DataDemandTest extends AbstractClientServerTest
         assertArrayEquals(bytesSent, bytesReceived);
     }
 
+    @Test
+    public void testRetainManySmallDataFrames() throws Exception
+    {
+        CountDownLatch serverDataLatch = new CountDownLatch(1);
+        List<Stream.Data> datas = new ArrayList<>();
+        start(new Session.Server.Listener()
+        {
+            @Override
+            public Stream.Server.Listener onRequest(Stream.Server stream, HeadersFrame frame)
+            {
+                stream.demand();
+                return new Stream.Server.Listener()
+                {
+                    @Override
+                    public void onDataAvailable(Stream.Server stream)
+                    {
+                        while (true)
+                        {
+                            Stream.Data data = stream.readData();
+                            if (data == null)
+                            {
+                                stream.demand();
+                                return;
+                            }
+                            // Store the Data away, so that the network
+                            // buffer is retained while it is filled again.
+                            datas.add(data);
+                            if (data.isLast())
+                                serverDataLatch.countDown();
+                        }
+                    }
+                };
+            }
+        });
+
+        Session.Client session = newSession(new Session.Client.Listener() {});
+
+        HeadersFrame request = new HeadersFrame(newRequest("/"), false);
+        Stream stream = session.newRequest(request, new Stream.Client.Listener() {}).get(5, TimeUnit.SECONDS);
+
+        int frames = 64;
+        byte[] bytesSent = new byte[frames * 100];
+        new Random().nextBytes(bytesSent);
+        for (int i = 0; i < frames; ++i)
+        {
+            ByteBuffer chunk = ByteBuffer.wrap(bytesSent, i * 100, 100);
+            stream.data(new DataFrame(chunk, i == frames - 1)).get(5, TimeUnit.SECONDS);
+        }
+
+        assertTrue(serverDataLatch.await(5, TimeUnit.SECONDS));
+
+        byte[] bytesReceived = new byte[bytesSent.length];
+        ByteBuffer buffer = ByteBuffer.wrap(bytesReceived);
+        datas.forEach(d -> buffer.put(d.getByteBuffer()));
+        assertArrayEquals(bytesSent, bytesReceived);
+        datas.forEach(Stream.Data::complete);
+    }
+
+    @Test
+    public void testReadDataWithoutDemandReleasesNetworkBuffer() throws Exception
+    {
+        AtomicReference<HTTP3StreamConnection> serverConnectionRef = new AtomicReference<>();
+        AtomicReference<Stream.Data> serverDataRef = new AtomicReference<>();
+        CountDownLatch serverDataLatch = new CountDownLatch(1);
+        start(new Session.Server.Listener()
+        {
+            @Override
+            public Stream.Server.Listener onRequest(Stream.Server stream, HeadersFrame frame)
+            {
+                serverConnectionRef.set((HTTP3StreamConnection)((HTTP3Stream)stream).getEndPoint().getConnection());
+                stream.demand();
+                return new Stream.Server.Listener()
+                {
+                    @Override
+                    public void onDataAvailable(Stream.Server stream)
+                    {
+                        // Read only once, retain the data and do not demand.
+                        Stream.Data data = stream.readData();
+                        if (data == null)
+                        {
+                            stream.demand();
+                            return;
+                        }
+                        serverDataRef.set(data);
+                        serverDataLatch.countDown();
+                    }
+                };
+            }
+        });
+
+        Session.Client session = newSession(new Session.Client.Listener() {});
+
+        HeadersFrame request = new HeadersFrame(newRequest("/"), false);
+        Stream stream = session.newRequest(request, new Stream.Client.Listener() {}).get(5, TimeUnit.SECONDS);
+        stream.data(new DataFrame(ByteBuffer.allocate(16), false));
+
+        assertTrue(serverDataLatch.await(5, TimeUnit.SECONDS));
+        // The consumed network buffer is released, even if the data is retained.
+        await().atMost(5, TimeUnit.SECONDS).until(() -> !serverConnectionRef.get().hasBuffer());
+        serverDataRef.get().complete();
+    }
+
     @Test
     public void testDisableDemandOnRequest() throws Exception
     {
@@ -0,0 +1,94 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http3.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http3.api.Session;
+import org.eclipse.jetty.http3.api.Stream;
+import org.eclipse.jetty.http3.client.HTTP3Client;
+import org.eclipse.jetty.http3.frames.HeadersFrame;
+import org.eclipse.jetty.http3.internal.HTTP3Session;
+import org.eclipse.jetty.quic.common.QuicConnection;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ServerSelectorsTest extends AbstractClientServerTest
+{
+    @Test
+    public void testSessionsAreDistributedAmongDatagramChannels() throws Exception
+    {
+        serverSelectors = 4;
+        int sessions = 16;
+        Set<QuicConnection> serverConnections = ConcurrentHashMap.newKeySet();
+        CountDownLatch serverRequestLatch = new CountDownLatch(sessions);
+        startServer(new Session.Server.Listener()
+        {
+            @Override
+            public Stream.Server.Listener onRequest(Stream.Server stream, HeadersFrame frame)
+            {
+                HTTP3Session session = (HTTP3Session)stream.getSession();
+                serverConnections.add(session.getProtocolSession().getQuicSession().getQuicConnection());
+                serverRequestLatch.countDown();
+                stream.respond(new HeadersFrame(new MetaData.Response(HttpVersion.HTTP_3, HttpStatus.OK_200, HttpFields.EMPTY), true));
+                return null;
+            }
+        });
+
+        // Each HTTP3Client has its own DatagramChannel, and
+        // therefore its own remote address as seen by the server.
+        List<HTTP3Client> clients = new ArrayList<>();
+        try
+        {
+            CountDownLatch clientResponseLatch = new CountDownLatch(sessions);
+            for (int i = 0; i < sessions; ++i)
+            {
+                http3Client = new HTTP3Client();
+                http3Client.getQuicConfiguration().setVerifyPeerCertificates(false);
+                http3Client.start();
+                clients.add(http3Client);
+                Session.Client session = newSession(new Session.Client.Listener() {});
+                session.newRequest(new HeadersFrame(newRequest("/"), true), new Stream.Client.Listener()
+                {
+                    @Override
+                    public void onResponse(Stream.Client stream, HeadersFrame frame)
+                    {
+                        clientResponseLatch.countDown();
+                    }
+                }).get(5, TimeUnit.SECONDS);
+            }
+
+            assertTrue(serverRequestLatch.await(5, TimeUnit.SECONDS));
+            assertTrue(clientResponseLatch.await(5, TimeUnit.SECONDS));
+            assertThat(serverConnections.size(), greaterThan(1));
+        }
+        finally
+        {
+            clients.forEach(client -> LifeCycle.stop(client));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http3.tests;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.eclipse.jetty.http3.server.HTTP3ServerConnector;
+import org.eclipse.jetty.quic.common.QuicConfiguration;
+import org.eclipse.jetty.quic.quiche.QuicheConfig;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.toolchain.test.MavenTestingUtils;
+import org.eclipse.jetty.util.resource.Resource;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.xml.XmlConfiguration;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class XmlConfigurationTest
+{
+    @Test
+    public void testQuicPropertiesAreApplied() throws Exception
+    {
+        QuicConfiguration quicConfiguration = configure(Map.of(
+            "jetty.quic.congestionControl", "RENO",
+            "jetty.quic.hystart", "false",
+            "jetty.quic.maxAckDelay", "10"
+        ));
+
+        assertEquals(QuicheConfig.CongestionControl.RENO, quicConfiguration.getCongestionControl());
+        assertFalse(quicConfiguration.isHystart());
+        assertEquals(10, quicConfiguration.getMaxAckDelay());
+    }
+
+    @Test
+    public void testQuicPropertiesDefaults() throws Exception
+    {
+        QuicConfiguration quicConfiguration = configure(Map.of());
+
+        assertEquals(QuicheConfig.CongestionControl.CUBIC, quicConfiguration.getCongestionControl());
+        assertTrue(quicConfiguration.isHystart());
+    }
+
+    private QuicConfiguration configure(Map<String, String> properties) throws Exception
+    {
+        Path xml = MavenTestingUtils.getBasePath().resolve("../http3-server/src/main/config/etc/jetty-http3.xml");
+        XmlConfiguration configuration = new XmlConfiguration(Resource.newResource(xml));
+        Server server = new Server();
+        configuration.getIdMap().put("Server", server);
+        configuration.getIdMap().put("sslContextFactory", new SslContextFactory.Server());
+        configuration.getIdMap().put("sslHttpConfig", new HttpConfiguration());
+        configuration.getProperties().putAll(properties);
+        configuration.configure(server);
+
+        assertThat(server.getConnectors()[0], instanceOf(HTTP3ServerConnector.class));
+        return ((HTTP3ServerConnector)server.getConnectors()[0]).getQuicConfiguration();
+    }
+}
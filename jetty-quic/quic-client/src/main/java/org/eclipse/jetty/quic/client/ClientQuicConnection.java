@@ -89,7 +89,10 @@ public class ClientQuicConnection extends QuicConnection
             quicheConfig.setInitialMaxStreamDataUni((long)quicConfiguration.getUnidirectionalStreamRecvWindow());
             quicheConfig.setInitialMaxStreamsUni((long)quicConfiguration.getMaxUnidirectionalRemoteStreams());
             quicheConfig.setInitialMaxStreamsBidi((long)quicConfiguration.getMaxBidirectionalRemoteStreams());
-            quicheConfig.setCongestionControl(QuicheConfig.CongestionControl.CUBIC);
+            quicheConfig.setCongestionControl(quicConfiguration.getCongestionControl());
+            quicheConfig.setEnableHystart(quicConfiguration.isHystart());
+            quicheConfig.setMaxAckDelay(quicConfiguration.getMaxAckDelay());
+            setUsePacing(quicConfiguration.isUsePacing());
 
             InetSocketAddress remoteAddress = (InetSocketAddress)context.get(ClientConnector.REMOTE_SOCKET_ADDRESS_CONTEXT_KEY);
 
@@ -15,6 +15,8 @@ package org.eclipse.jetty.quic.common;
 
 import java.util.List;
 
+import org.eclipse.jetty.quic.quiche.QuicheConfig;
+
 /**
  * <p>A record that captures QUIC configuration parameters.</p>
  */
@@ -30,6 +32,10 @@ public class QuicConfiguration
     private int sessionRecvWindow;
     private int bidirectionalStreamRecvWindow;
     private int unidirectionalStreamRecvWindow;
+    private QuicheConfig.CongestionControl congestionControl = QuicheConfig.CongestionControl.CUBIC;
+    private boolean hystart = true;
+    private long maxAckDelay = 25;
+    private boolean usePacing;
 
     public List<String> getProtocols()
     {
@@ -110,4 +116,75 @@ public class QuicConfiguration
     {
         this.unidirectionalStreamRecvWindow = unidirectionalStreamRecvWindow;
     }
+
+    /**
+     * @return the congestion control algorithm
+     */
+    public QuicheConfig.CongestionControl getCongestionControl()
+    {
+        return congestionControl;
+    }
+
+    /**
+     * @param congestionControl the congestion control algorithm
+     */
+    public void setCongestionControl(QuicheConfig.CongestionControl congestionControl)
+    {
+        this.congestionControl = congestionControl;
+    }
+
+    /**
+     * @return whether HyStart++ is used to exit the congestion control slow start
+     */
+    public boolean isHystart()
+    {
+        return hystart;
+    }
+
+    /**
+     * @param hystart whether HyStart++ is used to exit the congestion control slow start
+     */
+    public void setHystart(boolean hystart)
+    {
+        this.hystart = hystart;
+    }
+
+    /**
+     * @return the max time, in milliseconds, by which the acknowledgment of received packets is delayed
+     */
+    public long getMaxAckDelay()
+    {
+        return maxAckDelay;
+    }
+
+    /**
+     * @param maxAckDelay the max time, in milliseconds, by which the acknowledgment of received packets is delayed
+     */
+    public void setMaxAckDelay(long maxAckDelay)
+    {
+        this.maxAckDelay = maxAckDelay;
+    }
+
+    /**
+     * @return whether packets are sent no earlier than the release time computed by the pacer
+     */
+    public boolean isUsePacing()
+    {
+        return usePacing;
+    }
+
+    /**
+     * <p>Sets whether packets are sent no earlier than the release time computed
+     * by the pacer, rather than as soon as they are produced.</p>
+     * <p>Pacing spreads the packets of a congestion window over the round-trip time,
+     * reducing bursts that may cause packet loss in network buffers.</p>
+     * <p>Pacing is only supported on Linux, where the release times computed by the pacer
+     * use the same clock as {@link System#nanoTime()}, and it is ignored on other platforms.</p>
+     *
+     * @param usePacing whether packets are sent no earlier than the release time computed by the pacer
+     */
+    public void setUsePacing(boolean usePacing)
+    {
+        this.usePacing = usePacing;
+    }
 }
@@ -20,7 +20,10 @@ import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.EventListener;
 import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
@@ -37,7 +40,6 @@ import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.IteratingCallback;
 import org.eclipse.jetty.util.component.LifeCycle;
-import org.eclipse.jetty.util.thread.AutoLock;
 import org.eclipse.jetty.util.thread.ExecutionStrategy;
 import org.eclipse.jetty.util.thread.Scheduler;
 import org.eclipse.jetty.util.thread.strategy.AdaptiveExecutionStrategy;
@@ -50,10 +52,17 @@ import org.slf4j.LoggerFactory;
  * {@link QuicSession}, and the received bytes are then passed to the {@link QuicSession} for processing.</p>
  * <p>On the receive side, one QuicConnection <em>fans-out</em> to multiple {@link QuicSession}s.</p>
  * <p>On the send side, many {@link QuicSession}s <em>fan-in</em> to one QuicConnection.</p>
+ * <p>Received datagrams are processed in batches: up to {@link #getReceiveBatchSize()} datagrams
+ * are received and fed to their {@link QuicSession}s before the sessions tasks are produced,
+ * so that many datagrams for the same {@link QuicSession} result in just one task.
+ * Outgoing datagrams are queued without locking, and all the queued datagrams are sent in one
+ * pass, until the network would block.</p>
  */
 public abstract class QuicConnection extends AbstractConnection
 {
     private static final Logger LOG = LoggerFactory.getLogger(QuicConnection.class);
+    // The release time computed by quiche is on the same clock as System.nanoTime() only on Linux.
+    private static final boolean PACING_SUPPORTED = System.getProperty("os.name", "").toLowerCase(Locale.ENGLISH).contains("linux");
 
     private final List<QuicSession.Listener> listeners = new CopyOnWriteArrayList<>();
     private final ConcurrentMap<QuicheConnectionId, QuicSession> sessions = new ConcurrentHashMap<>();
@@ -63,9 +72,13 @@ public abstract class QuicConnection extends AbstractConnection
     private final AdaptiveExecutionStrategy strategy;
     private final Flusher flusher = new Flusher();
     private final Callback fillableCallback = new FillableCallback();
+    // Only accessed by the producing thread, so it needs no locking.
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
     private int outputBufferSize = 2048;
+    private int receiveBatchSize = 64;
     private boolean useInputDirectByteBuffers = true;
     private boolean useOutputDirectByteBuffers = true;
+    private boolean usePacing;
 
     protected QuicConnection(Executor executor, Scheduler scheduler, ByteBufferPool byteBufferPool, EndPoint endPoint)
     {
@@ -103,6 +116,24 @@ public abstract class QuicConnection extends AbstractConnection
         this.outputBufferSize = outputBufferSize;
     }
 
+    /**
+     * @return the max number of datagrams received before producing the sessions tasks
+     */
+    public int getReceiveBatchSize()
+    {
+        return receiveBatchSize;
+    }
+
+    /**
+     * @param receiveBatchSize the max number of datagrams received before producing the sessions tasks
+     */
+    public void setReceiveBatchSize(int receiveBatchSize)
+    {
+        if (receiveBatchSize < 1)
+            throw new IllegalArgumentException("Invalid receive batch size " + receiveBatchSize);
+        this.receiveBatchSize = receiveBatchSize;
+    }
+
     public boolean isUseInputDirectByteBuffers()
     {
         return useInputDirectByteBuffers;
@@ -123,6 +154,31 @@ public abstract class QuicConnection extends AbstractConnection
         this.useOutputDirectByteBuffers = useOutputDirectByteBuffers;
     }
 
+    /**
+     * @return whether the sessions send packets no earlier than the release time computed by the pacer
+     * @see QuicConfiguration#isUsePacing()
+     */
+    public boolean isUsePacing()
+    {
+        return usePacing;
+    }
+
+    /**
+     * <p>Pacing is only supported on Linux, and it is ignored on other platforms.</p>
+     *
+     * @param usePacing whether the sessions send packets no earlier than the release time computed by the pacer
+     * @see QuicConfiguration#setUsePacing(boolean)
+     */
+    public void setUsePacing(boolean usePacing)
+    {
+        if (usePacing && !PACING_SUPPORTED)
+        {
+            LOG.warn("Pacing is not supported on {}, ignoring it for {}", System.getProperty("os.name"), this);
+            usePacing = false;
+        }
+        this.usePacing = usePacing;
+    }
+
     public Collection<QuicSession> getQuicSessions()
     {
         return List.copyOf(sessions.values());
@@ -208,6 +264,15 @@ public abstract class QuicConnection extends AbstractConnection
         }
     }
 
+    /**
+     * @param connectionId the QUIC connection ID of a received packet
+     * @return the {@link QuicSession} that must process the packet, or null if there is none
+     */
+    protected QuicSession findQuicSession(QuicheConnectionId connectionId)
+    {
+        return sessions.get(connectionId);
+    }
+
     protected abstract QuicSession createSession(SocketAddress remoteAddress, ByteBuffer cipherBuffer) throws IOException;
 
     public void write(Callback callback, SocketAddress remoteAddress, ByteBuffer... buffers)
@@ -217,17 +282,35 @@ public abstract class QuicConnection extends AbstractConnection
 
     private Runnable receiveAndProcess()
     {
+        Runnable task = tasks.poll();
+        if (task != null)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("dequeued task {}", task);
+            return task;
+        }
+
         boolean interested = isFillInterested();
         if (LOG.isDebugEnabled())
             LOG.debug("receiveAndProcess() fillInterested={}", interested);
         if (interested)
             return null;
 
+        // The cipher bytes are entirely consumed by the session when
+        // it processes a datagram, so the same buffer is reused for
+        // all the datagrams of a batch.
         ByteBuffer cipherBuffer = byteBufferPool.acquire(getInputBufferSize(), isUseInputDirectByteBuffers());
         try
         {
+            int received = 0;
             while (true)
             {
+                if (received >= getReceiveBatchSize() && !tasks.isEmpty())
+                {
+                    byteBufferPool.release(cipherBuffer);
+                    return tasks.poll();
+                }
+
                 BufferUtil.clear(cipherBuffer);
                 SocketAddress remoteAddress = getEndPoint().receive(cipherBuffer);
                 int fill = remoteAddress == DatagramChannelEndPoint.EOF ? -1 : cipherBuffer.remaining();
@@ -238,14 +321,15 @@ public abstract class QuicConnection extends AbstractConnection
                 {
                     byteBufferPool.release(cipherBuffer);
                     getEndPoint().shutdownOutput();
-                    return null;
+                    return tasks.poll();
                 }
                 if (fill == 0)
                 {
                     byteBufferPool.release(cipherBuffer);
                     fillInterested();
-                    return null;
+                    return tasks.poll();
                 }
+                ++received;
 
                 if (LOG.isDebugEnabled())
                     LOG.debug("peer IP address: {}, ciphertext packet size: {}", remoteAddress, cipherBuffer.remaining());
@@ -260,7 +344,7 @@ public abstract class QuicConnection extends AbstractConnection
                 if (LOG.isDebugEnabled())
                     LOG.debug("packet contains connection ID {}", quicheConnectionId);
 
-                QuicSession session = sessions.get(quicheConnectionId);
+                QuicSession session = findQuicSession(quicheConnectionId);
                 if (session == null)
                 {
                     if (LOG.isDebugEnabled())
@@ -277,14 +361,10 @@ public abstract class QuicConnection extends AbstractConnection
                         LifeCycle.start(session);
 
                         // Session creation may have generated a task.
-                        Runnable task = session.pollTask();
+                        task = session.pollTask();
                         if (LOG.isDebugEnabled())
                             LOG.debug("processing creation task {} on {}", task, session);
-                        if (task != null)
-                        {
-                            byteBufferPool.release(cipherBuffer);
-                            return task;
-                        }
+                        offerTask(task);
                     }
                     else
                     {
@@ -294,12 +374,8 @@ public abstract class QuicConnection extends AbstractConnection
                     continue;
                 }
 
-                Runnable task = process(session, remoteAddress, cipherBuffer);
-                if (task != null)
-                {
-                    byteBufferPool.release(cipherBuffer);
-                    return task;
-                }
+                task = process(session, remoteAddress, cipherBuffer);
+                offerTask(task);
             }
         }
         catch (Throwable x)
@@ -308,10 +384,18 @@ public abstract class QuicConnection extends AbstractConnection
                 LOG.debug("receiveAndProcess() failure", x);
             byteBufferPool.release(cipherBuffer);
             onFailure(x);
-            return null;
+            return tasks.poll();
         }
     }
 
+    private void offerTask(Runnable task)
+    {
+        // Sessions return the same task every time they process a datagram,
+        // so avoid to run it multiple times for the datagrams of a batch.
+        if (task != null && !tasks.contains(task))
+            tasks.offer(task);
+    }
+
     private Runnable process(QuicSession session, SocketAddress remoteAddress, ByteBuffer cipherBuffer)
     {
         try
@@ -327,7 +411,7 @@ public abstract class QuicConnection extends AbstractConnection
         {
             if (LOG.isDebugEnabled())
                 LOG.debug("process failure for {}", session, x);
-            byteBufferPool.release(cipherBuffer);
+            // The buffer is reused for the next datagrams, so it is not released here.
             session.onFailure(x);
             return null;
         }
@@ -349,31 +433,37 @@ public abstract class QuicConnection extends AbstractConnection
 
     private class Flusher extends IteratingCallback
     {
-        private final AutoLock lock = new AutoLock();
-        private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+        // Multi-producer queue, with the iterating thread as the only consumer.
+        private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
         private Entry entry;
 
         public void offer(Callback callback, SocketAddress address, ByteBuffer[] buffers)
         {
-            try (AutoLock l = lock.lock())
-            {
-                queue.offer(new Entry(callback, address, buffers));
-            }
+            queue.offer(new Entry(callback, address, buffers));
             iterate();
         }
 
         @Override
-        protected Action process()
+        protected Action process() throws Throwable
         {
-            try (AutoLock l = lock.lock())
+            // Send all the queued datagrams in one pass, and only
+            // wait for the DatagramChannel when it would block.
+            while (true)
             {
                 entry = queue.poll();
-            }
-            if (entry == null)
-                return Action.IDLE;
+                if (entry == null)
+                    return Action.IDLE;
 
-            getEndPoint().write(this, entry.address, entry.buffers);
-            return Action.SCHEDULED;
+                if (!getEndPoint().send(entry.address, entry.buffers))
+                {
+                    getEndPoint().write(this, entry.address, entry.buffers);
+                    return Action.SCHEDULED;
+                }
+
+                Entry sent = entry;
+                entry = null;
+                sent.callback.succeeded();
+            }
         }
 
         @Override
@@ -386,19 +476,28 @@ public abstract class QuicConnection extends AbstractConnection
         @Override
         public void failed(Throwable x)
         {
-            entry.callback.failed(x);
+            if (entry != null)
+                entry.callback.failed(x);
             super.failed(x);
         }
 
         @Override
         public InvocationType getInvocationType()
         {
-            return entry.callback.getInvocationType();
+            Entry entry = this.entry;
+            return entry == null ? InvocationType.BLOCKING : entry.callback.getInvocationType();
         }
 
         @Override
         protected void onCompleteFailure(Throwable cause)
         {
+            while (true)
+            {
+                Entry entry = queue.poll();
+                if (entry == null)
+                    break;
+                entry.callback.failed(cause);
+            }
             QuicConnection.this.close();
         }
 
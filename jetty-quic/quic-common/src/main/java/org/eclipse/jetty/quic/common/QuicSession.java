@@ -41,6 +41,7 @@ import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.IteratingCallback;
 import org.eclipse.jetty.util.component.ContainerLifeCycle;
 import org.eclipse.jetty.util.component.DumpableCollection;
+import org.eclipse.jetty.util.thread.AutoLock;
 import org.eclipse.jetty.util.thread.Scheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,6 +61,8 @@ import org.slf4j.LoggerFactory;
 public abstract class QuicSession extends ContainerLifeCycle
 {
     private static final Logger LOG = LoggerFactory.getLogger(QuicSession.class);
+    // Release times further in the future are not trusted, as they may come from a different clock.
+    private static final long MAX_PACING_DELAY = TimeUnit.SECONDS.toNanos(1);
 
     private final AtomicLong[] ids = new AtomicLong[StreamType.values().length];
     private final ConcurrentMap<Long, QuicStreamEndPoint> endPoints = new ConcurrentHashMap<>();
@@ -69,7 +72,10 @@ public abstract class QuicSession extends ContainerLifeCycle
     private final QuicheConnection quicheConnection;
     private final QuicConnection connection;
     private final Flusher flusher;
-    private SocketAddress remoteAddress;
+    private final AtomicLong flowControlStalls = new AtomicLong();
+    private volatile QuicheConnection.Stats stats;
+    private final AutoLock lock = new AutoLock();
+    private volatile SocketAddress remoteAddress;
     private volatile ProtocolSession protocolSession;
     private QuicheConnectionId quicheConnectionId;
     private long idleTimeout;
@@ -249,6 +255,41 @@ public abstract class QuicSession extends ContainerLifeCycle
         return quicheConnection.windowCapacity(streamId);
     }
 
+    /**
+     * <p>Returns the transport statistics of this session.</p>
+     * <p>The statistics are sampled from Quiche while the session is open;
+     * after the session is closed, the last sample is returned.</p>
+     *
+     * @return the transport statistics of this session, or null if they were never sampled
+     */
+    public QuicheConnection.Stats getStats()
+    {
+        try
+        {
+            stats = quicheConnection.getStats();
+        }
+        catch (IllegalStateException x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("could not sample stats of {}", this, x);
+        }
+        return stats;
+    }
+
+    /**
+     * @return the number of times that writing to a stream of this session
+     * was stalled because the stream or connection flow control window was exhausted
+     */
+    public long getFlowControlStalls()
+    {
+        return flowControlStalls.get();
+    }
+
+    void onFlowControlStall(QuicStreamEndPoint endPoint)
+    {
+        flowControlStalls.incrementAndGet();
+    }
+
     public void shutdownInput(long streamId, long error) throws IOException
     {
         quicheConnection.shutdownStream(streamId, false, error);
@@ -297,6 +338,16 @@ public abstract class QuicSession extends ContainerLifeCycle
         this.quicheConnectionId = quicheConnectionId;
     }
 
+    /**
+     * <p>Processes the given cipher bytes received from the given remote address.</p>
+     * <p>This method may be called concurrently, for example by the {@link QuicConnection}s
+     * of different datagram channels that receive packets with the same connection ID.</p>
+     *
+     * @param remoteAddress the remote address the cipher bytes were received from
+     * @param cipherBufferIn the cipher bytes
+     * @return a task to run to process the QUIC streams, or null if there is none
+     * @throws IOException if the cipher bytes cannot be processed
+     */
     public Runnable process(SocketAddress remoteAddress, ByteBuffer cipherBufferIn) throws IOException
     {
         // While the connection ID remains the same,
@@ -312,13 +363,7 @@ public abstract class QuicSession extends ContainerLifeCycle
 
         if (isConnectionEstablished())
         {
-            ProtocolSession protocol = protocolSession;
-            if (protocol == null)
-            {
-                protocolSession = protocol = createProtocolSession();
-                addManaged(protocol);
-            }
-
+            ProtocolSession protocol = getOrCreateProtocolSession();
             if (LOG.isDebugEnabled())
                 LOG.debug("processing {}", protocol);
             // Return a task because we want 1 thread per QUIC connection ID.
@@ -331,6 +376,24 @@ public abstract class QuicSession extends ContainerLifeCycle
         }
     }
 
+    private ProtocolSession getOrCreateProtocolSession()
+    {
+        ProtocolSession protocol = protocolSession;
+        if (protocol != null)
+            return protocol;
+        try (AutoLock l = lock.lock())
+        {
+            protocol = protocolSession;
+            if (protocol == null)
+            {
+                protocol = createProtocolSession();
+                addManaged(protocol);
+                protocolSession = protocol;
+            }
+            return protocol;
+        }
+    }
+
     // TODO: this is ugly, is there a better solution?
     protected Runnable pollTask()
     {
@@ -415,6 +478,8 @@ public abstract class QuicSession extends ContainerLifeCycle
         }
         finally
         {
+            // Sample the stats one last time before the Quiche connection is released.
+            getStats();
             // This call frees malloc'ed memory so make sure it always happens.
             quicheConnection.dispose();
         }
@@ -423,7 +488,7 @@ public abstract class QuicSession extends ContainerLifeCycle
     @Override
     public void dump(Appendable out, String indent) throws IOException
     {
-        dumpObjects(out, indent, new DumpableCollection("endPoints", getQuicStreamEndPoints()));
+        dumpObjects(out, indent, String.format("stats=%s, flowControlStalls=%d", getStats(), getFlowControlStalls()), new DumpableCollection("endPoints", getQuicStreamEndPoints()));
     }
 
     @Override
@@ -488,10 +553,26 @@ public abstract class QuicSession extends ContainerLifeCycle
                 return action;
             }
             BufferUtil.flipToFlush(cipherBuffer, pos);
+            long pacingDelay = connection.isUsePacing() ? quicheConnection.getReleaseTime() - System.nanoTime() : 0;
+            if (pacingDelay > 0 && pacingDelay < MAX_PACING_DELAY)
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("pacing cipher bytes for {} by {} ns on {}", remoteAddress, pacingDelay, QuicSession.this);
+                // Do not use the timer thread to write.
+                getScheduler().schedule(() -> getExecutor().execute(this::write), pacingDelay, TimeUnit.NANOSECONDS);
+            }
+            else
+            {
+                write();
+            }
+            return Action.SCHEDULED;
+        }
+
+        private void write()
+        {
             if (LOG.isDebugEnabled())
                 LOG.debug("writing cipher bytes for {} on {}", remoteAddress, QuicSession.this);
             connection.write(this, remoteAddress, cipherBuffer);
-            return Action.SCHEDULED;
         }
 
         @Override
@@ -17,8 +17,10 @@ import java.io.IOException;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.eclipse.jetty.quic.quiche.QuicheConnectionId;
 import org.eclipse.jetty.util.component.AbstractLifeCycle;
 import org.eclipse.jetty.util.component.Dumpable;
 import org.eclipse.jetty.util.component.DumpableCollection;
@@ -26,22 +28,41 @@ import org.eclipse.jetty.util.component.Graceful;
 
 /**
  * <p>A container that tracks {@link QuicSession} instances.</p>
+ * <p>The container may be shared among multiple {@link QuicConnection}s,
+ * and allows to find a {@link QuicSession} by its connection ID,
+ * independently of the {@link QuicConnection} it belongs to.</p>
  */
 public class QuicSessionContainer extends AbstractLifeCycle implements QuicSession.Listener, Graceful, Dumpable
 {
     private final Set<QuicSession> sessions = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<QuicheConnectionId, QuicSession> connectionIds = new ConcurrentHashMap<>();
     private final AtomicReference<CompletableFuture<Void>> shutdown = new AtomicReference<>();
 
     @Override
     public void onOpened(QuicSession session)
     {
         sessions.add(session);
+        QuicheConnectionId connectionId = session.getConnectionId();
+        if (connectionId != null)
+            connectionIds.put(connectionId, session);
     }
 
     @Override
     public void onClosed(QuicSession session)
     {
         sessions.remove(session);
+        QuicheConnectionId connectionId = session.getConnectionId();
+        if (connectionId != null)
+            connectionIds.remove(connectionId, session);
+    }
+
+    /**
+     * @param connectionId the QUIC connection ID
+     * @return the {@link QuicSession} with the given connection ID, or null
+     */
+    public QuicSession findQuicSession(QuicheConnectionId connectionId)
+    {
+        return connectionIds.get(connectionId);
     }
 
     @Override
@@ -0,0 +1,227 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.quic.common;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.quic.quiche.QuicheConnection;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.component.Dumpable;
+import org.eclipse.jetty.util.statistic.CounterStatistic;
+import org.eclipse.jetty.util.statistic.SampleStatistic;
+
+/**
+ * <p>A {@link QuicSession.Listener} that aggregates the transport statistics of {@link QuicSession}s.</p>
+ * <p>Adding an instance of this class as a bean to a QUIC server connector or to
+ * an HTTP/3 client will trigger the tracking of the statistics for all the
+ * QUIC sessions managed by the connector or by the client.</p>
+ * <p>The statistics of a session are sampled when the session is closed.</p>
+ * <p>QuicSessionStatistics instances must be {@link #start() started}
+ * to collect statistics, either as part of starting the whole component
+ * tree, or explicitly if the component tree has already been started.</p>
+ */
+@ManagedObject("Tracks statistics on QUIC sessions")
+public class QuicSessionStatistics extends AbstractLifeCycle implements QuicSession.Listener, Dumpable
+{
+    private final CounterStatistic sessions = new CounterStatistic();
+    private final SampleStatistic rtt = new SampleStatistic();
+    private final SampleStatistic cwnd = new SampleStatistic();
+    private final LongAdder receivedPackets = new LongAdder();
+    private final LongAdder sentPackets = new LongAdder();
+    private final LongAdder lostPackets = new LongAdder();
+    private final LongAdder retransmittedPackets = new LongAdder();
+    private final LongAdder receivedBytes = new LongAdder();
+    private final LongAdder sentBytes = new LongAdder();
+    private final LongAdder lostBytes = new LongAdder();
+    private final LongAdder streamRetransmittedBytes = new LongAdder();
+    private final LongAdder flowControlStalls = new LongAdder();
+
+    @ManagedOperation(value = "Resets the statistics", impact = "ACTION")
+    public void reset()
+    {
+        sessions.reset();
+        rtt.reset();
+        cwnd.reset();
+        receivedPackets.reset();
+        sentPackets.reset();
+        lostPackets.reset();
+        retransmittedPackets.reset();
+        receivedBytes.reset();
+        sentBytes.reset();
+        lostBytes.reset();
+        streamRetransmittedBytes.reset();
+        flowControlStalls.reset();
+    }
+
+    @Override
+    protected void doStart() throws Exception
+    {
+        reset();
+    }
+
+    @Override
+    public void onOpened(QuicSession session)
+    {
+        if (!isStarted())
+            return;
+        sessions.increment();
+    }
+
+    @Override
+    public void onClosed(QuicSession session)
+    {
+        if (!isStarted())
+            return;
+        sessions.decrement();
+        flowControlStalls.add(session.getFlowControlStalls());
+        QuicheConnection.Stats stats = session.getStats();
+        if (stats == null)
+            return;
+        rtt.record(TimeUnit.NANOSECONDS.toMicros(stats.rtt()));
+        cwnd.record(stats.cwnd());
+        receivedPackets.add(stats.recv());
+        sentPackets.add(stats.sent());
+        lostPackets.add(stats.lost());
+        retransmittedPackets.add(stats.retrans());
+        receivedBytes.add(stats.recvBytes());
+        sentBytes.add(stats.sentBytes());
+        lostBytes.add(stats.lostBytes());
+        streamRetransmittedBytes.add(stats.streamRetransBytes());
+    }
+
+    @ManagedAttribute("The current number of open sessions")
+    public long getSessions()
+    {
+        return sessions.getCurrent();
+    }
+
+    @ManagedAttribute("The max number of open sessions")
+    public long getSessionsMax()
+    {
+        return sessions.getMax();
+    }
+
+    @ManagedAttribute("The total number of sessions opened")
+    public long getSessionsTotal()
+    {
+        return sessions.getTotal();
+    }
+
+    @ManagedAttribute("The mean round-trip time of a session in us")
+    public double getRttMean()
+    {
+        return rtt.getMean();
+    }
+
+    @ManagedAttribute("The max round-trip time of a session in us")
+    public long getRttMax()
+    {
+        return rtt.getMax();
+    }
+
+    @ManagedAttribute("The standard deviation of the round-trip time of a session")
+    public double getRttStdDev()
+    {
+        return rtt.getStdDev();
+    }
+
+    @ManagedAttribute("The mean congestion window of a session in bytes")
+    public double getCongestionWindowMean()
+    {
+        return cwnd.getMean();
+    }
+
+    @ManagedAttribute("The max congestion window of a session in bytes")
+    public long getCongestionWindowMax()
+    {
+        return cwnd.getMax();
+    }
+
+    @ManagedAttribute("Total number of QUIC packets received")
+    public long getReceivedPackets()
+    {
+        return receivedPackets.sum();
+    }
+
+    @ManagedAttribute("Total number of QUIC packets sent")
+    public long getSentPackets()
+    {
+        return sentPackets.sum();
+    }
+
+    @ManagedAttribute("Total number of QUIC packets lost")
+    public long getLostPackets()
+    {
+        return lostPackets.sum();
+    }
+
+    @ManagedAttribute("Total number of QUIC packets sent with retransmitted data")
+    public long getRetransmittedPackets()
+    {
+        return retransmittedPackets.sum();
+    }
+
+    @ManagedAttribute("Total number of bytes received")
+    public long getReceivedBytes()
+    {
+        return receivedBytes.sum();
+    }
+
+    @ManagedAttribute("Total number of bytes sent")
+    public long getSentBytes()
+    {
+        return sentBytes.sum();
+    }
+
+    @ManagedAttribute("Total number of bytes lost")
+    public long getLostBytes()
+    {
+        return lostBytes.sum();
+    }
+
+    @ManagedAttribute("Total number of stream bytes retransmitted")
+    public long getStreamRetransmittedBytes()
+    {
+        return streamRetransmittedBytes.sum();
+    }
+
+    @ManagedAttribute("Total number of stream writes stalled by flow control")
+    public long getFlowControlStalls()
+    {
+        return flowControlStalls.sum();
+    }
+
+    @Override
+    public void dump(Appendable out, String indent) throws IOException
+    {
+        Dumpable.dumpObjects(out, indent, this,
+            String.format("sessions=%s", sessions),
+            String.format("rtt(us)=%s", rtt),
+            String.format("cwnd=%s", cwnd),
+            String.format("packets in/out/lost/retrans=%d/%d/%d/%d", getReceivedPackets(), getSentPackets(), getLostPackets(), getRetransmittedPackets()),
+            String.format("bytes in/out/lost/retrans=%d/%d/%d/%d", getReceivedBytes(), getSentBytes(), getLostBytes(), getStreamRetransmittedBytes()),
+            String.format("flowControlStalls=%d", getFlowControlStalls()));
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x", getClass().getSimpleName(), hashCode());
+    }
+}
@@ -189,6 +189,7 @@ public class QuicStreamEndPoint extends AbstractEndPoint
             {
                 if (LOG.isDebugEnabled())
                     LOG.debug("incomplete flushing of {}", this);
+                session.onFlowControlStall(this);
                 return false;
             }
         }
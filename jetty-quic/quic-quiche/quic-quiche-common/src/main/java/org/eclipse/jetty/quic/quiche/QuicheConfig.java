@@ -38,6 +38,8 @@ public class QuicheConfig
     private String privKeyPemPath;
     private String[] applicationProtos;
     private CongestionControl congestionControl;
+    private Boolean enableHystart;
+    private Long maxAckDelay;
     private Long maxIdleTimeout;
     private Long initialMaxData;
     private Long initialMaxStreamDataBidiLocal;
@@ -81,6 +83,16 @@ public class QuicheConfig
         return congestionControl;
     }
 
+    public Boolean getEnableHystart()
+    {
+        return enableHystart;
+    }
+
+    public Long getMaxAckDelay()
+    {
+        return maxAckDelay;
+    }
+
     public Long getMaxIdleTimeout()
     {
         return maxIdleTimeout;
@@ -151,6 +163,16 @@ public class QuicheConfig
         this.congestionControl = cc;
     }
 
+    public void setEnableHystart(Boolean enable)
+    {
+        this.enableHystart = enable;
+    }
+
+    public void setMaxAckDelay(Long delayInMs)
+    {
+        this.maxAckDelay = delayInMs;
+    }
+
     public void setMaxIdleTimeout(Long timeoutInMs)
     {
         this.maxIdleTimeout = timeoutInMs;
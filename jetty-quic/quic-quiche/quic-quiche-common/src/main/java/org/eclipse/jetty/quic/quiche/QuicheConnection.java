@@ -107,6 +107,17 @@ public abstract class QuicheConnection
      */
     public abstract int drainCipherBytes(ByteBuffer buffer) throws IOException;
 
+    /**
+     * <p>Returns the time at which the packet produced by the last call to
+     * {@link #drainCipherBytes(ByteBuffer)} should be sent, as computed by
+     * the Quiche pacer.</p>
+     * <p>The time is expressed in nanoseconds of the platform monotonic clock,
+     * which on Linux is the same clock used by {@link System#nanoTime()}.</p>
+     *
+     * @return the release time of the last drained packet, in nanoseconds
+     */
+    public abstract long getReleaseTime();
+
     public abstract boolean isConnectionClosed();
 
     public abstract boolean isConnectionEstablished();
@@ -149,6 +160,12 @@ public abstract class QuicheConnection
 
     public abstract CloseInfo getRemoteCloseInfo();
 
+    /**
+     * @return a snapshot of the transport statistics of this connection
+     * @throws IllegalStateException if the connection was released
+     */
+    public abstract Stats getStats();
+
     public static class CloseInfo
     {
         private final long error;
@@ -171,6 +188,132 @@ public abstract class QuicheConnection
         }
     }
 
+    /**
+     * <p>A snapshot of the transport statistics of a connection.</p>
+     */
+    public static class Stats
+    {
+        private final long recv;
+        private final long sent;
+        private final long lost;
+        private final long retrans;
+        private final long rtt;
+        private final long cwnd;
+        private final long sentBytes;
+        private final long recvBytes;
+        private final long lostBytes;
+        private final long streamRetransBytes;
+        private final long pmtu;
+        private final long deliveryRate;
+
+        public Stats(long recv, long sent, long lost, long retrans, long rtt, long cwnd, long sentBytes, long recvBytes, long lostBytes, long streamRetransBytes, long pmtu, long deliveryRate)
+        {
+            this.recv = recv;
+            this.sent = sent;
+            this.lost = lost;
+            this.retrans = retrans;
+            this.rtt = rtt;
+            this.cwnd = cwnd;
+            this.sentBytes = sentBytes;
+            this.recvBytes = recvBytes;
+            this.lostBytes = lostBytes;
+            this.streamRetransBytes = streamRetransBytes;
+            this.pmtu = pmtu;
+            this.deliveryRate = deliveryRate;
+        }
+
+        /**
+         * @return the number of QUIC packets received
+         */
+        public long recv()
+        {
+            return recv;
+        }
+
+        /**
+         * @return the number of QUIC packets sent
+         */
+        public long sent()
+        {
+            return sent;
+        }
+
+        /**
+         * @return the number of QUIC packets lost
+         */
+        public long lost()
+        {
+            return lost;
+        }
+
+        /**
+         * @return the number of QUIC packets sent with retransmitted data
+         */
+        public long retrans()
+        {
+            return retrans;
+        }
+
+        /**
+         * @return the estimated round-trip time, in nanoseconds
+         */
+        public long rtt()
+        {
+            return rtt;
+        }
+
+        /**
+         * @return the size of the congestion window, in bytes
+         */
+        public long cwnd()
+        {
+            return cwnd;
+        }
+
+        public long sentBytes()
+        {
+            return sentBytes;
+        }
+
+        public long recvBytes()
+        {
+            return recvBytes;
+        }
+
+        public long lostBytes()
+        {
+            return lostBytes;
+        }
+
+        public long streamRetransBytes()
+        {
+            return streamRetransBytes;
+        }
+
+        /**
+         * @return the current path MTU, in bytes
+         */
+        public long pmtu()
+        {
+            return pmtu;
+        }
+
+        /**
+         * @return the most recent delivery rate estimate, in bytes/s
+         */
+        public long deliveryRate()
+        {
+            return deliveryRate;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s[recv=%d,sent=%d,lost=%d,retrans=%d,rtt=%dus,cwnd=%d,bytes in/out/lost=%d/%d/%d,streamRetransBytes=%d,pmtu=%d,deliveryRate=%d]",
+                getClass().getSimpleName(), recv, sent, lost, retrans, rtt / 1000, cwnd, recvBytes, sentBytes, lostBytes, streamRetransBytes, pmtu, deliveryRate);
+        }
+    }
+
     public interface TokenMinter
     {
         int MAX_TOKEN_LENGTH = 48;
@@ -53,6 +53,7 @@ public class ForeignIncubatorQuicheConnection extends QuicheConnection
     private MemorySegment sendInfo;
     private MemorySegment recvInfo;
     private MemorySegment stats;
+    private long releaseTime;
 
     private ForeignIncubatorQuicheConnection(MemoryAddress quicheConn, MemoryAddress quicheConfig, ResourceScope scope)
     {
@@ -195,6 +196,14 @@ public class ForeignIncubatorQuicheConnection extends QuicheConnection
         if (cc != null)
             quiche_h.quiche_config_set_cc_algorithm(quicheConfig, cc.getValue());
 
+        Boolean enableHystart = config.getEnableHystart();
+        if (enableHystart != null)
+            quiche_h.quiche_config_enable_hystart(quicheConfig, enableHystart ? C_TRUE : C_FALSE);
+
+        Long maxAckDelay = config.getMaxAckDelay();
+        if (maxAckDelay != null)
+            quiche_h.quiche_config_set_max_ack_delay(quicheConfig, maxAckDelay);
+
         Long maxIdleTimeout = config.getMaxIdleTimeout();
         if (maxIdleTimeout != null)
             quiche_h.quiche_config_set_max_idle_timeout(quicheConfig, maxIdleTimeout);
@@ -564,11 +573,21 @@ public class ForeignIncubatorQuicheConnection extends QuicheConnection
                 return 0;
             if (written < 0L)
                 throw new IOException("failed to send packet; err=" + quiche_error.errToString(written));
+            releaseTime = quiche_send_info.get_at_nanos(sendInfo);
             buffer.position((int)(prevPosition + written));
             return (int)written;
         }
     }
 
+    @Override
+    public long getReleaseTime()
+    {
+        try (AutoLock ignore = lock.lock())
+        {
+            return releaseTime;
+        }
+    }
+
     @Override
     public boolean isConnectionClosed()
     {
@@ -734,6 +753,20 @@ public class ForeignIncubatorQuicheConnection extends QuicheConnection
         }
     }
 
+    @Override
+    public Stats getStats()
+    {
+        try (AutoLock ignore = lock.lock())
+        {
+            if (quicheConn == null)
+                throw new IllegalStateException("connection was released");
+            quiche_h.quiche_conn_stats(quicheConn, stats.address());
+            return new Stats(quiche_stats.get_recv(stats), quiche_stats.get_sent(stats), quiche_stats.get_lost(stats), quiche_stats.get_retrans(stats),
+                quiche_stats.get_rtt(stats), quiche_stats.get_cwnd(stats), quiche_stats.get_sent_bytes(stats), quiche_stats.get_recv_bytes(stats),
+                quiche_stats.get_lost_bytes(stats), quiche_stats.get_stream_retrans_bytes(stats), quiche_stats.get_pmtu(stats), quiche_stats.get_delivery_rate(stats));
+        }
+    }
+
     @Override
     public long windowCapacity(long streamId) throws IOException
     {
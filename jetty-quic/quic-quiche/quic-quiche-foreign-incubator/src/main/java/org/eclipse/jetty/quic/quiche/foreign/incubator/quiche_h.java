@@ -136,6 +136,12 @@ public class quiche_h
         FunctionDescriptor.ofVoid(C_POINTER, C_LONG)
     );
 
+    private static final MethodHandle quiche_config_enable_hystart$MH = downcallHandle(
+        "quiche_config_enable_hystart",
+        "(Ljdk/incubator/foreign/MemoryAddress;B)V",
+        FunctionDescriptor.ofVoid(C_POINTER, C_CHAR)
+    );
+
     private static final MethodHandle quiche_config_set_disable_active_migration$MH = downcallHandle(
         "quiche_config_set_disable_active_migration",
         "(Ljdk/incubator/foreign/MemoryAddress;B)V",
@@ -400,6 +406,18 @@ public class quiche_h
         }
     }
 
+    public static void quiche_config_enable_hystart(MemoryAddress config, byte v)
+    {
+        try
+        {
+            quiche_config_enable_hystart$MH.invokeExact(config, v);
+        }
+        catch (Throwable ex)
+        {
+            throw new AssertionError("should not reach here", ex);
+        }
+    }
+
     public static void quiche_config_set_disable_active_migration(MemoryAddress config, byte v)
     {
         try
@@ -13,6 +13,8 @@
 
 package org.eclipse.jetty.quic.quiche.foreign.incubator;
 
+import java.lang.invoke.VarHandle;
+
 import jdk.incubator.foreign.MemoryLayout;
 import jdk.incubator.foreign.MemorySegment;
 import jdk.incubator.foreign.ResourceScope;
@@ -42,4 +44,12 @@ public class quiche_send_info
     {
         return MemorySegment.allocateNative(LAYOUT, scope);
     }
+
+    private static final VarHandle at_tv_sec = LAYOUT.varHandle(long.class, MemoryLayout.PathElement.groupElement("at"), MemoryLayout.PathElement.groupElement("tv_sec"));
+    private static final VarHandle at_tv_nsec = LAYOUT.varHandle(long.class, MemoryLayout.PathElement.groupElement("at"), MemoryLayout.PathElement.groupElement("tv_nsec"));
+
+    public static long get_at_nanos(MemorySegment sendInfo)
+    {
+        return (long)at_tv_sec.get(sendInfo) * 1_000_000_000L + (long)at_tv_nsec.get(sendInfo);
+    }
 }
@@ -58,14 +58,80 @@ public class quiche_stats
         return MemorySegment.allocateNative(LAYOUT, scope);
     }
 
+    private static final VarHandle recv = LAYOUT.varHandle(long.class, MemoryLayout.PathElement.groupElement("recv"));
+    private static final VarHandle sent = LAYOUT.varHandle(long.class, MemoryLayout.PathElement.groupElement("sent"));
+    private static final VarHandle lost = LAYOUT.varHandle(long.class, MemoryLayout.PathElement.groupElement("lost"));
+    private static final VarHandle retrans = LAYOUT.varHandle(long.class, MemoryLayout.PathElement.groupElement("retrans"));
+    private static final VarHandle rtt = LAYOUT.varHandle(long.class, MemoryLayout.PathElement.groupElement("rtt"));
     private static final VarHandle cwnd = LAYOUT.varHandle(long.class, MemoryLayout.PathElement.groupElement("cwnd"));
+    private static final VarHandle sent_bytes = LAYOUT.varHandle(long.class, MemoryLayout.PathElement.groupElement("sent_bytes"));
+    private static final VarHandle recv_bytes = LAYOUT.varHandle(long.class, MemoryLayout.PathElement.groupElement("recv_bytes"));
+    private static final VarHandle lost_bytes = LAYOUT.varHandle(long.class, MemoryLayout.PathElement.groupElement("lost_bytes"));
+    private static final VarHandle stream_retrans_bytes = LAYOUT.varHandle(long.class, MemoryLayout.PathElement.groupElement("stream_retrans_bytes"));
+    private static final VarHandle pmtu = LAYOUT.varHandle(long.class, MemoryLayout.PathElement.groupElement("pmtu"));
+    private static final VarHandle delivery_rate = LAYOUT.varHandle(long.class, MemoryLayout.PathElement.groupElement("delivery_rate"));
     private static final VarHandle peer_initial_max_streams_bidi = LAYOUT.varHandle(long.class, MemoryLayout.PathElement.groupElement("peer_initial_max_streams_bidi"));
 
+    public static long get_recv(MemorySegment stats)
+    {
+        return (long)recv.get(stats);
+    }
+
+    public static long get_sent(MemorySegment stats)
+    {
+        return (long)sent.get(stats);
+    }
+
+    public static long get_lost(MemorySegment stats)
+    {
+        return (long)lost.get(stats);
+    }
+
+    public static long get_retrans(MemorySegment stats)
+    {
+        return (long)retrans.get(stats);
+    }
+
+    public static long get_rtt(MemorySegment stats)
+    {
+        return (long)rtt.get(stats);
+    }
+
     public static long get_cwnd(MemorySegment stats)
     {
         return (long)cwnd.get(stats);
     }
 
+    public static long get_sent_bytes(MemorySegment stats)
+    {
+        return (long)sent_bytes.get(stats);
+    }
+
+    public static long get_recv_bytes(MemorySegment stats)
+    {
+        return (long)recv_bytes.get(stats);
+    }
+
+    public static long get_lost_bytes(MemorySegment stats)
+    {
+        return (long)lost_bytes.get(stats);
+    }
+
+    public static long get_stream_retrans_bytes(MemorySegment stats)
+    {
+        return (long)stream_retrans_bytes.get(stats);
+    }
+
+    public static long get_pmtu(MemorySegment stats)
+    {
+        return (long)pmtu.get(stats);
+    }
+
+    public static long get_delivery_rate(MemorySegment stats)
+    {
+        return (long)delivery_rate.get(stats);
+    }
+
     public static long get_peer_initial_max_streams_bidi(MemorySegment stats)
     {
         return (long)peer_initial_max_streams_bidi.get(stats);
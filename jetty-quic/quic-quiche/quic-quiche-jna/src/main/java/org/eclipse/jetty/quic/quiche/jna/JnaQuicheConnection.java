@@ -46,6 +46,7 @@ public class JnaQuicheConnection extends QuicheConnection
     private final AutoLock lock = new AutoLock();
     private LibQuiche.quiche_conn quicheConn;
     private LibQuiche.quiche_config quicheConfig;
+    private long releaseTime;
 
     private JnaQuicheConnection(LibQuiche.quiche_conn quicheConn, LibQuiche.quiche_config quicheConfig)
     {
@@ -153,6 +154,14 @@ public class JnaQuicheConnection extends QuicheConnection
         if (cc != null)
             LibQuiche.INSTANCE.quiche_config_set_cc_algorithm(quicheConfig, cc.getValue());
 
+        Boolean enableHystart = config.getEnableHystart();
+        if (enableHystart != null)
+            LibQuiche.INSTANCE.quiche_config_enable_hystart(quicheConfig, enableHystart);
+
+        Long maxAckDelay = config.getMaxAckDelay();
+        if (maxAckDelay != null)
+            LibQuiche.INSTANCE.quiche_config_set_max_ack_delay(quicheConfig, new uint64_t(maxAckDelay));
+
         Long maxIdleTimeout = config.getMaxIdleTimeout();
         if (maxIdleTimeout != null)
             LibQuiche.INSTANCE.quiche_config_set_max_idle_timeout(quicheConfig, new uint64_t(maxIdleTimeout));
@@ -449,12 +458,22 @@ public class JnaQuicheConnection extends QuicheConnection
                 return 0;
             if (written < 0L)
                 throw new IOException("failed to send packet; err=" + quiche_error.errToString(written));
+            releaseTime = quiche_send_info.at.tv_sec.longValue() * 1_000_000_000L + quiche_send_info.at.tv_nsec;
             int prevPosition = buffer.position();
             buffer.position(prevPosition + written);
             return written;
         }
     }
 
+    @Override
+    public long getReleaseTime()
+    {
+        try (AutoLock ignore = lock.lock())
+        {
+            return releaseTime;
+        }
+    }
+
     @Override
     public boolean isConnectionClosed()
     {
@@ -597,6 +616,21 @@ public class JnaQuicheConnection extends QuicheConnection
         }
     }
 
+    @Override
+    public Stats getStats()
+    {
+        try (AutoLock ignore = lock.lock())
+        {
+            if (quicheConn == null)
+                throw new IllegalStateException("connection was released");
+            LibQuiche.quiche_stats stats = new LibQuiche.quiche_stats();
+            LibQuiche.INSTANCE.quiche_conn_stats(quicheConn, stats);
+            return new Stats(stats.recv.longValue(), stats.sent.longValue(), stats.lost.longValue(), stats.retrans.longValue(),
+                stats.rtt.longValue(), stats.cwnd.longValue(), stats.sent_bytes.longValue(), stats.recv_bytes.longValue(),
+                stats.lost_bytes.longValue(), stats.stream_retrans_bytes.longValue(), stats.pmtu.longValue(), stats.delivery_rate.longValue());
+        }
+    }
+
     @Override
     public long windowCapacity(long streamId) throws IOException
     {
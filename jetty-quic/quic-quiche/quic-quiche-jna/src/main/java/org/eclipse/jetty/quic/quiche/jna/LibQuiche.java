@@ -77,6 +77,9 @@ public interface LibQuiche extends Library
     // Sets the congestion control algorithm used.
     void quiche_config_set_cc_algorithm(quiche_config config, int/*quiche_cc_algorithm*/ algo);
 
+    // Configures whether to enable HyStart++.
+    void quiche_config_enable_hystart(quiche_config config, boolean v);
+
     // Configures the given certificate chain.
     int quiche_config_load_cert_chain_from_pem_file(quiche_config config, String path);
 
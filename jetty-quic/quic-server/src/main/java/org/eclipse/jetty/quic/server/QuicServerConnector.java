@@ -16,10 +16,12 @@ package org.eclipse.jetty.quic.server;
 import java.io.File;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
 import java.nio.channels.DatagramChannel;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.EventListener;
 import java.util.List;
 import java.util.Set;
@@ -33,10 +35,12 @@ import org.eclipse.jetty.io.EndPoint;
 import org.eclipse.jetty.io.ManagedSelector;
 import org.eclipse.jetty.io.SelectorManager;
 import org.eclipse.jetty.quic.common.QuicConfiguration;
+import org.eclipse.jetty.quic.common.QuicConnection;
 import org.eclipse.jetty.quic.common.QuicSession;
 import org.eclipse.jetty.quic.common.QuicSessionContainer;
 import org.eclipse.jetty.quic.common.QuicStreamEndPoint;
 import org.eclipse.jetty.quic.quiche.QuicheConfig;
+import org.eclipse.jetty.quic.quiche.QuicheConnectionId;
 import org.eclipse.jetty.quic.quiche.SSLKeyPair;
 import org.eclipse.jetty.server.AbstractNetworkConnector;
 import org.eclipse.jetty.server.ConnectionFactory;
@@ -51,6 +55,15 @@ import org.eclipse.jetty.util.thread.Scheduler;
  * The protocol is negotiated during the connection establishment by {@link QuicSession}, and for each QUIC stream
  * managed by a {@link QuicSession} a {@link ConnectionFactory} is used to create a {@link Connection} for the
  * correspondent {@link QuicStreamEndPoint}.</p>
+ * <p>By default, this connector opens a single {@link DatagramChannel}, so that all the QUIC traffic is
+ * received by a single thread.
+ * When configured with more than one selector, this connector opens one {@link DatagramChannel} per selector,
+ * all bound to the same port with {@code SO_REUSEPORT}, so that the operating system distributes the received
+ * datagrams among them, and the receive side scales with the number of cores.
+ * The operating system routes the datagrams from the same remote address to the same {@link DatagramChannel},
+ * so that a {@link QuicSession} is typically processed by the {@link ServerQuicConnection} that created it;
+ * datagrams for a {@link QuicSession} received by another {@link DatagramChannel}, for example after a
+ * connection migration, are routed via the connection ID to the {@link QuicSession}.</p>
  *
  * @see QuicConfiguration
  */
@@ -62,10 +75,12 @@ public class QuicServerConnector extends AbstractNetworkConnector
     private final SslContextFactory.Server sslContextFactory;
     private File privateKeyFile;
     private File certificateChainFile;
-    private volatile DatagramChannel datagramChannel;
+    private final List<DatagramChannel> datagramChannels = new ArrayList<>();
+    private final int selectors;
     private volatile int localPort = -1;
     private int inputBufferSize = 2048;
     private int outputBufferSize = 2048;
+    private int receiveBatchSize = 64;
     private boolean useInputDirectByteBuffers = true;
     private boolean useOutputDirectByteBuffers = true;
 
@@ -75,9 +90,25 @@ public class QuicServerConnector extends AbstractNetworkConnector
     }
 
     public QuicServerConnector(Server server, Executor executor, Scheduler scheduler, ByteBufferPool bufferPool, SslContextFactory.Server sslContextFactory, ConnectionFactory... factories)
+    {
+        this(server, executor, scheduler, bufferPool, 1, sslContextFactory, factories);
+    }
+
+    /**
+     * @param server the server
+     * @param executor the executor, or null to use the server executor
+     * @param scheduler the scheduler, or null to use the server scheduler
+     * @param bufferPool the buffer pool, or null to use the server buffer pool
+     * @param selectors the number of selectors, each with its own {@link DatagramChannel}
+     * bound with {@code SO_REUSEPORT}, or a non-positive value for just one
+     * @param sslContextFactory the server SSL configuration
+     * @param factories the connection factories of the protocols to support
+     */
+    public QuicServerConnector(Server server, Executor executor, Scheduler scheduler, ByteBufferPool bufferPool, int selectors, SslContextFactory.Server sslContextFactory, ConnectionFactory... factories)
     {
         super(server, executor, scheduler, bufferPool, 0, factories);
-        this.selectorManager = new ServerDatagramSelectorManager(getExecutor(), getScheduler(), 1);
+        this.selectors = Math.max(1, selectors);
+        this.selectorManager = new ServerDatagramSelectorManager(getExecutor(), getScheduler(), this.selectors);
         addBean(this.selectorManager);
         this.sslContextFactory = sslContextFactory;
         addBean(this.sslContextFactory);
@@ -103,6 +134,26 @@ public class QuicServerConnector extends AbstractNetworkConnector
         return localPort;
     }
 
+    /**
+     * @return the number of selectors, and therefore of {@link DatagramChannel}s
+     */
+    public int getSelectors()
+    {
+        return selectors;
+    }
+
+    /**
+     * <p>Finds the {@link QuicSession} with the given connection ID
+     * among the sessions of all the {@link DatagramChannel}s.</p>
+     *
+     * @param connectionId the QUIC connection ID
+     * @return the {@link QuicSession} with the given connection ID, or null
+     */
+    QuicSession findQuicSession(QuicheConnectionId connectionId)
+    {
+        return container.findQuicSession(connectionId);
+    }
+
     public int getInputBufferSize()
     {
         return inputBufferSize;
@@ -123,6 +174,20 @@ public class QuicServerConnector extends AbstractNetworkConnector
         this.outputBufferSize = outputBufferSize;
     }
 
+    /**
+     * @return the max number of datagrams received before producing the sessions tasks
+     * @see QuicConnection#getReceiveBatchSize()
+     */
+    public int getReceiveBatchSize()
+    {
+        return receiveBatchSize;
+    }
+
+    public void setReceiveBatchSize(int receiveBatchSize)
+    {
+        this.receiveBatchSize = receiveBatchSize;
+    }
+
     public boolean isUseInputDirectByteBuffers()
     {
         return useInputDirectByteBuffers;
@@ -146,8 +211,7 @@ public class QuicServerConnector extends AbstractNetworkConnector
     @Override
     public boolean isOpen()
     {
-        DatagramChannel channel = datagramChannel;
-        return channel != null && channel.isOpen();
+        return datagramChannels.stream().anyMatch(DatagramChannel::isOpen);
     }
 
     @Override
@@ -156,7 +220,10 @@ public class QuicServerConnector extends AbstractNetworkConnector
         for (EventListener l : getBeans(SelectorManager.SelectorManagerListener.class))
             selectorManager.addEventListener(l);
         super.doStart();
-        selectorManager.accept(datagramChannel);
+        for (DatagramChannel datagramChannel : datagramChannels)
+        {
+            selectorManager.accept(datagramChannel);
+        }
 
         Set<String> aliases = sslContextFactory.getAliases();
         if (aliases.isEmpty())
@@ -181,23 +248,51 @@ public class QuicServerConnector extends AbstractNetworkConnector
     @Override
     public void open() throws IOException
     {
-        if (datagramChannel == null)
+        if (datagramChannels.isEmpty())
         {
-            datagramChannel = openDatagramChannel();
-            datagramChannel.configureBlocking(false);
-            localPort = datagramChannel.socket().getLocalPort();
-            if (localPort <= 0)
-                throw new IOException("DatagramChannel not bound");
-            addBean(datagramChannel);
+            try
+            {
+                int port = getPort();
+                for (int i = 0; i < selectors; ++i)
+                {
+                    DatagramChannel datagramChannel = i == 0 ? openDatagramChannel() : openDatagramChannel(port);
+                    datagramChannels.add(datagramChannel);
+                    datagramChannel.configureBlocking(false);
+                    localPort = datagramChannel.socket().getLocalPort();
+                    if (localPort <= 0)
+                        throw new IOException("DatagramChannel not bound");
+                    // Subsequent channels must bind to the same port, even if it was ephemeral.
+                    port = localPort;
+                    addBean(datagramChannel);
+                }
+            }
+            catch (Throwable x)
+            {
+                datagramChannels.forEach(IO::close);
+                datagramChannels.forEach(this::removeBean);
+                datagramChannels.clear();
+                throw x;
+            }
         }
     }
 
     protected DatagramChannel openDatagramChannel() throws IOException
     {
-        InetSocketAddress bindAddress = getHost() == null ? new InetSocketAddress(getPort()) : new InetSocketAddress(getHost(), getPort());
+        return openDatagramChannel(getPort());
+    }
+
+    private DatagramChannel openDatagramChannel(int port) throws IOException
+    {
+        InetSocketAddress bindAddress = getHost() == null ? new InetSocketAddress(port) : new InetSocketAddress(getHost(), port);
         DatagramChannel datagramChannel = DatagramChannel.open();
         try
         {
+            if (selectors > 1)
+            {
+                if (!datagramChannel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT))
+                    throw new IOException("SO_REUSEPORT not supported, cannot open " + selectors + " DatagramChannels");
+                datagramChannel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+            }
             datagramChannel.bind(bindAddress);
             return datagramChannel;
         }
@@ -222,7 +317,9 @@ public class QuicServerConnector extends AbstractNetworkConnector
         quicheConfig.setInitialMaxStreamDataUni((long)quicConfiguration.getUnidirectionalStreamRecvWindow());
         quicheConfig.setInitialMaxStreamsUni((long)quicConfiguration.getMaxUnidirectionalRemoteStreams());
         quicheConfig.setInitialMaxStreamsBidi((long)quicConfiguration.getMaxBidirectionalRemoteStreams());
-        quicheConfig.setCongestionControl(QuicheConfig.CongestionControl.CUBIC);
+        quicheConfig.setCongestionControl(quicConfiguration.getCongestionControl());
+        quicheConfig.setEnableHystart(quicConfiguration.isHystart());
+        quicheConfig.setMaxAckDelay(quicConfiguration.getMaxAckDelay());
         List<String> protocols = getProtocols();
         // This is only needed for Quiche example clients.
         protocols.add(0, "http/0.9");
@@ -246,8 +343,8 @@ public class QuicServerConnector extends AbstractNetworkConnector
         // We want the DatagramChannel to be stopped by the SelectorManager.
         super.doStop();
 
-        removeBean(datagramChannel);
-        datagramChannel = null;
+        datagramChannels.forEach(this::removeBean);
+        datagramChannels.clear();
         localPort = -2;
 
         for (EventListener l : getBeans(EventListener.class))
@@ -277,7 +374,7 @@ public class QuicServerConnector extends AbstractNetworkConnector
     @Override
     public Object getTransport()
     {
-        return datagramChannel;
+        return datagramChannels.isEmpty() ? null : datagramChannels.get(0);
     }
 
     @Override
@@ -305,11 +402,13 @@ public class QuicServerConnector extends AbstractNetworkConnector
         public Connection newConnection(SelectableChannel channel, EndPoint endpoint, Object attachment)
         {
             ServerQuicConnection connection = new ServerQuicConnection(QuicServerConnector.this, endpoint);
-            connection.addEventListener(container);
+            QuicServerConnector.this.getBeans(QuicSession.Listener.class).forEach(connection::addEventListener);
             connection.setInputBufferSize(getInputBufferSize());
             connection.setOutputBufferSize(getOutputBufferSize());
+            connection.setReceiveBatchSize(getReceiveBatchSize());
             connection.setUseInputDirectByteBuffers(isUseInputDirectByteBuffers());
             connection.setUseOutputDirectByteBuffers(isUseOutputDirectByteBuffers());
+            connection.setUsePacing(getQuicConfiguration().isUsePacing());
             return connection;
         }
 
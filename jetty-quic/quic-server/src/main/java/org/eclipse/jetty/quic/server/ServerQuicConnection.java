@@ -25,6 +25,7 @@ import org.eclipse.jetty.io.EndPoint;
 import org.eclipse.jetty.quic.common.QuicConnection;
 import org.eclipse.jetty.quic.common.QuicSession;
 import org.eclipse.jetty.quic.quiche.QuicheConnection;
+import org.eclipse.jetty.quic.quiche.QuicheConnectionId;
 import org.eclipse.jetty.quic.server.internal.SimpleTokenMinter;
 import org.eclipse.jetty.quic.server.internal.SimpleTokenValidator;
 import org.eclipse.jetty.util.BufferUtil;
@@ -57,6 +58,22 @@ public class ServerQuicConnection extends QuicConnection
         fillInterested();
     }
 
+    @Override
+    protected QuicSession findQuicSession(QuicheConnectionId connectionId)
+    {
+        QuicSession session = super.findQuicSession(connectionId);
+        if (session != null)
+            return session;
+        // With multiple DatagramChannels, the session may belong to another one,
+        // for example if the remote address changed; the session processes the
+        // packet here, concurrently with the packets received by its own
+        // DatagramChannel, but keeps sending packets via its own DatagramChannel.
+        session = connector.findQuicSession(connectionId);
+        if (LOG.isDebugEnabled() && session != null)
+            LOG.debug("packet for connection ID {} of {} received by {}", connectionId, session.getQuicConnection(), this);
+        return session;
+    }
+
     @Override
     protected QuicSession createSession(SocketAddress remoteAddress, ByteBuffer cipherBuffer) throws IOException
     {
@@ -99,8 +116,8 @@ public class ServerQuicConnection extends QuicConnection
     @Override
     public boolean onIdleExpired()
     {
-        // The current server architecture only has one listening
-        // DatagramChannelEndPoint, so we ignore idle timeouts.
+        // The listening DatagramChannelEndPoints
+        // must not be closed, so we ignore idle timeouts.
         return false;
     }
 
@@ -108,8 +125,8 @@ public class ServerQuicConnection extends QuicConnection
     public void outwardClose(QuicSession session, Throwable failure)
     {
         super.outwardClose(session, failure);
-        // Do nothing else, as the current architecture only has one
-        // listening DatagramChannelEndPoint, so it must not be closed.
+        // Do nothing else, as the listening
+        // DatagramChannelEndPoint must not be closed.
     }
 
     private class SessionTimeouts extends CyclicTimeouts<ServerQuicSession>
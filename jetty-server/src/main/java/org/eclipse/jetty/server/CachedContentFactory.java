@@ -211,7 +211,7 @@ public class CachedContentFactory implements HttpContent.ContentFactory
             return null;
 
         if (resource.isDirectory())
-            return new ResourceHttpContent(resource, _mimeTypes.getMimeByExtension(resource.toString()), getMaxCachedFileSize());
+            return new ResourceHttpContent(resource, _mimeTypes.getContentTypeFieldByExtension(resource.toString()), getMaxCachedFileSize(), null);
 
         // Will it fit in the cache?
         if (isCacheable(resource))
@@ -262,7 +262,7 @@ public class CachedContentFactory implements HttpContent.ContentFactory
         }
 
         // Look for non Cacheable precompressed resource or content
-        String mt = _mimeTypes.getMimeByExtension(pathInContext);
+        HttpField mt = _mimeTypes.getContentTypeFieldByExtension(pathInContext);
         if (_precompressedFormats.length > 0)
         {
             // Is the precompressed content cached?
@@ -279,13 +279,13 @@ public class CachedContentFactory implements HttpContent.ContentFactory
                 if (compressedResource.exists() && compressedResource.lastModified() >= resource.lastModified() &&
                     compressedResource.length() < resource.length())
                     compressedContents.put(format,
-                        new ResourceHttpContent(compressedResource, _mimeTypes.getMimeByExtension(compressedPathInContext), maxBufferSize));
+                        new ResourceHttpContent(compressedResource, _mimeTypes.getContentTypeFieldByExtension(compressedPathInContext), maxBufferSize, null));
             }
             if (!compressedContents.isEmpty())
                 return new ResourceHttpContent(resource, mt, maxBufferSize, compressedContents);
         }
 
-        return new ResourceHttpContent(resource, mt, maxBufferSize);
+        return new ResourceHttpContent(resource, mt, maxBufferSize, null);
     }
 
     private void shrinkCache()
@@ -397,8 +397,8 @@ public class CachedContentFactory implements HttpContent.ContentFactory
             _key = pathInContext;
             _resource = resource;
 
-            String contentType = _mimeTypes.getMimeByExtension(_resource.toString());
-            _contentType = contentType == null ? null : new PreEncodedHttpField(HttpHeader.CONTENT_TYPE, contentType);
+            _contentType = _mimeTypes.getContentTypeFieldByExtension(_resource.toString());
+            String contentType = _contentType == null ? null : _contentType.getValue();
             _characterEncoding = _contentType == null ? null : MimeTypes.getCharsetFromContentType(contentType);
             _mimeType = _contentType == null ? null : MimeTypes.CACHE.get(MimeTypes.getContentTypeWithoutCharset(contentType));
 
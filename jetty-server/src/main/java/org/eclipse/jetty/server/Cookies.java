@@ -14,6 +14,8 @@
 package org.eclipse.jetty.server;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import javax.servlet.http.Cookie;
 
@@ -30,16 +32,26 @@ import org.slf4j.LoggerFactory;
  * call to {@link #getCookies()}.
  * If the added fields are identical to those last added (as strings), then the
  * cookies are not re parsed.
+ * <p>The values of a single cookie can be looked up with {@link #getCookieValues(String, boolean)}
+ * without parsing the fields into {@link Cookie} objects: the fields are scanned once into
+ * an index of name and value offsets, and only the matching values are extracted.
+ * Fields that need the full parser (quoted values, reserved {@code $} names, commas or
+ * characters rejected by RFC 6265) are instead looked up in the result of {@link #getCookies()}.</p>
  */
 public class Cookies extends CookieCutter
 {
     protected static final Logger LOG = LoggerFactory.getLogger(Cookies.class);
+    private static final String[] RESERVED_NAMES = {"Comment", "Discard", "Domain", "Expires", "Max-Age", "Path", "Secure", "Version"};
     protected final List<String> _rawFields = new ArrayList<>();
     protected final List<Cookie> _cookieList = new ArrayList<>();
     private int _addedFields;
     private boolean _parsed = false;
     private Cookie[] _cookies;
     private boolean _set = false;
+    private int[] _index = new int[5 * 8];
+    private int _indexSize;
+    private boolean _indexed;
+    private boolean _indexable;
 
     public Cookies()
     {
@@ -77,6 +89,7 @@ public class Cookies extends CookieCutter
         }
         _rawFields.add(_addedFields++, rawField);
         _parsed = false;
+        _indexed = false;
     }
 
     public Cookie[] getCookies()
@@ -84,11 +97,7 @@ public class Cookies extends CookieCutter
         if (_set)
             return _cookies;
 
-        while (_rawFields.size() > _addedFields)
-        {
-            _rawFields.remove(_addedFields);
-            _parsed = false;
-        }
+        trimFields();
 
         if (_parsed)
             return _cookies;
@@ -100,6 +109,184 @@ public class Cookies extends CookieCutter
         return _cookies;
     }
 
+    /**
+     * <p>Looks up the values of the cookies with the given name, in the order they appear.</p>
+     * <p>Unlike {@link #getCookies()}, this method does not create {@link Cookie} objects
+     * for the common case of fields of simple {@code name=value} pairs.</p>
+     *
+     * @param name the cookie name
+     * @param ignoreCase whether the cookie name is matched ignoring case
+     * @return the values of the cookies with the given name, possibly empty
+     */
+    public List<String> getCookieValues(String name, boolean ignoreCase)
+    {
+        if (!_set)
+        {
+            trimFields();
+            if (!_parsed && isIndexableName(name))
+            {
+                if (!_indexed)
+                    indexFields();
+                if (_indexable)
+                    return lookup(name, ignoreCase);
+            }
+        }
+
+        Cookie[] cookies = getCookies();
+        if (cookies == null)
+            return Collections.emptyList();
+        List<String> values = null;
+        for (Cookie cookie : cookies)
+        {
+            if (ignoreCase ? name.equalsIgnoreCase(cookie.getName()) : name.equals(cookie.getName()))
+            {
+                if (values == null)
+                    values = new ArrayList<>(1);
+                values.add(cookie.getValue());
+            }
+        }
+        return values == null ? Collections.emptyList() : values;
+    }
+
+    private void trimFields()
+    {
+        while (_rawFields.size() > _addedFields)
+        {
+            _rawFields.remove(_addedFields);
+            _parsed = false;
+            _indexed = false;
+        }
+    }
+
+    private List<String> lookup(String name, boolean ignoreCase)
+    {
+        List<String> values = null;
+        int nameLength = name.length();
+        for (int i = 0; i < _indexSize; i += 5)
+        {
+            int nameStart = _index[i + 1];
+            if (_index[i + 2] - nameStart != nameLength)
+                continue;
+            String field = _rawFields.get(_index[i]);
+            if (field.regionMatches(ignoreCase, nameStart, name, 0, nameLength))
+            {
+                if (values == null)
+                    values = new ArrayList<>(1);
+                values.add(field.substring(_index[i + 3], _index[i + 4]));
+            }
+        }
+        return values == null ? Collections.emptyList() : values;
+    }
+
+    private void indexFields()
+    {
+        _indexed = true;
+        _indexSize = 0;
+        _indexable = true;
+        for (int f = 0; f < _rawFields.size(); ++f)
+        {
+            if (!indexField(f, _rawFields.get(f)))
+            {
+                _indexable = false;
+                return;
+            }
+        }
+    }
+
+    /**
+     * <p>Scans a field of simple {@code name=value} pairs into the index.</p>
+     *
+     * @return false if the field needs the full parser
+     */
+    private boolean indexField(int f, String field)
+    {
+        int length = field.length();
+        int i = 0;
+        while (i < length)
+        {
+            // Scan the name, trimming whitespace.
+            int nameStart = -1;
+            int nameEnd = -1;
+            char c = 0;
+            for (; i < length; ++i)
+            {
+                c = field.charAt(i);
+                if (c == '=' || c == ';')
+                    break;
+                if (c == ' ' || c == '\t')
+                    continue;
+                if (!isIndexableChar(c) || nameStart < 0 && c == '$')
+                    return false;
+                if (nameStart < 0)
+                    nameStart = i;
+                nameEnd = i + 1;
+            }
+            if (i == length || c == ';')
+            {
+                // A name without a value is ignored.
+                ++i;
+                continue;
+            }
+            if (nameStart < 0)
+                return false;
+
+            // Scan the value, trimming whitespace.
+            int valueStart = -1;
+            int valueEnd = -1;
+            for (++i; i < length; ++i)
+            {
+                c = field.charAt(i);
+                if (c == ';')
+                    break;
+                if (c == ' ' || c == '\t')
+                    continue;
+                if (!isIndexableChar(c))
+                    return false;
+                if (valueStart < 0)
+                    valueStart = i;
+                valueEnd = i + 1;
+            }
+            ++i;
+            if (valueStart < 0)
+                valueStart = valueEnd = nameEnd;
+
+            if (_indexSize + 5 > _index.length)
+                _index = Arrays.copyOf(_index, _index.length * 2);
+            _index[_indexSize++] = f;
+            _index[_indexSize++] = nameStart;
+            _index[_indexSize++] = nameEnd;
+            _index[_indexSize++] = valueStart;
+            _index[_indexSize++] = valueEnd;
+        }
+        return true;
+    }
+
+    private static boolean isIndexableChar(char c)
+    {
+        return c > 0x20 && c < 0x7F && c != '"' && c != ',' && c != '\\';
+    }
+
+    /**
+     * @return whether cookies with the given name are always accepted by {@link Cookie}
+     */
+    private static boolean isIndexableName(String name)
+    {
+        if (name == null || name.isEmpty() || name.charAt(0) == '$')
+            return false;
+        for (int i = 0; i < name.length(); ++i)
+        {
+            char c = name.charAt(i);
+            if (c <= 0x20 || c >= 0x7F || "/()<>@,;:\\\"[]?={}".indexOf(c) >= 0)
+                return false;
+        }
+        for (String reserved : RESERVED_NAMES)
+        {
+            if (reserved.equalsIgnoreCase(name))
+                return false;
+        }
+        return true;
+    }
+
     public void setCookies(Cookie[] cookies)
     {
         _cookies = cookies;
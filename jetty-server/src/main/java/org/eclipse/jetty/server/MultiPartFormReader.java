@@ -0,0 +1,982 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import javax.servlet.MultipartConfigElement;
+import javax.servlet.ReadListener;
+import javax.servlet.http.Part;
+
+import org.eclipse.jetty.io.RetainableByteBuffer;
+import org.eclipse.jetty.io.RetainableByteBufferPool;
+import org.eclipse.jetty.server.MultiParts.NonCompliance;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.MultiMap;
+import org.eclipse.jetty.util.QuotedStringTokenizer;
+import org.eclipse.jetty.util.StringUtil;
+import org.eclipse.jetty.util.thread.AutoLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A non-blocking reader of {@code multipart/form-data} request content.</p>
+ * <p>Unlike {@link MultiPartFormInputStream}, which blocks a thread while reading the
+ * request content, this class registers itself as the {@link ReadListener} of the
+ * {@link HttpInput} and parses the content with {@link MultiPartParser} as it arrives.</p>
+ * <p>Content is read into buffers acquired from a {@link RetainableByteBufferPool}.
+ * The content of in-memory parts is kept as slices of those buffers, which are retained
+ * until the part is deleted, so no copy is made after the read from the {@link HttpInput}.
+ * Parts larger than {@link MultipartConfigElement#getFileSizeThreshold()}, or that have a
+ * filename when {@link #setWriteFilesWithFilenames(boolean)} is set, are written directly
+ * from those slices to a {@link FileChannel}.</p>
+ * <p>Each part is notified to {@link Listener#onPart(Part)} as soon as it is complete.
+ * The request must be in asynchronous mode before calling {@link #start()}:</p>
+ * <pre>{@code
+ * AsyncContext asyncContext = request.startAsync();
+ * new MultiPartFormReader(baseRequest, config, new MultiPartFormReader.Listener()
+ * {
+ *     public void onPart(Part part) { ... }
+ *     public void onComplete(Collection<Part> parts) { asyncContext.complete(); }
+ *     public void onFailure(Throwable failure) { ... }
+ * }).start();
+ * }</pre>
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc7578">https://tools.ietf.org/html/rfc7578</a>
+ */
+public class MultiPartFormReader implements ReadListener
+{
+    private enum State
+    {
+        UNREAD,
+        READING,
+        COMPLETE,
+        FAILED,
+        DELETED
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(MultiPartFormReader.class);
+
+    private final AutoLock _lock = new AutoLock();
+    private final List<Part> _parts = new ArrayList<>();
+    private final EnumSet<NonCompliance> _nonComplianceWarnings = EnumSet.noneOf(NonCompliance.class);
+    private final HttpInput _input;
+    private final MultipartConfigElement _config;
+    private final File _contextTmpDir;
+    private final RetainableByteBufferPool _bufferPool;
+    private final Listener _listener;
+    private final MultiPartParser _parser;
+    private Path _tmpDir;
+    private boolean _writeFilesWithFilenames;
+    private int _bufferSize = 16 * 1024;
+    private RetainableByteBuffer _buffer;
+    private int _filled;
+    private long _total;
+    private Throwable _failure;
+    private State _state = State.UNREAD;
+    // Whether the reading thread is within a ReadListener callback.
+    private boolean _active;
+    // Whether the part being read and the read buffer have been released.
+    private boolean _disposed;
+
+    /**
+     * @param request the request to read the multipart content from
+     * @param config the multipart configuration
+     * @param listener the listener notified of parts, completion and failures
+     */
+    public MultiPartFormReader(Request request, MultipartConfigElement config, Listener listener)
+    {
+        this(request.getHttpInput(),
+            request.getContentType(),
+            config,
+            request.getContext() != null ? (File)request.getContext().getAttribute("javax.servlet.context.tempdir") : null,
+            RetainableByteBufferPool.findOrAdapt(request.getHttpChannel().getConnector(), request.getHttpChannel().getByteBufferPool()),
+            listener);
+    }
+
+    /**
+     * @param input the input to read the multipart content from
+     * @param contentType the Content-Type header, which must contain the boundary
+     * @param config the multipart configuration
+     * @param contextTmpDir javax.servlet.context.tempdir
+     * @param bufferPool the pool to acquire read buffers from
+     * @param listener the listener notified of parts, completion and failures
+     */
+    public MultiPartFormReader(HttpInput input, String contentType, MultipartConfigElement config, File contextTmpDir, RetainableByteBufferPool bufferPool, Listener listener)
+    {
+        if (contentType == null || !contentType.startsWith("multipart/form-data"))
+            throw new IllegalArgumentException("content type is not multipart/form-data");
+
+        _input = input;
+        _contextTmpDir = (contextTmpDir != null) ? contextTmpDir : new File(System.getProperty("java.io.tmpdir"));
+        _config = (config != null) ? config : new MultipartConfigElement(_contextTmpDir.getAbsolutePath());
+        _bufferPool = bufferPool;
+        _listener = listener;
+
+        String boundary = "";
+        int bstart = contentType.indexOf("boundary=");
+        if (bstart >= 0)
+        {
+            int bend = contentType.indexOf(";", bstart);
+            bend = (bend < 0 ? contentType.length() : bend);
+            boundary = QuotedStringTokenizer.unquote(MultiPartFormInputStream.value(contentType.substring(bstart, bend)).trim());
+        }
+        _parser = new MultiPartParser(new Handler(), boundary);
+    }
+
+    /**
+     * <p>Starts reading the multipart content by registering this instance as the
+     * {@link ReadListener} of the input.</p>
+     *
+     * @throws IOException if the temporary directory cannot be created
+     */
+    public void start() throws IOException
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            if (_state != State.UNREAD)
+                throw new IllegalStateException(_state.name());
+            _state = State.READING;
+        }
+
+        String location = _config.getLocation();
+        if (StringUtil.isBlank(location))
+        {
+            _tmpDir = _contextTmpDir.toPath();
+        }
+        else
+        {
+            // If the MultiPartConfigElement.location is relative, make it relative to the context tmp dir.
+            Path path = Path.of(location);
+            _tmpDir = path.isAbsolute() ? path : _contextTmpDir.toPath().resolve(path);
+        }
+        if (!Files.exists(_tmpDir))
+            Files.createDirectories(_tmpDir);
+
+        _input.setReadListener(this);
+    }
+
+    @Override
+    public void onDataAvailable() throws IOException
+    {
+        enter();
+        try
+        {
+            readAvailable();
+        }
+        finally
+        {
+            exit();
+        }
+    }
+
+    private void readAvailable() throws IOException
+    {
+        while (_input.isReady())
+        {
+            if (!isReading())
+                return;
+
+            // Read after the content already parsed, which may be retained by parts.
+            ByteBuffer byteBuffer = acquireBuffer();
+            byteBuffer.limit(byteBuffer.capacity());
+            byteBuffer.position(_filled);
+            int read = _input.read(byteBuffer);
+            byteBuffer.limit(byteBuffer.position());
+            byteBuffer.position(_filled);
+            _filled = byteBuffer.limit();
+            if (read < 0)
+                return;
+
+            _total += read;
+            if (_config.getMaxRequestSize() > 0 && _total > _config.getMaxRequestSize())
+            {
+                fail(new IllegalStateException("Request exceeds maxRequestSize (" + _config.getMaxRequestSize() + ")"));
+                return;
+            }
+
+            try
+            {
+                // The parser returns true either when the message is complete,
+                // and the remaining content is epilogue, or when a failure is latched.
+                if (_parser.parse(byteBuffer, false) && _failure != null)
+                {
+                    fail(_failure);
+                    return;
+                }
+            }
+            catch (Throwable x)
+            {
+                fail(x);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onAllDataRead()
+    {
+        enter();
+        try
+        {
+            readAll();
+        }
+        finally
+        {
+            exit();
+        }
+    }
+
+    private void readAll()
+    {
+        if (!isReading())
+            return;
+
+        try
+        {
+            _parser.parse(BufferUtil.EMPTY_BUFFER, true);
+            if (_failure != null)
+                throw _failure;
+            if (_parser.getState() != MultiPartParser.State.END)
+            {
+                if (_parser.getState() == MultiPartParser.State.PREAMBLE)
+                    throw new IOException("Missing initial multi part boundary");
+                throw new IOException("Incomplete Multipart");
+            }
+        }
+        catch (Throwable x)
+        {
+            fail(x);
+            return;
+        }
+
+        List<Part> parts = null;
+        try (AutoLock l = _lock.lock())
+        {
+            if (_state == State.READING)
+            {
+                _state = State.COMPLETE;
+                _disposed = true;
+                parts = List.copyOf(_parts);
+            }
+        }
+        if (parts == null)
+            return;
+        releaseBuffer();
+
+        if (LOG.isDebugEnabled())
+            LOG.debug("Reading complete {}", this);
+        _listener.onComplete(parts);
+    }
+
+    @Override
+    public void onError(Throwable failure)
+    {
+        enter();
+        try
+        {
+            fail(failure);
+        }
+        finally
+        {
+            exit();
+        }
+    }
+
+    /**
+     * @return the parts that have been completely read so far
+     */
+    public Collection<Part> getParts()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return List.copyOf(_parts);
+        }
+    }
+
+    /**
+     * @param name the part name
+     * @return the first completely read part with the given name, or null
+     */
+    public Part getPart(String name)
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return _parts.stream().filter(part -> part.getName().equals(name)).findFirst().orElse(null);
+        }
+    }
+
+    /**
+     * @return whether reading has completed successfully
+     */
+    public boolean isComplete()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return _state == State.COMPLETE;
+        }
+    }
+
+    /**
+     * @return an EnumSet of non compliances with the RFC that were accepted by this reader
+     */
+    public EnumSet<NonCompliance> getNonComplianceWarnings()
+    {
+        return _nonComplianceWarnings;
+    }
+
+    /**
+     * <p>Deletes the temporary storage of all the parts, releasing their buffers.</p>
+     * <p>If reading is still in progress, it is stopped, and the part being read is deleted too;
+     * if the reading thread is concurrently reading, it deletes the part being read and releases
+     * the read buffer when it observes that reading has been stopped.</p>
+     */
+    public void deleteParts()
+    {
+        List<Part> parts;
+        boolean dispose;
+        try (AutoLock l = _lock.lock())
+        {
+            if (_state == State.DELETED)
+                return;
+            _state = State.DELETED;
+            parts = new ArrayList<>(_parts);
+            _parts.clear();
+            dispose = !_active && !_disposed;
+            if (dispose)
+                _disposed = true;
+        }
+        cleanUp(parts);
+        if (dispose)
+            dispose();
+    }
+
+    public boolean isWriteFilesWithFilenames()
+    {
+        return _writeFilesWithFilenames;
+    }
+
+    /**
+     * @param writeFilesWithFilenames whether parts with a filename are always written to a file
+     */
+    public void setWriteFilesWithFilenames(boolean writeFilesWithFilenames)
+    {
+        _writeFilesWithFilenames = writeFilesWithFilenames;
+    }
+
+    /**
+     * @return the size of the buffers used to read data from the input
+     */
+    public int getBufferSize()
+    {
+        return _bufferSize;
+    }
+
+    /**
+     * @param bufferSize the size of the buffers used to read data from the input
+     */
+    public void setBufferSize(int bufferSize)
+    {
+        _bufferSize = bufferSize;
+    }
+
+    private void enter()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            _active = true;
+        }
+    }
+
+    private void exit()
+    {
+        boolean dispose;
+        try (AutoLock l = _lock.lock())
+        {
+            _active = false;
+            dispose = _state == State.DELETED && !_disposed;
+            if (dispose)
+                _disposed = true;
+        }
+        if (dispose)
+            dispose();
+    }
+
+    /**
+     * <p>Deletes the part being read and releases the read buffer.</p>
+     * <p>Only called either by the reading thread, or when the reading
+     * thread is not within a {@link ReadListener} callback.</p>
+     */
+    private void dispose()
+    {
+        Handler handler = (Handler)_parser.getHandler();
+        FormPart part = handler._part;
+        handler._part = null;
+        if (part != null)
+            cleanUp(List.of(part));
+        releaseBuffer();
+    }
+
+    private boolean isReading()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return _state == State.READING;
+        }
+    }
+
+    private ByteBuffer acquireBuffer()
+    {
+        RetainableByteBuffer buffer = _buffer;
+        if (buffer != null)
+        {
+            // The parser consumes all the content, so if no part retains
+            // the buffer it can be reused from the beginning; otherwise
+            // only the space after the retained content can be reused.
+            if (!buffer.isRetained())
+                _filled = 0;
+            if (_filled < buffer.capacity())
+                return buffer.getBuffer();
+            buffer.release();
+        }
+        // The parser needs array backed buffers.
+        _buffer = _bufferPool.acquire(_bufferSize, false);
+        _filled = 0;
+        return _buffer.getBuffer();
+    }
+
+    private void releaseBuffer()
+    {
+        RetainableByteBuffer buffer = _buffer;
+        _buffer = null;
+        if (buffer != null)
+            buffer.release();
+    }
+
+    private void fail(Throwable failure)
+    {
+        List<Part> parts;
+        try (AutoLock l = _lock.lock())
+        {
+            if (_state != State.READING)
+                return;
+            _state = State.FAILED;
+            _disposed = true;
+            parts = new ArrayList<>(_parts);
+            _parts.clear();
+        }
+
+        if (LOG.isDebugEnabled())
+            LOG.debug("Reading failed {}", this, failure);
+
+        // Always called by the reading thread.
+        cleanUp(parts);
+        dispose();
+        _listener.onFailure(failure);
+    }
+
+    private void cleanUp(List<Part> parts)
+    {
+        for (Part part : parts)
+        {
+            try
+            {
+                ((FormPart)part).cleanUp();
+            }
+            catch (Throwable x)
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Could not clean up {}", part, x);
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return String.format("%s@%x{%s,parts=%d,total=%d,%s}", getClass().getSimpleName(), hashCode(), _state, _parts.size(), _total, _parser);
+        }
+    }
+
+    /**
+     * <p>Listener of the parts read by a {@link MultiPartFormReader}.</p>
+     * <p>Listener methods are invoked by the thread that reads the request content
+     * and must not block.</p>
+     */
+    public interface Listener
+    {
+        /**
+         * <p>Callback method invoked when a part has been completely read.</p>
+         *
+         * @param part the part
+         */
+        default void onPart(Part part)
+        {
+        }
+
+        /**
+         * <p>Callback method invoked when all the parts have been read.</p>
+         *
+         * @param parts all the parts
+         */
+        default void onComplete(Collection<Part> parts)
+        {
+        }
+
+        /**
+         * <p>Callback method invoked when reading the parts failed;
+         * all the parts have already been deleted.</p>
+         *
+         * @param failure the failure
+         */
+        default void onFailure(Throwable failure)
+        {
+        }
+    }
+
+    /**
+     * <p>A part whose content is either retained in memory as a list of buffer
+     * slices, or written to a file.</p>
+     */
+    public class FormPart implements Part
+    {
+        private final String _name;
+        private final String _filename;
+        private final String _partContentType;
+        private final MultiMap<String> _headers;
+        private final List<ByteBuffer> _content = new ArrayList<>();
+        private final List<RetainableByteBuffer> _retained = new ArrayList<>();
+        private Path _path;
+        private FileChannel _channel;
+        private long _size;
+        private boolean _temporary = true;
+
+        private FormPart(String name, String filename, String contentType, MultiMap<String> headers)
+        {
+            _name = name;
+            _filename = filename;
+            _partContentType = contentType;
+            _headers = headers;
+        }
+
+        private void open() throws IOException
+        {
+            if (isWriteFilesWithFilenames() && _filename != null && !_filename.trim().isEmpty())
+                createFile();
+        }
+
+        private void write(ByteBuffer slice) throws IOException
+        {
+            int length = slice.remaining();
+            if (_config.getMaxFileSize() > 0 && _size + length > _config.getMaxFileSize())
+                throw new IllegalStateException("Multipart Mime part " + _name + " exceeds max filesize");
+
+            if (_config.getFileSizeThreshold() > 0 && _size + length > _config.getFileSizeThreshold() && _path == null)
+                createFile();
+
+            if (_channel != null)
+            {
+                writeFully(slice);
+            }
+            else if (_buffer != null && slice.array() == _buffer.getBuffer().array())
+            {
+                // Retain the read buffer, rather than copying its content.
+                RetainableByteBuffer buffer = _buffer;
+                if (_retained.isEmpty() || _retained.get(_retained.size() - 1) != buffer)
+                {
+                    buffer.retain();
+                    _retained.add(buffer);
+                }
+                _content.add(slice.slice());
+            }
+            else
+            {
+                // The content is a partial boundary held by the parser.
+                _content.add(BufferUtil.copy(slice));
+            }
+            _size += length;
+        }
+
+        private void createFile() throws IOException
+        {
+            _path = Files.createTempFile(_tmpDir, "MultiPart", "");
+            _channel = FileChannel.open(_path, StandardOpenOption.WRITE);
+            for (ByteBuffer content : _content)
+            {
+                writeFully(content);
+            }
+            release();
+        }
+
+        private void writeFully(ByteBuffer content) throws IOException
+        {
+            while (content.hasRemaining())
+            {
+                _channel.write(content);
+            }
+        }
+
+        private void close() throws IOException
+        {
+            FileChannel channel = _channel;
+            _channel = null;
+            if (channel != null)
+                channel.close();
+        }
+
+        private void release()
+        {
+            _content.clear();
+            _retained.forEach(RetainableByteBuffer::release);
+            _retained.clear();
+        }
+
+        /**
+         * @return read-only views of the in-memory content, or an empty list if the content is in a file
+         */
+        public List<ByteBuffer> getContent()
+        {
+            List<ByteBuffer> content = new ArrayList<>(_content.size());
+            for (ByteBuffer buffer : _content)
+            {
+                content.add(buffer.asReadOnlyBuffer());
+            }
+            return content;
+        }
+
+        /**
+         * @return the path of the file the content has been written to, or null if the content is in memory
+         */
+        public Path getPath()
+        {
+            return _path;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException
+        {
+            if (_path != null)
+                return Files.newInputStream(_path);
+            return new ContentInputStream(getContent());
+        }
+
+        @Override
+        public String getContentType()
+        {
+            return _partContentType;
+        }
+
+        @Override
+        public String getName()
+        {
+            return _name;
+        }
+
+        @Override
+        public String getSubmittedFileName()
+        {
+            return _filename;
+        }
+
+        @Override
+        public long getSize()
+        {
+            return _size;
+        }
+
+        @Override
+        public void write(String fileName) throws IOException
+        {
+            Path path = Path.of(fileName);
+            if (!path.isAbsolute())
+                path = _tmpDir.resolve(path);
+
+            if (_path == null)
+            {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE))
+                {
+                    for (ByteBuffer content : getContent())
+                    {
+                        while (content.hasRemaining())
+                        {
+                            channel.write(content);
+                        }
+                    }
+                }
+                release();
+            }
+            else
+            {
+                Files.move(_path, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            _path = path;
+            _temporary = false;
+        }
+
+        /**
+         * Remove the file, whether or not Part.write() was called on it (ie no longer temporary),
+         * and release the in-memory content.
+         */
+        @Override
+        public void delete() throws IOException
+        {
+            release();
+            close();
+            if (_path != null)
+                Files.deleteIfExists(_path);
+        }
+
+        /**
+         * Only remove temporary files, and release the in-memory content.
+         *
+         * @throws IOException if unable to delete the file
+         */
+        public void cleanUp() throws IOException
+        {
+            if (_temporary)
+                delete();
+            else
+                release();
+        }
+
+        @Override
+        public String getHeader(String name)
+        {
+            if (name == null)
+                return null;
+            return _headers.getValue(StringUtil.asciiToLowerCase(name), 0);
+        }
+
+        @Override
+        public Collection<String> getHeaders(String name)
+        {
+            Collection<String> headers = _headers.getValues(name);
+            return headers == null ? Collections.emptyList() : headers;
+        }
+
+        @Override
+        public Collection<String> getHeaderNames()
+        {
+            return _headers.keySet();
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("Part{n=%s,fn=%s,ct=%s,s=%d,tmp=%b,file=%s}", _name, _filename, _partContentType, _size, _temporary, _path);
+        }
+    }
+
+    private static class ContentInputStream extends InputStream
+    {
+        private final List<ByteBuffer> _content;
+        private int _index;
+
+        private ContentInputStream(List<ByteBuffer> content)
+        {
+            _content = content;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            ByteBuffer buffer = current();
+            return buffer == null ? -1 : buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException
+        {
+            if (length == 0)
+                return 0;
+            ByteBuffer buffer = current();
+            if (buffer == null)
+                return -1;
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+
+        @Override
+        public int available() throws IOException
+        {
+            ByteBuffer buffer = current();
+            return buffer == null ? 0 : buffer.remaining();
+        }
+
+        private ByteBuffer current()
+        {
+            while (_index < _content.size())
+            {
+                ByteBuffer buffer = _content.get(_index);
+                if (buffer.hasRemaining())
+                    return buffer;
+                ++_index;
+            }
+            return null;
+        }
+    }
+
+    private class Handler implements MultiPartParser.Handler
+    {
+        private FormPart _part;
+        private String _contentDisposition;
+        private String _partContentType;
+        private MultiMap<String> _headers = new MultiMap<>();
+
+        @Override
+        public void startPart()
+        {
+            _part = null;
+            _contentDisposition = null;
+            _partContentType = null;
+            _headers = new MultiMap<>();
+        }
+
+        @Override
+        public void parsedField(String key, String value)
+        {
+            _headers.put(StringUtil.asciiToLowerCase(key), value);
+            if (key.equalsIgnoreCase("content-disposition"))
+                _contentDisposition = value;
+            else if (key.equalsIgnoreCase("content-type"))
+                _partContentType = value;
+
+            // Transfer encoding is deprecated as per https://tools.ietf.org/html/rfc7578#section-4.7
+            if (key.equalsIgnoreCase("content-transfer-encoding"))
+            {
+                if (!"8bit".equalsIgnoreCase(value) && !"binary".equalsIgnoreCase(value))
+                    _nonComplianceWarnings.add(NonCompliance.TRANSFER_ENCODING);
+            }
+        }
+
+        @Override
+        public boolean headerComplete()
+        {
+            try
+            {
+                if (_contentDisposition == null)
+                    throw new IOException("Missing content-disposition");
+
+                boolean formData = false;
+                String name = null;
+                String filename = null;
+                QuotedStringTokenizer tok = new QuotedStringTokenizer(_contentDisposition, ";", false, true);
+                while (tok.hasMoreTokens())
+                {
+                    String t = tok.nextToken().trim();
+                    String tl = StringUtil.asciiToLowerCase(t);
+                    if (tl.startsWith("form-data"))
+                        formData = true;
+                    else if (tl.startsWith("name="))
+                        name = MultiPartFormInputStream.value(t);
+                    else if (tl.startsWith("filename="))
+                        filename = MultiPartFormInputStream.filenameValue(t);
+                }
+
+                if (!formData)
+                    throw new IOException("Part not form-data");
+                if (name == null)
+                    throw new IOException("No name in part");
+
+                _part = new FormPart(name, filename, _partContentType, _headers);
+                _part.open();
+                return false;
+            }
+            catch (Throwable x)
+            {
+                _failure = x;
+                return true;
+            }
+        }
+
+        @Override
+        public boolean content(ByteBuffer buffer, boolean last)
+        {
+            if (_part == null)
+                return false;
+
+            try
+            {
+                if (BufferUtil.hasContent(buffer))
+                    _part.write(buffer);
+
+                if (last)
+                {
+                    FormPart part = _part;
+                    part.close();
+                    _part = null;
+                    boolean added;
+                    try (AutoLock l = _lock.lock())
+                    {
+                        added = _state == State.READING;
+                        if (added)
+                            _parts.add(part);
+                    }
+                    if (!added)
+                    {
+                        // The parts have been deleted concurrently.
+                        part.cleanUp();
+                        return true;
+                    }
+                    if (LOG.isDebugEnabled())
+                        LOG.debug("Part complete {}", part);
+                    _listener.onPart(part);
+                }
+                return false;
+            }
+            catch (Throwable x)
+            {
+                _failure = x;
+                return true;
+            }
+        }
+
+        @Override
+        public boolean messageComplete()
+        {
+            return true;
+        }
+
+        @Override
+        public void earlyEOF()
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Early EOF {}", MultiPartFormReader.this);
+            try
+            {
+                if (_part != null)
+                    _part.close();
+            }
+            catch (IOException x)
+            {
+                LOG.warn("part could not be closed", x);
+            }
+        }
+    }
+}
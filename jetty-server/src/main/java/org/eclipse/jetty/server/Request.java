@@ -22,6 +22,7 @@ import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.charset.UnsupportedCharsetException;
@@ -80,6 +81,7 @@ import org.eclipse.jetty.http.HttpVersion;
 import org.eclipse.jetty.http.MetaData;
 import org.eclipse.jetty.http.MimeTypes;
 import org.eclipse.jetty.http.UriCompliance;
+import org.eclipse.jetty.io.ByteBufferPool;
 import org.eclipse.jetty.io.Connection;
 import org.eclipse.jetty.io.RuntimeIOException;
 import org.eclipse.jetty.server.handler.ContextHandler;
@@ -88,12 +90,14 @@ import org.eclipse.jetty.server.session.Session;
 import org.eclipse.jetty.server.session.SessionHandler;
 import org.eclipse.jetty.util.Attributes;
 import org.eclipse.jetty.util.AttributesMap;
+import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.HostPort;
 import org.eclipse.jetty.util.IO;
 import org.eclipse.jetty.util.MultiMap;
 import org.eclipse.jetty.util.StringUtil;
 import org.eclipse.jetty.util.URIUtil;
 import org.eclipse.jetty.util.UrlEncoded;
+import org.eclipse.jetty.util.UrlEncodedDecoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -148,6 +152,7 @@ public class Request implements HttpServletRequest
     private static final int INPUT_NONE = 0;
     private static final int INPUT_STREAM = 1;
     private static final int INPUT_READER = 2;
+    private static final int FORM_BUFFER_SIZE = 4096;
 
     private static final MultiMap<String> NO_PARAMS = new MultiMap<>();
     private static final MultiMap<String> BAD_PARAMS = new MultiMap<>();
@@ -590,7 +595,11 @@ public class Request implements HttpServletRequest
             if (_input.isAsync())
                 throw new IllegalStateException("Cannot extract parameters with async IO");
 
-            UrlEncoded.decodeTo(in, params, getCharacterEncoding(), maxFormContentSize, maxFormKeys);
+            Charset charset = lookupFormCharset(getCharacterEncoding());
+            if (charset == null)
+                UrlEncoded.decodeTo(in, params, getCharacterEncoding(), maxFormContentSize, maxFormKeys);
+            else
+                decodeFormParameters(params, charset, maxFormContentSize, maxFormKeys);
         }
         catch (IOException e)
         {
@@ -601,6 +610,50 @@ public class Request implements HttpServletRequest
         }
     }
 
+    private static Charset lookupFormCharset(String encoding)
+    {
+        try
+        {
+            Charset charset = encoding == null ? UrlEncoded.ENCODING : Charset.forName(encoding);
+            return UrlEncodedDecoder.isSupported(charset) ? charset : null;
+        }
+        catch (IllegalArgumentException x)
+        {
+            // Let UrlEncoded report the unsupported charset.
+            return null;
+        }
+    }
+
+    private void decodeFormParameters(MultiMap<String> params, Charset charset, int maxFormContentSize, int maxFormKeys) throws IOException
+    {
+        // Decode the content chunk by chunk as it is read, rather than byte by byte from the InputStream.
+        UrlEncodedDecoder decoder = new UrlEncodedDecoder(charset, maxFormContentSize, -1, (name, value) ->
+        {
+            params.add(name, value);
+            if (maxFormKeys >= 0 && params.size() > maxFormKeys)
+                throw new IllegalStateException(String.format("Form with too many keys [%d > %d]", params.size(), maxFormKeys));
+        });
+        ByteBufferPool bufferPool = _channel.getByteBufferPool();
+        ByteBuffer buffer = bufferPool.acquire(FORM_BUFFER_SIZE, false);
+        try
+        {
+            while (true)
+            {
+                BufferUtil.clearToFill(buffer);
+                int read = _input.read(buffer);
+                if (read < 0)
+                    break;
+                BufferUtil.flipToFlush(buffer, 0);
+                decoder.decode(buffer);
+            }
+            decoder.complete();
+        }
+        finally
+        {
+            bufferPool.release(buffer);
+        }
+    }
+
     private int lookupServerAttribute(String key, int dftValue)
     {
         Object attribute = _channel.getServer().getAttribute(key);
@@ -838,15 +891,38 @@ public class Request implements HttpServletRequest
 
     @Override
     public Cookie[] getCookies()
+    {
+        Cookies cookies = extractCookies();
+
+        //Javadoc for Request.getCookies() stipulates null for no cookies
+        if (cookies == null || cookies.getCookies().length == 0)
+            return null;
+
+        return cookies.getCookies();
+    }
+
+    /**
+     * <p>Looks up the values of the request cookies with the given name.</p>
+     * <p>This method is cheaper than searching the result of {@link #getCookies()},
+     * as it avoids creating {@link Cookie} objects for all the request cookies.</p>
+     *
+     * @param name the cookie name
+     * @param ignoreCase whether the cookie name is matched ignoring case
+     * @return the values of the cookies with the given name, possibly empty
+     */
+    public List<String> getCookieValues(String name, boolean ignoreCase)
+    {
+        Cookies cookies = extractCookies();
+        if (cookies == null)
+            return Collections.emptyList();
+        return cookies.getCookieValues(name, ignoreCase);
+    }
+
+    private Cookies extractCookies()
     {
         MetaData.Request metadata = _metaData;
         if (metadata == null || _cookiesExtracted)
-        {
-            if (_cookies == null || _cookies.getCookies().length == 0)
-                return null;
-
-            return _cookies.getCookies();
-        }
+            return _cookies;
 
         _cookiesExtracted = true;
 
@@ -859,12 +935,7 @@ public class Request implements HttpServletRequest
                 _cookies.addCookieField(field.getValue());
             }
         }
-
-        //Javadoc for Request.getCookies() stipulates null for no cookies
-        if (_cookies == null || _cookies.getCookies().length == 0)
-            return null;
-
-        return _cookies.getCookies();
+        return _cookies;
     }
 
     @Override
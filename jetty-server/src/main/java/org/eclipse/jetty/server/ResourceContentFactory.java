@@ -21,6 +21,7 @@ import java.util.Map;
 import org.eclipse.jetty.http.CompressedContentFormat;
 import org.eclipse.jetty.http.HttpContent;
 import org.eclipse.jetty.http.HttpContent.ContentFactory;
+import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.MimeTypes;
 import org.eclipse.jetty.http.ResourceHttpContent;
 import org.eclipse.jetty.util.resource.Resource;
@@ -75,10 +76,10 @@ public class ResourceContentFactory implements ContentFactory
             return null;
 
         if (resource.isDirectory())
-            return new ResourceHttpContent(resource, _mimeTypes.getMimeByExtension(resource.toString()), maxBufferSize);
+            return new ResourceHttpContent(resource, _mimeTypes.getContentTypeFieldByExtension(resource.toString()), maxBufferSize, null);
 
         // Look for a precompressed resource or content
-        String mt = _mimeTypes.getMimeByExtension(pathInContext);
+        HttpField mt = _mimeTypes.getContentTypeFieldByExtension(pathInContext);
         if (_precompressedFormats.length > 0)
         {
             // Is there a compressed resource?
@@ -90,12 +91,12 @@ public class ResourceContentFactory implements ContentFactory
                 if (compressedResource != null && compressedResource.exists() && compressedResource.lastModified() >= resource.lastModified() &&
                     compressedResource.length() < resource.length())
                     compressedContents.put(format,
-                        new ResourceHttpContent(compressedResource, _mimeTypes.getMimeByExtension(compressedPathInContext), maxBufferSize));
+                        new ResourceHttpContent(compressedResource, _mimeTypes.getContentTypeFieldByExtension(compressedPathInContext), maxBufferSize, null));
             }
             if (!compressedContents.isEmpty())
                 return new ResourceHttpContent(resource, mt, maxBufferSize, compressedContents);
         }
-        return new ResourceHttpContent(resource, mt, maxBufferSize);
+        return new ResourceHttpContent(resource, mt, maxBufferSize, null);
     }
 
     @Override
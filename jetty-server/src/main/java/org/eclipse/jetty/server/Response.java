@@ -528,9 +528,29 @@ public class Response implements HttpServletResponse
      */
     public void sendEarlyHint() throws IOException
     {
-        if (!isCommitted())
-            _channel.sendResponse(new MetaData.Response(_channel.getRequest().getHttpVersion(), HttpStatus.EARLY_HINT_103,
-                _channel.getResponse()._fields.asImmutable()), null, true);
+        sendEarlyHint(_fields.asImmutable());
+    }
+
+    /**
+     * <p>Sends a 103 Early Hints response with the given fields, typically
+     * {@code Link} headers with {@code rel=preload}, so that the client may
+     * start fetching the linked resources before the final response.</p>
+     * <p>Unlike {@link #sendEarlyHint()}, only the given fields are sent, and
+     * the fields of this response are left unchanged.</p>
+     * <p>Early hints are not sent if the response is committed, or to HTTP/1.0
+     * clients, that cannot process interim responses.</p>
+     *
+     * @param fields the fields of the 103 response
+     * @throws IOException if unable to send the 103 response
+     */
+    public void sendEarlyHint(HttpFields fields) throws IOException
+    {
+        if (isCommitted())
+            return;
+        HttpVersion version = _channel.getRequest().getHttpVersion();
+        if (version == null || version.getVersion() < HttpVersion.HTTP_1_1.getVersion())
+            return;
+        _channel.sendResponse(new MetaData.Response(version, HttpStatus.EARLY_HINT_103, fields.asImmutable()), null, true);
     }
 
     /**
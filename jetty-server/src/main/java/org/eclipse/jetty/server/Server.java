@@ -30,14 +30,12 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.eclipse.jetty.http.BadMessageException;
-import org.eclipse.jetty.http.DateGenerator;
+import org.eclipse.jetty.http.DateFieldTicker;
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpGenerator;
-import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.http.HttpURI;
-import org.eclipse.jetty.http.PreEncodedHttpField;
 import org.eclipse.jetty.io.Connection;
 import org.eclipse.jetty.server.handler.ContextHandler;
 import org.eclipse.jetty.server.handler.ErrorHandler;
@@ -55,8 +53,8 @@ import org.eclipse.jetty.util.annotation.Name;
 import org.eclipse.jetty.util.component.AttributeContainerMap;
 import org.eclipse.jetty.util.component.Graceful;
 import org.eclipse.jetty.util.component.LifeCycle;
-import org.eclipse.jetty.util.thread.AutoLock;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.Scheduler;
 import org.eclipse.jetty.util.thread.ShutdownThread;
 import org.eclipse.jetty.util.thread.ThreadPool;
 import org.slf4j.Logger;
@@ -84,8 +82,7 @@ public class Server extends HandlerWrapper implements Attributes
     private ErrorHandler _errorHandler;
     private RequestLog _requestLog;
     private boolean _dryRun;
-    private final AutoLock _dateLock = new AutoLock();
-    private volatile DateField _dateField;
+    private final DateFieldTicker _dateFieldTicker = new DateFieldTicker();
     private long _stopTimeout;
 
     public Server()
@@ -129,6 +126,7 @@ public class Server extends HandlerWrapper implements Attributes
         _threadPool = pool != null ? pool : new QueuedThreadPool();
         addBean(_threadPool);
         addBean(_attributes);
+        addBean(_dateFieldTicker);
         setServer(this);
     }
 
@@ -329,26 +327,17 @@ public class Server extends HandlerWrapper implements Attributes
         _dumpBeforeStop = dumpBeforeStop;
     }
 
-    public HttpField getDateField()
+    /**
+     * @return the shared ticker that provides the {@code Date} response header
+     */
+    public DateFieldTicker getDateFieldTicker()
     {
-        long now = System.currentTimeMillis();
-        long seconds = now / 1000;
-        DateField df = _dateField;
+        return _dateFieldTicker;
+    }
 
-        if (df == null || df._seconds != seconds)
-        {
-            try (AutoLock lock = _dateLock.lock())
-            {
-                df = _dateField;
-                if (df == null || df._seconds != seconds)
-                {
-                    HttpField field = new PreEncodedHttpField(HttpHeader.DATE, DateGenerator.formatDate(now));
-                    _dateField = new DateField(seconds, field);
-                    return field;
-                }
-            }
-        }
-        return df._dateField;
+    public HttpField getDateField()
+    {
+        return _dateFieldTicker.getDateField();
     }
 
     @Override
@@ -409,10 +398,17 @@ public class Server extends HandlerWrapper implements Attributes
                 mex.ifExceptionThrow();
             }
 
-            // Start the server and components, but not connectors!
+            // Tick the Date header on the shared scheduler, if any.
+            if (_dateFieldTicker.getScheduler() == null)
+                _dateFieldTicker.setScheduler(getBean(Scheduler.class));
+
+            // Start the server and components, but not connectors nor the date ticker!
             // #start(LifeCycle) is overridden so that connectors are not started
             super.doStart();
 
+            // Start the date ticker after the scheduler it ticks on
+            _dateFieldTicker.start();
+
             if (_dryRun)
             {
                 LOG.info(String.format("Started(dry run) %s @%dms", this, Uptime.getUptime()));
@@ -464,8 +460,8 @@ public class Server extends HandlerWrapper implements Attributes
     @Override
     protected void start(LifeCycle l) throws Exception
     {
-        // start connectors last
-        if (!(l instanceof Connector))
+        // start connectors and the date ticker last
+        if (!(l instanceof Connector) && l != _dateFieldTicker)
             super.start(l);
     }
 
@@ -775,17 +771,4 @@ public class Server extends HandlerWrapper implements Attributes
     {
         System.err.println(getVersion());
     }
-
-    private static class DateField
-    {
-        final long _seconds;
-        final HttpField _dateField;
-
-        public DateField(long seconds, HttpField dateField)
-        {
-            super();
-            _seconds = seconds;
-            _dateField = dateField;
-        }
-    }
 }
@@ -14,6 +14,7 @@
 package org.eclipse.jetty.server.session;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
@@ -1601,71 +1602,63 @@ public class SessionHandler extends ScopedHandler
         //first try getting id from a cookie
         if (isUsingCookies())
         {
-            Cookie[] cookies = request.getCookies();
-            if (cookies != null && cookies.length > 0)
+            final String sessionCookie = getSessionCookieName(getSessionCookieConfig());
+            for (String id : getSessionIdCookieValues(baseRequest, request, sessionCookie))
             {
-                final String sessionCookie = getSessionCookieName(getSessionCookieConfig());
-                for (Cookie cookie : cookies)
+                requestedSessionIdFromCookie = true;
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Got Session ID {} from cookie {}", id, sessionCookie);
+
+                if (session == null)
                 {
-                    if (sessionCookie.equalsIgnoreCase(cookie.getName()))
+                    //we currently do not have a session selected, use this one if it is valid
+                    HttpSession s = getHttpSession(id);
+                    if (s != null && isValid(s))
+                    {
+                        //associate it with the request so its reference count is decremented as the
+                        //request exits
+                        requestedSessionId = id;
+                        session = s;
+                        baseRequest.enterSession(session);
+                        baseRequest.setSession(session);
+
+                        if (LOG.isDebugEnabled())
+                            LOG.debug("Selected session {}", session);
+                    }
+                    else
                     {
-                        String id = cookie.getValue();
-                        requestedSessionIdFromCookie = true;
                         if (LOG.isDebugEnabled())
-                            LOG.debug("Got Session ID {} from cookie {}", id, sessionCookie);
+                            LOG.debug("No session found for session cookie id {}", id);
 
-                        if (session == null)
-                        {
-                            //we currently do not have a session selected, use this one if it is valid
-                            HttpSession s = getHttpSession(id);
-                            if (s != null && isValid(s))
-                            {
-                                //associate it with the request so its reference count is decremented as the
-                                //request exits
-                                requestedSessionId = id;
-                                session = s;
-                                baseRequest.enterSession(session);
-                                baseRequest.setSession(session);
-
-                                if (LOG.isDebugEnabled())
-                                    LOG.debug("Selected session {}", session);
-                            }
-                            else
-                            {
-                                if (LOG.isDebugEnabled())
-                                    LOG.debug("No session found for session cookie id {}", id);
-
-                                //if we don't have a valid session id yet, just choose the current id
-                                if (requestedSessionId == null)
-                                    requestedSessionId = id;
-                            }
-                        }
-                        else
+                        //if we don't have a valid session id yet, just choose the current id
+                        if (requestedSessionId == null)
+                            requestedSessionId = id;
+                    }
+                }
+                else
+                {
+                    //we currently have a valid session selected. We will throw an error
+                    //if there is a _different_ valid session id cookie. Duplicate ids, or
+                    //invalid session ids are ignored
+                    if (!session.getId().equals(getSessionIdManager().getId(id)))
+                    {
+                        //load the session to see if it is valid or not
+                        HttpSession s = getHttpSession(id);
+                        if (s != null && isValid(s))
                         {
-                            //we currently have a valid session selected. We will throw an error
-                            //if there is a _different_ valid session id cookie. Duplicate ids, or
-                            //invalid session ids are ignored
-                            if (!session.getId().equals(getSessionIdManager().getId(id)))
-                            {
-                                //load the session to see if it is valid or not
-                                HttpSession s = getHttpSession(id);
-                                if (s != null && isValid(s))
-                                {
-                                    //associate it with the request so its reference count is decremented as the
-                                    //request exits
-                                    baseRequest.enterSession(s);
-                                    if (LOG.isDebugEnabled())
-                                        LOG.debug("Multiple different valid session ids: {}, {}", requestedSessionId, id);
-                                    throw new BadMessageException("Duplicate valid session cookies: " + requestedSessionId + " ," + id);
-                                }
-                            }
-                            else
-                            {
-                                if (LOG.isDebugEnabled())
-                                    LOG.debug("Duplicate valid session cookie id: {}", id);
-                            }
+                            //associate it with the request so its reference count is decremented as the
+                            //request exits
+                            baseRequest.enterSession(s);
+                            if (LOG.isDebugEnabled())
+                                LOG.debug("Multiple different valid session ids: {}, {}", requestedSessionId, id);
+                            throw new BadMessageException("Duplicate valid session cookies: " + requestedSessionId + " ," + id);
                         }
                     }
+                    else
+                    {
+                        if (LOG.isDebugEnabled())
+                            LOG.debug("Duplicate valid session cookie id: {}", id);
+                    }
                 }
             }
         }
@@ -1710,6 +1703,25 @@ public class SessionHandler extends ScopedHandler
         baseRequest.setRequestedSessionIdFromCookie(requestedSessionId != null && requestedSessionIdFromCookie);
     }
 
+    private List<String> getSessionIdCookieValues(Request baseRequest, HttpServletRequest request, String sessionCookie)
+    {
+        // Look up the base request cookies without creating Cookie objects,
+        // unless a wrapper may have changed the cookies.
+        if (request == baseRequest)
+            return baseRequest.getCookieValues(sessionCookie, true);
+
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null || cookies.length == 0)
+            return Collections.emptyList();
+        List<String> values = new ArrayList<>();
+        for (Cookie cookie : cookies)
+        {
+            if (sessionCookie.equalsIgnoreCase(cookie.getName()))
+                values.add(cookie.getValue());
+        }
+        return values;
+    }
+
     @Override
     public String toString()
     {
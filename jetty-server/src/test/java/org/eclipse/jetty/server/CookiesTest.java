@@ -13,12 +13,21 @@
 
 package org.eclipse.jetty.server;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
 import javax.servlet.http.Cookie;
 
+import org.eclipse.jetty.http.CookieCompliance;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
 
 public class CookiesTest
@@ -170,4 +179,63 @@ public class CookiesTest
 
         assertThat(cutter.getCookies().length, is(0));
     }
+
+    public static Stream<Arguments> cookieValues()
+    {
+        return Stream.of(
+            Arguments.of(CookieCompliance.RFC6265, "JSESSIONID=node01; other=x"),
+            Arguments.of(CookieCompliance.RFC6265, " JSESSIONID = node01 ;other=x;JSESSIONID=node02"),
+            Arguments.of(CookieCompliance.RFC6265, "a=b=c; JSESSIONID=; name; jsessionid=lower"),
+            Arguments.of(CookieCompliance.RFC6265, "JSESSIONID=\"node01\"; other=x"),
+            Arguments.of(CookieCompliance.RFC6265, "other=é; JSESSIONID=node01"),
+            Arguments.of(CookieCompliance.RFC6265, "JSESSIONID=node01,node02"),
+            Arguments.of(CookieCompliance.RFC2965, "$Version=1; JSESSIONID=node01; $Path=/"),
+            Arguments.of(CookieCompliance.RFC2965, "=empty; JSESSIONID=node01")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("cookieValues")
+    public void testCookieValues(CookieCompliance compliance, String field)
+    {
+        Cookies parsed = new Cookies(compliance, null);
+        parsed.addCookieField(field);
+        List<String> expected = new ArrayList<>();
+        for (Cookie cookie : parsed.getCookies())
+        {
+            if (cookie.getName().equalsIgnoreCase("JSESSIONID"))
+                expected.add(cookie.getValue());
+        }
+
+        Cookies indexed = new Cookies(compliance, null);
+        indexed.addCookieField(field);
+        assertThat(indexed.getCookieValues("JSESSIONID", true), is(expected));
+    }
+
+    @Test
+    public void testCookieValuesCache()
+    {
+        Cookies cutter = new Cookies();
+        cutter.addCookieField("nameA0=A0; nameA1=A1");
+        cutter.addCookieField("nameB0=B0; nameB1=B1");
+        assertThat(cutter.getCookieValues("nameB1", false), contains("B1"));
+        assertThat(cutter.getCookieValues("NAMEB1", false), empty());
+        assertThat(cutter.getCookieValues("NAMEB1", true), contains("B1"));
+
+        cutter.reset();
+        cutter.addCookieField("nameA0=A0; nameA1=A1");
+        assertThat(cutter.getCookieValues("nameA1", false), contains("A1"));
+        assertThat(cutter.getCookieValues("nameB1", false), empty());
+
+        cutter.reset();
+        cutter.addCookieField("nameA0=A0; nameA1=A1");
+        cutter.addCookieField("nameC0=C0; nameC1=C1");
+        assertThat(cutter.getCookieValues("nameC1", false), contains("C1"));
+        assertThat(cutter.getCookies().length, is(4));
+        assertThat(cutter.getCookieValues("nameC1", false), contains("C1"));
+
+        cutter.setCookies(new Cookie[]{new Cookie("nameD0", "D0")});
+        assertThat(cutter.getCookieValues("nameD0", false), contains("D0"));
+        assertThat(cutter.getCookieValues("nameC1", false), empty());
+    }
 }
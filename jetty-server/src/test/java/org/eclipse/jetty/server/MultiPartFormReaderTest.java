@@ -0,0 +1,306 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.servlet.AsyncContext;
+import javax.servlet.MultipartConfigElement;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.Part;
+
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http.HttpTester;
+import org.eclipse.jetty.io.ArrayRetainableByteBufferPool;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.toolchain.test.MavenTestingUtils;
+import org.eclipse.jetty.util.IO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MultiPartFormReaderTest
+{
+    private static final String BOUNDARY = "JettyBoundary";
+
+    private final File _tmpDir = MavenTestingUtils.getTargetTestingDir(MultiPartFormReaderTest.class.getSimpleName());
+    private final List<String> _events = new CopyOnWriteArrayList<>();
+    private final List<Path> _files = new CopyOnWriteArrayList<>();
+    private final CountDownLatch _deletedWhileReading = new CountDownLatch(1);
+    private final ArrayRetainableByteBufferPool _bufferPool = new ArrayRetainableByteBufferPool();
+    private volatile MultiPartFormReader _reader;
+    private volatile boolean _deleteOnPart;
+    private int _bufferSize = 64;
+    private boolean _writeFilesWithFilenames;
+    private Server _server;
+    private LocalConnector _connector;
+
+    private void start(MultipartConfigElement config) throws Exception
+    {
+        _server = new Server();
+        _server.addBean(_bufferPool);
+        _connector = new LocalConnector(_server);
+        _server.addConnector(_connector);
+        _server.setHandler(new AbstractHandler()
+        {
+            @Override
+            public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException
+            {
+                baseRequest.setHandled(true);
+                AsyncContext asyncContext = request.startAsync();
+                MultiPartFormReader[] reader = new MultiPartFormReader[1];
+                reader[0] = new MultiPartFormReader(baseRequest, config, new MultiPartFormReader.Listener()
+                    {
+                        @Override
+                        public void onPart(Part part)
+                        {
+                            _events.add("part " + part.getName());
+                            Path path = ((MultiPartFormReader.FormPart)part).getPath();
+                            if (path != null)
+                                _files.add(path);
+                            if (_deleteOnPart)
+                            {
+                                reader[0].deleteParts();
+                                // The reading thread still uses the read buffer.
+                                _events.add("buffers " + getHeapBuffersInUse());
+                            }
+                        }
+
+                        @Override
+                        public void onComplete(Collection<Part> parts)
+                        {
+                            _events.add("complete");
+                            try
+                            {
+                                StringBuilder builder = new StringBuilder();
+                                for (Part part : parts)
+                                {
+                                    try (InputStream input = part.getInputStream())
+                                    {
+                                        builder.append(part.getName()).append('=').append(IO.toString(input)).append('\n');
+                                    }
+                                }
+                                response.getWriter().print(builder);
+                            }
+                            catch (IOException x)
+                            {
+                                response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR_500);
+                            }
+                            reader[0].deleteParts();
+                            asyncContext.complete();
+                        }
+
+                        @Override
+                        public void onFailure(Throwable failure)
+                        {
+                            _events.add("failure " + failure.getMessage());
+                            response.setStatus(HttpStatus.BAD_REQUEST_400);
+                            asyncContext.complete();
+                        }
+                    })
+                {
+                    @Override
+                    public void onDataAvailable() throws IOException
+                    {
+                        try
+                        {
+                            super.onDataAvailable();
+                        }
+                        finally
+                        {
+                            if (_deleteOnPart)
+                                _deletedWhileReading.countDown();
+                        }
+                    }
+                };
+                reader[0].setBufferSize(_bufferSize);
+                reader[0].setWriteFilesWithFilenames(_writeFilesWithFilenames);
+                _reader = reader[0];
+                reader[0].start();
+            }
+        });
+        _server.start();
+    }
+
+    @AfterEach
+    public void dispose() throws Exception
+    {
+        if (_server != null)
+            _server.stop();
+    }
+
+    private HttpTester.Response post(String content) throws Exception
+    {
+        HttpTester.Request request = HttpTester.newRequest();
+        request.setMethod("POST");
+        request.setHeader("Host", "localhost");
+        request.setHeader("Content-Type", "multipart/form-data; boundary=" + BOUNDARY);
+        request.setContent(content);
+        return HttpTester.parseResponse(_connector.getResponse(request.generate(), 5, TimeUnit.SECONDS));
+    }
+
+    private static String part(String name, String filename, String value)
+    {
+        return "--" + BOUNDARY + "\r\n" +
+            "Content-Disposition: form-data; name=\"" + name + "\"" + (filename == null ? "" : "; filename=\"" + filename + "\"") + "\r\n" +
+            "Content-Type: text/plain\r\n" +
+            "\r\n" +
+            value + "\r\n";
+    }
+
+    @Test
+    public void testPartsInMemoryAndInFile() throws Exception
+    {
+        start(new MultipartConfigElement(_tmpDir.getAbsolutePath(), -1, -1, 100));
+
+        String large = "x".repeat(1000);
+        String content = part("field1", null, "value1") +
+            part("file", "large.txt", large) +
+            part("field2", null, "-" + BOUNDARY) +
+            "--" + BOUNDARY + "--\r\n";
+
+        HttpTester.Response response = post(content);
+        assertThat(response.getStatus(), is(HttpStatus.OK_200));
+        assertThat(response.getContent(), is("field1=value1\nfile=" + large + "\nfield2=-" + BOUNDARY + "\n"));
+        assertThat(_events, contains("part field1", "part file", "part field2", "complete"));
+
+        // Only the large part was written to a file, and it has been deleted.
+        assertThat(_files.size(), is(1));
+        assertThat(Files.exists(_files.get(0)), is(false));
+    }
+
+    @Test
+    public void testMaxRequestSize() throws Exception
+    {
+        start(new MultipartConfigElement(_tmpDir.getAbsolutePath(), -1, 500, 100));
+
+        String content = part("field1", null, "value1") +
+            part("file", "large.txt", "x".repeat(1000)) +
+            "--" + BOUNDARY + "--\r\n";
+
+        HttpTester.Response response = post(content);
+        assertThat(response.getStatus(), is(HttpStatus.BAD_REQUEST_400));
+        assertThat(_events.get(_events.size() - 1), containsString("maxRequestSize"));
+        for (Path path : _files)
+        {
+            assertThat(Files.exists(path), is(false));
+        }
+    }
+
+    @Test
+    public void testIncompleteMultiPart() throws Exception
+    {
+        start(new MultipartConfigElement(_tmpDir.getAbsolutePath()));
+
+        HttpTester.Response response = post(part("field1", null, "value1"));
+        assertThat(response.getStatus(), is(HttpStatus.BAD_REQUEST_400));
+        assertThat(_events, contains("failure Incomplete Multipart"));
+    }
+
+    @Test
+    public void testDeletePartsWhileReading() throws Exception
+    {
+        File tmpDir = new File(_tmpDir, "delete");
+        IO.delete(tmpDir);
+        start(new MultipartConfigElement(tmpDir.getAbsolutePath(), -1, -1, 100));
+
+        // Send only the beginning of a large part, so that it is being written to a file.
+        String content = part("file", "large.txt", "x".repeat(1000));
+        String request = "POST / HTTP/1.1\r\n" +
+            "Host: localhost\r\n" +
+            "Content-Type: multipart/form-data; boundary=" + BOUNDARY + "\r\n" +
+            "Content-Length: " + (content.length() + 1000) + "\r\n" +
+            "\r\n" +
+            content;
+        try (LocalConnector.LocalEndPoint ignored = _connector.executeRequest(request))
+        {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (listFiles(tmpDir).isEmpty())
+            {
+                assertThat(System.nanoTime() < deadline, is(true));
+                Thread.sleep(10);
+            }
+
+            _reader.deleteParts();
+
+            // The part being read has been closed and deleted.
+            assertThat(listFiles(tmpDir), empty());
+            assertThat(_events, empty());
+        }
+    }
+
+    @Test
+    public void testDeletePartsDuringRead() throws Exception
+    {
+        File tmpDir = new File(_tmpDir, "deleteDuringRead");
+        IO.delete(tmpDir);
+        // Read all the content at once, so that parts are deleted
+        // while the reading thread is still parsing the next part.
+        _bufferSize = 4096;
+        _writeFilesWithFilenames = true;
+        _deleteOnPart = true;
+        start(new MultipartConfigElement(tmpDir.getAbsolutePath()));
+
+        // The second part is incomplete, and its file is created as soon as its headers are parsed.
+        String content = part("a", null, "A") + part("file", "large.txt", "x".repeat(1000));
+        String request = "POST / HTTP/1.1\r\n" +
+            "Host: localhost\r\n" +
+            "Content-Type: multipart/form-data; boundary=" + BOUNDARY + "\r\n" +
+            "Content-Length: " + (content.length() + 1000) + "\r\n" +
+            "\r\n" +
+            content;
+        try (LocalConnector.LocalEndPoint ignored = _connector.executeRequest(request))
+        {
+            assertTrue(_deletedWhileReading.await(5, TimeUnit.SECONDS));
+
+            // The part being read when the parts were deleted, and the
+            // read buffer, have been released by the reading thread.
+            assertThat(listFiles(tmpDir), empty());
+            assertThat(_events, contains("part a", "buffers 1"));
+            assertThat(getHeapBuffersInUse(), is(0L));
+        }
+    }
+
+    private long getHeapBuffersInUse()
+    {
+        return _bufferPool.getHeapByteBufferCount() - _bufferPool.getAvailableHeapByteBufferCount();
+    }
+
+    private static List<Path> listFiles(File dir) throws IOException
+    {
+        if (!dir.exists())
+            return List.of();
+        try (Stream<Path> files = Files.list(dir.toPath()))
+        {
+            return files.collect(Collectors.toList());
+        }
+    }
+}
@@ -28,6 +28,8 @@ import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -43,6 +45,8 @@ import org.eclipse.jetty.server.handler.AbstractHandler;
 import org.eclipse.jetty.server.handler.DefaultHandler;
 import org.eclipse.jetty.server.handler.HandlerList;
 import org.eclipse.jetty.util.IO;
+import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
+import org.eclipse.jetty.util.thread.Scheduler;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledOnOs;
@@ -183,6 +187,39 @@ public class ServerConnectorTest
         }
     }
 
+    @Test
+    public void testDateFieldTickerUsesServerScheduler() throws Exception
+    {
+        CountDownLatch tickLatch = new CountDownLatch(2);
+        Server server = new Server();
+        Scheduler scheduler = new ScheduledExecutorScheduler()
+        {
+            @Override
+            public Task schedule(Runnable task, long delay, TimeUnit unit)
+            {
+                // Count only the ticks scheduled on the started scheduler.
+                if (task == server.getDateFieldTicker() && isRunning())
+                    tickLatch.countDown();
+                return super.schedule(task, delay, unit);
+            }
+        };
+        server.addBean(scheduler);
+        ServerConnector connector = new ServerConnector(server);
+        server.addConnector(connector);
+
+        try
+        {
+            server.start();
+            assertSame(scheduler, connector.getScheduler());
+            assertSame(scheduler, server.getDateFieldTicker().getScheduler());
+            assertTrue(tickLatch.await(5, TimeUnit.SECONDS));
+        }
+        finally
+        {
+            server.stop();
+        }
+    }
+
     @Test
     public void testReuseAddressFalse() throws Exception
     {
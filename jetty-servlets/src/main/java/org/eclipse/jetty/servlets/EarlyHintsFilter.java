@@ -0,0 +1,225 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.servlets;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A filter that learns the secondary resources associated to primary
+ * resources, and sends them as {@code Link: <path>; rel=preload} headers
+ * in a 103 Early Hints response before the final response.</p>
+ * <p>Secondary resources are associated to primary resources like
+ * {@link PushCacheFilter} does: requests for secondary resources have a
+ * {@code Referer} HTTP header that points to the primary resource, and only
+ * secondary resources requested within a (small) time period from the request
+ * of the primary resource are associated with the primary resource.
+ * The number of cached primary resources is bounded: the least recently
+ * requested primary resources are evicted when the max is reached.</p>
+ * <p>Differently from HTTP/2 server push, which browsers no longer support,
+ * early hints work with HTTP/1.1, HTTP/2 and HTTP/3, and let the client decide
+ * whether to fetch the linked resources, for example if it has them cached.</p>
+ * <p>The {@code as} attribute of each link is derived from the mime type of the
+ * secondary resource, see {@link #getDestination(String)}.</p>
+ * <p>Init parameters:</p>
+ * <dl>
+ * <dt>associatePeriod</dt><dd>the time period in milliseconds within which a secondary resource is associated to its primary resource, default 4000</dd>
+ * <dt>maxAssociations</dt><dd>the max number of links sent for a primary resource, default 16</dd>
+ * <dt>maxPrimaryResources</dt><dd>the max number of cached primary resources, default 4096</dd>
+ * <dt>hosts</dt><dd>a comma separated list of the hosts of the referrers, by default the server name</dd>
+ * <dt>ports</dt><dd>a comma separated list of the ports of the referrers, by default the server port</dd>
+ * <dt>useQueryInKey</dt><dd>whether the query string is part of the key that identifies a resource, default false</dd>
+ * </dl>
+ */
+@ManagedObject("Early hints based on the HTTP 'Referer' header")
+public class EarlyHintsFilter implements Filter
+{
+    private static final Logger LOG = LoggerFactory.getLogger(EarlyHintsFilter.class);
+
+    private final ReferrerResourceCache _cache = new ReferrerResourceCache();
+    private final LongAdder _earlyHints = new LongAdder();
+    private ServletContext _context;
+
+    @Override
+    public void init(FilterConfig config) throws ServletException
+    {
+        _context = config.getServletContext();
+        _cache.init(config);
+        // Expose for JMX.
+        _context.setAttribute(config.getFilterName(), this);
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse resp, FilterChain chain) throws IOException, ServletException
+    {
+        HttpServletRequest request = (HttpServletRequest)req;
+        Request baseRequest = Request.getBaseRequest(request);
+        if (baseRequest == null ||
+            HttpVersion.fromString(request.getProtocol()).getVersion() < HttpVersion.HTTP_1_1.getVersion() ||
+            !HttpMethod.GET.is(request.getMethod()))
+        {
+            chain.doFilter(req, resp);
+            return;
+        }
+
+        long now = System.nanoTime();
+        String path = _cache.pathOf(request);
+
+        String referrer = request.getHeader(HttpHeader.REFERER.asString());
+        if (referrer != null)
+            _cache.associate(request, referrer, path, now);
+
+        Set<String> associated = _cache.access(path, now);
+        if (associated != null && !associated.isEmpty())
+        {
+            HttpFields hints = links(path, associated);
+            if (hints.size() > 0)
+            {
+                Response response = baseRequest.getResponse();
+                if (!response.isCommitted())
+                {
+                    if (LOG.isDebugEnabled())
+                        LOG.debug("Early hints for {}: {}", path, hints);
+                    response.sendEarlyHint(hints);
+                    _earlyHints.increment();
+                }
+            }
+        }
+
+        chain.doFilter(req, resp);
+    }
+
+    private HttpFields links(String path, Set<String> associated)
+    {
+        HttpFields.Mutable links = HttpFields.build();
+        int maxLinks = _cache.getMaxAssociations();
+        // Breadth-first visit of associated resources, so
+        // that resources referenced by secondary resources
+        // (for example fonts referenced by stylesheets) are
+        // also hinted, until the max number of links.
+        Set<String> visited = new HashSet<>();
+        visited.add(path);
+        Queue<Set<String>> queue = new ArrayDeque<>();
+        queue.offer(associated);
+        while (!queue.isEmpty())
+        {
+            for (String childPath : queue.poll())
+            {
+                if (!visited.add(childPath))
+                    continue;
+                if (links.size() >= maxLinks)
+                    return links;
+                Set<String> children = _cache.getAssociated(childPath);
+                if (children != null)
+                    queue.offer(children);
+                links.add(HttpHeader.LINK, link(childPath));
+            }
+        }
+        return links;
+    }
+
+    private String link(String path)
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append('<').append(path).append(">; rel=preload");
+        String destination = getDestination(path);
+        if (destination != null)
+        {
+            builder.append("; as=").append(destination);
+            // SPEC: fonts are always fetched in CORS mode.
+            if ("font".equals(destination))
+                builder.append("; crossorigin");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * <p>Returns the value of the {@code as} attribute of the preload link
+     * for the given secondary resource path, based on its mime type.</p>
+     *
+     * @param path the path of the secondary resource
+     * @return the preload destination, or null if it cannot be determined
+     */
+    protected String getDestination(String path)
+    {
+        int query = path.indexOf('?');
+        String mimeType = _context.getMimeType(query < 0 ? path : path.substring(0, query));
+        if (mimeType == null)
+            return null;
+        if (mimeType.startsWith("text/css"))
+            return "style";
+        if (mimeType.contains("javascript"))
+            return "script";
+        if (mimeType.startsWith("image/"))
+            return "image";
+        if (mimeType.startsWith("font/") || mimeType.contains("font-"))
+            return "font";
+        return null;
+    }
+
+    @Override
+    public void destroy()
+    {
+        clearEarlyHintsCache();
+    }
+
+    @ManagedAttribute("The number of early hints responses sent")
+    public long getEarlyHints()
+    {
+        return _earlyHints.longValue();
+    }
+
+    @ManagedAttribute("The early hints cache contents")
+    public Map<String, String> getEarlyHintsCache()
+    {
+        return _cache.dump();
+    }
+
+    @ManagedOperation(value = "Renews the early hints cache contents", impact = "ACTION")
+    public void renewEarlyHintsCache()
+    {
+        _cache.renew();
+    }
+
+    @ManagedOperation(value = "Clears the early hints cache contents", impact = "ACTION")
+    public void clearEarlyHintsCache()
+    {
+        _cache.clear();
+    }
+}
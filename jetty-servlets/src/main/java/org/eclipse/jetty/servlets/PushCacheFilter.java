@@ -16,17 +16,10 @@ package org.eclipse.jetty.servlets;
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
-import java.util.TreeSet;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
@@ -38,10 +31,7 @@ import javax.servlet.http.PushBuilder;
 
 import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
-import org.eclipse.jetty.http.HttpScheme;
-import org.eclipse.jetty.http.HttpURI;
 import org.eclipse.jetty.http.HttpVersion;
-import org.eclipse.jetty.util.StringUtil;
 import org.eclipse.jetty.util.annotation.ManagedAttribute;
 import org.eclipse.jetty.util.annotation.ManagedObject;
 import org.eclipse.jetty.util.annotation.ManagedOperation;
@@ -66,49 +56,25 @@ import org.slf4j.LoggerFactory;
  * cache.</p>
  * <p>If the init param useQueryInKey is set, then the query string is used as
  * as part of the key to identify a resource</p>
+ * <p>The init param maxPrimaryResources (default 4096) bounds the number of cached
+ * primary resources; the least recently requested primary resources are evicted
+ * when the max is reached.</p>
+ * <p>Browsers no longer support HTTP/2 server push; {@link EarlyHintsFilter}
+ * associates resources in the same way, but sends 103 Early Hints instead.</p>
  */
 @ManagedObject("Push cache based on the HTTP 'Referer' header")
 public class PushCacheFilter implements Filter
 {
     private static final Logger LOG = LoggerFactory.getLogger(PushCacheFilter.class);
 
-    private final Set<Integer> _ports = new HashSet<>();
-    private final Set<String> _hosts = new HashSet<>();
-    private final ConcurrentMap<String, PrimaryResource> _cache = new ConcurrentHashMap<>();
-    private long _associatePeriod = 4000L;
-    private int _maxAssociations = 16;
-    private long _renew = System.nanoTime();
-    private boolean _useQueryInKey;
+    private final ReferrerResourceCache _cache = new ReferrerResourceCache();
 
     @Override
     public void init(FilterConfig config) throws ServletException
     {
-        String associatePeriod = config.getInitParameter("associatePeriod");
-        if (associatePeriod != null)
-            _associatePeriod = Long.parseLong(associatePeriod);
-
-        String maxAssociations = config.getInitParameter("maxAssociations");
-        if (maxAssociations != null)
-            _maxAssociations = Integer.parseInt(maxAssociations);
-
-        String hosts = config.getInitParameter("hosts");
-        if (hosts != null)
-            Collections.addAll(_hosts, StringUtil.csvSplit(hosts));
-
-        String ports = config.getInitParameter("ports");
-        if (ports != null)
-            for (String p : StringUtil.csvSplit(ports))
-            {
-                _ports.add(Integer.parseInt(p));
-            }
-
-        _useQueryInKey = Boolean.parseBoolean(config.getInitParameter("useQueryInKey"));
-
+        _cache.init(config);
         // Expose for JMX.
         config.getServletContext().setAttribute(config.getFilterName(), this);
-
-        if (LOG.isDebugEnabled())
-            LOG.debug("period={} max={} hosts={} ports={}", _associatePeriod, _maxAssociations, _hosts, _ports);
     }
 
     @Override
@@ -149,125 +115,25 @@ public class PushCacheFilter implements Filter
         if (LOG.isDebugEnabled())
             LOG.debug("{} {} referrer={} conditional={}", request.getMethod(), request.getRequestURI(), referrer, conditional);
 
-        String path = request.getRequestURI();
-        String query = request.getQueryString();
-        if (_useQueryInKey && query != null)
-            path += "?" + query;
+        String path = _cache.pathOf(request);
         if (referrer != null)
-        {
-            HttpURI referrerURI = HttpURI.from(referrer);
-            String host = referrerURI.getHost();
-            int port = referrerURI.getPort();
-            if (port <= 0)
-            {
-                String scheme = referrerURI.getScheme();
-                if (scheme != null)
-                    port = HttpScheme.HTTPS.is(scheme) ? 443 : 80;
-                else
-                    port = request.isSecure() ? 443 : 80;
-            }
-
-            boolean referredFromHere = !_hosts.isEmpty() ? _hosts.contains(host) : host.equals(request.getServerName());
-            referredFromHere &= !_ports.isEmpty() ? _ports.contains(port) : port == request.getServerPort();
-
-            if (referredFromHere)
-            {
-                if (HttpMethod.GET.is(request.getMethod()))
-                {
-                    String referrerPath = _useQueryInKey ? referrerURI.getPathQuery() : referrerURI.getPath();
-                    if (referrerPath == null)
-                        referrerPath = "/";
-                    if (referrerPath.startsWith(request.getContextPath() + "/"))
-                    {
-                        if (!referrerPath.equals(path))
-                        {
-                            PrimaryResource primaryResource = _cache.get(referrerPath);
-                            if (primaryResource != null)
-                            {
-                                long primaryTimestamp = primaryResource._timestamp.get();
-                                if (primaryTimestamp != 0)
-                                {
-                                    if (now - primaryTimestamp < TimeUnit.MILLISECONDS.toNanos(_associatePeriod))
-                                    {
-                                        Set<String> associated = primaryResource._associated;
-                                        // Not strictly concurrent-safe, just best effort to limit associations.
-                                        if (associated.size() <= _maxAssociations)
-                                        {
-                                            if (associated.add(path))
-                                            {
-                                                if (LOG.isDebugEnabled())
-                                                    LOG.debug("Associated {} to {}", path, referrerPath);
-                                            }
-                                        }
-                                        else
-                                        {
-                                            if (LOG.isDebugEnabled())
-                                                LOG.debug("Not associated {} to {}, exceeded max associations of {}", path, referrerPath, _maxAssociations);
-                                        }
-                                    }
-                                    else
-                                    {
-                                        if (LOG.isDebugEnabled())
-                                            LOG.debug("Not associated {} to {}, outside associate period of {}ms", path, referrerPath, _associatePeriod);
-                                    }
-                                }
-                            }
-                        }
-                        else
-                        {
-                            if (LOG.isDebugEnabled())
-                                LOG.debug("Not associated {} to {}, referring to self", path, referrerPath);
-                        }
-                    }
-                    else
-                    {
-                        if (LOG.isDebugEnabled())
-                            LOG.debug("Not associated {} to {}, different context", path, referrerPath);
-                    }
-                }
-            }
-            else
-            {
-                if (LOG.isDebugEnabled())
-                    LOG.debug("External referrer {}", referrer);
-            }
-        }
+            _cache.associate(request, referrer, path, now);
 
-        PrimaryResource primaryResource = _cache.get(path);
-        if (primaryResource == null)
-        {
-            PrimaryResource r = new PrimaryResource();
-            primaryResource = _cache.putIfAbsent(path, r);
-            primaryResource = primaryResource == null ? r : primaryResource;
-            primaryResource._timestamp.compareAndSet(0, now);
-            if (LOG.isDebugEnabled())
-                LOG.debug("Cached primary resource {}", path);
-        }
-        else
-        {
-            long last = primaryResource._timestamp.get();
-            if (last < _renew && primaryResource._timestamp.compareAndSet(last, now))
-            {
-                primaryResource._associated.clear();
-                if (LOG.isDebugEnabled())
-                    LOG.debug("Clear associated resources for {}", path);
-            }
-        }
+        Set<String> associated = _cache.access(path, now);
 
         // Push associated resources.
-        if (!conditional && !primaryResource._associated.isEmpty())
+        if (!conditional && associated != null && !associated.isEmpty())
         {
             // Breadth-first push of associated resources.
-            Queue<PrimaryResource> queue = new ArrayDeque<>();
-            queue.offer(primaryResource);
+            Queue<Set<String>> queue = new ArrayDeque<>();
+            queue.offer(associated);
             while (!queue.isEmpty())
             {
-                PrimaryResource parent = queue.poll();
-                for (String childPath : parent._associated)
+                for (String childPath : queue.poll())
                 {
-                    PrimaryResource child = _cache.get(childPath);
-                    if (child != null)
-                        queue.offer(child);
+                    Set<String> children = _cache.getAssociated(childPath);
+                    if (children != null)
+                        queue.offer(children);
 
                     if (LOG.isDebugEnabled())
                         LOG.debug("Pushing {} for {}", childPath, path);
@@ -288,20 +154,13 @@ public class PushCacheFilter implements Filter
     @ManagedAttribute("The push cache contents")
     public Map<String, String> getPushCache()
     {
-        Map<String, String> result = new HashMap<>();
-        for (Map.Entry<String, PrimaryResource> entry : _cache.entrySet())
-        {
-            PrimaryResource resource = entry.getValue();
-            String value = String.format("size=%d: %s", resource._associated.size(), new TreeSet<>(resource._associated));
-            result.put(entry.getKey(), value);
-        }
-        return result;
+        return _cache.dump();
     }
 
     @ManagedOperation(value = "Renews the push cache contents", impact = "ACTION")
     public void renewPushCache()
     {
-        _renew = System.nanoTime();
+        _cache.renew();
     }
 
     @ManagedOperation(value = "Clears the push cache contents", impact = "ACTION")
@@ -309,10 +168,4 @@ public class PushCacheFilter implements Filter
     {
         _cache.clear();
     }
-
-    private static class PrimaryResource
-    {
-        private final Set<String> _associated = Collections.newSetFromMap(new ConcurrentHashMap<>());
-        private final AtomicLong _timestamp = new AtomicLong();
-    }
 }
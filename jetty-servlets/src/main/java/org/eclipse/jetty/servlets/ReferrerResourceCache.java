@@ -0,0 +1,311 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.servlets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.servlet.FilterConfig;
+import javax.servlet.http.HttpServletRequest;
+
+import org.eclipse.jetty.http.HttpScheme;
+import org.eclipse.jetty.http.HttpURI;
+import org.eclipse.jetty.util.StringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A cache of secondary resources associated to primary resources,
+ * shared by {@link PushCacheFilter} and {@link EarlyHintsFilter}.</p>
+ * <p>Requests for secondary resources have a {@code Referer} HTTP header
+ * that points to the primary resource, and only secondary resources requested
+ * within a (small) time period from the request of the primary resource are
+ * associated with the primary resource.</p>
+ * <p>Every requested resource is a candidate primary resource, so the number of
+ * cached primary resources is bounded: when the max is reached, the least recently
+ * requested primary resources are evicted, whether they have associated resources
+ * or not, so that a new primary resource can always be cached.</p>
+ * <p>Init parameters:</p>
+ * <dl>
+ * <dt>associatePeriod</dt><dd>the time period in milliseconds within which a secondary resource is associated to its primary resource, default 4000</dd>
+ * <dt>maxAssociations</dt><dd>the max number of secondary resources associated to a primary resource, default 16</dd>
+ * <dt>maxPrimaryResources</dt><dd>the max number of cached primary resources, default 4096</dd>
+ * <dt>hosts</dt><dd>a comma separated list of the hosts of the referrers, by default the server name</dd>
+ * <dt>ports</dt><dd>a comma separated list of the ports of the referrers, by default the server port</dd>
+ * <dt>useQueryInKey</dt><dd>whether the query string is part of the key that identifies a resource, default false</dd>
+ * </dl>
+ */
+class ReferrerResourceCache
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ReferrerResourceCache.class);
+
+    private final Set<Integer> _ports = new HashSet<>();
+    private final Set<String> _hosts = new HashSet<>();
+    private final ConcurrentMap<String, PrimaryResource> _cache = new ConcurrentHashMap<>();
+    private final AtomicBoolean _sweeping = new AtomicBoolean();
+    private long _associatePeriod = 4000L;
+    private int _maxAssociations = 16;
+    private int _maxPrimaryResources = 4096;
+    private long _renew = System.nanoTime();
+    private boolean _useQueryInKey;
+
+    void init(FilterConfig config)
+    {
+        String associatePeriod = config.getInitParameter("associatePeriod");
+        if (associatePeriod != null)
+            _associatePeriod = Long.parseLong(associatePeriod);
+
+        String maxAssociations = config.getInitParameter("maxAssociations");
+        if (maxAssociations != null)
+            _maxAssociations = Integer.parseInt(maxAssociations);
+
+        String maxPrimaryResources = config.getInitParameter("maxPrimaryResources");
+        if (maxPrimaryResources != null)
+            _maxPrimaryResources = Integer.parseInt(maxPrimaryResources);
+
+        String hosts = config.getInitParameter("hosts");
+        if (hosts != null)
+            Collections.addAll(_hosts, StringUtil.csvSplit(hosts));
+
+        String ports = config.getInitParameter("ports");
+        if (ports != null)
+        {
+            for (String p : StringUtil.csvSplit(ports))
+            {
+                _ports.add(Integer.parseInt(p));
+            }
+        }
+
+        _useQueryInKey = Boolean.parseBoolean(config.getInitParameter("useQueryInKey"));
+
+        if (LOG.isDebugEnabled())
+            LOG.debug("period={} max={} maxPrimary={} hosts={} ports={}", _associatePeriod, _maxAssociations, _maxPrimaryResources, _hosts, _ports);
+    }
+
+    int getMaxAssociations()
+    {
+        return _maxAssociations;
+    }
+
+    /**
+     * @param request the request
+     * @return the key that identifies the requested resource
+     */
+    String pathOf(HttpServletRequest request)
+    {
+        String path = request.getRequestURI();
+        String query = request.getQueryString();
+        if (_useQueryInKey && query != null)
+            path += "?" + query;
+        return path;
+    }
+
+    /**
+     * <p>Associates the resource with the given path to the primary resource
+     * the given referrer points to, if the referrer is from this server and
+     * the primary resource was requested within the associate period.</p>
+     *
+     * @param request the request for the resource
+     * @param referrer the value of the {@code Referer} header of the request
+     * @param path the key of the requested resource
+     * @param now the time of the request, in nanoseconds
+     */
+    void associate(HttpServletRequest request, String referrer, String path, long now)
+    {
+        HttpURI referrerURI = HttpURI.from(referrer);
+        String host = referrerURI.getHost();
+        int port = referrerURI.getPort();
+        if (port <= 0)
+        {
+            String scheme = referrerURI.getScheme();
+            if (scheme != null)
+                port = HttpScheme.HTTPS.is(scheme) ? 443 : 80;
+            else
+                port = request.isSecure() ? 443 : 80;
+        }
+
+        boolean referredFromHere = !_hosts.isEmpty() ? _hosts.contains(host) : request.getServerName().equals(host);
+        referredFromHere &= !_ports.isEmpty() ? _ports.contains(port) : port == request.getServerPort();
+        if (!referredFromHere)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("External referrer {}", referrer);
+            return;
+        }
+
+        String referrerPath = _useQueryInKey ? referrerURI.getPathQuery() : referrerURI.getPath();
+        if (referrerPath == null)
+            referrerPath = "/";
+        if (!referrerPath.startsWith(request.getContextPath() + "/"))
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Not associated {} to {}, different context", path, referrerPath);
+            return;
+        }
+        if (referrerPath.equals(path))
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Not associated {} to {}, referring to self", path, referrerPath);
+            return;
+        }
+
+        PrimaryResource primaryResource = _cache.get(referrerPath);
+        if (primaryResource == null)
+            return;
+        long primaryTimestamp = primaryResource._timestamp.get();
+        if (primaryTimestamp == 0)
+            return;
+        if (now - primaryTimestamp >= TimeUnit.MILLISECONDS.toNanos(_associatePeriod))
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Not associated {} to {}, outside associate period of {}ms", path, referrerPath, _associatePeriod);
+            return;
+        }
+
+        Set<String> associated = primaryResource._associated;
+        // Not strictly concurrent-safe, just best effort to limit associations.
+        if (associated.size() < _maxAssociations)
+        {
+            if (associated.add(path))
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Associated {} to {}", path, referrerPath);
+            }
+        }
+        else
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Not associated {} to {}, exceeded max associations of {}", path, referrerPath, _maxAssociations);
+        }
+    }
+
+    /**
+     * <p>Records a request for the resource with the given path,
+     * so that the following requests can be associated to it.</p>
+     *
+     * @param path the key of the requested resource
+     * @param now the time of the request, in nanoseconds
+     * @return the resources associated to the given path, or null if the resource is not cached
+     */
+    Set<String> access(String path, long now)
+    {
+        PrimaryResource primaryResource = _cache.get(path);
+        if (primaryResource == null)
+        {
+            if (_cache.size() >= _maxPrimaryResources && !sweep(now))
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Not cached primary resource {}, exceeded max primary resources of {}", path, _maxPrimaryResources);
+                return null;
+            }
+            PrimaryResource r = new PrimaryResource();
+            primaryResource = _cache.putIfAbsent(path, r);
+            primaryResource = primaryResource == null ? r : primaryResource;
+            primaryResource._timestamp.compareAndSet(0, now);
+            primaryResource._lastAccess = now;
+            if (LOG.isDebugEnabled())
+                LOG.debug("Cached primary resource {}", path);
+        }
+        else
+        {
+            primaryResource._lastAccess = now;
+            long last = primaryResource._timestamp.get();
+            if (last < _renew && primaryResource._timestamp.compareAndSet(last, now))
+            {
+                primaryResource._associated.clear();
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Clear associated resources for {}", path);
+            }
+        }
+        return primaryResource._associated;
+    }
+
+    /**
+     * @param path the key of a resource
+     * @return the resources associated to the given path, or null if the resource is not cached
+     */
+    Set<String> getAssociated(String path)
+    {
+        PrimaryResource primaryResource = _cache.get(path);
+        return primaryResource == null ? null : primaryResource._associated;
+    }
+
+    private boolean sweep(long now)
+    {
+        // Only one thread sweeps, the others do not cache their resource.
+        if (_sweeping.compareAndSet(false, true))
+        {
+            try
+            {
+                // Evict a quarter of the least recently requested resources,
+                // so that the cost of sorting is amortized over many requests.
+                List<Map.Entry<String, PrimaryResource>> entries = new ArrayList<>(_cache.entrySet());
+                entries.sort(Comparator.comparingLong(entry -> now - entry.getValue()._lastAccess));
+                int retain = _maxPrimaryResources - Math.max(1, _maxPrimaryResources / 4);
+                for (int i = entries.size() - 1; i >= retain && i >= 0; --i)
+                {
+                    Map.Entry<String, PrimaryResource> entry = entries.get(i);
+                    _cache.remove(entry.getKey(), entry.getValue());
+                }
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Swept primary resources, {} remaining", _cache.size());
+            }
+            finally
+            {
+                _sweeping.set(false);
+            }
+        }
+        return _cache.size() < _maxPrimaryResources;
+    }
+
+    Map<String, String> dump()
+    {
+        Map<String, String> result = new HashMap<>();
+        for (Map.Entry<String, PrimaryResource> entry : _cache.entrySet())
+        {
+            PrimaryResource resource = entry.getValue();
+            String value = String.format("size=%d: %s", resource._associated.size(), new TreeSet<>(resource._associated));
+            result.put(entry.getKey(), value);
+        }
+        return result;
+    }
+
+    void renew()
+    {
+        _renew = System.nanoTime();
+    }
+
+    void clear()
+    {
+        _cache.clear();
+    }
+
+    private static class PrimaryResource
+    {
+        private final Set<String> _associated = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        private final AtomicLong _timestamp = new AtomicLong();
+        private volatile long _lastAccess;
+    }
+}
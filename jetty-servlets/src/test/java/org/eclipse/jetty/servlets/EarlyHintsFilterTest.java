@@ -0,0 +1,175 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.servlets;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Map;
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http.HttpTester;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.FilterHolder;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+public class EarlyHintsFilterTest
+{
+    private Server _server;
+    private LocalConnector _connector;
+    private EarlyHintsFilter _filter;
+
+    private void start(Map<String, String> initParameters) throws Exception
+    {
+        _server = new Server();
+        _connector = new LocalConnector(_server);
+        _server.addConnector(_connector);
+        ServletContextHandler context = new ServletContextHandler(_server, "/ctx");
+        _filter = new EarlyHintsFilter();
+        FilterHolder filterHolder = new FilterHolder(_filter);
+        filterHolder.setInitParameters(initParameters);
+        context.getServletHandler().addFilterWithMapping(filterHolder, "/*", EnumSet.of(DispatcherType.REQUEST));
+        context.addServlet(ResourceServlet.class, "/*");
+        _server.start();
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        LifeCycle.stop(_server);
+    }
+
+    @Test
+    public void testEarlyHintsForAssociatedResources() throws Exception
+    {
+        start(Map.of());
+
+        // The first request for the primary resource has no hints.
+        LocalConnector.LocalEndPoint endPoint = _connector.executeRequest(request("/ctx/index.html", null, "HTTP/1.1"));
+        HttpTester.Response response = HttpTester.parseResponse(endPoint.getResponse());
+        assertThat(response.getStatus(), is(HttpStatus.OK_200));
+
+        // Requests for secondary resources refer to the primary resource.
+        String referrer = "http://localhost/ctx/index.html";
+        endPoint = _connector.executeRequest(request("/ctx/style.css", referrer, "HTTP/1.1"));
+        assertThat(HttpTester.parseResponse(endPoint.getResponse()).getStatus(), is(HttpStatus.OK_200));
+        endPoint = _connector.executeRequest(request("/ctx/app.js", referrer, "HTTP/1.1"));
+        assertThat(HttpTester.parseResponse(endPoint.getResponse()).getStatus(), is(HttpStatus.OK_200));
+        // Resources referenced by secondary resources are hinted too.
+        endPoint = _connector.executeRequest(request("/ctx/logo.png", "http://localhost/ctx/style.css", "HTTP/1.1"));
+        assertThat(HttpTester.parseResponse(endPoint.getResponse()).getStatus(), is(HttpStatus.OK_200));
+
+        // The next request for the primary resource has the hints.
+        endPoint = _connector.executeRequest(request("/ctx/index.html", null, "HTTP/1.1"));
+        HttpTester.Response earlyHints = HttpTester.parseResponse(endPoint.getResponse());
+        assertThat(earlyHints.getStatus(), is(HttpStatus.EARLY_HINT_103));
+        assertThat(earlyHints.getValuesList(HttpHeader.LINK), containsInAnyOrder(
+            "</ctx/style.css>; rel=preload; as=style",
+            "</ctx/app.js>; rel=preload; as=script",
+            "</ctx/logo.png>; rel=preload; as=image"
+        ));
+        response = HttpTester.parseResponse(endPoint.getResponse());
+        assertThat(response.getStatus(), is(HttpStatus.OK_200));
+        assertThat(response.get(HttpHeader.LINK), is((String)null));
+        assertThat(_filter.getEarlyHints(), is(1L));
+    }
+
+    @Test
+    public void testNoEarlyHintsForHTTP10() throws Exception
+    {
+        start(Map.of());
+        String referrer = "http://localhost/ctx/index.html";
+        _connector.getResponse(request("/ctx/index.html", null, "HTTP/1.0"));
+        _connector.getResponse(request("/ctx/style.css", referrer, "HTTP/1.1"));
+
+        HttpTester.Response response = HttpTester.parseResponse(_connector.getResponse(request("/ctx/index.html", null, "HTTP/1.0")));
+        assertThat(response.getStatus(), is(HttpStatus.OK_200));
+        assertThat(_filter.getEarlyHints(), is(0L));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedPrimaryResourcesAreEvicted() throws Exception
+    {
+        start(Map.of("maxPrimaryResources", "2"));
+
+        _connector.getResponse(request("/ctx/a.html", null, "HTTP/1.1"));
+        _connector.getResponse(request("/ctx/b.html", null, "HTTP/1.1"));
+        _connector.getResponse(request("/ctx/a.html", null, "HTTP/1.1"));
+        // The cache is full, the least recently requested resource is evicted.
+        _connector.getResponse(request("/ctx/c.html", null, "HTTP/1.1"));
+        assertThat(_filter.getEarlyHintsCache().keySet(), containsInAnyOrder("/ctx/a.html", "/ctx/c.html"));
+    }
+
+    @Test
+    public void testNewPrimaryResourceGetsHintsWhenCacheIsFullOfAssociations() throws Exception
+    {
+        start(Map.of("maxPrimaryResources", "2"));
+
+        // Fill the cache with resources that all have associations.
+        _connector.getResponse(request("/ctx/a.html", null, "HTTP/1.1"));
+        _connector.getResponse(request("/ctx/a.css", "http://localhost/ctx/a.html", "HTTP/1.1"));
+        _connector.getResponse(request("/ctx/a.html", "http://localhost/ctx/a.css", "HTTP/1.1"));
+        Map<String, String> cache = _filter.getEarlyHintsCache();
+        assertThat(cache.keySet(), containsInAnyOrder("/ctx/a.html", "/ctx/a.css"));
+        assertThat(cache.values(), everyItem(startsWith("size=1")));
+
+        // A new primary resource is still cached and associated.
+        _connector.getResponse(request("/ctx/b.html", null, "HTTP/1.1"));
+        _connector.getResponse(request("/ctx/b.css", "http://localhost/ctx/b.html", "HTTP/1.1"));
+
+        LocalConnector.LocalEndPoint endPoint = _connector.executeRequest(request("/ctx/b.html", null, "HTTP/1.1"));
+        HttpTester.Response earlyHints = HttpTester.parseResponse(endPoint.getResponse());
+        assertThat(earlyHints.getStatus(), is(HttpStatus.EARLY_HINT_103));
+        assertThat(earlyHints.getValuesList(HttpHeader.LINK), contains("</ctx/b.css>; rel=preload; as=style"));
+    }
+
+    private static String request(String uri, String referrer, String version)
+    {
+        HttpTester.Request request = HttpTester.newRequest();
+        request.setMethod("GET");
+        request.setVersion(version);
+        request.setURI(uri);
+        request.setHeader("Host", "localhost");
+        request.setHeader("Connection", "close");
+        if (referrer != null)
+            request.setHeader("Referer", referrer);
+        return BufferUtil.toString(request.generate());
+    }
+
+    public static class ResourceServlet extends HttpServlet
+    {
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException
+        {
+            resp.setContentType("text/plain");
+            resp.getWriter().print(req.getRequestURI());
+        }
+    }
+}
@@ -423,6 +423,47 @@ public class Pool<T> implements AutoCloseable, Dumpable
         }
     }
 
+    /**
+     * <p>Acquires the given entry, if it is available.</p>
+     * <p>This method allows to acquire entries selected with strategies
+     * other than the {@link StrategyType strategy} of this pool, for example
+     * based on metrics about the pooled objects obtained from {@link #values()}.</p>
+     * <p>Like for {@link #acquire()}, the entry must be {@link #release(Pool.Entry) released}
+     * only if this method returns {@code true}.</p>
+     *
+     * @param entry the entry to acquire
+     * @return whether the entry was acquired
+     */
+    public boolean acquire(Entry entry)
+    {
+        if (closed)
+            return false;
+        return entry.tryAcquire();
+    }
+
+    /**
+     * <p>Returns the entry at the given index, in constant time, so that strategies
+     * other than the {@link StrategyType strategy} of this pool can select entries
+     * to {@link #acquire(Pool.Entry) acquire} without iterating over {@link #values()}.</p>
+     * <p>Entries may be concurrently removed, so the index of an entry may change
+     * and indexes lower than a previously obtained {@link #size()} may be invalid.</p>
+     *
+     * @param index the index of the entry
+     * @return the entry at the given index, or null if there is no such entry
+     */
+    public Entry get(int index)
+    {
+        try
+        {
+            return entries.get(index);
+        }
+        catch (IndexOutOfBoundsException x)
+        {
+            LOGGER.trace("IGNORED", x);
+            return null;
+        }
+    }
+
     /**
      * <p>Acquires an entry from the pool,
      * reserving and creating a new entry if necessary.</p>
@@ -0,0 +1,319 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Arrays;
+
+/**
+ * <p>An incremental decoder of {@code application/x-www-form-urlencoded} content.</p>
+ * <p>Unlike the {@link UrlEncoded} methods, which decode a whole {@link String} or
+ * {@link java.io.InputStream} into a {@link MultiMap}, this decoder is fed the content
+ * chunk by chunk with {@link #decode(ByteBuffer)}, as it arrives, and notifies each
+ * decoded field to a {@link Handler}. It never blocks, so it can be driven by an
+ * asynchronous read loop, and it does not need to build a map of all the fields.</p>
+ * <p>Escape sequences and field separators may be split across chunks.
+ * Field names made of ASCII characters are interned in a small shared cache, so that
+ * the common names of forms are not allocated again for every request.</p>
+ * <p>The charset must be ASCII compatible, as the separators are matched as bytes.</p>
+ * <p>Instances are not thread-safe, and {@link #complete()} must be called once all
+ * the content has been decoded.</p>
+ */
+public class UrlEncodedDecoder
+{
+    private static final int KEY_CACHE_SIZE = 256;
+    private static final String[] KEY_CACHE = new String[KEY_CACHE_SIZE];
+    private static final String SPECIAL_CHARS = "&=%+";
+    private static final byte[] SPECIAL_BYTES = SPECIAL_CHARS.getBytes(StandardCharsets.US_ASCII);
+
+    private final Charset _charset;
+    private final int _maxLength;
+    private final int _maxFields;
+    private final Handler _handler;
+    private byte[] _bytes = new byte[64];
+    private int _length;
+    private boolean _ascii = true;
+    private int _hash;
+    private String _name;
+    private int _escape;
+    private int _hi;
+    private long _total;
+    private int _fields;
+    private boolean _complete;
+
+    /**
+     * @param charset the charset of the decoded names and values, or null for {@link UrlEncoded#ENCODING}
+     * @param maxLength the maximum length of the content, or -1 for no limit
+     * @param maxFields the maximum number of fields, or -1 for no limit
+     * @param handler the handler notified of the decoded fields
+     */
+    public UrlEncodedDecoder(Charset charset, int maxLength, int maxFields, Handler handler)
+    {
+        _charset = charset == null ? UrlEncoded.ENCODING : charset;
+        if (!isSupported(_charset))
+            throw new UnsupportedCharsetException(_charset.name());
+        _maxLength = maxLength;
+        _maxFields = maxFields;
+        _handler = handler;
+    }
+
+    /**
+     * @param charset the charset to test
+     * @return whether the given charset can be used by this decoder
+     */
+    public static boolean isSupported(Charset charset)
+    {
+        // The separators and escape characters must be encoded as their single ASCII bytes.
+        if (!charset.canEncode())
+            return false;
+        return Arrays.equals(SPECIAL_BYTES, SPECIAL_CHARS.getBytes(charset));
+    }
+
+    /**
+     * <p>Decodes all the given content, notifying the fields that are completed by it.</p>
+     *
+     * @param buffer the content to decode, consumed by this method
+     * @throws IllegalStateException if the content exceeds the maximum length or the maximum number of fields
+     * @throws IllegalArgumentException if the content contains an invalid escape sequence
+     */
+    public void decode(ByteBuffer buffer)
+    {
+        if (buffer.hasArray())
+        {
+            decode(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            buffer.position(buffer.limit());
+        }
+        else
+        {
+            checkLength(buffer.remaining());
+            while (buffer.hasRemaining())
+            {
+                decode(buffer.get());
+            }
+        }
+    }
+
+    /**
+     * <p>Decodes all the given content, notifying the fields that are completed by it.</p>
+     *
+     * @param bytes the content to decode
+     * @param offset the offset of the content within the array
+     * @param length the length of the content
+     * @throws IllegalStateException if the content exceeds the maximum length or the maximum number of fields
+     * @throws IllegalArgumentException if the content contains an invalid escape sequence
+     */
+    public void decode(byte[] bytes, int offset, int length)
+    {
+        checkLength(length);
+        int end = offset + length;
+        for (int i = offset; i < end; ++i)
+        {
+            decode(bytes[i]);
+        }
+    }
+
+    /**
+     * <p>Notifies the last field, if any, as the end of the content has been reached.</p>
+     *
+     * @throws IllegalArgumentException if the content ends with an incomplete escape sequence
+     */
+    public void complete()
+    {
+        if (_complete)
+            return;
+        _complete = true;
+        if (_escape != 0)
+            throw new IllegalArgumentException("Incomplete % encoding");
+        endField();
+    }
+
+    /**
+     * @return the number of fields notified so far
+     */
+    public int getFields()
+    {
+        return _fields;
+    }
+
+    private void checkLength(int length)
+    {
+        if (_complete)
+            throw new IllegalStateException("complete");
+        _total += length;
+        if (_maxLength >= 0 && _total > _maxLength)
+            throw new IllegalStateException("Form is larger than max length " + _maxLength);
+    }
+
+    private void decode(byte b)
+    {
+        if (_escape > 0)
+        {
+            int digit = hexDigit(b);
+            if (_escape == 1)
+            {
+                _hi = digit;
+                _escape = 2;
+            }
+            else
+            {
+                _escape = 0;
+                append((byte)((_hi << 4) + digit));
+            }
+            return;
+        }
+
+        switch (b)
+        {
+            case '&':
+                endField();
+                break;
+
+            case '=':
+                if (_name == null)
+                {
+                    _name = takeName();
+                    break;
+                }
+                append(b);
+                break;
+
+            case '+':
+                append((byte)' ');
+                break;
+
+            case '%':
+                _escape = 1;
+                break;
+
+            default:
+                append(b);
+                break;
+        }
+    }
+
+    private int hexDigit(byte b)
+    {
+        try
+        {
+            return TypeUtil.convertHexDigit(b);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Not valid encoding '%" + (char)b + "'");
+        }
+    }
+
+    private void append(byte b)
+    {
+        if (_length == _bytes.length)
+            _bytes = Arrays.copyOf(_bytes, _length * 2);
+        _bytes[_length++] = b;
+        _hash = 31 * _hash + b;
+        if (b < 0)
+            _ascii = false;
+    }
+
+    private void endField()
+    {
+        if (_name != null)
+        {
+            String value = _length == 0 ? "" : new String(_bytes, 0, _length, _charset);
+            reset();
+            notifyField(_name, value);
+        }
+        else if (_length > 0)
+        {
+            notifyField(takeName(), "");
+        }
+        _name = null;
+    }
+
+    private void notifyField(String name, String value)
+    {
+        ++_fields;
+        if (_maxFields >= 0 && _fields > _maxFields)
+            throw new IllegalStateException(String.format("Form with too many keys [%d > %d]", _fields, _maxFields));
+        _handler.onField(name, value);
+    }
+
+    private String takeName()
+    {
+        String name;
+        if (_length == 0)
+        {
+            name = "";
+        }
+        else if (_ascii)
+        {
+            // ASCII names decode the same in any supported charset,
+            // so they can be looked up in the shared cache without decoding.
+            int index = _hash & (KEY_CACHE_SIZE - 1);
+            name = KEY_CACHE[index];
+            if (name == null || !matches(name))
+            {
+                name = new String(_bytes, 0, _length, StandardCharsets.ISO_8859_1);
+                KEY_CACHE[index] = name;
+            }
+        }
+        else
+        {
+            name = new String(_bytes, 0, _length, _charset);
+        }
+        reset();
+        return name;
+    }
+
+    private boolean matches(String name)
+    {
+        if (name.length() != _length)
+            return false;
+        for (int i = 0; i < _length; ++i)
+        {
+            if (name.charAt(i) != _bytes[i])
+                return false;
+        }
+        return true;
+    }
+
+    private void reset()
+    {
+        _length = 0;
+        _hash = 0;
+        _ascii = true;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x{%s,fields=%d,total=%d}", getClass().getSimpleName(), hashCode(), _charset, _fields, _total);
+    }
+
+    /**
+     * <p>The handler of the fields decoded by a {@link UrlEncodedDecoder}.</p>
+     */
+    @FunctionalInterface
+    public interface Handler
+    {
+        /**
+         * <p>Callback method invoked when a field has been decoded.</p>
+         *
+         * @param name the field name
+         * @param value the field value, or the empty string if the field has no value
+         */
+        void onField(String name, String value);
+    }
+}
@@ -39,8 +39,10 @@ import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class PoolTest
 {
@@ -120,6 +122,51 @@ public class PoolTest
         assertThrows(IllegalStateException.class, () -> pool.release(e2));
     }
 
+    @ParameterizedTest
+    @MethodSource(value = "strategy")
+    public void testAcquireEntry(Factory factory)
+    {
+        Pool<CloseableHolder> pool = factory.getPool(2);
+        pool.setMaxMultiplex(2);
+        Pool<CloseableHolder>.Entry reserved = pool.reserve();
+        Pool<CloseableHolder>.Entry e1 = pool.reserve();
+        e1.enable(new CloseableHolder("aaa"), false);
+
+        // A reserved entry cannot be acquired.
+        assertFalse(pool.acquire(reserved));
+
+        assertTrue(pool.acquire(e1));
+        assertTrue(pool.acquire(e1));
+        assertThat(pool.getInUseCount(), is(1));
+        // The entry is already acquired up to its max multiplex.
+        assertFalse(pool.acquire(e1));
+
+        assertTrue(e1.release());
+        assertTrue(e1.release());
+        assertThat(pool.getIdleCount(), is(1));
+
+        pool.close();
+        assertFalse(pool.acquire(e1));
+    }
+
+    @ParameterizedTest
+    @MethodSource(value = "strategy")
+    public void testGetEntry(Factory factory)
+    {
+        Pool<CloseableHolder> pool = factory.getPool(2);
+        Pool<CloseableHolder>.Entry e1 = pool.reserve();
+        Pool<CloseableHolder>.Entry e2 = pool.reserve();
+
+        assertThat(pool.get(0), sameInstance(e1));
+        assertThat(pool.get(1), sameInstance(e2));
+        assertNull(pool.get(2));
+        assertNull(pool.get(-1));
+
+        assertTrue(pool.remove(e1));
+        assertThat(pool.get(0), sameInstance(e2));
+        assertNull(pool.get(1));
+    }
+
     @ParameterizedTest
     @MethodSource(value = "strategy")
     public void testRemoveBeforeRelease(Factory factory)
@@ -0,0 +1,147 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class UrlEncodedDecoderTest
+{
+    private static List<String> decode(String content, Charset charset, int chunk)
+    {
+        List<String> fields = new ArrayList<>();
+        UrlEncodedDecoder decoder = new UrlEncodedDecoder(charset, -1, -1, (name, value) -> fields.add(name + "|" + value));
+        byte[] bytes = content.getBytes(StandardCharsets.ISO_8859_1);
+        for (int i = 0; i < bytes.length; i += chunk)
+        {
+            decoder.decode(ByteBuffer.wrap(bytes, i, Math.min(chunk, bytes.length - i)));
+        }
+        decoder.complete();
+        return fields;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 7, 1024})
+    public void testChunkedDecode(int chunk)
+    {
+        String content = "name1=value1&name2=&name3&name4=a+b%20c&=empty&&name5=x%3Dy=z&%26=%C3%A9";
+        List<String> fields = decode(content, StandardCharsets.UTF_8, chunk);
+        assertThat(fields, contains("name1|value1", "name2|", "name3|", "name4|a b c", "|empty", "name5|x=y=z", "&|é"));
+    }
+
+    @Test
+    public void testSameAsUrlEncoded()
+    {
+        String content = "a=1&b=2&a=3&c=%E2%82%AC+%41&d";
+        MultiMap<String> expected = new MultiMap<>();
+        UrlEncoded.decodeUtf8To(content, expected);
+
+        MultiMap<String> actual = new MultiMap<>();
+        UrlEncodedDecoder decoder = new UrlEncodedDecoder(StandardCharsets.UTF_8, -1, -1, actual::add);
+        decoder.decode(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer());
+        decoder.complete();
+        assertThat(actual, is(expected));
+        assertThat(decoder.getFields(), is(5));
+    }
+
+    @Test
+    public void testIso88591()
+    {
+        List<String> fields = decode("n%E9=v%E9", StandardCharsets.ISO_8859_1, 2);
+        assertThat(fields, contains("né|vé"));
+    }
+
+    @Test
+    public void testNamesAreShared()
+    {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 2; ++i)
+        {
+            UrlEncodedDecoder decoder = new UrlEncodedDecoder(StandardCharsets.UTF_8, -1, -1, (name, value) -> names.add(name));
+            decoder.decode(BufferUtil.toBuffer("username=" + i));
+            decoder.complete();
+        }
+        assertThat(names.get(0), is("username"));
+        assertThat(names.get(1), sameInstance(names.get(0)));
+    }
+
+    @Test
+    public void testMaxLength()
+    {
+        UrlEncodedDecoder decoder = new UrlEncodedDecoder(StandardCharsets.UTF_8, 10, -1, (name, value) -> {});
+        decoder.decode(BufferUtil.toBuffer("name=12345"));
+        IllegalStateException x = assertThrows(IllegalStateException.class, () -> decoder.decode(BufferUtil.toBuffer("6")));
+        assertThat(x.getMessage(), containsString("Form is larger than max length 10"));
+    }
+
+    @Test
+    public void testMaxFields()
+    {
+        UrlEncodedDecoder decoder = new UrlEncodedDecoder(StandardCharsets.UTF_8, -1, 2, (name, value) -> {});
+        decoder.decode(BufferUtil.toBuffer("a=1&b=2&c"));
+        IllegalStateException x = assertThrows(IllegalStateException.class, decoder::complete);
+        assertThat(x.getMessage(), containsString("Form with too many keys [3 > 2]"));
+    }
+
+    @Test
+    public void testInvalidEncoding()
+    {
+        UrlEncodedDecoder decoder = new UrlEncodedDecoder(StandardCharsets.UTF_8, -1, -1, (name, value) -> {});
+        assertThrows(IllegalArgumentException.class, () -> decoder.decode(BufferUtil.toBuffer("a=%4G")));
+
+        UrlEncodedDecoder incomplete = new UrlEncodedDecoder(StandardCharsets.UTF_8, -1, -1, (name, value) -> {});
+        incomplete.decode(BufferUtil.toBuffer("a=%4"));
+        assertThrows(IllegalArgumentException.class, incomplete::complete);
+    }
+
+    @Test
+    public void testUnsupportedCharset()
+    {
+        assertThrows(UnsupportedCharsetException.class, () -> new UrlEncodedDecoder(StandardCharsets.UTF_16, -1, -1, (name, value) -> {}));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"UTF-16", "UTF-16LE", "UTF-32", "IBM037", "IBM500"})
+    public void testAsciiIncompatibleCharsetsAreNotSupported(String name)
+    {
+        assumeTrue(Charset.isSupported(name));
+        assertFalse(UrlEncodedDecoder.isSupported(Charset.forName(name)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"UTF-8", "ISO-8859-1", "US-ASCII", "windows-1252", "Shift_JIS"})
+    public void testAsciiCompatibleCharsetsAreSupported(String name)
+    {
+        assumeTrue(Charset.isSupported(name));
+        assertTrue(UrlEncodedDecoder.isSupported(Charset.forName(name)));
+    }
+}
@@ -16,6 +16,7 @@ package org.eclipse.jetty.client.jmh;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.jetty.client.ConnectionPool;
 import org.eclipse.jetty.client.DuplexConnectionPool;
@@ -24,6 +25,7 @@ import org.eclipse.jetty.client.HttpConversation;
 import org.eclipse.jetty.client.HttpDestination;
 import org.eclipse.jetty.client.HttpExchange;
 import org.eclipse.jetty.client.HttpRequest;
+import org.eclipse.jetty.client.LeastLatencyConnectionPool;
 import org.eclipse.jetty.client.MultiplexConnectionPool;
 import org.eclipse.jetty.client.Origin;
 import org.eclipse.jetty.client.RoundRobinConnectionPool;
@@ -45,23 +47,35 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
+/**
+ * <p>Measures the overhead of acquiring and releasing connections from the connection pools.</p>
+ * <p>With the {@code skewed} latency, one connection in four is slower than the others,
+ * so that the throughput also shows how well a pool selects the faster connections.</p>
+ */
 @State(Scope.Benchmark)
 public class ConnectionPoolsBenchmark
 {
+    private static final int SLOW_FACTOR = 10;
+
     private ConnectionPool pool;
 
-    @Param({"round-robin", "cached/multiplex", "uncached/multiplex", "cached/duplex", "uncached/duplex"})
+    @Param({"round-robin", "cached/multiplex", "uncached/multiplex", "cached/duplex", "uncached/duplex", "least-latency"})
     public static String POOL_TYPE;
 
+    @Param({"uniform", "skewed"})
+    public static String LATENCY;
+
     @Setup
     public void setUp() throws Exception
     {
+        AtomicInteger connections = new AtomicInteger();
         HttpClient httpClient = new HttpClient()
         {
             @Override
             protected void newConnection(HttpDestination destination, Promise<Connection> promise)
             {
-                promise.succeeded(new MockConnection());
+                boolean slow = "skewed".equals(LATENCY) && connections.getAndIncrement() % 4 == 0;
+                promise.succeeded(new MockConnection(slow ? SLOW_FACTOR : 1));
             }
         };
         HttpDestination httpDestination = new HttpDestination(httpClient, new Origin("http", "localhost", 8080), false)
@@ -93,6 +107,10 @@ public class ConnectionPoolsBenchmark
                 pool = new MultiplexConnectionPool(httpDestination, maxConnections, true, Callback.NOOP, 12);
                 pool.preCreateConnections(initialConnections).get();
                 break;
+            case "least-latency":
+                pool = new LeastLatencyConnectionPool(httpDestination, maxConnections, Callback.NOOP, 12);
+                pool.preCreateConnections(initialConnections).get();
+                break;
             case "round-robin":
                 pool = new RoundRobinConnectionPool(httpDestination, maxConnections, Callback.NOOP);
                 pool.preCreateConnections(maxConnections).get();
@@ -115,7 +133,8 @@ public class ConnectionPoolsBenchmark
         Connection connection = pool.acquire(true);
         if (connection == null && !POOL_TYPE.equals("round-robin"))
             throw new AssertionError("from thread " + Thread.currentThread().getName());
-        Blackhole.consumeCPU(ThreadLocalRandom.current().nextInt(10, 20));
+        int factor = connection == null ? 1 : ((MockConnection)connection).factor;
+        Blackhole.consumeCPU(factor * ThreadLocalRandom.current().nextInt(10, 20));
         if (connection != null)
             pool.release(connection);
     }
@@ -136,8 +155,14 @@ public class ConnectionPoolsBenchmark
 
     static class MockConnection implements Connection, Attachable
     {
+        private final int factor;
         private Object attachment;
 
+        MockConnection(int factor)
+        {
+            this.factor = factor;
+        }
+
         @Override
         public void close()
         {
@@ -0,0 +1,150 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http2.jmh;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpURI;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http2.IStream;
+import org.eclipse.jetty.http2.SimpleFlowControlStrategy;
+import org.eclipse.jetty.http2.api.Session;
+import org.eclipse.jetty.http2.api.Stream;
+import org.eclipse.jetty.http2.client.HTTP2ClientSession;
+import org.eclipse.jetty.http2.frames.DataFrame;
+import org.eclipse.jetty.http2.frames.HeadersFrame;
+import org.eclipse.jetty.http2.generator.Generator;
+import org.eclipse.jetty.io.ByteArrayEndPoint;
+import org.eclipse.jetty.io.MappedByteBufferPool;
+import org.eclipse.jetty.util.FutureCallback;
+import org.eclipse.jetty.util.FuturePromise;
+import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>Measures the throughput of many threads writing DATA frames
+ * to different streams of the same {@link HTTP2ClientSession}.</p>
+ * <p>The session writes to an {@link ByteArrayEndPoint} that discards
+ * the bytes, and flow control is disabled, so that the cost of frame
+ * submission to the flusher dominates for small DATA frames, while
+ * the cost of frame generation dominates for large DATA frames.</p>
+ */
+@State(Scope.Benchmark)
+@Threads(8)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class HTTP2FlusherBenchmark
+{
+    @Param({"16", "262144"})
+    public int size;
+
+    private ScheduledExecutorScheduler scheduler;
+    private HTTP2ClientSession session;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        scheduler = new ScheduledExecutorScheduler();
+        scheduler.start();
+        ByteArrayEndPoint endPoint = new ByteArrayEndPoint()
+        {
+            @Override
+            public boolean flush(ByteBuffer... buffers)
+            {
+                for (ByteBuffer buffer : buffers)
+                {
+                    buffer.position(buffer.limit());
+                }
+                return true;
+            }
+        };
+        Generator generator = new Generator(new MappedByteBufferPool());
+        session = new HTTP2ClientSession(scheduler, endPoint, generator, new Session.Listener.Adapter(), new UnlimitedFlowControlStrategy());
+        session.setMaxLocalStreams(-1);
+        session.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        session.stop();
+        scheduler.stop();
+    }
+
+    @State(Scope.Thread)
+    public static class Writer
+    {
+        private byte[] content;
+        private Stream stream;
+
+        @Setup(Level.Trial)
+        public void setUp(HTTP2FlusherBenchmark benchmark) throws Exception
+        {
+            content = new byte[benchmark.size];
+            MetaData.Request request = new MetaData.Request("POST", HttpURI.from("http://localhost/"), HttpVersion.HTTP_2, HttpFields.EMPTY);
+            FuturePromise<Stream> promise = new FuturePromise<>();
+            benchmark.session.newStream(new HeadersFrame(request, null, false), promise, new Stream.Listener.Adapter());
+            stream = promise.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void testWriteData(Writer writer) throws Exception
+    {
+        Stream stream = writer.stream;
+        FutureCallback callback = new FutureCallback();
+        stream.data(new DataFrame(stream.getId(), ByteBuffer.wrap(writer.content), false), callback);
+        callback.get(5, TimeUnit.SECONDS);
+    }
+
+    private static class UnlimitedFlowControlStrategy extends SimpleFlowControlStrategy
+    {
+        @Override
+        public void onDataSending(IStream stream, int length)
+        {
+            // Do not consume the send windows.
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+            .include(HTTP2FlusherBenchmark.class.getSimpleName())
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
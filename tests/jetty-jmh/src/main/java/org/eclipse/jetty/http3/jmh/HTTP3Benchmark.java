@@ -0,0 +1,182 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http3.jmh;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http.HttpURI;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http3.api.Session;
+import org.eclipse.jetty.http3.api.Stream;
+import org.eclipse.jetty.http3.client.HTTP3Client;
+import org.eclipse.jetty.http3.frames.HeadersFrame;
+import org.eclipse.jetty.http3.server.HTTP3ServerConnector;
+import org.eclipse.jetty.http3.server.RawHTTP3ServerConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>Measures the throughput of concurrent HTTP/3 requests over loopback,
+ * so that the server receives bursts of datagrams for the same connection.</p>
+ * <p>The {@code receiveBatchSize} parameter is the max number of datagrams
+ * that the server receives before handing off the tasks they produced.</p>
+ * <p>The {@code cpuNanos} secondary result is the process CPU time spent
+ * during the operations of an iteration, so that it can be compared
+ * with the number of operations to obtain the CPU time per request.</p>
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class HTTP3Benchmark
+{
+    private static final int STREAMS = 32;
+
+    @Param({"1", "64"})
+    public int receiveBatchSize;
+
+    private Path keyStorePath;
+    private Server server;
+    private HTTP3ServerConnector connector;
+    private HTTP3Client client;
+    private Session.Client session;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        // The QUIC connector needs the KeyStore as a file.
+        keyStorePath = Files.createTempFile("keystore", ".p12");
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream("keystore.p12"))
+        {
+            Files.copy(input, keyStorePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        SslContextFactory.Server sslContextFactory = new SslContextFactory.Server();
+        sslContextFactory.setKeyStorePath(keyStorePath.toString());
+        sslContextFactory.setKeyStorePassword("storepwd");
+
+        server = new Server();
+        RawHTTP3ServerConnectionFactory h3 = new RawHTTP3ServerConnectionFactory(new Session.Server.Listener()
+        {
+            @Override
+            public Stream.Server.Listener onRequest(Stream.Server stream, HeadersFrame frame)
+            {
+                MetaData.Response response = new MetaData.Response(HttpVersion.HTTP_3, HttpStatus.OK_200, HttpFields.EMPTY);
+                stream.respond(new HeadersFrame(response, true));
+                return null;
+            }
+        });
+        connector = new HTTP3ServerConnector(server, sslContextFactory, h3);
+        connector.setReceiveBatchSize(receiveBatchSize);
+        server.addConnector(connector);
+        server.start();
+
+        client = new HTTP3Client();
+        client.getQuicConfiguration().setVerifyPeerCertificates(false);
+        client.start();
+        InetSocketAddress address = new InetSocketAddress("localhost", connector.getLocalPort());
+        session = client.connect(address, new Session.Client.Listener() {}).get(5, TimeUnit.SECONDS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        client.stop();
+        server.stop();
+        Files.deleteIfExists(keyStorePath);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void testConcurrentRequests(CpuCounters counters) throws Exception
+    {
+        long begin = counters.cpuTime();
+        CountDownLatch latch = new CountDownLatch(STREAMS);
+        Stream.Client.Listener listener = new Stream.Client.Listener()
+        {
+            @Override
+            public void onResponse(Stream.Client stream, HeadersFrame frame)
+            {
+                latch.countDown();
+            }
+        };
+        for (int i = 0; i < STREAMS; ++i)
+        {
+            HttpURI uri = HttpURI.from("https://localhost:" + connector.getLocalPort() + "/" + i);
+            MetaData.Request request = new MetaData.Request("GET", uri, HttpVersion.HTTP_3, HttpFields.EMPTY);
+            session.newRequest(new HeadersFrame(request, true), listener);
+        }
+        if (!latch.await(5, TimeUnit.SECONDS))
+            throw new IllegalStateException();
+        counters.cpuNanos += counters.cpuTime() - begin;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class CpuCounters
+    {
+        private final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        public long cpuNanos;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            cpuNanos = 0;
+        }
+
+        private long cpuTime()
+        {
+            if (os instanceof com.sun.management.OperatingSystemMXBean)
+                return ((com.sun.management.OperatingSystemMXBean)os).getProcessCpuTime();
+            return 0;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+            .include(HTTP3Benchmark.class.getSimpleName())
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,130 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http3.qpack.jmh;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpURI;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http3.qpack.QpackDecoder;
+import org.eclipse.jetty.http3.qpack.QpackEncoder;
+import org.eclipse.jetty.util.BufferUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>Measures the decoding of typical HTTP/3 request and response headers.</p>
+ * <p>Run with {@code -prof gc} to compare the allocation rate per operation.</p>
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class QpackBenchmark
+{
+    @Param({"REQUEST", "RESPONSE"})
+    String headers;
+
+    private MetaData metaData;
+    private QpackDecoder decoder;
+    private ByteBuffer fieldSection;
+    private MetaData decoded;
+    private final QpackDecoder.Handler handler = (streamId, metaData) -> decoded = metaData;
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        if ("REQUEST".equals(headers))
+        {
+            HttpFields fields = HttpFields.build()
+                .put("sec-ch-ua", "\"Chromium\";v=\"106\", \"Google Chrome\";v=\"106\", \"Not;A=Brand\";v=\"99\"")
+                .put("sec-ch-ua-mobile", "?0")
+                .put("sec-ch-ua-platform", "\"Linux\"")
+                .put("upgrade-insecure-requests", "1")
+                .put(HttpHeader.USER_AGENT, "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/106.0.0.0 Safari/537.36")
+                .put(HttpHeader.ACCEPT, "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,image/apng,*/*;q=0.8")
+                .put("sec-fetch-site", "same-origin")
+                .put("sec-fetch-mode", "navigate")
+                .put("sec-fetch-user", "?1")
+                .put("sec-fetch-dest", "document")
+                .put(HttpHeader.REFERER, "https://www.example.com/catalog/products?category=books&page=2")
+                .put(HttpHeader.ACCEPT_ENCODING, "gzip, deflate, br")
+                .put(HttpHeader.ACCEPT_LANGUAGE, "en-US,en;q=0.9,it;q=0.8")
+                .put(HttpHeader.COOKIE, "JSESSIONID=node01x8mvnq2ocp4k1ab3zvk9h2ylq0.node0; _ga=GA1.2.1234567890.1665000000; " +
+                    "_gid=GA1.2.987654321.1665100000; theme=dark; consent=analytics%3Dtrue%26ads%3Dfalse; " +
+                    "recently_viewed=9781234567897%2C9789876543210%2C9781111111111");
+            metaData = new MetaData.Request("GET", HttpURI.from("https://www.example.com/catalog/products/9781234567897?ref=list"), HttpVersion.HTTP_3, fields);
+        }
+        else
+        {
+            HttpFields fields = HttpFields.build()
+                .put(HttpHeader.DATE, "Wed, 19 Oct 2022 10:15:30 GMT")
+                .put(HttpHeader.SERVER, "Jetty(10.0.x)")
+                .put(HttpHeader.CONTENT_TYPE, "text/html;charset=utf-8")
+                .put(HttpHeader.CACHE_CONTROL, "private, max-age=0, must-revalidate")
+                .put(HttpHeader.ETAG, "W/\"5f3a1c2b-4e21\"")
+                .put(HttpHeader.LAST_MODIFIED, "Tue, 18 Oct 2022 08:00:00 GMT")
+                .put(HttpHeader.VARY, "Accept-Encoding")
+                .put(HttpHeader.CONTENT_ENCODING, "br")
+                .put(HttpHeader.STRICT_TRANSPORT_SECURITY, "max-age=31536000; includeSubDomains")
+                .put("x-content-type-options", "nosniff")
+                .put("x-frame-options", "SAMEORIGIN")
+                .put(HttpHeader.SET_COOKIE, "recently_viewed=9781234567897%2C9789876543210; Path=/; Max-Age=2592000; Secure; SameSite=Lax");
+            metaData = new MetaData.Response(HttpVersion.HTTP_3, 200, fields, 20001);
+        }
+
+        // Without dynamic table the field section can be decoded repeatedly.
+        QpackEncoder encoder = new QpackEncoder(instructions -> {}, 0);
+        fieldSection = BufferUtil.allocate(16 * 1024);
+        BufferUtil.clearToFill(fieldSection);
+        encoder.encode(fieldSection, 0, metaData);
+        BufferUtil.flipToFlush(fieldSection, 0);
+        decoder = new QpackDecoder(instructions -> {}, 64 * 1024);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public MetaData testDecode() throws Exception
+    {
+        decoder.decode(0, fieldSection.slice(), handler);
+        return decoded;
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+            .include(QpackBenchmark.class.getSimpleName())
+            .addProfiler("gc")
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -17,13 +17,17 @@ import java.time.Instant;
 import java.util.Date;
 import java.util.concurrent.TimeUnit;
 
+import org.eclipse.jetty.http.DateFieldTicker;
+import org.eclipse.jetty.http.DateGenerator;
 import org.eclipse.jetty.util.DateCache;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.runner.Runner;
@@ -40,8 +44,21 @@ public class DateCacheBenchmark
 {
 
     DateCache dateCache = new DateCache();
+    DateFieldTicker dateFieldTicker = new DateFieldTicker();
     long timestamp = Instant.now().toEpochMilli();
 
+    @Setup
+    public void setUp() throws Exception
+    {
+        dateFieldTicker.start();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception
+    {
+        dateFieldTicker.stop();
+    }
+
     @Benchmark
     @BenchmarkMode(Mode.Throughput)
     public void testDateCacheTimestamp()
@@ -63,6 +80,20 @@ public class DateCacheBenchmark
         dateCache.formatNow(System.currentTimeMillis());
     }
 
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Object testDateGeneratorFormatNow()
+    {
+        return DateGenerator.formatDate(System.currentTimeMillis());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Object testDateFieldTicker()
+    {
+        return dateFieldTicker.getDateField();
+    }
+
     public static void main(String[] args) throws RunnerException
     {
         Options opt = new OptionsBuilder()
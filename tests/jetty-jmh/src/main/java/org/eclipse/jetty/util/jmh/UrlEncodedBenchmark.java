@@ -0,0 +1,107 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2022 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.jmh;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.util.MultiMap;
+import org.eclipse.jetty.util.UrlEncoded;
+import org.eclipse.jetty.util.UrlEncodedDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class UrlEncodedBenchmark
+{
+    @Param({"SMALL", "LARGE"})
+    String form;
+
+    @Param({"4096"})
+    int chunkSize;
+
+    byte[] content;
+
+    @Setup
+    public void setUp()
+    {
+        StringBuilder builder = new StringBuilder();
+        if ("SMALL".equals(form))
+        {
+            builder.append("username=jetty&password=s3cr%3Et&remember=on");
+        }
+        else
+        {
+            for (int i = 0; i < 1000; ++i)
+            {
+                if (i > 0)
+                    builder.append('&');
+                builder.append("field").append(i % 20).append('=').append("some+value+%C3%A9+").append(i);
+            }
+        }
+        content = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public MultiMap<String> testInputStream() throws IOException
+    {
+        MultiMap<String> params = new MultiMap<>();
+        UrlEncoded.decodeUtf8To(new ByteArrayInputStream(content), params, -1, -1);
+        return params;
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public MultiMap<String> testDecoder()
+    {
+        MultiMap<String> params = new MultiMap<>();
+        UrlEncodedDecoder decoder = new UrlEncodedDecoder(StandardCharsets.UTF_8, -1, -1, params::add);
+        for (int i = 0; i < content.length; i += chunkSize)
+        {
+            decoder.decode(ByteBuffer.wrap(content, i, Math.min(chunkSize, content.length - i)));
+        }
+        decoder.complete();
+        return params;
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+            .include(UrlEncodedBenchmark.class.getSimpleName())
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+}